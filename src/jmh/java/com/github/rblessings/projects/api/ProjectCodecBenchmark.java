@@ -0,0 +1,100 @@
+package com.github.rblessings.projects.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON and Smile for the payloads of the bulk project endpoints: encoding the
+ * {@code ApiResponse<List<ProjectDTO>>} returned by a bulk create, and decoding the
+ * {@link CreateProjectsRequest} batch it receives.
+ *
+ * <p>The encoded payload sizes are reported as the {@code responseBytes} and {@code requestBytes} secondary
+ * results of each benchmark. Run with the {@code gc} profiler (the default
+ * in {@code build.gradle}) to compare allocation per operation alongside CPU time.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectCodecBenchmark {
+    private static final TypeReference<List<CreateProjectsRequest>> REQUEST_LIST_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"100", "10000"})
+    private int projectCount;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private ApiResponse<List<ProjectDTO>> response;
+    private byte[] encodedRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> throw new IllegalArgumentException("Unknown format: %s".formatted(format));
+        };
+
+        var now = Instant.now();
+        List<ProjectDTO> projects = new ArrayList<>(projectCount);
+        List<CreateProjectsRequest> requests = new ArrayList<>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            var requiredCapital = BigDecimal.valueOf(1_000 + i * 37L, 2);
+            var profit = BigDecimal.valueOf(500 + i * 53L, 2);
+            projects.add(new ProjectDTO(Integer.toHexString(0x10000000 + i), "Project " + i, requiredCapital, profit,
+                    new AuditMetadata(now, now), 0L));
+            requests.add(new CreateProjectsRequest("Project " + i, requiredCapital, profit));
+        }
+
+        response = ApiResponse.success(201, projects);
+        encodedRequests = mapper.writeValueAsBytes(requests);
+    }
+
+    @Benchmark
+    public byte[] encodeBulkResponse(PayloadSize payloadSize) throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public List<CreateProjectsRequest> decodeBulkRequest(PayloadSize payloadSize) throws IOException {
+        return mapper.readValue(encodedRequests, REQUEST_LIST_TYPE);
+    }
+
+    /**
+     * Reports the encoded payload sizes, in bytes, alongside the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long responseBytes;
+        public long requestBytes;
+
+        @Setup(Level.Iteration)
+        public void setUp(ProjectCodecBenchmark benchmark) throws IOException {
+            responseBytes = benchmark.mapper.writeValueAsBytes(benchmark.response).length;
+            requestBytes = benchmark.encodedRequests.length;
+        }
+    }
+}
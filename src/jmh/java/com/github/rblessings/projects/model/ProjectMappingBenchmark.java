@@ -0,0 +1,60 @@
+package com.github.rblessings.projects.model;
+
+import com.github.rblessings.analytics.CapitalMaximizationQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of mapping validated entities to DTOs and of validating an optimizer query.
+ *
+ * <p>Run with the {@code gc} profiler (the default in {@code build.gradle}) and compare
+ * {@code gc.alloc.rate.norm}: per mapped project it should be the size of one {@link ProjectDTO},
+ * with no allocation attributable to validation.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectMappingBenchmark {
+    private static final int PROJECT_COUNT = 1_000;
+
+    private List<ProjectEntity> entities;
+    private List<ProjectDTO> projects;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var now = Instant.now();
+        entities = new ArrayList<>(PROJECT_COUNT);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            entities.add(new ProjectEntity(Integer.toHexString(0x10000000 + i), "Project " + i,
+                    BigDecimal.valueOf(i), BigDecimal.valueOf(i * 2L), new AuditMetadata(now, now), 0L));
+        }
+        projects = entities.stream().map(ProjectDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROJECT_COUNT)
+    public void mapEntityToDto(Blackhole blackhole) {
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            blackhole.consume(ProjectDTO.fromEntity(entities.get(i)));
+        }
+    }
+
+    @Benchmark
+    public CapitalMaximizationQuery validateQuery() {
+        return new CapitalMaximizationQuery(projects, 10, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.rblessings.analytics;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * Immutable result of the greedy selection over projects of any representation.
+ *
+ * @param selected     the selected projects, in selection order
+ * @param finalCapital the capital after completing the selected projects
+ * @param <P>          the project representation the selection ran on
+ */
+public record CapitalSelection<P>(
+        List<P> selected,
+        BigDecimal finalCapital) {
+
+    public CapitalSelection {
+        requireNonNull(selected, () -> "Selected projects list must not be null");
+        requireNonNullAndNonNegative(finalCapital, () -> "Final capital must not be null and must be non-negative");
+    }
+}
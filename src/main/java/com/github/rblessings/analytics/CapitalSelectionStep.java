@@ -0,0 +1,25 @@
+package com.github.rblessings.analytics;
+
+import java.math.BigDecimal;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * Immutable record of one project picked by the greedy selection.
+ *
+ * @param step    the 1-based position of the project in selection order
+ * @param project the selected project
+ * @param capital the capital after completing this and every earlier selected project
+ * @param <P>     the project representation the selection ran on
+ */
+public record CapitalSelectionStep<P>(
+        int step,
+        P project,
+        BigDecimal capital) {
+
+    public CapitalSelectionStep {
+        requireNonNull(project, () -> "Selected project must not be null");
+        requireNonNullAndNonNegative(capital, () -> "Capital must not be null and must be non-negative");
+    }
+}
@@ -0,0 +1,320 @@
+package com.github.rblessings.analytics;
+
+import com.github.rblessings.projects.model.ProjectFinancials;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Monte Carlo simulation of the greedy's final capital when project profits are uncertain.
+ *
+ * <p>Each trial draws a profit for every project from its {@link ProfitEstimate} and runs the greedy on those
+ * profits, as it would select if they were known. Profits are only drawn for the projects a trial can afford
+ * and could still select, when they are offered to it. Required capital is known and shared by every trial, so the projects are sorted
+ * once and trials only touch flat arrays of doubles; amounts are rounded to cents in the result.</p>
+ *
+ * <p>Trials are grouped in {@link Block blocks}, each with its own generator split from the seed in block order,
+ * so the outcome of a seed does not depend on how many workers run the blocks or in which order. Each worker
+ * runs blocks with its own {@link Worker scratch buffers}, sized for the pool and reused across trials, writes
+ * the final capital of each trial to its own slot, and counts selections on its own. Workers share nothing
+ * mutable, so throughput grows with the number of workers.</p>
+ *
+ * <p>Instances are immutable and thread-safe; workers are not.</p>
+ */
+final class CapitalSimulation {
+
+    /**
+     * Number of trials run from one split of the generator.
+     */
+    static final int TRIALS_PER_BLOCK = 256;
+
+    private static final int SCALE = 2;
+
+    private final String[] ids;
+    private final double[] requiredCapital;
+    private final double[] low;
+    private final double[] high;
+    private final double[] modeProbability;
+    private final double[] lowerArea;
+    private final double[] upperArea;
+    private final int maxProjects;
+    private final double initialCapital;
+
+    CapitalSimulation(CapitalSimulationQuery query) {
+        List<ProjectFinancials> sorted = new ArrayList<>(query.availableProjects());
+        sorted.sort(Comparator.comparing(ProjectFinancials::requiredCapital));
+
+        int size = sorted.size();
+        this.ids = new String[size];
+        this.requiredCapital = new double[size];
+        this.low = new double[size];
+        this.high = new double[size];
+        this.modeProbability = new double[size];
+        this.lowerArea = new double[size];
+        this.upperArea = new double[size];
+        Map<String, ProfitEstimate> estimates = query.profitEstimates();
+        for (int i = 0; i < size; i++) {
+            ProjectFinancials project = sorted.get(i);
+            ProfitEstimate estimate = estimates.get(project.id());
+            if (estimate == null) {
+                estimate = ProfitEstimate.around(project.profit(), query.defaultSpread());
+            }
+
+            ids[i] = project.id();
+            requiredCapital[i] = project.requiredCapital().doubleValue();
+            double a = estimate.low().doubleValue();
+            double c = estimate.mode().doubleValue();
+            double b = estimate.high().doubleValue();
+            low[i] = a;
+            high[i] = b;
+            // Terms of the inverse CDF of the triangular distribution.
+            modeProbability[i] = b > a ? (c - a) / (b - a) : 1;
+            lowerArea[i] = (b - a) * (c - a);
+            upperArea[i] = (b - a) * (b - c);
+        }
+        this.maxProjects = query.maxProjects();
+        this.initialCapital = query.initialCapital().doubleValue();
+    }
+
+    /**
+     * Splits {@code trials} into blocks, each with a generator split from {@code seed} in block order.
+     */
+    static List<Block> blocks(int trials, long seed) {
+        var random = new SplittableRandom(seed);
+        List<Block> blocks = new ArrayList<>(trials / TRIALS_PER_BLOCK + 1);
+        for (int first = 0; first < trials; first += TRIALS_PER_BLOCK) {
+            blocks.add(new Block(first, Math.min(TRIALS_PER_BLOCK, trials - first), random.split()));
+        }
+        return blocks;
+    }
+
+    Worker newWorker() {
+        return new Worker();
+    }
+
+    /**
+     * Summarizes the trials run by {@code workers}, sorting {@code finalCapital} in place.
+     */
+    CapitalSimulationResult summarize(List<Worker> workers, double[] finalCapital, long seed, List<Double> quantiles) {
+        int trials = finalCapital.length;
+        Arrays.sort(finalCapital);
+        double sum = 0;
+        for (double capital : finalCapital) {
+            sum += capital;
+        }
+
+        List<CapitalSimulationResult.Quantile> distribution = quantiles.stream()
+                .map(probability -> new CapitalSimulationResult.Quantile(probability,
+                        amount(quantile(finalCapital, probability))))
+                .toList();
+
+        long[] selections = new long[ids.length];
+        for (Worker worker : workers) {
+            for (int i = 0; i < selections.length; i++) {
+                selections[i] += worker.selections[i];
+            }
+        }
+        List<CapitalSimulationResult.SelectionFrequency> frequencies = new ArrayList<>();
+        for (int i = 0; i < selections.length; i++) {
+            if (selections[i] > 0) {
+                frequencies.add(new CapitalSimulationResult.SelectionFrequency(ids[i], (double) selections[i] / trials));
+            }
+        }
+        frequencies.sort(Comparator.comparingDouble(CapitalSimulationResult.SelectionFrequency::frequency).reversed()
+                .thenComparing(CapitalSimulationResult.SelectionFrequency::projectId));
+
+        return new CapitalSimulationResult(trials, seed, amount(sum / trials), distribution, frequencies);
+    }
+
+    /**
+     * Returns the quantile of sorted values, interpolating linearly between the two closest ranks.
+     */
+    private static double quantile(double[] sorted, double probability) {
+        double rank = probability * (sorted.length - 1);
+        int below = (int) Math.floor(rank);
+        int above = Math.min(below + 1, sorted.length - 1);
+        return sorted[below] + (rank - below) * (sorted[above] - sorted[below]);
+    }
+
+    private static BigDecimal amount(double value) {
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Consecutive trials drawing from one generator.
+     */
+    record Block(int firstTrial, int trials, SplittableRandom random) {
+    }
+
+    /**
+     * Scratch buffers and selection counts of one worker. Not thread-safe: each worker runs one block at a time.
+     *
+     * <p>With {@code r} selections left, only the {@code r} most profitable affordable projects can still be
+     * selected: every later selection takes one of them or a better one. A trial therefore keeps at most
+     * {@code r} candidates, in a max-heap to select from and a min-heap to evict from, and skips an affordable
+     * project without drawing its profit when even its highest profit cannot beat the weakest candidate. In a
+     * large pool, most projects are skipped this way. Entries leaving one heap are left stale in the other, and
+     * discarded when they surface.</p>
+     */
+    final class Worker {
+        private final double[] profit = new double[ids.length];
+        private final int[] maxHeap = new int[ids.length];
+        private final int[] minHeap = new int[ids.length];
+        // A project is a candidate of the current trial while its entry equals the trial's stamp.
+        private final int[] candidateStamp = new int[ids.length];
+        private final long[] selections = new long[ids.length];
+        private int maxHeapSize;
+        private int minHeapSize;
+        private int candidates;
+        private int stamp;
+
+        /**
+         * Runs the trials of {@code block}, writing the final capital of trial {@code t} to {@code finalCapital[t]}.
+         */
+        Worker run(Block block, double[] finalCapital) {
+            int end = block.firstTrial() + block.trials();
+            for (int trial = block.firstTrial(); trial < end; trial++) {
+                finalCapital[trial] = runTrial(block.random());
+            }
+            return this;
+        }
+
+        private double runTrial(SplittableRandom random) {
+            stamp++;
+            maxHeapSize = 0;
+            minHeapSize = 0;
+            candidates = 0;
+
+            double capital = initialCapital;
+            int next = 0;
+            for (int step = 0; step < maxProjects; step++) {
+                int remaining = maxProjects - step;
+                while (next < ids.length && requiredCapital[next] <= capital) {
+                    offer(next++, remaining, random);
+                }
+                if (candidates == 0) {
+                    break;
+                }
+                int project = pollMostProfitable();
+                selections[project]++;
+                capital += profit[project];
+            }
+            return capital;
+        }
+
+        private void offer(int project, int remaining, SplittableRandom random) {
+            if (candidates < remaining) {
+                profit[project] = sampleProfit(project, random);
+                add(project);
+                return;
+            }
+            int weakest = peekLeastProfitable();
+            if (high[project] <= profit[weakest]) {
+                return;
+            }
+            double sampled = sampleProfit(project, random);
+            if (sampled <= profit[weakest]) {
+                return;
+            }
+            removeLeastProfitable();
+            profit[project] = sampled;
+            add(project);
+        }
+
+        private double sampleProfit(int project, SplittableRandom random) {
+            if (high[project] == low[project]) {
+                return low[project];
+            }
+            double u = random.nextDouble();
+            return u < modeProbability[project]
+                    ? low[project] + Math.sqrt(u * lowerArea[project])
+                    : high[project] - Math.sqrt((1 - u) * upperArea[project]);
+        }
+
+        private void add(int project) {
+            candidateStamp[project] = stamp;
+            candidates++;
+            maxHeapSize = siftUp(maxHeap, maxHeapSize, project, 1);
+            minHeapSize = siftUp(minHeap, minHeapSize, project, -1);
+        }
+
+        private int pollMostProfitable() {
+            maxHeapSize = discardStale(maxHeap, maxHeapSize, 1);
+            int project = maxHeap[0];
+            maxHeapSize = removeTop(maxHeap, maxHeapSize, 1);
+            candidateStamp[project] = 0;
+            candidates--;
+            return project;
+        }
+
+        private int peekLeastProfitable() {
+            minHeapSize = discardStale(minHeap, minHeapSize, -1);
+            return minHeap[0];
+        }
+
+        private void removeLeastProfitable() {
+            candidateStamp[minHeap[0]] = 0;
+            minHeapSize = removeTop(minHeap, minHeapSize, -1);
+            candidates--;
+        }
+
+        /**
+         * Removes entries left by candidates that are gone from the top of a heap, and returns its new size.
+         */
+        private int discardStale(int[] heap, int size, int order) {
+            while (candidateStamp[heap[0]] != stamp) {
+                size = removeTop(heap, size, order);
+            }
+            return size;
+        }
+
+        /**
+         * Adds {@code project} to a heap of {@code size} elements ordered by {@code order} times the profit, and
+         * returns the new size.
+         */
+        private int siftUp(int[] heap, int size, int project, int order) {
+            int index = size;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (order * profit[heap[parent]] >= order * profit[project]) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = project;
+            return size + 1;
+        }
+
+        /**
+         * Removes the top of a heap of {@code size} elements ordered by {@code order} times the profit, and returns
+         * the new size.
+         */
+        private int removeTop(int[] heap, int size, int order) {
+            int last = heap[--size];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && order * profit[heap[child + 1]] > order * profit[heap[child]]) {
+                    child++;
+                }
+                if (order * profit[heap[child]] <= order * profit[last]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = last;
+            return size;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.rblessings.analytics;
+
+import com.github.rblessings.projects.model.ProjectFinancials;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNegative;
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNoNullElements;
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * Immutable record representing a query to simulate the final capital under uncertain profits.
+ *
+ * <p>Projects with an entry in {@code profitEstimates} draw their profit from it; the others draw it from
+ * {@link ProfitEstimate#around} their stored profit with {@code defaultSpread}. Estimates for IDs outside the
+ * pool are ignored. Trials with the same {@code seed} are reproducible.</p>
+ */
+public record CapitalSimulationQuery(
+        List<ProjectFinancials> availableProjects,
+        Map<String, ProfitEstimate> profitEstimates,
+        double defaultSpread,
+        int maxProjects,
+        BigDecimal initialCapital,
+        int trials,
+        long seed,
+        List<Double> quantiles) {
+
+    public CapitalSimulationQuery {
+        requireNonNull(availableProjects, () -> "Available projects list must not be null");
+        requireNonNull(profitEstimates, () -> "Profit estimates must not be null");
+        if (!(defaultSpread >= 0 && defaultSpread <= 1)) {
+            throw new IllegalArgumentException("Default spread must be between 0 and 1");
+        }
+        requireNonNegative(maxProjects, () -> "Max projects must be non-negative");
+        requireNonNullAndNonNegative(initialCapital, () -> "Initial capital must not be null and must be non-negative");
+        if (trials < 1) {
+            throw new IllegalArgumentException("Trials must be positive");
+        }
+        requireNonNullAndNoNullElements(quantiles, () -> "Quantiles must not be null nor empty");
+        if (quantiles.stream().anyMatch(quantile -> !(quantile >= 0 && quantile <= 1))) {
+            throw new IllegalArgumentException("Quantiles must be between 0 and 1");
+        }
+
+        profitEstimates = Map.copyOf(profitEstimates);
+        quantiles = List.copyOf(quantiles);
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.rblessings.analytics;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * Immutable distribution of the final capital over the trials of a simulation, and how often each project was
+ * selected.
+ *
+ * @param trials               the number of trials run
+ * @param seed                 the seed that reproduces the trials
+ * @param meanFinalCapital     the mean final capital
+ * @param quantiles            the requested quantiles of the final capital, in request order
+ * @param selectionFrequencies the projects selected in at least one trial, most frequently selected first
+ */
+public record CapitalSimulationResult(
+        int trials,
+        long seed,
+        BigDecimal meanFinalCapital,
+        List<Quantile> quantiles,
+        List<SelectionFrequency> selectionFrequencies) {
+
+    public CapitalSimulationResult {
+        requireNonNullAndNonNegative(meanFinalCapital, () -> "Mean final capital must not be null and must be non-negative");
+        requireNonNull(quantiles, () -> "Quantiles must not be null");
+        requireNonNull(selectionFrequencies, () -> "Selection frequencies must not be null");
+    }
+
+    /**
+     * @param probability  the fraction of trials ending with at most {@code finalCapital}
+     * @param finalCapital the final capital at that quantile, interpolated between the closest trials
+     */
+    public record Quantile(double probability, BigDecimal finalCapital) {
+    }
+
+    /**
+     * @param projectId the ID of the project
+     * @param frequency the fraction of trials selecting the project
+     */
+    public record SelectionFrequency(String projectId, double frequency) {
+    }
+}
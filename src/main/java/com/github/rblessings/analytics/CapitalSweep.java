@@ -0,0 +1,276 @@
+package com.github.rblessings.analytics;
+
+import com.github.rblessings.projects.model.ProjectFinancials;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Computes the greedy's final capital as a function of initial capital over a range, segment by segment.
+ *
+ * <p>For a fixed initial capital {@code c}, step {@code i} of the greedy sees capital {@code c + prefix(i)},
+ * where {@code prefix(i)} is the profit of the projects selected before it. Its affordable set only grows
+ * once {@code c + prefix(i)} reaches the required capital {@code R(i)} of the first project it could not yet
+ * afford. The run for {@code c} therefore stays unchanged up to the next breakpoint
+ * {@code min over i of R(i) - prefix(i)}, and at that breakpoint every step before the minimizing one stays
+ * unchanged too.</p>
+ *
+ * <p>The sweep sorts the projects once and then moves from breakpoint to breakpoint. At each breakpoint it
+ * keeps the unchanged prefix of the previous run and resumes the greedy from the first step that changes,
+ * rebuilding only that step's heap in linear time. Breakpoints that leave the selected set unchanged are
+ * merged into the current segment. Segments are produced on demand, so a consumer can stop early.</p>
+ *
+ * <p>Instances are stateful and not thread-safe.</p>
+ */
+final class CapitalSweep {
+    private final List<ProjectFinancials> projects;
+    private final BigDecimal[] requiredCapital;
+    private final BigDecimal[] profit;
+    private final int maxProjects;
+    private final BigDecimal upperBound;
+
+    // State of the greedy run for the current initial capital.
+    private final int[] chosen;
+    private final BigDecimal[] prefixProfit;
+    private final int[] affordableEnd;
+    private final BitSet selected;
+    private final ProfitMaxHeap heap;
+    private int steps;
+    private BigDecimal capital;
+    private boolean exhausted;
+
+    /**
+     * @param sortedProjects the projects, sorted by required capital in ascending order.
+     * @param maxProjects    the maximum number of projects to select.
+     * @param from           the lowest initial capital of the sweep.
+     * @param to             the highest initial capital of the sweep, not lower than {@code from}.
+     */
+    CapitalSweep(List<ProjectFinancials> sortedProjects, int maxProjects, BigDecimal from, BigDecimal to) {
+        int size = sortedProjects.size();
+        this.projects = sortedProjects;
+        this.requiredCapital = new BigDecimal[size];
+        this.profit = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            requiredCapital[i] = sortedProjects.get(i).requiredCapital();
+            profit[i] = sortedProjects.get(i).profit();
+        }
+
+        this.maxProjects = maxProjects;
+        this.upperBound = to;
+        this.chosen = new int[maxProjects];
+        this.prefixProfit = new BigDecimal[maxProjects + 1];
+        this.affordableEnd = new int[maxProjects + 1];
+        this.selected = new BitSet(size);
+        this.heap = new ProfitMaxHeap(profit);
+
+        prefixProfit[0] = BigDecimal.ZERO;
+        capital = from;
+        resume(0);
+    }
+
+    boolean hasNext() {
+        return !exhausted;
+    }
+
+    /**
+     * Returns the next segment, advancing through breakpoints until the selected set changes or the
+     * upper bound is reached.
+     */
+    CapitalSweepSegment next() {
+        if (exhausted) {
+            throw new IllegalStateException("Capital sweep is exhausted");
+        }
+
+        BigDecimal segmentStart = capital;
+        BigDecimal totalProfit = prefixProfit[steps];
+        List<String> selectedIds = selectedIds();
+        var segmentSelection = (BitSet) selected.clone();
+
+        while (true) {
+            int breakpointStep = nextBreakpointStep();
+            BigDecimal breakpoint = breakpointStep < 0 ? null : breakpointOf(breakpointStep);
+
+            if (breakpoint == null || breakpoint.compareTo(upperBound) > 0) {
+                exhausted = true;
+                return segment(segmentStart, upperBound, totalProfit, selectedIds);
+            }
+
+            capital = breakpoint;
+            resume(breakpointStep);
+
+            if (!selected.equals(segmentSelection)) {
+                return segment(segmentStart, breakpoint, totalProfit, selectedIds);
+            }
+        }
+    }
+
+    /**
+     * Returns the first step whose affordable set grows at the lowest initial capital, or -1 if no step can
+     * ever afford another project.
+     */
+    private int nextBreakpointStep() {
+        // A run that stopped early can still grow at the step where it found nothing affordable.
+        int lastStep = steps < maxProjects ? steps : steps - 1;
+        int bestStep = -1;
+        BigDecimal best = null;
+        for (int i = 0; i <= lastStep; i++) {
+            if (affordableEnd[i] == projects.size()) {
+                continue;
+            }
+            BigDecimal breakpoint = breakpointOf(i);
+            if (best == null || breakpoint.compareTo(best) < 0) {
+                best = breakpoint;
+                bestStep = i;
+            }
+        }
+        return bestStep;
+    }
+
+    private BigDecimal breakpointOf(int step) {
+        return requiredCapital[affordableEnd[step]].subtract(prefixProfit[step]);
+    }
+
+    /**
+     * Re-runs the greedy for the current initial capital from {@code step}, keeping the earlier selections.
+     */
+    private void resume(int step) {
+        for (int i = step; i < steps; i++) {
+            selected.clear(chosen[i]);
+        }
+
+        BigDecimal currentCapital = capital.add(prefixProfit[step]);
+        int end = firstUnaffordable(currentCapital);
+        heap.rebuild(end, selected);
+
+        for (int i = step; i < maxProjects; i++) {
+            while (end < projects.size() && requiredCapital[end].compareTo(currentCapital) <= 0) {
+                heap.add(end++);
+            }
+            affordableEnd[i] = end;
+
+            if (heap.isEmpty()) {
+                steps = i;
+                return;
+            }
+
+            int project = heap.poll();
+            chosen[i] = project;
+            selected.set(project);
+            prefixProfit[i + 1] = prefixProfit[i].add(profit[project]);
+            currentCapital = currentCapital.add(profit[project]);
+        }
+        steps = maxProjects;
+    }
+
+    private int firstUnaffordable(BigDecimal availableCapital) {
+        int low = 0;
+        int high = projects.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (requiredCapital[mid].compareTo(availableCapital) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<String> selectedIds() {
+        List<String> ids = new ArrayList<>(steps);
+        for (int i = 0; i < steps; i++) {
+            ids.add(projects.get(chosen[i]).id());
+        }
+        return ids;
+    }
+
+    private static CapitalSweepSegment segment(BigDecimal from, BigDecimal to, BigDecimal totalProfit,
+                                               List<String> selectedIds) {
+        return new CapitalSweepSegment(from, to, from.add(totalProfit), to.add(totalProfit), totalProfit,
+                List.copyOf(selectedIds));
+    }
+
+    /**
+     * Binary max-heap of project indices ordered by profit, with linear-time bulk construction.
+     */
+    private static final class ProfitMaxHeap {
+        private final BigDecimal[] profit;
+        private final int[] elements;
+        private int size;
+
+        private ProfitMaxHeap(BigDecimal[] profit) {
+            this.profit = profit;
+            this.elements = new int[profit.length];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Replaces the contents with the projects {@code [0, end)} that are not excluded.
+         */
+        void rebuild(int end, BitSet excluded) {
+            size = 0;
+            for (int i = 0; i < end; i++) {
+                if (!excluded.get(i)) {
+                    elements[size++] = i;
+                }
+            }
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        void add(int project) {
+            int index = size++;
+            elements[index] = project;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!higher(elements[index], elements[parent])) {
+                    break;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        int poll() {
+            int top = elements[0];
+            elements[0] = elements[--size];
+            siftDown(0);
+            return top;
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int largest = left;
+                int right = left + 1;
+                if (right < size && higher(elements[right], elements[left])) {
+                    largest = right;
+                }
+                if (!higher(elements[largest], elements[index])) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private boolean higher(int a, int b) {
+            return profit[a].compareTo(profit[b]) > 0;
+        }
+
+        private void swap(int i, int j) {
+            int tmp = elements[i];
+            elements[i] = elements[j];
+            elements[j] = tmp;
+        }
+    }
+}
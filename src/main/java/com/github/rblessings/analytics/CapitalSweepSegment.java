@@ -0,0 +1,33 @@
+package com.github.rblessings.analytics;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * Immutable segment of the final-capital curve, over which the greedy selects the same projects.
+ *
+ * <p>For every initial capital {@code c} in {@code [fromInitialCapital, toInitialCapital)} (the last segment of
+ * a sweep also includes {@code toInitialCapital}), the final capital is {@code c + totalProfit}, rising linearly
+ * from {@code fromFinalCapital} towards {@code toFinalCapital}. The curve jumps at segment boundaries, where the
+ * selected set changes.</p>
+ */
+public record CapitalSweepSegment(
+        BigDecimal fromInitialCapital,
+        BigDecimal toInitialCapital,
+        BigDecimal fromFinalCapital,
+        BigDecimal toFinalCapital,
+        BigDecimal totalProfit,
+        List<String> selectedProjectIds) {
+
+    public CapitalSweepSegment {
+        requireNonNullAndNonNegative(fromInitialCapital, () -> "Segment start must not be null and must be non-negative");
+        requireNonNullAndNonNegative(toInitialCapital, () -> "Segment end must not be null and must be non-negative");
+        requireNonNullAndNonNegative(fromFinalCapital, () -> "Final capital must not be null and must be non-negative");
+        requireNonNullAndNonNegative(toFinalCapital, () -> "Final capital must not be null and must be non-negative");
+        requireNonNullAndNonNegative(totalProfit, () -> "Total profit must not be null and must be non-negative");
+        requireNonNull(selectedProjectIds, () -> "Selected project IDs must not be null");
+    }
+}
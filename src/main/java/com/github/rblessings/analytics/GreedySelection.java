@@ -0,0 +1,115 @@
+package com.github.rblessings.analytics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * State of the greedy capital selection over projects offered one at a time in ascending order of required
+ * capital.
+ *
+ * <p>Offered projects are added to the profit max-heap while they are affordable. When an offered project is
+ * not affordable, the most profitable affordable projects are selected until it becomes affordable, so the
+ * heap always holds exactly the projects the batch algorithm would hold at the same step. The selection is
+ * done once {@code maxProjects} projects are selected, or when nothing affordable is left and the offered
+ * project cannot be afforded; since the input is sorted, later projects cannot change the result.</p>
+ *
+ * <p>Instances are stateful and not thread-safe.</p>
+ *
+ * @param <P> the project representation
+ */
+final class GreedySelection<P> {
+    private final int maxProjects;
+    private final Function<P, BigDecimal> requiredCapital;
+    private final Function<P, BigDecimal> profit;
+    private final PriorityQueue<P> profitMaxHeap;
+
+    private BigDecimal currentCapital;
+    private int selected;
+    private int offered;
+    private int heapPeak;
+    private boolean done;
+
+    GreedySelection(int maxProjects, BigDecimal initialCapital, Function<P, BigDecimal> requiredCapital,
+                    Function<P, BigDecimal> profit) {
+        this.maxProjects = maxProjects;
+        this.currentCapital = initialCapital;
+        this.requiredCapital = requiredCapital;
+        this.profit = profit;
+        this.profitMaxHeap = new PriorityQueue<>(Comparator.comparing(profit).reversed());
+        this.done = maxProjects == 0;
+    }
+
+    /**
+     * Offers the next project.
+     *
+     * @param project a project requiring at least as much capital as every project offered before it
+     * @return the projects selected before the offered one became affordable, in selection order
+     */
+    List<CapitalSelectionStep<P>> offer(P project) {
+        if (done) {
+            return List.of();
+        }
+        offered++;
+
+        List<CapitalSelectionStep<P>> steps = List.of();
+        while (requiredCapital.apply(project).compareTo(currentCapital) > 0) {
+            // Input is sorted, so if nothing is affordable now, nothing later will be either.
+            if (profitMaxHeap.isEmpty()) {
+                done = true;
+                return steps;
+            }
+            if (steps.isEmpty()) {
+                steps = new ArrayList<>();
+            }
+            steps.add(selectMostProfitable());
+            if (selected == maxProjects) {
+                done = true;
+                return steps;
+            }
+        }
+
+        profitMaxHeap.offer(project);
+        heapPeak = Math.max(heapPeak, profitMaxHeap.size());
+        return steps;
+    }
+
+    /**
+     * Completes the selection once every project has been offered.
+     *
+     * @return the remaining selections, in selection order
+     */
+    List<CapitalSelectionStep<P>> finish() {
+        List<CapitalSelectionStep<P>> steps = new ArrayList<>();
+        while (!done && selected < maxProjects && !profitMaxHeap.isEmpty()) {
+            steps.add(selectMostProfitable());
+        }
+        done = true;
+        return steps;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    BigDecimal currentCapital() {
+        return currentCapital;
+    }
+
+    int offered() {
+        return offered;
+    }
+
+    int heapPeak() {
+        return heapPeak;
+    }
+
+    private CapitalSelectionStep<P> selectMostProfitable() {
+        P chosenProject = profitMaxHeap.poll();
+        currentCapital = currentCapital.add(profit.apply(chosenProject));
+        return new CapitalSelectionStep<>(++selected, chosenProject, currentCapital);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.rblessings.analytics;
+
+import com.github.rblessings.profiling.CapitalOptimizationEvent;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.MonoSink;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs the greedy capital selection over a stream of projects sorted by required capital, pulling one
+ * project at a time.
+ *
+ * <p>Each project is offered to a {@link GreedySelection}. The subscription is cancelled as soon as the
+ * selection is done, when {@code maxProjects} projects are selected or when nothing affordable is left and
+ * the next project cannot be afforded, so the rest of the stream is never read.</p>
+ *
+ * <p>Each run is recorded as a {@link CapitalOptimizationEvent} while a JFR recording is active.</p>
+ *
+ * @param <P> the project representation
+ */
+final class GreedySelectionSubscriber<P> extends BaseSubscriber<P> {
+    private final int maxProjects;
+    private final MonoSink<CapitalSelection<P>> sink;
+    private final int shards;
+    private final CapitalOptimizationEvent event = new CapitalOptimizationEvent();
+
+    private final GreedySelection<P> selection;
+    private final List<P> selectedProjects = new ArrayList<>();
+    private boolean done;
+    private long startNanos;
+
+    GreedySelectionSubscriber(int maxProjects, BigDecimal initialCapital, Function<P, BigDecimal> requiredCapital,
+                              Function<P, BigDecimal> profit, MonoSink<CapitalSelection<P>> sink, int shards) {
+        this.maxProjects = maxProjects;
+        this.sink = sink;
+        this.shards = shards;
+        this.selection = new GreedySelection<>(maxProjects, initialCapital, requiredCapital, profit);
+    }
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+        event.begin();
+        startNanos = System.nanoTime();
+        if (selection.isDone()) {
+            finish();
+            return;
+        }
+        request(1);
+    }
+
+    @Override
+    protected void hookOnNext(P project) {
+        if (done) {
+            return;
+        }
+
+        addAll(selection.offer(project));
+        if (selection.isDone()) {
+            finish();
+            return;
+        }
+        request(1);
+    }
+
+    @Override
+    protected void hookOnComplete() {
+        addAll(selection.finish());
+        finish();
+    }
+
+    @Override
+    protected void hookOnError(Throwable throwable) {
+        if (!done) {
+            done = true;
+            commitEvent();
+            sink.error(throwable);
+        }
+    }
+
+    private void addAll(List<CapitalSelectionStep<P>> steps) {
+        for (CapitalSelectionStep<P> step : steps) {
+            selectedProjects.add(step.project());
+        }
+    }
+
+    private void finish() {
+        if (done) {
+            return;
+        }
+        done = true;
+        // Stop pulling from the remaining shards.
+        cancel();
+        commitEvent();
+        sink.success(new CapitalSelection<>(selectedProjects, selection.currentCapital()));
+    }
+
+    private void commitEvent() {
+        event.end();
+        if (event.shouldCommit()) {
+            event.mode = CapitalOptimizationEvent.SHARDED;
+            event.poolSize = selection.offered();
+            event.shards = shards;
+            event.maxProjects = maxProjects;
+            event.selectedProjects = selectedProjects.size();
+            // Projects are merged and selected as they arrive, so the whole run is selection.
+            event.selectDuration = System.nanoTime() - startNanos;
+            event.heapPeak = selection.heapPeak();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.rblessings.analytics;
+
+import java.math.BigDecimal;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * Immutable three-point estimate of a project's profit: the lowest, most likely and highest outcomes.
+ *
+ * <p>Simulations sample the profit from the triangular distribution over {@code [low, high]} peaking at
+ * {@code mode}. An estimate whose three points are equal is a known profit.</p>
+ */
+public record ProfitEstimate(
+        BigDecimal low,
+        BigDecimal mode,
+        BigDecimal high) {
+
+    public ProfitEstimate {
+        requireNonNullAndNonNegative(low, () -> "Lowest profit must not be null and must be non-negative");
+        requireNonNullAndNonNegative(mode, () -> "Most likely profit must not be null and must be non-negative");
+        requireNonNullAndNonNegative(high, () -> "Highest profit must not be null and must be non-negative");
+        if (low.compareTo(mode) > 0 || mode.compareTo(high) > 0) {
+            throw new IllegalArgumentException("Profit estimate must satisfy low <= mode <= high");
+        }
+    }
+
+    /**
+     * Returns the estimate spreading {@code profit} by {@code spread} of its value on either side, and not below zero.
+     */
+    public static ProfitEstimate around(BigDecimal profit, double spread) {
+        BigDecimal margin = profit.multiply(BigDecimal.valueOf(spread));
+        return new ProfitEstimate(profit.subtract(margin).max(BigDecimal.ZERO), profit, profit.add(margin));
+    }
+}
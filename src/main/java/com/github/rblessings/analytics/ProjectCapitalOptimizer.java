@@ -1,8 +1,13 @@
 package com.github.rblessings.analytics;
 
 import com.github.rblessings.projects.model.ProjectDTO;
+import com.github.rblessings.profiling.CapitalOptimizationEvent;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
@@ -11,6 +16,13 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNegative;
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
 
 /**
  * The ProjectCapitalOptimizer class selects up to k projects to maximize final capital.
@@ -18,9 +30,20 @@ import java.util.PriorityQueue;
  *
  * <p>The computation is wrapped in a Reactor {@code Mono} and offloaded to a parallel scheduler.</p>
  */
+@Component
 public final class ProjectCapitalOptimizer {
     private static final Logger logger = LoggerFactory.getLogger(ProjectCapitalOptimizer.class);
 
+    /**
+     * Number of projects buffered per shard by the k-way merge.
+     */
+    private static final int SHARD_PREFETCH = 256;
+
+    /**
+     * Number of projects added to the heap between two cancellation checks.
+     */
+    private static final int CANCELLATION_CHECK_INTERVAL = 1024;
+
     /**
      * Maximizes the final capital based on the provided query.
      *
@@ -36,47 +59,323 @@ public final class ProjectCapitalOptimizer {
 
         logger.info("Starting capital maximization with initial capital: {}", query.initialCapital());
 
-        // Offload the CPU-bound computation to a parallel scheduler.
-        return Mono.fromCallable(() -> computeMaximizedCapital(query))
+        // Offload the CPU-bound computation to a parallel scheduler, and stop it if the subscriber cancels.
+        return Mono.defer(() -> {
+                    var cancelled = new AtomicBoolean();
+                    return Mono.fromCallable(() -> computeMaximizedCapital(query, cancelled::get))
+                            .subscribeOn(Schedulers.parallel())
+                            .doOnCancel(() -> cancelled.set(true));
+                })
+                .doOnSuccess(result -> logger.info("Capital maximization complete. Final capital: {}", result.finalCapital()))
+                .doOnError(error -> logger.error("Error during capital maximization", error));
+    }
+
+    /**
+     * Maximizes the final capital over projections of projects, as read from the covering index.
+     *
+     * @param projects       the available projects; may be empty.
+     * @param maxProjects    the maximum number of projects to select.
+     * @param initialCapital the capital available before any project is started.
+     * @return a {@code Mono} emitting the selected projections and the final capital.
+     * @throws IllegalArgumentException if the projects list is null, or the limits are invalid.
+     */
+    public Mono<CapitalSelection<ProjectFinancials>> maximizeCapital(
+            List<ProjectFinancials> projects, int maxProjects, BigDecimal initialCapital) {
+        if (projects == null) {
+            return Mono.error(new IllegalArgumentException("Available projects list must not be null"));
+        }
+
+        logger.info("Starting capital maximization over {} projections with initial capital: {}",
+                projects.size(), initialCapital);
+
+        return Mono.fromCallable(() -> {
+                    requireNonNegative(maxProjects, () -> "Max projects must be non-negative");
+                    requireNonNullAndNonNegative(initialCapital, () -> "Initial capital must not be null and must be non-negative");
+                    return select(projects, maxProjects, initialCapital,
+                            ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+                })
                 .subscribeOn(Schedulers.parallel())
                 .doOnSuccess(result -> logger.info("Capital maximization complete. Final capital: {}", result.finalCapital()))
                 .doOnError(error -> logger.error("Error during capital maximization", error));
     }
 
     /**
-     * Performs the greedy algorithm to select projects and maximize capital.
+     * Maximizes the final capital over a project pool split across shards, without collecting the pool.
+     *
+     * <p>Each shard must emit its projects in ascending order of required capital. The shards are combined
+     * with a k-way merge that keeps at most {@value #SHARD_PREFETCH} projects buffered per shard, and the
+     * greedy selection pulls from the merged stream only while projects are affordable. Once the selection
+     * is complete, the remaining shard streams are cancelled.</p>
+     *
+     * @param shards          the shard streams, each sorted by required capital.
+     * @param maxProjects     the maximum number of projects to select.
+     * @param initialCapital  the capital available before any project is started.
+     * @param requiredCapital extracts the capital required to start a project.
+     * @param profit          extracts the profit of a project.
+     * @return a {@code Mono} emitting the selected projects, in selection order, and the final capital.
+     * @throws IllegalArgumentException if the shards list is null or empty, or the limits are invalid.
+     */
+    public <P> Mono<CapitalSelection<P>> maximizeCapital(
+            List<? extends Publisher<P>> shards, int maxProjects, BigDecimal initialCapital,
+            Function<P, BigDecimal> requiredCapital, Function<P, BigDecimal> profit) {
+        if (shards == null || shards.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Project shards must not be null or empty"));
+        }
+
+        logger.info("Starting capital maximization over {} shards with initial capital: {}",
+                shards.size(), initialCapital);
+
+        return Mono.<CapitalSelection<P>>create(sink -> {
+                    requireNonNegative(maxProjects, () -> "Max projects must be non-negative");
+                    requireNonNullAndNonNegative(initialCapital, () -> "Initial capital must not be null and must be non-negative");
+
+                    var subscriber = new GreedySelectionSubscriber<>(maxProjects, initialCapital, requiredCapital, profit, sink,
+                            shards.size());
+                    sink.onCancel(subscriber);
+                    mergeByRequiredCapital(shards, requiredCapital)
+                            // Keep the heap work off the database driver threads.
+                            .publishOn(Schedulers.parallel())
+                            .subscribe(subscriber);
+                })
+                .doOnSuccess(result -> logger.info("Capital maximization complete. Final capital: {}", result.finalCapital()))
+                .doOnError(error -> logger.error("Error during capital maximization", error));
+    }
+
+    /**
+     * Streams the greedy selection over a project pool split across shards, emitting each selected project as
+     * soon as it is picked.
+     *
+     * <p>The shards are merged as in {@link #maximizeCapital(List, int, BigDecimal, Function, Function)}, but no
+     * selection is collected: each one is emitted with the running capital, in selection order. The selection
+     * only advances as far as the subscriber has requested, and the shard streams are read only as far as the
+     * selection needs, so a slow subscriber pauses the computation and the database reads. Cancelling the
+     * subscription stops both.</p>
+     *
+     * @param shards          the shard streams, each sorted by required capital.
+     * @param maxProjects     the maximum number of projects to select.
+     * @param initialCapital  the capital available before any project is started.
+     * @param requiredCapital extracts the capital required to start a project.
+     * @param profit          extracts the profit of a project.
+     * @return a {@code Flux} emitting each selection in order; empty if no project can be selected.
+     * @throws IllegalArgumentException if the shards list is null or empty, or the limits are invalid.
+     */
+    public <P> Flux<CapitalSelectionStep<P>> streamSelections(
+            List<? extends Publisher<P>> shards, int maxProjects, BigDecimal initialCapital,
+            Function<P, BigDecimal> requiredCapital, Function<P, BigDecimal> profit) {
+        if (shards == null || shards.isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Project shards must not be null or empty"));
+        }
+
+        logger.info("Starting streamed capital maximization over {} shards with initial capital: {}",
+                shards.size(), initialCapital);
+
+        return Flux.defer(() -> {
+                    requireNonNegative(maxProjects, () -> "Max projects must be non-negative");
+                    requireNonNullAndNonNegative(initialCapital, () -> "Initial capital must not be null and must be non-negative");
+
+                    var selection = new GreedySelection<>(maxProjects, initialCapital, requiredCapital, profit);
+                    if (selection.isDone()) {
+                        return Flux.<CapitalSelectionStep<P>>empty();
+                    }
+                    return mergeByRequiredCapital(shards, requiredCapital)
+                            // Keep the heap work off the database driver threads.
+                            .publishOn(Schedulers.parallel())
+                            // Stops reading once nothing more can be selected; at most one project past that point is read.
+                            .takeWhile(project -> !selection.isDone())
+                            // Offer one project at a time, only once its predecessor's selections are consumed.
+                            .concatMapIterable(selection::offer, 1)
+                            // One offer can make several selections, so end on the last selection, not on isDone(),
+                            // which is already true while the earlier selections of that offer are emitted.
+                            .takeUntil(step -> step.step() == maxProjects)
+                            .concatWith(Flux.defer(() -> Flux.fromIterable(selection.finish())));
+                })
+                // Requests are issued from a parallel worker too, so selections drained on demand stay off the event loop.
+                .subscribeOn(Schedulers.parallel())
+                .doOnComplete(() -> logger.info("Streamed capital maximization complete."))
+                .doOnError(error -> logger.error("Error during streamed capital maximization", error));
+    }
+
+    /**
+     * Computes the final capital as a function of initial capital over {@code [fromCapital, toCapital]}.
      *
-     * @param query the capital maximization query.
+     * <p>Rather than running the selection once per capital value, the sweep moves directly from one
+     * breakpoint to the next, reusing the part of the previous selection that a breakpoint leaves unchanged.
+     * Each emitted segment covers a capital interval on which the same projects are selected, so the final
+     * capital rises linearly inside a segment and only jumps at segment boundaries. Segments are computed on
+     * demand as they are requested, and the sweep stops when the subscriber cancels.</p>
+     *
+     * @param projects    the available projects; may be empty.
+     * @param maxProjects the maximum number of projects to select.
+     * @param fromCapital the lowest initial capital of the sweep.
+     * @param toCapital   the highest initial capital of the sweep.
+     * @return a {@code Flux} emitting the curve segments in ascending order of initial capital.
+     * @throws IllegalArgumentException if the projects list is null, the limits are invalid, or
+     *                                  {@code toCapital} is lower than {@code fromCapital}.
+     */
+    public Flux<CapitalSweepSegment> sweepCapital(List<ProjectFinancials> projects, int maxProjects,
+                                                  BigDecimal fromCapital, BigDecimal toCapital) {
+        if (projects == null) {
+            return Flux.error(new IllegalArgumentException("Available projects list must not be null"));
+        }
+
+        logger.info("Starting capital sweep over {} projections from {} to {}", projects.size(), fromCapital, toCapital);
+
+        return Flux.<CapitalSweepSegment, CapitalSweep>generate(
+                        () -> {
+                            requireNonNegative(maxProjects, () -> "Max projects must be non-negative");
+                            requireNonNullAndNonNegative(fromCapital, () -> "Sweep start must not be null and must be non-negative");
+                            requireNonNullAndNonNegative(toCapital, () -> "Sweep end must not be null and must be non-negative");
+                            if (toCapital.compareTo(fromCapital) < 0) {
+                                throw new IllegalArgumentException("Sweep end must not be lower than sweep start");
+                            }
+
+                            List<ProjectFinancials> sorted = new ArrayList<>(projects);
+                            sorted.sort(Comparator.comparing(ProjectFinancials::requiredCapital));
+                            return new CapitalSweep(sorted, maxProjects, fromCapital, toCapital);
+                        },
+                        (sweep, sink) -> {
+                            sink.next(sweep.next());
+                            if (!sweep.hasNext()) {
+                                sink.complete();
+                            }
+                            return sweep;
+                        })
+                .subscribeOn(Schedulers.parallel())
+                .doOnComplete(() -> logger.info("Capital sweep complete."))
+                .doOnError(error -> logger.error("Error during capital sweep", error));
+    }
+
+    /**
+     * Simulates the final capital when project profits are uncertain, over many independent greedy trials.
+     *
+     * <p>The trials are split into blocks of {@value CapitalSimulation#TRIALS_PER_BLOCK}, each drawing from its
+     * own generator split from the seed, and the blocks are spread over every parallel worker. Each worker reuses
+     * one set of scratch buffers for all its trials. Cancelling the subscription stops the simulation after the
+     * blocks in progress.</p>
+     *
+     * @param query the simulation query.
+     * @return a {@code Mono} emitting the distribution of the final capital and the selection frequencies.
+     * @throws IllegalArgumentException if the query is null.
+     */
+    public Mono<CapitalSimulationResult> simulateCapital(CapitalSimulationQuery query) {
+        if (query == null) {
+            return Mono.error(new IllegalArgumentException("Capital simulation query must not be null"));
+        }
+
+        logger.info("Starting capital simulation of {} trials over {} projections with initial capital: {}",
+                query.trials(), query.availableProjects().size(), query.initialCapital());
+
+        return Mono.fromCallable(() -> new CapitalSimulation(query))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(simulation -> {
+                    double[] finalCapital = new double[query.trials()];
+                    List<CapitalSimulation.Block> blocks = CapitalSimulation.blocks(query.trials(), query.seed());
+                    // Every worker allocates its scratch buffers, even without a block to run.
+                    return Flux.fromIterable(blocks)
+                            .parallel(Math.min(Schedulers.DEFAULT_POOL_SIZE, blocks.size()))
+                            // Hand out one block at a time, so that workers finishing early take more of them.
+                            .runOn(Schedulers.parallel(), 1)
+                            .reduce(simulation::newWorker, (worker, block) -> worker.run(block, finalCapital))
+                            .sequential()
+                            .collectList()
+                            .map(workers -> simulation.summarize(workers, finalCapital, query.seed(), query.quantiles()));
+                })
+                .doOnSuccess(result -> logger.info("Capital simulation complete. Mean final capital: {}",
+                        result.meanFinalCapital()))
+                .doOnError(error -> logger.error("Error during capital simulation", error));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P> Flux<P> mergeByRequiredCapital(List<? extends Publisher<P>> shards,
+                                                      Function<P, BigDecimal> requiredCapital) {
+        if (shards.size() == 1) {
+            return Flux.from(shards.getFirst());
+        }
+        return Flux.mergeComparing(SHARD_PREFETCH, Comparator.comparing(requiredCapital),
+                shards.toArray(Publisher[]::new));
+    }
+
+    /**
+     * Performs the greedy algorithm to select projects and maximize capital on the calling thread.
+     *
+     * <p>{@code cancelled} is polled inside the selection loop, so a long selection stops soon after it turns
+     * {@code true}, rather than running to completion.</p>
+     *
+     * @param query     the capital maximization query.
+     * @param cancelled whether the caller has given up on the result.
      * @return a {@link ProjectCapitalOptimized} with the selected projects and final capital.
+     * @throws CancellationException if {@code cancelled} turned {@code true} before the selection completed.
+     */
+    public ProjectCapitalOptimized computeMaximizedCapital(CapitalMaximizationQuery query, BooleanSupplier cancelled) {
+        CapitalSelection<ProjectDTO> selection = select(query.availableProjects(), query.maxProjects(),
+                query.initialCapital(), ProjectDTO::requiredCapital, ProjectDTO::profit, cancelled);
+        return new ProjectCapitalOptimized(selection.selected(), selection.finalCapital());
+    }
+
+    /**
+     * Greedy selection shared by every project representation. Each run is recorded as a
+     * {@link CapitalOptimizationEvent} while a JFR recording is active.
+     *
+     * @param availableProjects the projects to choose from; not modified.
+     * @param maxProjects       the maximum number of projects to select.
+     * @param initialCapital    the capital available before any project is started.
+     * @param requiredCapital   extracts the capital required to start a project.
+     * @param profit            extracts the profit of a project.
+     * @return the selected projects, in selection order, and the final capital.
      */
-    private ProjectCapitalOptimized computeMaximizedCapital(CapitalMaximizationQuery query) {
-        List<ProjectDTO> projects = new ArrayList<>(query.availableProjects());
+    static <P> CapitalSelection<P> select(List<P> availableProjects, int maxProjects, BigDecimal initialCapital,
+                                          Function<P, BigDecimal> requiredCapital, Function<P, BigDecimal> profit) {
+        return select(availableProjects, maxProjects, initialCapital, requiredCapital, profit, () -> false);
+    }
+
+    /**
+     * Greedy selection that stops with a {@link CancellationException} once {@code cancelled} turns {@code true}.
+     * The flag is polled once per selected project and every {@value #CANCELLATION_CHECK_INTERVAL} projects
+     * added to the heap.
+     */
+    static <P> CapitalSelection<P> select(List<P> availableProjects, int maxProjects, BigDecimal initialCapital,
+                                          Function<P, BigDecimal> requiredCapital, Function<P, BigDecimal> profit,
+                                          BooleanSupplier cancelled) {
+        var event = new CapitalOptimizationEvent();
+        event.begin();
+
+        List<P> projects = new ArrayList<>(availableProjects);
         logger.debug("Number of available projects: {}", projects.size());
 
-        // Sort projects by required capital in ascending order.
-        projects.sort(Comparator.comparing(ProjectDTO::requiredCapital));
+        // Sort projects by required capital in ascending order. Input read through the capital index is
+        // already sorted, which TimSort detects in linear time.
+        long sortStart = System.nanoTime();
+        projects.sort(Comparator.comparing(requiredCapital));
+        throwIfCancelled(cancelled);
+        long selectStart = System.nanoTime();
         logger.debug("Projects sorted by required capital.");
 
         // Max-heap to choose the project with the highest profit among those affordable.
-        var profitMaxHeap = new PriorityQueue<>(Comparator.comparing(ProjectDTO::profit).reversed());
+        var profitMaxHeap = new PriorityQueue<>(Comparator.comparing(profit).reversed());
 
-        List<ProjectDTO> selectedProjects = new ArrayList<>();
-        BigDecimal currentCapital = query.initialCapital();
+        List<P> selectedProjects = new ArrayList<>();
+        BigDecimal currentCapital = initialCapital;
         int totalProjects = projects.size();
         int projectIndex = 0;
+        int heapPeak = 0;
 
-        for (int i = 0; i < query.maxProjects(); i++) {
+        for (int i = 0; i < maxProjects; i++) {
+            throwIfCancelled(cancelled);
             // Log the current iteration and capital.
             logger.debug("Iteration {}: Current capital: {}", i, currentCapital);
 
             // Add all projects whose required capital is within the current capital.
             while (projectIndex < totalProjects
-                    && projects.get(projectIndex).requiredCapital().compareTo(currentCapital) <= 0) {
-                ProjectDTO project = projects.get(projectIndex);
+                    && requiredCapital.apply(projects.get(projectIndex)).compareTo(currentCapital) <= 0) {
+                P project = projects.get(projectIndex);
                 profitMaxHeap.offer(project);
-                logger.debug("Project {} (profit: {}) is affordable and added to the heap.", project.name(), project.profit());
+                logger.debug("Project {} is affordable and added to the heap.", project);
                 projectIndex++;
+                if (projectIndex % CANCELLATION_CHECK_INTERVAL == 0) {
+                    throwIfCancelled(cancelled);
+                }
             }
+            heapPeak = Math.max(heapPeak, profitMaxHeap.size());
 
             // If no projects are available to start, break early.
             if (profitMaxHeap.isEmpty()) {
@@ -85,12 +384,32 @@ public final class ProjectCapitalOptimizer {
             }
 
             // Select the project with the highest profit.
-            ProjectDTO chosenProject = profitMaxHeap.poll();
+            P chosenProject = profitMaxHeap.poll();
             selectedProjects.add(chosenProject);
-            currentCapital = currentCapital.add(chosenProject.profit());
-            logger.info("Selected project {}. Updated capital: {}", chosenProject.name(), currentCapital);
+            currentCapital = currentCapital.add(profit.apply(chosenProject));
+            logger.debug("Selected project {}. Updated capital: {}", chosenProject, currentCapital);
         }
 
-        return new ProjectCapitalOptimized(selectedProjects, currentCapital);
+        long selectEnd = System.nanoTime();
+        event.end();
+        if (event.shouldCommit()) {
+            event.mode = CapitalOptimizationEvent.IN_MEMORY;
+            event.poolSize = totalProjects;
+            event.shards = 1;
+            event.maxProjects = maxProjects;
+            event.selectedProjects = selectedProjects.size();
+            event.sortDuration = selectStart - sortStart;
+            event.selectDuration = selectEnd - selectStart;
+            event.heapPeak = heapPeak;
+            event.commit();
+        }
+
+        return new CapitalSelection<>(selectedProjects, currentCapital);
+    }
+
+    private static void throwIfCancelled(BooleanSupplier cancelled) {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("Capital maximization was cancelled");
+        }
     }
 }
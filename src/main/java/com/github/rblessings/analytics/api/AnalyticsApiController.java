@@ -0,0 +1,104 @@
+package com.github.rblessings.analytics.api;
+
+import com.github.rblessings.analytics.CapitalSimulationResult;
+import com.github.rblessings.analytics.CapitalSweepSegment;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.projects.api.ApiResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.github.rblessings.projects.api.ApiMediaTypes.APPLICATION_STREAM_SMILE_VALUE;
+
+@RestController
+@RequestMapping(value = "/apis/v1/analytics")
+public class AnalyticsApiController {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsApiController.class);
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsApiController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @PostMapping("/capital-maximization")
+    public Mono<ApiResponse<ProjectCapitalOptimized>> maximizeCapital(
+            @Valid @RequestBody CapitalMaximizationRequest request) {
+
+        logger.info("Received capital maximization request: {}", request);
+
+        return analyticsService.maximizeCapital(request.pool(), request.maxProjects(), request.initialCapital())
+                .map(result -> ApiResponse.success(HttpStatus.OK.value(), result))
+                .doOnError(error -> logger.error("Error occurred while maximizing capital", error));
+    }
+
+    /**
+     * Streams the selected projects as they are picked, then a summary, as NDJSON or streaming Smile.
+     */
+    @PostMapping(value = "/capital-maximization/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<CapitalSelectionEvent> streamSelections(@Valid @RequestBody CapitalMaximizationRequest request) {
+
+        logger.info("Received streamed capital maximization request: {}", request);
+
+        return analyticsService.streamSelections(request.pool(), request.maxProjects(), request.initialCapital())
+                .doOnError(error -> logger.error("Error occurred while streaming capital maximization", error));
+    }
+
+    /**
+     * Streams the selected projects as they are picked, then a summary, as server-sent events named after the
+     * event type. Selection events carry their step as the event ID.
+     */
+    @PostMapping(value = "/capital-maximization/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CapitalSelectionEvent>> streamSelectionEvents(
+            @Valid @RequestBody CapitalMaximizationRequest request) {
+
+        return streamSelections(request)
+                .map(event -> switch (event) {
+                    case CapitalSelectionEvent.Selection selection -> ServerSentEvent.<CapitalSelectionEvent>builder(selection)
+                            .id(Integer.toString(selection.step()))
+                            .event(CapitalSelectionEvent.SELECTION)
+                            .build();
+                    case CapitalSelectionEvent.Summary summary -> ServerSentEvent.<CapitalSelectionEvent>builder(summary)
+                            .event(CapitalSelectionEvent.SUMMARY)
+                            .build();
+                });
+    }
+
+    /**
+     * Streams the final-capital curve over a range of initial capital, one segment at a time, as NDJSON or
+     * streaming Smile.
+     */
+    @PostMapping(value = "/capital-sweep", produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<CapitalSweepSegment> sweepCapital(@Valid @RequestBody CapitalSweepRequest request) {
+
+        logger.info("Received capital sweep request: {}", request);
+
+        return analyticsService.sweepCapital(request.pool(), request.maxProjects(), request.fromCapital(), request.toCapital())
+                .doOnError(error -> logger.error("Error occurred while sweeping capital", error));
+    }
+
+    /**
+     * Simulates the final capital under uncertain profits, returning its quantiles and how often each project
+     * was selected.
+     */
+    @PostMapping("/capital-simulation")
+    public Mono<ApiResponse<CapitalSimulationResult>> simulateCapital(
+            @Valid @RequestBody CapitalSimulationRequest request) {
+
+        logger.info("Received capital simulation request: {} trials", request.trials());
+
+        return analyticsService.simulateCapital(request)
+                .map(result -> ApiResponse.success(HttpStatus.OK.value(), result))
+                .doOnError(error -> logger.error("Error occurred while simulating capital", error));
+    }
+}
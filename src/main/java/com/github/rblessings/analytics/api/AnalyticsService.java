@@ -0,0 +1,218 @@
+package com.github.rblessings.analytics.api;
+
+import com.github.rblessings.analytics.CapitalSelection;
+import com.github.rblessings.analytics.CapitalSimulationQuery;
+import com.github.rblessings.analytics.CapitalSimulationResult;
+import com.github.rblessings.analytics.CapitalSelectionStep;
+import com.github.rblessings.analytics.CapitalSweepSegment;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import com.github.rblessings.distributed.OptimizationDispatcher;
+import com.github.rblessings.history.OptimizationHistoryRecorder;
+import com.github.rblessings.history.OptimizationSource;
+import com.github.rblessings.projects.api.ProjectService;
+import com.github.rblessings.projects.model.ProjectDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Service running capital analytics over the stored project pools.
+ *
+ * <p>Each shard of a pool is read as a stream of financial projections sorted by required capital, straight
+ * from a covering index. The optimizer merges the shard streams and pulls from them only as far as the
+ * selection needs; only the selected projects are then loaded in full to build the response.</p>
+ *
+ * <p>When distributed optimization is enabled, capital maximizations are run by the worker instances instead, through
+ * the {@link OptimizationDispatcher}.</p>
+ */
+@Service
+public class AnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private static final List<Double> DEFAULT_QUANTILES = List.of(0.05, 0.25, 0.5, 0.75, 0.95);
+
+    private final ProjectService projectService;
+    private final ProjectCapitalOptimizer projectCapitalOptimizer;
+    private final ProjectPoolProperties projectPoolProperties;
+    private final OptimizationHistoryRecorder optimizationHistoryRecorder;
+    private final OptimizationDispatcher optimizationDispatcher;
+
+    public AnalyticsService(ProjectService projectService, ProjectCapitalOptimizer projectCapitalOptimizer,
+                            ProjectPoolProperties projectPoolProperties,
+                            OptimizationHistoryRecorder optimizationHistoryRecorder,
+                            OptimizationDispatcher optimizationDispatcher) {
+        this.projectService = projectService;
+        this.projectCapitalOptimizer = projectCapitalOptimizer;
+        this.projectPoolProperties = projectPoolProperties;
+        this.optimizationHistoryRecorder = optimizationHistoryRecorder;
+        this.optimizationDispatcher = optimizationDispatcher;
+    }
+
+    /**
+     * Selects up to {@code maxProjects} projects of a pool to maximize the final capital, on a worker instance when
+     * distributed optimization is enabled. The pool is checked before the request is dispatched.
+     *
+     * @param pool           the project pool to select from, or {@code null} for the default pool
+     * @param maxProjects    the maximum number of projects to select
+     * @param initialCapital the capital available before any project is started
+     * @return a {@link Mono} emitting the selected projects and the final capital
+     * @throws IllegalArgumentException if the pool is unknown
+     * @throws com.github.rblessings.distributed.OptimizationTimeoutException if no worker replied in time
+     */
+    public Mono<ProjectCapitalOptimized> maximizeCapital(String pool, int maxProjects, BigDecimal initialCapital) {
+        if (!optimizationDispatcher.isEnabled()) {
+            return maximizeCapitalLocally(pool, maxProjects, initialCapital);
+        }
+        return Mono.fromCallable(() -> projectPoolProperties.collectionsOf(pool))
+                .flatMap(collections -> optimizationDispatcher.maximizeCapital(pool, maxProjects, initialCapital));
+    }
+
+    /**
+     * Selects up to {@code maxProjects} projects of a pool to maximize the final capital on this instance. The
+     * result is recorded in the optimization history.
+     *
+     * @param pool           the project pool to select from, or {@code null} for the default pool
+     * @param maxProjects    the maximum number of projects to select
+     * @param initialCapital the capital available before any project is started
+     * @return a {@link Mono} emitting the selected projects and the final capital
+     * @throws IllegalArgumentException if the pool is unknown
+     */
+    public Mono<ProjectCapitalOptimized> maximizeCapitalLocally(String pool, int maxProjects, BigDecimal initialCapital) {
+        return Mono.fromCallable(() -> projectPoolProperties.collectionsOf(pool))
+                .flatMap(collections -> projectCapitalOptimizer.maximizeCapital(shardsOf(collections),
+                        maxProjects, initialCapital, PooledProject::requiredCapital, PooledProject::profit))
+                .flatMap(this::loadSelectedProjects)
+                .doOnNext(result -> optimizationHistoryRecorder.record(OptimizationSource.ANALYTICS,
+                        projectPoolProperties.nameOf(pool), maxProjects, initialCapital, result));
+    }
+
+    /**
+     * Streams the selection of up to {@code maxProjects} projects of a pool, each project as soon as it is
+     * selected, followed by a summary.
+     *
+     * <p>Selections carry the project's financials rather than the full project, so nothing but the optimizer's
+     * heap is held per request and the first selection is sent without waiting for further reads.</p>
+     *
+     * @param pool           the project pool to select from, or {@code null} for the default pool
+     * @param maxProjects    the maximum number of projects to select
+     * @param initialCapital the capital available before any project is started
+     * @return a {@link Flux} emitting a {@link CapitalSelectionEvent.Selection} per selected project, then a
+     * {@link CapitalSelectionEvent.Summary}
+     * @throws IllegalArgumentException if the pool is unknown
+     */
+    public Flux<CapitalSelectionEvent> streamSelections(String pool, int maxProjects, BigDecimal initialCapital) {
+        return Mono.fromCallable(() -> projectPoolProperties.collectionsOf(pool))
+                .flatMapMany(collections -> {
+                    var last = new AtomicReference<CapitalSelectionStep<PooledProject>>();
+                    Flux<CapitalSelectionEvent> selections = projectCapitalOptimizer.streamSelections(shardsOf(collections),
+                                    maxProjects, initialCapital, PooledProject::requiredCapital, PooledProject::profit)
+                            .doOnNext(last::set)
+                            .map(AnalyticsService::toSelectionEvent);
+                    return selections.concatWith(Mono.fromSupplier(() -> summaryOf(last.get(), initialCapital)));
+                });
+    }
+
+    /**
+     * Computes the final-capital curve of a pool over a range of initial capital.
+     *
+     * @param pool        the project pool to select from, or {@code null} for the default pool
+     * @param maxProjects the maximum number of projects to select
+     * @param fromCapital the lowest initial capital of the sweep
+     * @param toCapital   the highest initial capital of the sweep
+     * @return a {@link Flux} emitting the curve segments in ascending order of initial capital
+     * @throws IllegalArgumentException if the pool is unknown or the range is invalid
+     */
+    public Flux<CapitalSweepSegment> sweepCapital(String pool, int maxProjects, BigDecimal fromCapital,
+                                                  BigDecimal toCapital) {
+        // The sweep revisits earlier steps at every breakpoint, so unlike a single selection it needs the pool in memory.
+        return Mono.fromCallable(() -> projectPoolProperties.collectionsOf(pool))
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(projectService::findAllFinancials)
+                .collectList()
+                .flatMapMany(projects -> projectCapitalOptimizer.sweepCapital(projects, maxProjects, fromCapital, toCapital));
+    }
+
+    /**
+     * Simulates the final capital of a pool when project profits are uncertain, over independent greedy trials.
+     *
+     * <p>Like the sweep, every trial revisits the whole pool, so the pool is read into memory once and shared by
+     * every trial.</p>
+     *
+     * @param request the simulation parameters, including the pool; absent optional parameters take their defaults
+     * @return a {@link Mono} emitting the distribution of the final capital and the selection frequencies
+     * @throws IllegalArgumentException if the pool is unknown
+     */
+    public Mono<CapitalSimulationResult> simulateCapital(CapitalSimulationRequest request) {
+        long seed = request.seed() != null ? request.seed() : ThreadLocalRandom.current().nextLong();
+        return Mono.fromCallable(() -> projectPoolProperties.collectionsOf(request.pool()))
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(projectService::findAllFinancials)
+                .collectList()
+                .map(projects -> new CapitalSimulationQuery(projects,
+                        request.profitEstimates() != null ? request.profitEstimates() : Map.of(),
+                        request.defaultSpread() != null ? request.defaultSpread() : 0,
+                        request.maxProjects(), request.initialCapital(), request.trials(), seed,
+                        request.quantiles() != null && !request.quantiles().isEmpty() ? request.quantiles() : DEFAULT_QUANTILES))
+                .flatMap(projectCapitalOptimizer::simulateCapital);
+    }
+
+    private List<Flux<PooledProject>> shardsOf(List<String> collections) {
+        return collections.stream()
+                .map(collection -> projectService.findAllFinancials(collection)
+                        .map(financials -> new PooledProject(collection, financials)))
+                .toList();
+    }
+
+    private static CapitalSelectionEvent toSelectionEvent(CapitalSelectionStep<PooledProject> step) {
+        return new CapitalSelectionEvent.Selection(step.step(), step.project().id(), step.project().requiredCapital(),
+                step.project().profit(), step.capital());
+    }
+
+    private static CapitalSelectionEvent summaryOf(CapitalSelectionStep<PooledProject> last, BigDecimal initialCapital) {
+        return last == null
+                ? new CapitalSelectionEvent.Summary(0, initialCapital, initialCapital)
+                : new CapitalSelectionEvent.Summary(last.step(), initialCapital, last.capital());
+    }
+
+    private Mono<ProjectCapitalOptimized> loadSelectedProjects(CapitalSelection<PooledProject> selection) {
+        if (selection.selected().isEmpty()) {
+            return Mono.just(new ProjectCapitalOptimized(List.of(), selection.finalCapital()));
+        }
+
+        Map<String, List<String>> idsByCollection = selection.selected().stream()
+                .collect(Collectors.groupingBy(PooledProject::collection,
+                        Collectors.mapping(PooledProject::id, Collectors.toList())));
+
+        return Flux.fromIterable(idsByCollection.entrySet())
+                .flatMap(shard -> projectService.findAllById(shard.getValue(), shard.getKey()))
+                .collectMap(ProjectDTO::id)
+                .map(projectsById -> new ProjectCapitalOptimized(inSelectionOrder(selection, projectsById),
+                        selection.finalCapital()));
+    }
+
+    private static List<ProjectDTO> inSelectionOrder(CapitalSelection<PooledProject> selection,
+                                                     Map<String, ProjectDTO> projectsById) {
+        List<ProjectDTO> projects = new ArrayList<>(selection.selected().size());
+        for (PooledProject selected : selection.selected()) {
+            var project = projectsById.get(selected.id());
+            if (project == null) {
+                // Deleted between the projection read and this lookup; its profit is still part of the result.
+                logger.warn("Selected project {} no longer exists in {}", selected.id(), selected.collection());
+                continue;
+            }
+            projects.add(project);
+        }
+        return projects;
+    }
+}
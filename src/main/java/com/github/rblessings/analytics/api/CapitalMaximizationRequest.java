@@ -0,0 +1,23 @@
+package com.github.rblessings.analytics.api;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for requesting a capital maximization over the stored project pool.
+ */
+public record CapitalMaximizationRequest(
+        @Min(value = 0, message = "Max projects must be greater than or equal to 0")
+        int maxProjects,
+
+        @NotNull(message = "Initial capital cannot be null")
+        @DecimalMin(value = "0.00", message = "Initial capital must be greater than or equal to 0")
+        BigDecimal initialCapital,
+
+        // Optional; the default project pool is used when absent
+        String pool
+) {
+}
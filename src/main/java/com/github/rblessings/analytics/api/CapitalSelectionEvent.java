@@ -0,0 +1,47 @@
+package com.github.rblessings.analytics.api;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.math.BigDecimal;
+
+/**
+ * Event of a streamed capital maximization: one {@link Selection} per selected project, in selection order,
+ * followed by a single {@link Summary}.
+ *
+ * <p>Each event carries a {@code type} property ({@code selection} or {@code summary}); over SSE it is also the
+ * event name.</p>
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = CapitalSelectionEvent.Selection.class, name = CapitalSelectionEvent.SELECTION),
+        @JsonSubTypes.Type(value = CapitalSelectionEvent.Summary.class, name = CapitalSelectionEvent.SUMMARY)
+})
+public sealed interface CapitalSelectionEvent {
+    String SELECTION = "selection";
+    String SUMMARY = "summary";
+
+    /**
+     * A selected project.
+     *
+     * @param step            the 1-based position of the project in selection order
+     * @param projectId       the ID of the selected project
+     * @param requiredCapital the capital required to start the project
+     * @param profit          the profit of the project
+     * @param capital         the running capital after completing this and every earlier selected project
+     */
+    record Selection(int step, String projectId, BigDecimal requiredCapital, BigDecimal profit,
+                     BigDecimal capital) implements CapitalSelectionEvent {
+    }
+
+    /**
+     * The outcome of the whole selection, sent last.
+     *
+     * @param selectedProjects the number of selected projects
+     * @param initialCapital   the capital available before any project is started
+     * @param finalCapital     the capital after completing every selected project
+     */
+    record Summary(int selectedProjects, BigDecimal initialCapital, BigDecimal finalCapital)
+            implements CapitalSelectionEvent {
+    }
+}
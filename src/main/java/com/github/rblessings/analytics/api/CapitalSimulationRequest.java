@@ -0,0 +1,47 @@
+package com.github.rblessings.analytics.api;
+
+import com.github.rblessings.analytics.ProfitEstimate;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for requesting a simulation of the final capital under uncertain profits over the stored project pool.
+ */
+public record CapitalSimulationRequest(
+        @Min(value = 0, message = "Max projects must be greater than or equal to 0")
+        int maxProjects,
+
+        @NotNull(message = "Initial capital cannot be null")
+        @DecimalMin(value = "0.00", message = "Initial capital must be greater than or equal to 0")
+        BigDecimal initialCapital,
+
+        @Min(value = 1, message = "Trials must be greater than or equal to 1")
+        @Max(value = MAX_TRIALS, message = "Trials must be less than or equal to " + MAX_TRIALS)
+        int trials,
+
+        // Optional; a random seed is used, and returned, when absent
+        Long seed,
+
+        // Optional; keyed by project ID, for the projects whose profit is not their stored profit plus or minus the default spread
+        Map<String, ProfitEstimate> profitEstimates,
+
+        // Optional; the fraction of the stored profit a project may gain or lose when it has no estimate, 0 when absent
+        @DecimalMin(value = "0", message = "Default spread must be between 0 and 1")
+        @DecimalMax(value = "1", message = "Default spread must be between 0 and 1")
+        Double defaultSpread,
+
+        // Optional; the quartiles and the 5th and 95th percentiles are returned when absent
+        List<@NotNull @DecimalMin("0") @DecimalMax("1") Double> quantiles,
+
+        // Optional; the default project pool is used when absent
+        String pool
+) {
+    public static final int MAX_TRIALS = 1_000_000;
+}
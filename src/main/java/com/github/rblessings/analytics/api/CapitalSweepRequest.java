@@ -0,0 +1,35 @@
+package com.github.rblessings.analytics.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for requesting the final-capital curve over a range of initial capital.
+ */
+public record CapitalSweepRequest(
+        @Min(value = 0, message = "Max projects must be greater than or equal to 0")
+        int maxProjects,
+
+        @NotNull(message = "Sweep start cannot be null")
+        @DecimalMin(value = "0.00", message = "Sweep start must be greater than or equal to 0")
+        BigDecimal fromCapital,
+
+        @NotNull(message = "Sweep end cannot be null")
+        @DecimalMin(value = "0.00", message = "Sweep end must be greater than or equal to 0")
+        BigDecimal toCapital,
+
+        // Optional; the default project pool is used when absent
+        String pool
+) {
+
+    @JsonIgnore
+    @AssertTrue(message = "Sweep end must be greater than or equal to sweep start")
+    public boolean isRangeValid() {
+        return fromCapital == null || toCapital == null || toCapital.compareTo(fromCapital) >= 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.rblessings.analytics.api;
+
+import com.github.rblessings.projects.model.ProjectFinancials;
+
+import java.math.BigDecimal;
+
+/**
+ * A project projection tagged with the pool collection it was read from.
+ */
+record PooledProject(String collection, ProjectFinancials financials) {
+
+    BigDecimal requiredCapital() {
+        return financials.requiredCapital();
+    }
+
+    BigDecimal profit() {
+        return financials.profit();
+    }
+
+    String id() {
+        return financials.id();
+    }
+}
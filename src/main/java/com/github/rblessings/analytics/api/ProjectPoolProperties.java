@@ -0,0 +1,60 @@
+package com.github.rblessings.analytics.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the project pools analytics can run over.
+ *
+ * <p>A pool is split into shards, one MongoDB collection each (for example one per portfolio and region),
+ * all sharing the schema of the {@code projects} collection. Without configuration, the only pool is
+ * {@value #DEFAULT_POOL}, backed by the {@code projects} collection.</p>
+ */
+@ConfigurationProperties(prefix = "planner.project-pools")
+public record ProjectPoolProperties(
+        @DefaultValue(DEFAULT_POOL) String defaultPool,
+        Map<String, Pool> pools
+) {
+    public static final String DEFAULT_POOL = "all";
+    private static final Pool DEFAULT_POOL_SHARDS = new Pool(List.of("projects"));
+
+    public ProjectPoolProperties {
+        pools = pools == null || pools.isEmpty() ? Map.of(DEFAULT_POOL, DEFAULT_POOL_SHARDS) : Map.copyOf(pools);
+    }
+
+    /**
+     * Returns the name of the given pool, resolving {@code null} to the default pool.
+     */
+    public String nameOf(String pool) {
+        return pool == null ? defaultPool : pool;
+    }
+
+    /**
+     * Returns the collections holding the shards of the given pool.
+     *
+     * @param pool the pool name, or {@code null} for the default pool
+     * @return the shard collection names
+     * @throws IllegalArgumentException if no pool with that name is configured
+     */
+    public List<String> collectionsOf(String pool) {
+        var name = nameOf(pool);
+        var shards = pools.get(name);
+        if (shards == null) {
+            throw new IllegalArgumentException("Unknown project pool: %s".formatted(name));
+        }
+        return shards.collections();
+    }
+
+    public record Pool(List<String> collections) {
+
+        public Pool {
+            if (collections == null || collections.isEmpty()) {
+                throw new IllegalArgumentException("A project pool must have at least one collection");
+            }
+            collections = List.copyOf(collections);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.rblessings.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.data.redis.cache.RedisCacheWriter.TtlFunction;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-to-live of cache entries, per cache.
+ *
+ * <p>Each entry lives for {@code ttl} plus a random extra of up to {@code jitter}, so that entries cached
+ * together, for example by a bulk ingest or a warm-up, do not all expire and reload at the same moment.
+ * A zero {@code ttl} keeps entries until they are evicted.</p>
+ */
+@ConfigurationProperties(prefix = "planner.cache-ttl")
+public record CacheTtlProperties(
+        @DefaultValue Ttl defaults,
+        Map<String, Ttl> caches
+) {
+
+    public CacheTtlProperties {
+        caches = caches == null ? Map.of() : Map.copyOf(caches);
+    }
+
+    /**
+     * Returns the TTL of the given cache, falling back to the defaults.
+     */
+    public Ttl forCache(String cacheName) {
+        return caches.getOrDefault(cacheName, defaults);
+    }
+
+    public record Ttl(
+            @DefaultValue("10m") Duration ttl,
+            @DefaultValue("0s") Duration jitter
+    ) {
+
+        public Ttl {
+            if (ttl.isNegative() || jitter.isNegative()) {
+                throw new IllegalArgumentException("Cache TTL and jitter must not be negative");
+            }
+        }
+
+        /**
+         * Returns a TTL function drawing a new jitter for every entry.
+         */
+        public TtlFunction ttlFunction() {
+            if (ttl.isZero() || jitter.isZero()) {
+                return TtlFunction.just(ttl);
+            }
+            long jitterMillis = jitter.toMillis();
+            return (key, value) -> ttl.plusMillis(ThreadLocalRandom.current().nextLong(jitterMillis + 1));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.rblessings.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the frequency-aware warm-up of the {@code project-id} cache.
+ *
+ * <p>Accesses are counted in a count-min sketch of {@code sketchDepth} rows of {@code sketchWidth} counters,
+ * halved after every {@code 10 * sketchWidth} accesses. Every {@code snapshotInterval}, the
+ * {@code snapshotSize} hottest ids are published to Redis, where the published scores are multiplied by
+ * {@code snapshotDecay} once per interval. A cold cache is refilled with them in batches of {@code batchSize},
+ * at most one batch per {@code batchInterval}.</p>
+ */
+@ConfigurationProperties(prefix = "planner.cache-warmup")
+public record CacheWarmupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("8192") int sketchWidth,
+        @DefaultValue("4") int sketchDepth,
+        @DefaultValue("2000") int candidates,
+        @DefaultValue("1000") int snapshotSize,
+        @DefaultValue("1m") Duration snapshotInterval,
+        @DefaultValue("0.5") double snapshotDecay,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("250ms") Duration batchInterval
+) {
+
+    public CacheWarmupProperties {
+        if (!(snapshotDecay > 0 && snapshotDecay <= 1)) {
+            throw new IllegalArgumentException("Cache warm-up snapshot decay must be greater than 0 and at most 1");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.rblessings.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thread-safe count-min sketch estimating how often keys were seen, in a fixed amount of memory.
+ *
+ * <p>Each key increments one counter in each of {@code depth} rows; its estimate is the smallest of those
+ * counters, which never underestimates and overestimates only through hash collisions. To keep estimates
+ * recent, every counter is halved after {@code sampleSize} increments, so older accesses decay
+ * geometrically.</p>
+ */
+public final class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final int sampleSize;
+    private final AtomicIntegerArray counters;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * @param width      counters per row, rounded up to a power of two.
+     * @param depth      number of rows, each using an independent hash.
+     * @param sampleSize increments between two decays.
+     */
+    public CountMinSketch(int width, int depth, int sampleSize) {
+        if (width < 1 || depth < 1 || sampleSize < 1) {
+            throw new IllegalArgumentException("Sketch width, depth and sample size must be positive");
+        }
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.sampleSize = sampleSize;
+        this.counters = new AtomicIntegerArray(this.width * depth);
+    }
+
+    /**
+     * Records one occurrence of {@code key}.
+     *
+     * @return the estimated frequency of {@code key}, including this occurrence.
+     */
+    public int increment(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+
+        int added = additions.incrementAndGet();
+        if (added >= sampleSize && additions.compareAndSet(added, 0)) {
+            decay();
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the estimated frequency of {@code key}.
+     */
+    public int estimate(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    private void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int index(long hash, int row) {
+        // Double hashing: row i uses h1 + i * h2, with h2 odd so that the rows differ.
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    private static long hash(String key) {
+        // Murmur3 finalizer, spreading String.hashCode over 64 bits.
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.rblessings.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the most frequently accessed keys with a {@link CountMinSketch} and a bounded set of candidates.
+ *
+ * <p>The sketch counts every access, but cannot list the keys it has seen. A key therefore also becomes a
+ * candidate while there is room, or once its estimate exceeds the weakest candidate kept by the last prune.
+ * When the candidate set grows to twice its capacity, the calling thread that wins the prune lock trims it
+ * back to the {@code capacity} keys with the highest estimates.</p>
+ */
+public final class HotKeyTracker {
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private volatile int admissionThreshold;
+
+    /**
+     * @param sketch   the sketch counting accesses.
+     * @param capacity the number of candidate keys to retain.
+     */
+    public HotKeyTracker(CountMinSketch sketch, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Hot key capacity must be positive");
+        }
+        this.sketch = sketch;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records one access to {@code key}.
+     */
+    public void record(String key) {
+        int estimate = sketch.increment(key);
+        if (candidates.contains(key)) {
+            return;
+        }
+        if (candidates.size() < capacity || estimate > admissionThreshold) {
+            candidates.add(key);
+            if (candidates.size() > 2 * capacity && pruneLock.tryLock()) {
+                try {
+                    prune();
+                } finally {
+                    pruneLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} keys with the highest estimated frequency, hottest first.
+     */
+    public List<String> hottest(int limit) {
+        return ranked().stream()
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Returns the estimated access frequency of {@code key}.
+     */
+    public int estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    private void prune() {
+        List<Map.Entry<String, Integer>> ranked = ranked();
+        if (ranked.size() <= capacity) {
+            return;
+        }
+        ranked.subList(capacity, ranked.size()).forEach(entry -> candidates.remove(entry.getKey()));
+        admissionThreshold = ranked.get(capacity - 1).getValue();
+    }
+
+    private List<Map.Entry<String, Integer>> ranked() {
+        return candidates.stream()
+                .map(key -> Map.entry(key, sketch.estimate(key)))
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .toList();
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.rblessings.cache;
+
+import com.github.rblessings.projects.api.ProjectService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@code project-id} cache warm across deploys and Redis failovers.
+ *
+ * <p>Every snapshot interval, the hottest ids seen by this instance are merged into a Redis sorted set shared
+ * by all instances, scored by their estimated access frequency, and kept in memory as well. An id keeps the highest
+ * score any instance gave it, and all scores decay by {@code snapshotDecay} once per interval, however many
+ * instances publish, so that ids no longer accessed anywhere fade out of the snapshot. Next to it, a marker
+ * key without TTL records that the cache has been warmed. A new instance refills the cache from the shared
+ * snapshot once it is ready. If the marker disappears, Redis has lost its data (a failover to an empty replica,
+ * or a restart without persistence), and the cache is refilled from the in-memory snapshot.</p>
+ *
+ * <p>Refills only load ids that are not cached already, in batches read with one Mongo query and written with
+ * one Redis pipeline, paced at one batch per interval so that they do not compete with live traffic.</p>
+ *
+ * <p>Nothing is snapshotted or refilled unless {@code planner.cache-warmup.enabled} is on.</p>
+ */
+public class ProjectCacheWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectCacheWarmer.class);
+
+    // The hash tag keeps the snapshot and its decay marker, written by one script, in one Redis Cluster slot.
+    static final String SNAPSHOT_KEY = "cache-warmup:{project-id}:hot";
+    static final String MARKER_KEY = "cache-warmup:project-id:warm";
+    static final String DECAY_KEY = "cache-warmup:{project-id}:decayed";
+
+    /**
+     * Decays the shared snapshot unless it has already been decayed this interval, merges the given ids into it,
+     * and trims it to its size.
+     *
+     * <p>KEYS: snapshot, decay marker. ARGV: decay factor, interval in milliseconds, snapshot size, then pairs of
+     * score and id. Ids scored below one after decaying are dropped.</p>
+     */
+    static final RedisScript<Long> MERGE_SNAPSHOT = RedisScript.of("""
+            if redis.call('SET', KEYS[2], '1', 'NX', 'PX', ARGV[2]) then
+                redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', ARGV[1])
+                redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(1')
+            end
+            for i = 4, #ARGV, 2 do
+                redis.call('ZADD', KEYS[1], 'GT', ARGV[i], ARGV[i + 1])
+            end
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -tonumber(ARGV[3]) - 1)
+            return redis.call('ZCARD', KEYS[1])
+            """, Long.class);
+
+    private final HotKeyTracker hotKeyTracker;
+    private final ProjectIdCache projectIdCache;
+    private final ProjectService projectService;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final CacheWarmupProperties properties;
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private volatile List<String> localSnapshot = List.of();
+    private volatile Disposable snapshots;
+
+    public ProjectCacheWarmer(HotKeyTracker hotKeyTracker, ProjectIdCache projectIdCache,
+                              ProjectService projectService, ReactiveRedisTemplate<String, String> redisTemplate,
+                              CacheWarmupProperties properties) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.projectIdCache = projectIdCache;
+        this.projectService = projectService;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        sharedSnapshot()
+                .flatMap(ids -> refill(ids, "startup"))
+                .then(markWarm())
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to warm the project cache at startup", error);
+                    return Mono.empty();
+                })
+                .subscribe();
+
+        snapshots = Flux.interval(properties.snapshotInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> snapshot()
+                        .then(recoverIfLost())
+                        .onErrorResume(DataAccessException.class, error -> {
+                            logger.warn("Unable to snapshot hot project ids", error);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public void stop() {
+        if (snapshots != null) {
+            snapshots.dispose();
+        }
+    }
+
+    /**
+     * Publishes the hottest ids of this instance and keeps them as the local snapshot.
+     */
+    Mono<Void> snapshot() {
+        List<String> hottest = hotKeyTracker.hottest(properties.snapshotSize());
+        if (hottest.isEmpty()) {
+            return Mono.empty();
+        }
+        localSnapshot = hottest;
+
+        List<String> args = new ArrayList<>(3 + 2 * hottest.size());
+        args.add(Double.toString(properties.snapshotDecay()));
+        args.add(Long.toString(properties.snapshotInterval().toMillis()));
+        args.add(Integer.toString(properties.snapshotSize()));
+        for (String id : hottest) {
+            args.add(Integer.toString(hotKeyTracker.estimate(id)));
+            args.add(id);
+        }
+        return redisTemplate.execute(MERGE_SNAPSHOT, List.of(SNAPSHOT_KEY, DECAY_KEY), args).then();
+    }
+
+    /**
+     * Refills the cache from the local snapshot if Redis no longer holds the warm marker.
+     */
+    Mono<Void> recoverIfLost() {
+        return redisTemplate.hasKey(MARKER_KEY)
+                .flatMap(warm -> warm
+                        ? Mono.<Void>empty()
+                        : refill(localSnapshot, "recovery")
+                        .then(snapshot())
+                        .then(markWarm()));
+    }
+
+    private Mono<List<String>> sharedSnapshot() {
+        return redisTemplate.opsForZSet()
+                .reverseRange(SNAPSHOT_KEY, Range.closed(0L, (long) properties.snapshotSize() - 1))
+                .collectList();
+    }
+
+    private Mono<Void> markWarm() {
+        return redisTemplate.opsForValue().set(MARKER_KEY, "1").then();
+    }
+
+    /**
+     * Loads the uncached ids into the cache, one paced batch at a time. Concurrent refills are skipped.
+     */
+    Mono<Void> refill(List<String> ids, String reason) {
+        if (ids.isEmpty() || !refilling.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+
+        logger.info("Warming project cache ({}) with up to {} hot ids", reason, ids.size());
+        return Flux.fromIterable(ids)
+                .buffer(properties.batchSize())
+                .delayElements(properties.batchInterval())
+                .concatMap(batch -> projectIdCache.findUncached(batch)
+                        .collectList()
+                        .filter(uncached -> !uncached.isEmpty())
+                        .flatMap(uncached -> projectService.findAllById(uncached).collectList())
+                        .flatMap(projectIdCache::putAll)
+                        .defaultIfEmpty(0L))
+                .reduce(0L, Long::sum)
+                .doOnNext(written -> logger.info("Warmed project cache ({}) with {} entries", reason, written))
+                .doFinally(signal -> refilling.set(false))
+                .then();
+    }
+}
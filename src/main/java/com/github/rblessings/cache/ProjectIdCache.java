@@ -0,0 +1,158 @@
+package com.github.rblessings.cache;
+
+import com.github.rblessings.metrics.RequestTimings;
+import com.github.rblessings.projects.model.ProjectDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCacheWriter.TtlFunction;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The {@code project-id} cache, holding projects by ID.
+ *
+ * <p>Next to each entry, a sibling key holds the version of the cached project, and every write goes through
+ * {@link #PUT_IF_NEWER}. So a cached project is only replaced by a newer version, and a read that loaded a
+ * project just before it was updated cannot overwrite the update. Every lookup is recorded in the
+ * {@link HotKeyTracker} used to warm the cache.</p>
+ *
+ * <p>Keys are {@code project-id::{<id>}} and {@code project-id::{<id>}#version}: the hash tag puts an entry and
+ * its version in the same Redis Cluster slot, so the script writing both, and the eviction deleting both, are never
+ * rejected as cross-slot. No command spans the keys of two projects.</p>
+ *
+ * <p>{@link #putAll} issues one script per project, and {@link #findUncached} one {@code EXISTS} per id, on the
+ * shared reactive connection without waiting for replies, so either costs one network round trip.</p>
+ */
+public class ProjectIdCache extends ReactiveRedisCache<ProjectDTO> {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectIdCache.class);
+
+    private static final String VERSION_SUFFIX = "#version";
+
+    /**
+     * Writes an entry and its version unless a newer version is cached, or the same version is cached and its
+     * entry still exists.
+     *
+     * <p>KEYS: entry, version. ARGV: value, version, TTL in milliseconds (0 for none). Returns 1 if written.</p>
+     */
+    static final RedisScript<Long> PUT_IF_NEWER = RedisScript.of("""
+            local current = tonumber(redis.call('GET', KEYS[2]))
+            local version = tonumber(ARGV[2])
+            if current and (current > version or (current == version and redis.call('EXISTS', KEYS[1]) == 1)) then
+                return 0
+            end
+            if tonumber(ARGV[3]) > 0 then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+                redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+            else
+                redis.call('SET', KEYS[1], ARGV[1])
+                redis.call('SET', KEYS[2], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    private static final RedisElementReader<Long> RESULT_READER =
+            buffer -> Long.parseLong(StandardCharsets.UTF_8.decode(buffer).toString());
+
+    private final HotKeyTracker hotKeyTracker;
+    private final RedisElementWriter<Object> argsWriter;
+
+    public ProjectIdCache(String name, ReactiveRedisTemplate<String, ProjectDTO> redisTemplate, TtlFunction ttlFunction,
+                          HotKeyTracker hotKeyTracker) {
+        super(name, redisTemplate, ttlFunction);
+        this.hotKeyTracker = hotKeyTracker;
+
+        SerializationPair<ProjectDTO> values = redisTemplate.getSerializationContext().getValueSerializationPair();
+        this.argsWriter = argument -> argument instanceof ProjectDTO project
+                ? values.write(project)
+                : StandardCharsets.UTF_8.encode(argument.toString());
+    }
+
+    @Override
+    public Mono<ProjectDTO> get(String key) {
+        return Mono.defer(() -> {
+            hotKeyTracker.record(key);
+            return super.get(key);
+        });
+    }
+
+    @Override
+    public Mono<Boolean> put(String key, ProjectDTO value) {
+        return putAll(List.of(value)).map(written -> written > 0);
+    }
+
+    @Override
+    public Mono<Boolean> evict(String key) {
+        return RequestTimings.time(RequestTimings.REDIS, redisTemplate.delete(redisKey(key), versionKey(key)))
+                .map(deleted -> deleted > 0)
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to evict {} from cache {}", key, name, error);
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Caches the given projects, except where the cache already holds the same or a newer version.
+     *
+     * @param projects the projects to cache
+     * @return a {@link Mono} emitting the number of entries written
+     */
+    public Mono<Long> putAll(List<ProjectDTO> projects) {
+        if (projects.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Flux<Long> results = Flux.fromIterable(projects)
+                .flatMap(project -> redisTemplate.execute(PUT_IF_NEWER,
+                        List.of(redisKey(project.id()), versionKey(project.id())),
+                        List.of(project, Long.toString(project.version()), Long.toString(ttlMillis(project))),
+                        argsWriter, RESULT_READER), projects.size());
+        return RequestTimings.time(RequestTimings.REDIS, results)
+                .filter(written -> written == 1L)
+                .count()
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to write {} projects to cache {}", projects.size(), name, error);
+                    return Mono.just(0L);
+                });
+    }
+
+    /**
+     * Returns the ids that have no cache entry.
+     *
+     * @param ids the project ids to check
+     * @return a {@link Flux} of the uncached ids, in input order
+     */
+    public Flux<String> findUncached(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        // Every lookup is subscribed at once, so Lettuce pipelines them; the replies are merged back in input order.
+        Flux<String> uncached = Flux.fromIterable(ids)
+                .flatMapSequential(id -> redisTemplate.hasKey(redisKey(id))
+                        .filter(exists -> !exists)
+                        .map(exists -> id), ids.size());
+        return RequestTimings.time(RequestTimings.REDIS, uncached);
+    }
+
+    @Override
+    protected String redisKey(String key) {
+        return name + "::{" + key + "}";
+    }
+
+    private String versionKey(String id) {
+        return redisKey(id) + VERSION_SUFFIX;
+    }
+
+    private long ttlMillis(ProjectDTO project) {
+        Duration ttl = ttlFunction.getTimeToLive(project.id(), project);
+        return ttl.isNegative() ? 0 : ttl.toMillis();
+    }
+}
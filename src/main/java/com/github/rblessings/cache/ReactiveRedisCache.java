@@ -0,0 +1,112 @@
+package com.github.rblessings.cache;
+
+import com.github.rblessings.metrics.RequestTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCacheWriter.TtlFunction;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Cache-aside cache for {@link Mono}-returning methods, doing all Redis I/O through the reactive Lettuce API.
+ *
+ * <p>Unlike {@code @Cacheable} over a {@code RedisCacheManager}, no operation goes through a blocking
+ * connection, so lookups and puts are safe on event-loop threads. To cache a {@code Flux}-returning method,
+ * use a cache of lists and collect the method's result:
+ * {@code cache.getOrLoad(key, () -> flux.collectList()).flatMapIterable(Function.identity())}.</p>
+ *
+ * <p>The cache fails open: if Redis is unavailable, or an entry cannot be read (for example one written in an
+ * older format), the value is loaded from the source instead, and unreadable entries are evicted.</p>
+ *
+ * @param <V> the type of cached values
+ */
+public class ReactiveRedisCache<V> {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveRedisCache.class);
+
+    protected final String name;
+    protected final ReactiveRedisTemplate<String, V> redisTemplate;
+    protected final TtlFunction ttlFunction;
+
+    /**
+     * @param name          the cache name, used as the key prefix {@code name::}.
+     * @param redisTemplate the template serializing keys as strings and values of this cache.
+     * @param ttlFunction   the time-to-live of each entry; zero keeps entries until they are evicted.
+     */
+    public ReactiveRedisCache(String name, ReactiveRedisTemplate<String, V> redisTemplate, TtlFunction ttlFunction) {
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.ttlFunction = ttlFunction;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or an empty {@link Mono} on a miss.
+     */
+    public Mono<V> get(String key) {
+        return RequestTimings.time(RequestTimings.REDIS, redisTemplate.opsForValue().get(redisKey(key)))
+                .onErrorResume(SerializationException.class, error -> {
+                    logger.warn("Evicting unreadable entry {} from cache {}", key, name, error);
+                    return evict(key).then(Mono.empty());
+                })
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to read {} from cache {}; loading it from the source", key, name, error);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or loads and caches it on a miss. Empty and failed loads are
+     * not cached.
+     *
+     * @param key    the cache key
+     * @param loader supplies the value on a cache miss
+     * @return a {@link Mono} emitting the cached or loaded value
+     */
+    public Mono<V> getOrLoad(String key, Supplier<Mono<V>> loader) {
+        return get(key)
+                .switchIfEmpty(Mono.defer(loader)
+                        .flatMap(value -> put(key, value).thenReturn(value)));
+    }
+
+    /**
+     * Caches {@code value} under {@code key}.
+     *
+     * @return a {@link Mono} emitting whether the value was written
+     */
+    public Mono<Boolean> put(String key, V value) {
+        Duration ttl = ttlFunction.getTimeToLive(key, value);
+        Mono<Boolean> set = ttl.isZero() || ttl.isNegative()
+                ? redisTemplate.opsForValue().set(redisKey(key), value)
+                : redisTemplate.opsForValue().set(redisKey(key), value, ttl);
+        return RequestTimings.time(RequestTimings.REDIS, set).onErrorResume(DataAccessException.class, error -> {
+            logger.warn("Unable to write {} to cache {}", key, name, error);
+            return Mono.just(false);
+        });
+    }
+
+    /**
+     * Removes the entry for {@code key}.
+     *
+     * @return a {@link Mono} emitting whether an entry was removed
+     */
+    public Mono<Boolean> evict(String key) {
+        return RequestTimings.time(RequestTimings.REDIS, redisTemplate.delete(redisKey(key)))
+                .map(deleted -> deleted > 0)
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to evict {} from cache {}", key, name, error);
+                    return Mono.just(false);
+                });
+    }
+
+    protected String redisKey(String key) {
+        return name + "::" + key;
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.analytics.api.ProjectPoolProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProjectPoolProperties.class)
+public class AnalyticsConfiguration {
+
+}
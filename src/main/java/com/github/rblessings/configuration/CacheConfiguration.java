@@ -1,25 +1,32 @@
 package com.github.rblessings.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.cache.CacheTtlProperties;
+import com.github.rblessings.cache.CacheWarmupProperties;
+import com.github.rblessings.cache.CountMinSketch;
+import com.github.rblessings.cache.HotKeyTracker;
+import com.github.rblessings.cache.ProjectCacheWarmer;
+import com.github.rblessings.cache.ProjectIdCache;
+import com.github.rblessings.projects.api.ProjectService;
+import com.github.rblessings.projects.model.ProjectDTO;
+import io.lettuce.core.resource.ClientResources;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
-import java.util.Collections;
-import java.util.Map;
 
 @Configuration
-@EnableCaching
+@EnableConfigurationProperties({CacheTtlProperties.class, CacheWarmupProperties.class})
 public class CacheConfiguration {
     public static final String PROJECT_ID_CACHE_KEY = "project-id";
 
@@ -34,12 +41,18 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public LettuceConnectionFactory redisConnectionFactory() {
+    public LettuceConnectionFactory redisConnectionFactory(ClientResources clientResources) {
+        // The auto-configured client resources carry the command latency recorder (lettuce.command.* metrics).
         LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .clientResources(clientResources)
                 .commandTimeout(Duration.ofSeconds(5))
                 .shutdownTimeout(Duration.ZERO)
                 .build();
-        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisHost, redisPort), clientConfig);
+        var connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisHost, redisPort), clientConfig);
+        // Connect the shared connection at startup; otherwise the first command connects it synchronously,
+        // blocking whichever event-loop thread issued it.
+        connectionFactory.setEagerInitialization(true);
+        return connectionFactory;
     }
 
     @Bean
@@ -48,21 +61,28 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
-                .disableCachingNullValues();
+    public HotKeyTracker projectIdHotKeyTracker(CacheWarmupProperties properties) {
+        var sketch = new CountMinSketch(properties.sketchWidth(), properties.sketchDepth(), 10 * properties.sketchWidth());
+        return new HotKeyTracker(sketch, properties.candidates());
+    }
 
-        RedisCacheConfiguration commonCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .disableCachingNullValues();
+    @Bean
+    public ProjectIdCache projectIdCache(ReactiveRedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                         CacheTtlProperties ttlProperties, HotKeyTracker projectIdHotKeyTracker) {
+        RedisSerializationContext<String, ProjectDTO> serializationContext = RedisSerializationContext
+                .<String, ProjectDTO>newSerializationContext(StringRedisSerializer.UTF_8)
+                .value(new Jackson2JsonRedisSerializer<>(objectMapper, ProjectDTO.class))
+                .build();
 
-        Map<String, RedisCacheConfiguration> initialCacheConfigs =
-                Collections.singletonMap(PROJECT_ID_CACHE_KEY, commonCacheConfig);
+        return new ProjectIdCache(PROJECT_ID_CACHE_KEY, new ReactiveRedisTemplate<>(connectionFactory, serializationContext),
+                ttlProperties.forCache(PROJECT_ID_CACHE_KEY).ttlFunction(), projectIdHotKeyTracker);
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultCacheConfig)
-                .withInitialCacheConfigurations(initialCacheConfigs)
-                .transactionAware()
-                .build();
+    @Bean(destroyMethod = "stop")
+    public ProjectCacheWarmer projectCacheWarmer(HotKeyTracker projectIdHotKeyTracker, ProjectIdCache projectIdCache,
+                                                 ProjectService projectService, ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+                                                 CacheWarmupProperties properties) {
+        return new ProjectCacheWarmer(projectIdHotKeyTracker, projectIdCache, projectService,
+                reactiveRedisTemplate, properties);
     }
 }
@@ -0,0 +1,39 @@
+package com.github.rblessings.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+import static com.github.rblessings.projects.api.ApiMediaTypes.APPLICATION_SMILE;
+import static com.github.rblessings.projects.api.ApiMediaTypes.APPLICATION_STREAM_SMILE;
+
+/**
+ * Registers the Smile binary codecs so that every endpoint negotiates Smile alongside JSON.
+ *
+ * <p>The Smile {@link ObjectMapper} is built from the application's {@link Jackson2ObjectMapperBuilder},
+ * so it shares modules and settings with the JSON mapper and both formats serialize the same way.</p>
+ */
+@Configuration
+public class CodecConfiguration {
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+
+        var encoder = new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE, APPLICATION_STREAM_SMILE);
+        encoder.setStreamingMediaTypes(List.of(APPLICATION_STREAM_SMILE));
+        var decoder = new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE, APPLICATION_STREAM_SMILE);
+
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(encoder);
+            configurer.defaultCodecs().jackson2SmileDecoder(decoder);
+        };
+    }
+}
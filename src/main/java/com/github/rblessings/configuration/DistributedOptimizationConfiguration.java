@@ -0,0 +1,120 @@
+package com.github.rblessings.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.analytics.api.AnalyticsService;
+import com.github.rblessings.distributed.DistributedOptimizationProperties;
+import com.github.rblessings.distributed.OptimizationDispatcher;
+import com.github.rblessings.distributed.OptimizationWorker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+@Configuration
+@EnableConfigurationProperties(DistributedOptimizationProperties.class)
+public class DistributedOptimizationConfiguration {
+
+    private static final Duration MIN_MAX_POLL_INTERVAL = Duration.ofMinutes(5);
+
+    // The beans below exist on every instance, and the roles are read when they start rather than in bean conditions,
+    // which AOT processing would evaluate once, at build time.
+
+    /**
+     * Declares the topics on instances with either role, so that neither has to wait for the other to start.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics optimizationTopics(DistributedOptimizationProperties properties) {
+        if (!properties.dispatch() && !properties.worker()) {
+            return new KafkaAdmin.NewTopics();
+        }
+        return new KafkaAdmin.NewTopics(
+                TopicBuilder.name(properties.requestTopic())
+                        .partitions(properties.requestPartitions())
+                        .build(),
+                TopicBuilder.name(properties.replyTopic())
+                        .partitions(properties.replyPartitions())
+                        .build());
+    }
+
+    /**
+     * Sends requests to the workers and reads their replies in a consumer group unique to this instance, so that
+     * every instance sees the replies to its own requests. Only started on instances with the dispatch role.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OptimizationDispatcher optimizationDispatcher(KafkaProperties kafkaProperties, ObjectMapper objectMapper,
+                                                         DistributedOptimizationProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        var producerFactory = new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null),
+                new StringSerializer(), new ByteArraySerializer());
+
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(null);
+        consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG, properties.replyTopic() + "-" + UUID.randomUUID());
+        consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        var consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProperties,
+                new StringDeserializer(), new ByteArrayDeserializer());
+
+        var containerProperties = new ContainerProperties(properties.replyTopic());
+        // The template never acknowledges, so manual acks leave the throwaway reply group without committed offsets.
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        var replyContainer = new KafkaMessageListenerContainer<>(consumerFactory, containerProperties);
+
+        var replyingTemplate = new ReplyingKafkaTemplate<>(producerFactory, replyContainer);
+        replyingTemplate.setSharedReplyTopic(true);
+        replyingTemplate.setDefaultReplyTimeout(properties.replyTimeout());
+        return new OptimizationDispatcher(replyingTemplate, objectMapper, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Consumes the request topic with {@code workerConcurrency} consumers taking one request per poll, so that a
+     * worker holds no more requests than it runs. Only started on instances with the worker role.
+     */
+    @Bean
+    public ConcurrentMessageListenerContainer<String, byte[]> optimizationWorkerContainer(
+            AnalyticsService analyticsService, KafkaProperties kafkaProperties, ObjectMapper objectMapper,
+            DistributedOptimizationProperties properties, MeterRegistry meterRegistry) {
+
+        var replyTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                kafkaProperties.buildProducerProperties(null), new StringSerializer(), new ByteArraySerializer()));
+
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(null);
+        consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG, properties.workerGroup());
+        // Requests published before the group first joined are still awaited; expired ones are skipped cheaply.
+        consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1);
+        consumerProperties.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, (int) Math.max(
+                MIN_MAX_POLL_INTERVAL.toMillis(), properties.replyTimeout().multipliedBy(2).toMillis()));
+        var consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProperties,
+                new StringDeserializer(), new ByteArrayDeserializer());
+
+        var containerProperties = new ContainerProperties(properties.requestTopic());
+        containerProperties.setAckMode(ContainerProperties.AckMode.RECORD);
+        containerProperties.setMessageListener(new OptimizationWorker(analyticsService, replyTemplate, objectMapper,
+                meterRegistry, Clock.systemUTC()));
+
+        var container = new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setConcurrency(properties.workerConcurrency());
+        container.setAutoStartup(properties.worker());
+        return container;
+    }
+}
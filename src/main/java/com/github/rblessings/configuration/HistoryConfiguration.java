@@ -0,0 +1,28 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.analytics.api.ProjectPoolProperties;
+import com.github.rblessings.history.OptimizationHistoryProperties;
+import com.github.rblessings.history.OptimizationHistoryRecorder;
+import com.github.rblessings.history.ProjectPoolVersions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(OptimizationHistoryProperties.class)
+public class HistoryConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OptimizationHistoryRecorder optimizationHistoryRecorder(ReactiveMongoTemplate mongoTemplate,
+                                                                   ProjectPoolProperties projectPoolProperties,
+                                                                   OptimizationHistoryProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        var poolVersions = new ProjectPoolVersions(mongoTemplate, projectPoolProperties,
+                properties.poolVersionRefreshInterval());
+        return new OptimizationHistoryRecorder(mongoTemplate, poolVersions, properties, meterRegistry, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.rblessings.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.ingest.InvalidProjectRecordException;
+import com.github.rblessings.ingest.ProjectIngestConsumer;
+import com.github.rblessings.ingest.ProjectIngestProperties;
+import com.github.rblessings.projects.api.ProjectService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(ProjectIngestProperties.class)
+public class IngestConfiguration {
+
+    static final String INGEST_BINDING = "ingestProjects-in-0";
+
+    @Bean
+    public ProjectIngestConsumer ingestProjects(ProjectService projectService, ObjectMapper objectMapper,
+                                                ProjectIngestProperties properties, MeterRegistry meterRegistry) {
+        return new ProjectIngestConsumer(projectService, objectMapper, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean
+    public NewTopic projectIngestDeadLetterTopic(ProjectIngestProperties properties) {
+        return TopicBuilder.name(properties.deadLetterTopic())
+                .partitions(properties.deadLetterPartitions())
+                .build();
+    }
+
+    /**
+     * Sends poison records of the ingest binding to the dead-letter topic right away, and retries failed writes
+     * with an exponential back-off until they succeed. The binder's own retry does not apply to batch listeners.
+     *
+     * <p>Dead letters are published with their original key, value and headers, as raw bytes.</p>
+     */
+    @Bean
+    public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> projectIngestContainerCustomizer(
+            ProjectIngestProperties properties, KafkaProperties kafkaProperties,
+            BindingServiceProperties bindingServiceProperties) {
+
+        var deadLetterTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                kafkaProperties.buildProducerProperties(null), new ByteArraySerializer(), new ByteArraySerializer()));
+        String ingestDestination = bindingServiceProperties.getBindingDestination(INGEST_BINDING);
+        return (container, destinationName, group) -> {
+            if (!ingestDestination.equals(destinationName)) {
+                return;
+            }
+            var recoverer = new DeadLetterPublishingRecoverer(deadLetterTemplate,
+                    (consumerRecord, exception) -> new TopicPartition(properties.deadLetterTopic(), -1));
+
+            var backOff = new ExponentialBackOff(properties.retryInitialInterval().toMillis(), 2.0);
+            backOff.setMaxInterval(properties.retryMaxInterval().toMillis());
+
+            var errorHandler = new DefaultErrorHandler(recoverer, backOff);
+            errorHandler.addNotRetryableExceptions(InvalidProjectRecordException.class);
+            container.setCommonErrorHandler(errorHandler);
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import com.github.rblessings.history.OptimizationHistoryRecorder;
+import com.github.rblessings.jobs.OptimizationJobProperties;
+import com.github.rblessings.jobs.OptimizationJobService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(OptimizationJobProperties.class)
+public class JobsConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public OptimizationJobService optimizationJobService(ProjectCapitalOptimizer projectCapitalOptimizer,
+                                                         OptimizationHistoryRecorder optimizationHistoryRecorder,
+                                                         OptimizationJobProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new OptimizationJobService(projectCapitalOptimizer, optimizationHistoryRecorder, properties,
+                meterRegistry, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.metrics.ReactorSchedulerMetrics;
+import com.github.rblessings.metrics.RequestTimingWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Latency instrumentation beyond the Spring Boot defaults.
+ *
+ * <p>Mongo commands ({@code mongodb.driver.commands}) and Lettuce commands ({@code lettuce.command.completion})
+ * are timed by Spring Boot's own instrumentation; their histograms and SLO buckets are set under
+ * {@code management.metrics.distribution}.</p>
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Runs ahead of the concurrency limit filter, so rejected requests are timed too.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 5)
+    public RequestTimingWebFilter requestTimingWebFilter(
+            MeterRegistry meterRegistry,
+            @Value("${planner.metrics.server-timing-header:true}") boolean serverTimingHeader) {
+        return new RequestTimingWebFilter(meterRegistry, serverTimingHeader);
+    }
+
+    /**
+     * Only bound when {@code planner.metrics.reactor-schedulers} is on.
+     */
+    @Bean
+    public ReactorSchedulerMetrics reactorSchedulerMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${planner.metrics.reactor-schedulers:true}") boolean reactorSchedulers) {
+        var metrics = new ReactorSchedulerMetrics(meterRegistry);
+        if (reactorSchedulers) {
+            metrics.bind();
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.analytics.api.ProjectPoolProperties;
+import com.github.rblessings.projects.model.ProjectDataMigration;
+import com.github.rblessings.projects.model.ProjectEntity;
+import com.github.rblessings.projects.model.ProjectMigrationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.util.stream.Stream;
+
+@Configuration
+@EnableConfigurationProperties(ProjectMigrationProperties.class)
+public class MigrationConfiguration {
+
+    @Bean
+    public ProjectDataMigration projectDataMigration(ReactiveMongoTemplate mongoTemplate,
+                                                     ProjectPoolProperties projectPoolProperties,
+                                                     ProjectMigrationProperties properties) {
+        // The default collection, and every shard of the project pools.
+        var collectionNames = Stream.concat(Stream.of(mongoTemplate.getCollectionName(ProjectEntity.class)),
+                        projectPoolProperties.pools().values().stream().flatMap(pool -> pool.collections().stream()))
+                .distinct()
+                .toList();
+        return new ProjectDataMigration(mongoTemplate, collectionNames, properties);
+    }
+}
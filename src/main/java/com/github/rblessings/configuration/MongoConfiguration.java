@@ -1,10 +1,19 @@
 package com.github.rblessings.configuration;
 
+import com.github.rblessings.projects.model.ProjectEntityReadingConverter;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
 
 @Configuration
 @EnableReactiveMongoAuditing
 public class MongoConfiguration {
 
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new ProjectEntityReadingConverter()));
+    }
 }
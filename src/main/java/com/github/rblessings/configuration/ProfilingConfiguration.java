@@ -0,0 +1,21 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.profiling.JfrRecordingEndpoint;
+import com.github.rblessings.profiling.ProfilingProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProfilingProperties.class)
+public class ProfilingConfiguration {
+
+    /**
+     * Whether the endpoint is exposed is left to {@code management.endpoints.web.exposure} when the application
+     * starts.
+     */
+    @Bean
+    public JfrRecordingEndpoint jfrRecordingEndpoint(ProfilingProperties properties) {
+        return new JfrRecordingEndpoint(properties);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.projects.model.ProjectRepository;
+import com.github.rblessings.projects.names.ProjectNameFilter;
+import com.github.rblessings.projects.names.ProjectNameFilterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+@Configuration
+@EnableConfigurationProperties(ProjectNameFilterProperties.class)
+public class ProjectNamesConfiguration {
+
+    @Bean(destroyMethod = "stop")
+    public ProjectNameFilter projectNameFilter(ProjectRepository projectRepository, ProjectNameFilterProperties properties,
+                                               ReactiveRedisConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        ReactiveRedisTemplate<String, byte[]> sharedBitmapTemplate = null;
+        if (properties.shared()) {
+            RedisSerializationContext<String, byte[]> serializationContext = RedisSerializationContext
+                    .<String, byte[]>newSerializationContext(StringRedisSerializer.UTF_8)
+                    .value(RedisSerializer.byteArray())
+                    .build();
+            sharedBitmapTemplate = new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+        }
+        return new ProjectNameFilter(projectRepository, properties, sharedBitmapTemplate, meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.projects.model.ProjectRepository;
+import com.github.rblessings.projects.ranking.ProjectProfitIndex;
+import com.github.rblessings.projects.ranking.ProjectProfitIndexProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProjectProfitIndexProperties.class)
+public class ProjectRankingConfiguration {
+
+    @Bean(destroyMethod = "stop")
+    public ProjectProfitIndex projectProfitIndex(ProjectRepository projectRepository,
+                                                 ProjectProfitIndexProperties properties, MeterRegistry meterRegistry) {
+        return new ProjectProfitIndex(projectRepository, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.projects.model.ProjectRepository;
+import com.github.rblessings.projects.search.ProjectNameSearchIndex;
+import com.github.rblessings.projects.search.ProjectNameSearchProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProjectNameSearchProperties.class)
+public class ProjectSearchConfiguration {
+
+    @Bean(destroyMethod = "stop")
+    public ProjectNameSearchIndex projectNameSearchIndex(ProjectRepository projectRepository,
+                                                         ProjectNameSearchProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new ProjectNameSearchIndex(projectRepository, properties, meterRegistry);
+    }
+}
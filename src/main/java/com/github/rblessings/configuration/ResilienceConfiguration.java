@@ -0,0 +1,77 @@
+package com.github.rblessings.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.resilience.AdaptiveConcurrencyLimitWebFilter;
+import com.github.rblessings.resilience.AdaptiveConcurrencyLimiter;
+import com.github.rblessings.resilience.ConcurrencyLimitProperties;
+import com.github.rblessings.resilience.DistributedRateLimitWebFilter;
+import com.github.rblessings.resilience.DistributedRateLimiter;
+import com.github.rblessings.resilience.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.util.List;
+
+/**
+ * A filter whose limit is disabled has no limiters, and passes every request through.
+ */
+@Configuration
+@EnableConfigurationProperties({ConcurrencyLimitProperties.class, RateLimitProperties.class})
+public class ResilienceConfiguration {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    public AdaptiveConcurrencyLimitWebFilter adaptiveConcurrencyLimitWebFilter(
+            ConcurrencyLimitProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+
+        if (!properties.enabled()) {
+            return new AdaptiveConcurrencyLimitWebFilter(List.of(), properties, meterRegistry, objectMapper);
+        }
+
+        List<AdaptiveConcurrencyLimiter> limiters = properties.instances().entrySet().stream()
+                .map(entry -> new AdaptiveConcurrencyLimiter(
+                        entry.getKey(),
+                        entry.getValue().initialLimit(),
+                        entry.getValue().minLimit(),
+                        entry.getValue().maxLimit(),
+                        entry.getValue().smoothing(),
+                        entry.getValue().rttTolerance(),
+                        entry.getValue().longWindow(),
+                        System::nanoTime))
+                .toList();
+
+        return new AdaptiveConcurrencyLimitWebFilter(limiters, properties, meterRegistry, objectMapper);
+    }
+
+    /**
+     * Runs before the concurrency limit, so that requests over the rate limit never take a concurrency permit.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 9)
+    public DistributedRateLimitWebFilter distributedRateLimitWebFilter(
+            RateLimitProperties properties, ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+            MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+
+        if (!properties.enabled()) {
+            return new DistributedRateLimitWebFilter(List.of(), properties, meterRegistry, objectMapper);
+        }
+
+        List<DistributedRateLimiter> limiters = properties.instances().entrySet().stream()
+                .map(entry -> new DistributedRateLimiter(
+                        entry.getKey(),
+                        entry.getValue().permitsPerSecond(),
+                        entry.getValue().burst(),
+                        entry.getValue().batchSize(),
+                        entry.getValue().leaseTtl(),
+                        reactiveRedisTemplate,
+                        System::nanoTime))
+                .toList();
+
+        return new DistributedRateLimitWebFilter(limiters, properties, meterRegistry, objectMapper);
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.rblessings.configuration;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import com.github.rblessings.startup.StartupWarmup;
+import com.github.rblessings.startup.WarmupProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class StartupConfiguration {
+
+    @Bean
+    public StartupWarmup startupWarmup(ProjectCapitalOptimizer projectCapitalOptimizer,
+                                       ServerCodecConfigurer serverCodecConfigurer, WarmupProperties properties) {
+        return new StartupWarmup(projectCapitalOptimizer, serverCodecConfigurer, properties);
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.rblessings.distributed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Roles, topics and limits of capital maximizations distributed over Kafka.
+ *
+ * <p>An instance with {@code dispatch} set publishes its capital maximizations to {@code requestTopic}, which has
+ * {@code requestPartitions} partitions, and waits at most {@code replyTimeout} for the result on {@code replyTopic}.
+ * An instance with {@code worker} set joins {@code workerGroup} and runs up to {@code workerConcurrency}
+ * maximizations at a time, one per consumer; workers beyond the number of request partitions stay idle.</p>
+ */
+@ConfigurationProperties(prefix = "planner.distributed-optimization")
+public record DistributedOptimizationProperties(
+        @DefaultValue("false") boolean dispatch,
+        @DefaultValue("false") boolean worker,
+        @DefaultValue("optimization.requests") String requestTopic,
+        @DefaultValue("12") int requestPartitions,
+        @DefaultValue("optimization.replies") String replyTopic,
+        @DefaultValue("3") int replyPartitions,
+        @DefaultValue("optimization-workers") String workerGroup,
+        @DefaultValue("2") int workerConcurrency,
+        @DefaultValue("30s") Duration replyTimeout
+) {
+
+    public DistributedOptimizationProperties {
+        if (requestTopic == null || requestTopic.isBlank() || replyTopic == null || replyTopic.isBlank()) {
+            throw new IllegalArgumentException("Optimization request and reply topics must not be blank");
+        }
+        if (requestTopic.equals(replyTopic)) {
+            throw new IllegalArgumentException("Optimization request and reply topics must differ");
+        }
+        if (requestPartitions < 1 || replyPartitions < 1) {
+            throw new IllegalArgumentException("Optimization topics must have at least one partition");
+        }
+        if (workerGroup == null || workerGroup.isBlank()) {
+            throw new IllegalArgumentException("Optimization worker group must not be blank");
+        }
+        if (workerConcurrency < 1) {
+            throw new IllegalArgumentException("Optimization worker concurrency must be at least 1");
+        }
+        if (replyTimeout == null || replyTimeout.isNegative() || replyTimeout.isZero()) {
+            throw new IllegalArgumentException("Optimization reply timeout must be positive");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.rblessings.distributed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs capital maximizations on the worker instances instead of locally, through a request and a reply topic.
+ *
+ * <p>Each maximization is published to the request topic under a random key, which spreads requests evenly over its
+ * partitions and so over the workers consuming them, with a correlation ID and the reply topic in its headers. The
+ * worker sends the outcome to the reply topic with the same correlation ID, which completes the waiting request. A
+ * request with no reply after {@code replyTimeout} fails with an {@link OptimizationTimeoutException}; its deadline
+ * travels with it, so a worker that picks it up later skips it.</p>
+ *
+ * <p>Every dispatching instance reads the whole reply topic in a consumer group of its own, starting from the latest
+ * replies, and ignores replies to the other instances. Offsets of the reply topic are never committed, so these groups
+ * do not outlive the instances.</p>
+ *
+ * <p>Requests are timed in {@code planner.distributed-optimization.requests}, tagged with their outcome, and
+ * {@code planner.distributed-optimization.in-flight} counts the requests waiting for a reply.</p>
+ */
+public class OptimizationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OptimizationDispatcher.class);
+
+    private static final Duration ASSIGNMENT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ReplyingKafkaTemplate<String, byte[], byte[]> replyingTemplate;
+    private final ObjectMapper objectMapper;
+    private final DistributedOptimizationProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OptimizationDispatcher(ReplyingKafkaTemplate<String, byte[], byte[]> replyingTemplate,
+                                  ObjectMapper objectMapper, DistributedOptimizationProperties properties,
+                                  MeterRegistry meterRegistry, Clock clock) {
+        this.replyingTemplate = replyingTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        Gauge.builder("planner.distributed-optimization.in-flight", inFlight, AtomicInteger::get)
+                .description("Distributed capital maximizations waiting for a reply")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether capital maximizations of this instance are dispatched to the workers.
+     */
+    public boolean isEnabled() {
+        return properties.dispatch();
+    }
+
+    /**
+     * Starts the reply consumer and waits until it reads the reply topic, so that no reply to the first requests is
+     * missed. Does nothing unless dispatch is enabled, so that an instance without the role opens no connection.
+     */
+    public void start() {
+        if (!properties.dispatch()) {
+            return;
+        }
+        replyingTemplate.start();
+        try {
+            if (!replyingTemplate.waitForAssignment(ASSIGNMENT_TIMEOUT)) {
+                logger.warn("Reply topic {} was not assigned within {}; early replies may be missed",
+                        properties.replyTopic(), ASSIGNMENT_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void stop() {
+        if (replyingTemplate.isRunning()) {
+            replyingTemplate.stop();
+        }
+    }
+
+    /**
+     * Has a worker select up to {@code maxProjects} projects of a pool to maximize the final capital.
+     *
+     * @param pool           the project pool to select from, or {@code null} for the default pool
+     * @param maxProjects    the maximum number of projects to select
+     * @param initialCapital the capital available before any project is started
+     * @return a {@link Mono} emitting the selected projects and the final capital
+     * @throws OptimizationTimeoutException if no worker replied within the reply timeout
+     * @throws IllegalArgumentException     if the worker rejected the request, for instance for an unknown pool
+     */
+    public Mono<ProjectCapitalOptimized> maximizeCapital(String pool, int maxProjects, BigDecimal initialCapital) {
+        return Mono.defer(() -> {
+            Duration timeout = properties.replyTimeout();
+            var request = new OptimizationRequest(pool, maxProjects, initialCapital, clock.millis() + timeout.toMillis());
+            var record = new ProducerRecord<>(properties.requestTopic(), UUID.randomUUID().toString(), serialize(request));
+            record.headers().add(KafkaHeaders.REPLY_TOPIC, properties.replyTopic().getBytes(StandardCharsets.UTF_8));
+
+            var sample = Timer.start(meterRegistry);
+            inFlight.incrementAndGet();
+            // Sending blocks while the producer fetches topic metadata or waits for buffer space, for up to
+            // max.block.ms, so it must not run on the event loop.
+            return Mono.fromFuture(() -> replyingTemplate.sendAndReceive(record, timeout))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .onErrorMap(KafkaReplyTimeoutException.class, error -> new OptimizationTimeoutException(
+                            "No optimization worker replied within %s".formatted(timeout), error))
+                    .map(this::resultOf)
+                    .doOnSuccess(result -> sample.stop(requests("completed")))
+                    .doOnError(error -> sample.stop(requests(outcomeOf(error))))
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    private ProjectCapitalOptimized resultOf(ConsumerRecord<String, byte[]> record) {
+        OptimizationReply reply;
+        try {
+            reply = objectMapper.readValue(record.value(), OptimizationReply.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed optimization reply", e);
+        }
+        return switch (reply.outcome()) {
+            case COMPLETED -> reply.result();
+            case REJECTED -> throw new IllegalArgumentException(reply.message());
+            case FAILED -> throw new IllegalStateException("Optimization failed on worker: " + reply.message());
+        };
+    }
+
+    private byte[] serialize(OptimizationRequest request) {
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to serialize optimization request", e);
+        }
+    }
+
+    private static String outcomeOf(Throwable error) {
+        if (error instanceof OptimizationTimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof IllegalArgumentException) {
+            return "rejected";
+        }
+        return "failed";
+    }
+
+    private Timer requests(String outcome) {
+        return Timer.builder("planner.distributed-optimization.requests")
+                .description("Capital maximizations dispatched to the workers")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
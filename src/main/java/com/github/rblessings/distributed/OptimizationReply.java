@@ -0,0 +1,43 @@
+package com.github.rblessings.distributed;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+
+/**
+ * Outcome of an {@link OptimizationRequest}, sent back by the worker that ran it.
+ *
+ * @param outcome whether the maximization completed, was rejected as invalid, or failed
+ * @param result  the selected projects and final capital, if the maximization completed
+ * @param message the reason for the rejection or failure, otherwise {@code null}
+ */
+public record OptimizationReply(
+        Outcome outcome,
+        ProjectCapitalOptimized result,
+        String message) {
+
+    public enum Outcome {
+        COMPLETED,
+        REJECTED,
+        FAILED
+    }
+
+    public OptimizationReply {
+        requireNonNull(outcome, () -> "Reply outcome must not be null");
+        if (outcome == Outcome.COMPLETED) {
+            requireNonNull(result, () -> "Completed reply must carry a result");
+        }
+    }
+
+    public static OptimizationReply completed(ProjectCapitalOptimized result) {
+        return new OptimizationReply(Outcome.COMPLETED, result, null);
+    }
+
+    public static OptimizationReply rejected(String message) {
+        return new OptimizationReply(Outcome.REJECTED, null, message);
+    }
+
+    public static OptimizationReply failed(String message) {
+        return new OptimizationReply(Outcome.FAILED, null, message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.rblessings.distributed;
+
+import java.math.BigDecimal;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * Capital maximization published to the workers.
+ *
+ * <p>The request names the pool rather than carrying its projects, so it stays small whatever the size of the pool;
+ * the worker reads the pool itself. {@code deadline} is the epoch millisecond after which the dispatching instance
+ * no longer waits for the result, so that workers can skip requests nobody is waiting for.</p>
+ *
+ * @param pool           the project pool to select from, or {@code null} for the default pool
+ * @param maxProjects    the maximum number of projects to select
+ * @param initialCapital the capital available before any project is started
+ * @param deadline       the epoch millisecond after which the result is no longer awaited
+ */
+public record OptimizationRequest(
+        String pool,
+        int maxProjects,
+        BigDecimal initialCapital,
+        long deadline) {
+
+    public OptimizationRequest {
+        if (maxProjects < 0) {
+            throw new IllegalArgumentException("Max projects must be non-negative");
+        }
+        requireNonNullAndNonNegative(initialCapital, () -> "Initial capital must not be null and must be non-negative");
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.rblessings.distributed;
+
+/**
+ * Thrown when no worker replied to a distributed capital maximization within the reply timeout.
+ */
+public class OptimizationTimeoutException extends RuntimeException {
+
+    public OptimizationTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.rblessings.distributed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.analytics.api.AnalyticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Runs the capital maximizations published by the dispatching instances, and sends each outcome back to the reply
+ * topic named in the request, under the request's correlation ID.
+ *
+ * <p>Every consumer of the worker container runs one maximization at a time, on its own thread, so a worker runs as
+ * many maximizations at once as its container has consumers. A maximization that has not completed by the deadline
+ * of its request is abandoned without a reply, since nobody is waiting for it any more, and requests found past their
+ * deadline are skipped without being run.</p>
+ *
+ * <p>Requests are timed in {@code planner.distributed-optimization.worker}, tagged with their outcome.</p>
+ */
+public class OptimizationWorker implements MessageListener<String, byte[]> {
+    private static final Logger logger = LoggerFactory.getLogger(OptimizationWorker.class);
+
+    private final AnalyticsService analyticsService;
+    private final KafkaTemplate<String, byte[]> replyTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    public OptimizationWorker(AnalyticsService analyticsService, KafkaTemplate<String, byte[]> replyTemplate,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock) {
+        this.analyticsService = analyticsService;
+        this.replyTemplate = replyTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, byte[]> record) {
+        var sample = Timer.start(meterRegistry);
+        Header replyTopic = record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC);
+        Header correlationId = record.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+        if (replyTopic == null || correlationId == null) {
+            logger.warn("Dropping optimization request at {}-{}@{} without a reply topic or correlation ID",
+                    record.topic(), record.partition(), record.offset());
+            sample.stop(requests("invalid"));
+            return;
+        }
+
+        OptimizationRequest request;
+        try {
+            request = objectMapper.readValue(record.value(), OptimizationRequest.class);
+        } catch (IOException e) {
+            logger.warn("Rejecting malformed optimization request at {}-{}@{}",
+                    record.topic(), record.partition(), record.offset(), e);
+            sample.stop(requests("rejected"));
+            reply(record, replyTopic, correlationId, OptimizationReply.rejected("Malformed optimization request"));
+            return;
+        }
+
+        long remainingMillis = request.deadline() - clock.millis();
+        if (remainingMillis <= 0) {
+            sample.stop(requests("expired"));
+            return;
+        }
+
+        OptimizationReply reply = analyticsService
+                .maximizeCapitalLocally(request.pool(), request.maxProjects(), request.initialCapital())
+                .map(OptimizationReply::completed)
+                .timeout(Duration.ofMillis(remainingMillis), Mono.empty())
+                .onErrorResume(IllegalArgumentException.class,
+                        error -> Mono.just(OptimizationReply.rejected(error.getMessage())))
+                .onErrorResume(error -> {
+                    logger.error("Optimization request {} failed", record.key(), error);
+                    return Mono.just(OptimizationReply.failed(error.getMessage()));
+                })
+                .block();
+        if (reply == null) {
+            sample.stop(requests("expired"));
+            return;
+        }
+        sample.stop(requests(reply.outcome().name().toLowerCase(Locale.ROOT)));
+        reply(record, replyTopic, correlationId, reply);
+    }
+
+    private void reply(ConsumerRecord<String, byte[]> request, Header replyTopic, Header correlationId,
+                       OptimizationReply reply) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(reply);
+        } catch (IOException e) {
+            logger.error("Unable to serialize the reply to optimization request {}", request.key(), e);
+            return;
+        }
+
+        Header replyPartition = request.headers().lastHeader(KafkaHeaders.REPLY_PARTITION);
+        var record = new ProducerRecord<>(new String(replyTopic.value(), StandardCharsets.UTF_8),
+                replyPartition == null ? null : ByteBuffer.wrap(replyPartition.value()).getInt(),
+                request.key(), payload);
+        record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId.value());
+        replyTemplate.send(record).whenComplete((result, error) -> {
+            if (error != null) {
+                logger.warn("Unable to reply to optimization request {}", request.key(), error);
+            }
+        });
+    }
+
+    private Timer requests(String outcome) {
+        return Timer.builder("planner.distributed-optimization.worker")
+                .description("Capital maximizations run for the dispatching instances")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.rblessings.history;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable record of one optimization result, kept for history and audit.
+ *
+ * <p>Only the IDs of the selected projects are kept, in selection order, so entries stay small whatever the
+ * size of the projects. {@code pool} and {@code poolVersion} are {@code null} for jobs, which run over the
+ * projects submitted with them; {@code poolVersion} is also {@code null} until the pool's version is first
+ * read.</p>
+ */
+@Document
+public record OptimizationHistoryEntry(
+        @Id String id,
+        OptimizationSource source,
+        String pool,
+        String poolVersion,
+        int maxProjects,
+        @Field(targetType = FieldType.DECIMAL128) BigDecimal initialCapital,
+        @Field(targetType = FieldType.DECIMAL128) BigDecimal finalCapital,
+        List<String> selectedProjectIds,
+        Instant recordedAt
+) {
+    static final String RECORDED_AT = "recordedAt";
+}
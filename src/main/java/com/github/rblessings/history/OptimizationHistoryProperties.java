@@ -0,0 +1,42 @@
+package com.github.rblessings.history;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Buffering, batching and retention of the optimization result history.
+ *
+ * <p>Results wait in a buffer of at most {@code capacity} entries, and are written to {@code collection} every
+ * {@code flushInterval}, or as soon as {@code batchSize} entries are waiting, in unordered inserts of up to
+ * {@code batchSize} entries. Results arriving while the buffer is full are dropped. Entries expire {@code ttl}
+ * after they were recorded. The version of each project pool is refreshed every {@code poolVersionRefreshInterval}.</p>
+ */
+@ConfigurationProperties(prefix = "planner.optimization-history")
+public record OptimizationHistoryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("optimization_history") String collection,
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("30d") Duration ttl,
+        @DefaultValue("10s") Duration poolVersionRefreshInterval
+) {
+
+    public OptimizationHistoryProperties {
+        if (batchSize < 1 || capacity < batchSize) {
+            throw new IllegalArgumentException("History buffer must satisfy 1 <= batchSize <= capacity");
+        }
+        if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("History flush interval must be positive");
+        }
+        if (ttl == null || ttl.getSeconds() < 1) {
+            throw new IllegalArgumentException("History TTL must be at least one second");
+        }
+        if (poolVersionRefreshInterval == null || poolVersionRefreshInterval.isNegative()
+                || poolVersionRefreshInterval.isZero()) {
+            throw new IllegalArgumentException("Pool version refresh interval must be positive");
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.rblessings.history;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.projects.model.ProjectDTO;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records every optimization result in a dedicated collection, for history and audit, without slowing down the
+ * requests and jobs producing them.
+ *
+ * <p>{@link #record} only offers the entry to a bounded in-memory buffer and returns. A single flusher drains the
+ * buffer every {@code flushInterval}, or as soon as a batch is waiting, and writes it in unordered bulk inserts of
+ * up to {@code batchSize} entries, so one slow or failed document does not hold back the others. Entries expire
+ * through a TTL index on {@code recordedAt}, created on the first flush; when the index already exists with another
+ * TTL, its TTL is changed to the configured one.</p>
+ *
+ * <p>History is best effort. When the buffer is full, new entries are dropped rather than applying back-pressure to
+ * the optimizer; entries whose write fails are not retried. Both are counted in
+ * {@code planner.optimization-history.entries}, tagged {@code outcome=overflow} and {@code outcome=failed}, next to
+ * {@code outcome=written}, and {@code planner.optimization-history.buffered} shows how close the buffer is to
+ * overflowing. Entries still buffered when the recorder stops, including a batch whose write was in progress, are
+ * flushed before it returns.</p>
+ */
+public class OptimizationHistoryRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(OptimizationHistoryRecorder.class);
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ProjectPoolVersions projectPoolVersions;
+    private final OptimizationHistoryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final BlockingQueue<OptimizationHistoryEntry> buffer;
+    private final Sinks.Many<Long> batchesReady = Sinks.many().multicast().directBestEffort();
+    private final Counter written;
+    private final Counter overflowed;
+    private final Counter failed;
+
+    private volatile boolean ttlIndexEnsured;
+    private volatile Disposable flusher;
+
+    public OptimizationHistoryRecorder(ReactiveMongoTemplate mongoTemplate, ProjectPoolVersions projectPoolVersions,
+                                       OptimizationHistoryProperties properties, MeterRegistry meterRegistry,
+                                       Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.projectPoolVersions = projectPoolVersions;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.buffer = new ArrayBlockingQueue<>(properties.capacity());
+
+        this.written = entries("written", "Optimization results written to the history");
+        this.overflowed = entries("overflow", "Optimization results dropped because the history buffer was full");
+        this.failed = entries("failed", "Optimization results lost because their history write failed");
+        Gauge.builder("planner.optimization-history.buffered", buffer, BlockingQueue::size)
+                .description("Optimization results waiting to be written to the history")
+                .register(meterRegistry);
+    }
+
+    private Counter entries(String outcome, String description) {
+        return Counter.builder("planner.optimization-history.entries")
+                .description(description)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts flushing the buffer and tracking the pool versions. When disabled, nothing is recorded.
+     */
+    public void start() {
+        if (!properties.enabled()) {
+            logger.info("Optimization history is disabled");
+            return;
+        }
+        projectPoolVersions.start();
+        flusher = Flux.merge(Flux.interval(properties.flushInterval()), batchesReady.asFlux())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    /**
+     * Stops the periodic flushes and writes what is left in the buffer.
+     */
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.dispose();
+        projectPoolVersions.stop();
+        try {
+            flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to flush {} optimization results to the history on shutdown", buffer.size(), e);
+        }
+    }
+
+    /**
+     * Buffers an optimization result for the history; never blocks.
+     *
+     * @param source         where the result was computed
+     * @param pool           the project pool it was computed over, or {@code null} for a job
+     * @param maxProjects    the maximum number of projects of the query
+     * @param initialCapital the initial capital of the query
+     * @param result         the result
+     * @return {@code true} if the result was buffered; {@code false} if it was dropped
+     */
+    public boolean record(OptimizationSource source, String pool, int maxProjects, BigDecimal initialCapital,
+                          ProjectCapitalOptimized result) {
+        if (!properties.enabled()) {
+            return false;
+        }
+        var entry = new OptimizationHistoryEntry(new ObjectId().toHexString(), source, pool,
+                pool == null ? null : projectPoolVersions.versionOf(pool), maxProjects, initialCapital,
+                result.finalCapital(), result.selectedProjects().stream().map(ProjectDTO::id).toList(),
+                clock.instant());
+        if (!buffer.offer(entry)) {
+            overflowed.increment();
+            return false;
+        }
+        if (buffer.size() >= properties.batchSize()) {
+            // Best effort: a wake-up lost to a concurrent one, or to a flush in progress, is covered by the next tick.
+            batchesReady.tryEmitNext(0L);
+        }
+        return true;
+    }
+
+    /**
+     * Writes buffered entries, one batch at a time, until the buffer is empty.
+     */
+    Mono<Void> flush() {
+        return Mono.defer(this::flushBatch)
+                .repeat(() -> !buffer.isEmpty())
+                .then();
+    }
+
+    private Mono<Integer> flushBatch() {
+        List<OptimizationHistoryEntry> batch = new ArrayList<>(Math.min(buffer.size(), properties.batchSize()));
+        buffer.drainTo(batch, properties.batchSize());
+        if (batch.isEmpty()) {
+            return Mono.just(0);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return ensureTtlIndex()
+                .then(Mono.defer(() -> mongoTemplate
+                        .bulkOps(BulkOperations.BulkMode.UNORDERED, OptimizationHistoryEntry.class, properties.collection())
+                        .insert(batch)
+                        .execute()))
+                .map(result -> {
+                    written.increment(result.getInsertedCount());
+                    failed.increment(batch.size() - result.getInsertedCount());
+                    return batch.size();
+                })
+                .onErrorResume(error -> {
+                    int inserted = insertedDespite(error, batch.size());
+                    written.increment(inserted);
+                    failed.increment(batch.size() - inserted);
+                    logger.warn("Unable to write {} of {} optimization results to the history",
+                            batch.size() - inserted, batch.size(), error);
+                    return Mono.just(batch.size());
+                })
+                // Stopping the recorder cancels the write in progress; its batch goes back for the final flush.
+                .doOnCancel(() -> requeue(batch))
+                .doFinally(signal -> sample.stop(Timer.builder("planner.optimization-history.flush")
+                        .description("Time taken to write a batch of optimization results to the history")
+                        .register(meterRegistry)));
+    }
+
+    private void requeue(List<OptimizationHistoryEntry> batch) {
+        for (OptimizationHistoryEntry entry : batch) {
+            if (!buffer.offer(entry)) {
+                overflowed.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns how many entries of a failed batch were inserted anyway. An unordered bulk write reports an error per
+     * failed entry and inserts the others; any other failure means nothing was inserted. An entry rejected as a
+     * duplicate was stored by an earlier write of the same batch, cancelled before it reported back.
+     */
+    private static int insertedDespite(Throwable error, int batchSize) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkError) {
+                return batchSize - failures(bulkError.getWriteErrors());
+            }
+            if (cause instanceof BulkOperationException bulkError) {
+                return batchSize - failures(bulkError.getErrors());
+            }
+        }
+        return 0;
+    }
+
+    private static int failures(List<BulkWriteError> errors) {
+        return (int) errors.stream().filter(error -> error.getCode() != DUPLICATE_KEY).count();
+    }
+
+    /**
+     * Creates the TTL index, or changes its TTL when it exists with another one. A failure is logged and the batch is
+     * written anyway; the index is ensured again on the next flush.
+     */
+    private Mono<Void> ensureTtlIndex() {
+        if (ttlIndexEnsured) {
+            return Mono.empty();
+        }
+        var index = new Index().on(OptimizationHistoryEntry.RECORDED_AT, Sort.Direction.ASC).expire(properties.ttl());
+        return mongoTemplate.indexOps(properties.collection())
+                .ensureIndex(index)
+                .then()
+                .onErrorResume(OptimizationHistoryRecorder::isIndexOptionsConflict, error -> updateTtl())
+                .doOnSuccess(ignored -> ttlIndexEnsured = true)
+                .onErrorResume(error -> {
+                    logger.warn("Unable to ensure the TTL index of the optimization history", error);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> updateTtl() {
+        var command = new Document("collMod", properties.collection())
+                .append("index", new Document("keyPattern", new Document(OptimizationHistoryEntry.RECORDED_AT, 1))
+                        .append("expireAfterSeconds", properties.ttl().toSeconds()));
+        return mongoTemplate.executeCommand(command)
+                .doOnSuccess(result -> logger.info("Changed the TTL of the optimization history to {}", properties.ttl()))
+                .then();
+    }
+
+    private static boolean isIndexOptionsConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException commandError) {
+                return commandError.getErrorCode() == INDEX_OPTIONS_CONFLICT;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.rblessings.history;
+
+/**
+ * Where an optimization result recorded in the history was computed.
+ */
+public enum OptimizationSource {
+    /**
+     * A capital maximization over a stored project pool, requested through the analytics API.
+     */
+    ANALYTICS,
+
+    /**
+     * An asynchronous optimization job over the projects submitted with it.
+     */
+    JOB
+}
@@ -0,0 +1,118 @@
+package com.github.rblessings.history;
+
+import com.github.rblessings.analytics.api.ProjectPoolProperties;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versions of the configured project pools, telling which optimization results were computed over the same data.
+ *
+ * <p>The version of a pool is a fingerprint of the estimated document count and the highest ID of each of its
+ * shards, so it changes whenever projects are added to or removed from the pool. Updates of existing projects in
+ * place do not change it. Both values are read from collection metadata and the {@code _id} index, so a refresh
+ * costs two cheap reads per shard however large the pool.</p>
+ *
+ * <p>Versions are refreshed in the background every {@code refreshInterval} and read from memory, so tagging a
+ * result never waits for Mongo; a version may therefore lag the pool by up to one interval.</p>
+ */
+public class ProjectPoolVersions {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectPoolVersions.class);
+
+    private static final String ID = "_id";
+    private static final int VERSION_BYTES = 8;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ProjectPoolProperties projectPoolProperties;
+    private final Duration refreshInterval;
+    private final Map<String, String> versions = new ConcurrentHashMap<>();
+
+    private volatile Disposable refreshes;
+
+    public ProjectPoolVersions(ReactiveMongoTemplate mongoTemplate, ProjectPoolProperties projectPoolProperties,
+                               Duration refreshInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.projectPoolProperties = projectPoolProperties;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public void start() {
+        refreshes = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    public void stop() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+
+    /**
+     * Returns the last known version of a pool.
+     *
+     * @param pool the pool name, or {@code null} for the default pool
+     * @return the version, or {@code null} if the pool is unknown or its version has not been read yet
+     */
+    public String versionOf(String pool) {
+        return versions.get(projectPoolProperties.nameOf(pool));
+    }
+
+    /**
+     * Reads the version of every configured pool. A pool whose version cannot be read keeps its last known one.
+     */
+    Mono<Void> refresh() {
+        return Flux.fromIterable(projectPoolProperties.pools().entrySet())
+                .flatMap(pool -> fingerprint(pool.getValue().collections())
+                        .doOnNext(version -> versions.put(pool.getKey(), version))
+                        .onErrorResume(error -> {
+                            logger.warn("Unable to read the version of project pool {}", pool.getKey(), error);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Mono<String> fingerprint(List<String> collections) {
+        return Flux.fromIterable(collections)
+                .concatMap(collection -> Mono.zip(
+                        mongoTemplate.estimatedCount(collection),
+                        highestId(collection),
+                        (count, highestId) -> collection + ':' + count + ':' + highestId + ';'))
+                .reduce(new StringBuilder(), StringBuilder::append)
+                .map(ProjectPoolVersions::hash);
+    }
+
+    private Mono<String> highestId(String collection) {
+        var query = new Query().with(Sort.by(Sort.Direction.DESC, ID)).limit(1);
+        query.fields().include(ID);
+        return mongoTemplate.findOne(query, Document.class, collection)
+                .map(document -> String.valueOf(document.get(ID)))
+                .defaultIfEmpty("");
+    }
+
+    private static String hash(CharSequence shards) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(shards.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, VERSION_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.rblessings.idempotency;
+
+/**
+ * Thrown when an idempotency key cannot be honored, either because it was already used with a different
+ * request payload or because the original request is still in progress after the wait timeout.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
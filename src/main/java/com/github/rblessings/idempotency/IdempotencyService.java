@@ -0,0 +1,346 @@
+package com.github.rblessings.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Executes operations at most once per client-supplied idempotency key.
+ *
+ * <p>The first request for a key claims it in Redis with a short lock TTL, runs the operation, and stores the
+ * completed result under the key for the response TTL. Later requests with the same key and payload replay the
+ * stored result with a single Redis lookup instead of executing the operation again. Requests that arrive while
+ * the original is still running wait for its result: on the same instance they share the in-flight
+ * {@link Mono}, across instances they poll the stored state until it completes.</p>
+ *
+ * <p>If the operation fails or is cancelled before it has started, or fails with an error it reports as raised
+ * before writing anything, the claim is removed so that the client can retry. Otherwise it may have written part of
+ * its result, so the key is kept with a failed outcome, and requests repeating it are rejected rather than run again
+ * over the partial writes. If Redis is unavailable, the operation runs without idempotency protection rather than
+ * failing the request.</p>
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * Deletes a claim unless it has been replaced, so that releasing a claim never drops a stored response.
+     *
+     * <p>KEYS: the idempotency key. ARGV: the claim. Returns 1 if released.</p>
+     */
+    private static final RedisScript<Long> RELEASE_CLAIM = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * Replaces a claim with a failed outcome unless it has been replaced already.
+     *
+     * <p>KEYS: the idempotency key. ARGV: the claim, the failed outcome, and its TTL in milliseconds. Returns 1 if
+     * replaced.</p>
+     */
+    private static final RedisScript<Long> FAIL_CLAIM = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration responseTtl;
+    private final Duration lockTtl;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+
+    private final ConcurrentMap<String, InFlight<?>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(
+            ReactiveRedisTemplate<String, String> redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${planner.idempotency.response-ttl:24h}") Duration responseTtl,
+            @Value("${planner.idempotency.lock-ttl:30s}") Duration lockTtl,
+            @Value("${planner.idempotency.wait-timeout:10s}") Duration waitTimeout,
+            @Value("${planner.idempotency.poll-interval:100ms}") Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.responseTtl = responseTtl;
+        this.lockTtl = lockTtl;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Runs {@code operation} once for the given key, or replays the result of a previous run. Any failure of the
+     * operation is treated as possibly having written part of its result.
+     *
+     * @see #execute(String, String, Object, TypeReference, Supplier, Predicate)
+     */
+    public <T> Mono<T> execute(String key, String scope, Object request, TypeReference<T> responseType,
+                               Supplier<Mono<T>> operation) {
+        return execute(key, scope, request, responseType, operation, error -> false);
+    }
+
+    /**
+     * Runs {@code operation} once for the given key, or replays the result of a previous run.
+     *
+     * @param key           the client-supplied idempotency key, scoped by {@code scope}
+     * @param scope         a namespace separating keys of different operations
+     * @param request       the request payload, used to detect reuse of a key with a different payload
+     * @param responseType  the type of the operation result, used to deserialize stored results
+     * @param operation     the operation to run if the key has not been used yet
+     * @param writesNothing whether an error of the operation was raised before it wrote anything, in which case
+     *                      the key is released so that the client can retry with it
+     * @return a {@link Mono} emitting the result of the first completed run for this key
+     * @throws IllegalArgumentException     if the key is blank or too long
+     * @throws IdempotencyConflictException if the key was used with a different payload, the original request
+     *                                      is still running after the wait timeout, or it failed after it may
+     *                                      have written part of its result
+     */
+    public <T> Mono<T> execute(String key, String scope, Object request, TypeReference<T> responseType,
+                               Supplier<Mono<T>> operation, Predicate<Throwable> writesNothing) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new IllegalArgumentException(
+                    "Idempotency key must not be blank and must be at most %d characters".formatted(MAX_KEY_LENGTH)));
+        }
+
+        return Mono.defer(() -> {
+            String redisKey = KEY_PREFIX + scope + ":" + key;
+            String fingerprint = fingerprint(request);
+
+            var candidate = new InFlight<T>(fingerprint);
+            candidate.result = resolve(redisKey, fingerprint, responseType, operation, writesNothing)
+                    .doFinally(signal -> inFlight.remove(redisKey, candidate))
+                    .flux()
+                    .replay(1)
+                    .refCount()
+                    .singleOrEmpty();
+
+            @SuppressWarnings("unchecked")
+            var existing = (InFlight<T>) inFlight.putIfAbsent(redisKey, candidate);
+            if (existing != null) {
+                logger.debug("Joining in-flight request for idempotency key {}", redisKey);
+                return existing.join(fingerprint);
+            }
+            return candidate.result;
+        });
+    }
+
+    private <T> Mono<T> resolve(String redisKey, String fingerprint, TypeReference<T> responseType,
+                                Supplier<Mono<T>> operation, Predicate<Throwable> writesNothing) {
+        return lookup(redisKey)
+                .flatMap(stored -> {
+                    if (!stored.fingerprint().equals(fingerprint)) {
+                        return Mono.<T>error(mismatch());
+                    }
+                    return stored.finished()
+                            ? replay(redisKey, stored, fingerprint, responseType)
+                            : awaitCompletion(redisKey, fingerprint, responseType, operation, writesNothing);
+                })
+                .switchIfEmpty(Mono.defer(() -> claimAndRun(redisKey, fingerprint, responseType, operation, writesNothing)));
+    }
+
+    private <T> Mono<T> claimAndRun(String redisKey, String fingerprint, TypeReference<T> responseType,
+                                    Supplier<Mono<T>> operation, Predicate<Throwable> writesNothing) {
+        String claim = serialize(StoredResponse.inProgress(fingerprint));
+        return redisTemplate.opsForValue()
+                .setIfAbsent(redisKey, claim, lockTtl)
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to claim idempotency key {}; proceeding without protection", redisKey, error);
+                    return Mono.just(true);
+                })
+                .flatMap(claimed -> claimed
+                        ? run(redisKey, claim, fingerprint, operation, writesNothing)
+                        : resolve(redisKey, fingerprint, responseType, operation, writesNothing));
+    }
+
+    private <T> Mono<T> run(String redisKey, String claim, String fingerprint, Supplier<Mono<T>> operation,
+                            Predicate<Throwable> writesNothing) {
+        var started = new AtomicBoolean();
+        return Mono.defer(operation)
+                .doOnSubscribe(subscription -> started.set(true))
+                .flatMap(result -> store(redisKey, StoredResponse.completed(fingerprint, objectMapper.valueToTree(result)))
+                        .thenReturn(result))
+                .onErrorResume(error -> abandon(redisKey, claim, fingerprint, started.get() && !writesNothing.test(error))
+                        .then(Mono.error(error)))
+                // Without this, a cancelled request would hold the key, and make retries wait, until the lock TTL.
+                // A cancelled operation, such as one timed out in the middle of a bulk write, may have written part
+                // of its result.
+                .doOnCancel(() -> abandon(redisKey, claim, fingerprint, started.get()).subscribe());
+    }
+
+    private Mono<Void> abandon(String redisKey, String claim, String fingerprint, boolean mayHaveWritten) {
+        if (!mayHaveWritten) {
+            return release(redisKey, claim);
+        }
+        logger.warn("Request with idempotency key {} failed after it started; rejecting its retries", redisKey);
+        return redisTemplate.execute(FAIL_CLAIM, List.of(redisKey),
+                        List.of(claim, serialize(StoredResponse.failed(fingerprint)), Long.toString(responseTtl.toMillis())))
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to store failure for idempotency key {}", redisKey, error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> release(String redisKey, String claim) {
+        return redisTemplate.execute(RELEASE_CLAIM, List.of(redisKey), List.of(claim))
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to release idempotency key {}", redisKey, error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Boolean> store(String redisKey, StoredResponse response) {
+        return redisTemplate.opsForValue()
+                .set(redisKey, serialize(response), responseTtl)
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to store response for idempotency key {}", redisKey, error);
+                    return Mono.just(false);
+                });
+    }
+
+    private <T> Mono<T> awaitCompletion(String redisKey, String fingerprint, TypeReference<T> responseType,
+                                        Supplier<Mono<T>> operation, Predicate<Throwable> writesNothing) {
+        logger.debug("Waiting for in-progress request with idempotency key {}", redisKey);
+
+        return Flux.interval(pollInterval)
+                .concatMap(tick -> lookup(redisKey)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()))
+                .filter(stored -> stored.isEmpty() || stored.get().finished())
+                .next()
+                .timeout(waitTimeout, Mono.error(() -> new IdempotencyConflictException(
+                        "A request with this idempotency key is still in progress")))
+                .flatMap(stored -> stored
+                        .map(finished -> replay(redisKey, finished, fingerprint, responseType))
+                        // The original request failed and released the key; try to claim it ourselves.
+                        .orElseGet(() -> claimAndRun(redisKey, fingerprint, responseType, operation, writesNothing)));
+    }
+
+    private <T> Mono<T> replay(String redisKey, StoredResponse stored, String fingerprint,
+                               TypeReference<T> responseType) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            return Mono.error(mismatch());
+        }
+        if (stored.status() == StoredResponse.Status.FAILED) {
+            return Mono.error(new IdempotencyConflictException(
+                    "A request with this idempotency key failed after it may have written part of its result; "
+                            + "check the current state and retry with a new key"));
+        }
+
+        logger.info("Replaying stored response for idempotency key {}", redisKey);
+        return Mono.fromCallable(() -> objectMapper.convertValue(stored.body(), responseType));
+    }
+
+    private Mono<StoredResponse> lookup(String redisKey) {
+        return redisTemplate.opsForValue()
+                .get(redisKey)
+                .map(this::deserialize)
+                .onErrorResume(DataAccessException.class, error -> {
+                    logger.warn("Unable to look up idempotency key {}; proceeding without protection", redisKey, error);
+                    return Mono.empty();
+                });
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to fingerprint idempotent request", e);
+        }
+    }
+
+    private String serialize(StoredResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize idempotent response", e);
+        }
+    }
+
+    private StoredResponse deserialize(String value) {
+        try {
+            return objectMapper.readValue(value, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to deserialize idempotent response", e);
+        }
+    }
+
+    private static IdempotencyConflictException mismatch() {
+        return new IdempotencyConflictException(
+                "Idempotency key has already been used with a different request payload");
+    }
+
+    /**
+     * A request currently executing on this instance, shared with local duplicates. The result is assigned
+     * before the entry is published to the map, so joiners always observe it. The run is cancelled once every
+     * request sharing it has been cancelled.
+     */
+    private static final class InFlight<T> {
+        private final String fingerprint;
+        private Mono<T> result;
+
+        private InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private Mono<T> join(String requestFingerprint) {
+            return fingerprint.equals(requestFingerprint) ? result : Mono.error(mismatch());
+        }
+    }
+
+    /**
+     * The state stored in Redis for an idempotency key.
+     */
+    record StoredResponse(Status status, String fingerprint, JsonNode body) {
+
+        enum Status {IN_PROGRESS, COMPLETED, FAILED}
+
+        static StoredResponse inProgress(String fingerprint) {
+            return new StoredResponse(Status.IN_PROGRESS, fingerprint, null);
+        }
+
+        static StoredResponse completed(String fingerprint, JsonNode body) {
+            return new StoredResponse(Status.COMPLETED, fingerprint, body);
+        }
+
+        static StoredResponse failed(String fingerprint) {
+            return new StoredResponse(Status.FAILED, fingerprint, null);
+        }
+
+        boolean finished() {
+            return status != Status.IN_PROGRESS;
+        }
+    }
+}
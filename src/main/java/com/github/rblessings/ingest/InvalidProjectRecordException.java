@@ -0,0 +1,12 @@
+package com.github.rblessings.ingest;
+
+/**
+ * Thrown when a record on the project ingest channel cannot be read as a project. Such a record is never
+ * retried; it is sent to the dead-letter topic.
+ */
+public class InvalidProjectRecordException extends RuntimeException {
+
+    public InvalidProjectRecordException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
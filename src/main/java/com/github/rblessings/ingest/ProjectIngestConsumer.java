@@ -0,0 +1,127 @@
+package com.github.rblessings.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.projects.api.CreateProjectsRequest;
+import com.github.rblessings.projects.api.ProjectService;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Batch consumer of the project ingest channel, bound as {@code ingestProjects-in-0}.
+ *
+ * <p>Each poll batch arrives as a list of JSON payloads in the {@link CreateProjectsRequest} format. They are
+ * mapped to {@link ProjectEntity} records and written with {@link ProjectService#ingestAll} in one unordered bulk
+ * insert. The method returns only once the write has completed, so the offsets of the batch, which the
+ * container commits after it returns, are never committed ahead of the data.</p>
+ *
+ * <p>A payload that cannot be mapped is a poison record. The records before it are written, and a
+ * {@link BatchListenerFailedException} carrying its index tells the container's error handler to commit up to
+ * it, send it to the dead-letter topic, and redeliver the rest of the batch.</p>
+ *
+ * <p>Delivery is at least once. A redelivered record finds its name already taken and is skipped, so it is
+ * written once; the same applies to a record reusing the name of any stored project.</p>
+ */
+public class ProjectIngestConsumer implements Consumer<List<byte[]>> {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectIngestConsumer.class);
+
+    private final ProjectService projectService;
+    private final ObjectMapper objectMapper;
+    private final Duration writeTimeout;
+    private final Clock clock;
+
+    private final Counter inserted;
+    private final Counter skipped;
+    private final Counter invalid;
+    private final Timer batchTimer;
+
+    public ProjectIngestConsumer(ProjectService projectService, ObjectMapper objectMapper,
+                                 ProjectIngestProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.projectService = projectService;
+        this.objectMapper = objectMapper;
+        this.writeTimeout = properties.writeTimeout();
+        this.clock = clock;
+
+        this.inserted = recordCounter(meterRegistry, "inserted");
+        this.skipped = recordCounter(meterRegistry, "skipped");
+        this.invalid = recordCounter(meterRegistry, "invalid");
+        this.batchTimer = Timer.builder("planner.ingest.batch")
+                .description("Time to map and write one poll batch of the project ingest channel")
+                .register(meterRegistry);
+    }
+
+    private static Counter recordCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("planner.ingest.records")
+                .description("Records consumed from the project ingest channel")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void accept(List<byte[]> payloads) {
+        batchTimer.record(() -> ingest(payloads));
+    }
+
+    private void ingest(List<byte[]> payloads) {
+        Instant now = clock.instant();
+        List<ProjectEntity> projects = new ArrayList<>(payloads.size());
+        for (int index = 0; index < payloads.size(); index++) {
+            try {
+                projects.add(toEntity(payloads.get(index), now));
+            } catch (InvalidProjectRecordException e) {
+                invalid.increment();
+                logger.warn("Invalid project record at index {} of a batch of {}", index, payloads.size(), e);
+                write(projects);
+                throw new BatchListenerFailedException(e.getMessage(), e, index);
+            }
+        }
+        write(projects);
+    }
+
+    private ProjectEntity toEntity(byte[] payload, Instant now) {
+        CreateProjectsRequest request;
+        try {
+            request = objectMapper.readValue(payload, CreateProjectsRequest.class);
+        } catch (IOException e) {
+            throw invalid(e);
+        }
+        if (request == null) {
+            throw new InvalidProjectRecordException("Project record is empty", null);
+        }
+        try {
+            return new ProjectEntity(null, request.name(), request.requiredCapital(), request.profit(),
+                    new AuditMetadata(now, now), 0L);
+        } catch (RuntimeException e) {
+            // A missing field fails validation with a NullPointerException, which must not be retried either.
+            throw invalid(e);
+        }
+    }
+
+    private static InvalidProjectRecordException invalid(Exception cause) {
+        return new InvalidProjectRecordException("Project record is not a valid project: %s".formatted(cause.getMessage()), cause);
+    }
+
+    private void write(List<ProjectEntity> projects) {
+        if (projects.isEmpty()) {
+            return;
+        }
+        // Kafka listener threads may block; the offsets must not be committed before the write completes.
+        Integer count = projectService.ingestAll(projects).block(writeTimeout);
+        int written = count == null ? 0 : count;
+        inserted.increment(written);
+        skipped.increment(projects.size() - written);
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.rblessings.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the Kafka project ingest channel.
+ *
+ * <p>Records that cannot be read as projects are published to {@code deadLetterTopic}, with
+ * {@code deadLetterPartitions} partitions. A batch whose write fails is retried with an exponential back-off
+ * from {@code retryInitialInterval} up to {@code retryMaxInterval}, for as long as the write keeps failing, so
+ * an unavailable database stalls the channel instead of dead-lettering its records. Each write waits at most
+ * {@code writeTimeout}, which must stay well below the consumer's {@code max.poll.interval.ms}.</p>
+ */
+@ConfigurationProperties(prefix = "planner.ingest")
+public record ProjectIngestProperties(
+        @DefaultValue("projects.ingest.dlq") String deadLetterTopic,
+        @DefaultValue("1") int deadLetterPartitions,
+        @DefaultValue("30s") Duration writeTimeout,
+        @DefaultValue("1s") Duration retryInitialInterval,
+        @DefaultValue("1m") Duration retryMaxInterval
+) {
+}
@@ -0,0 +1,12 @@
+package com.github.rblessings.jobs;
+
+/**
+ * Scheduling class of an optimization job.
+ *
+ * <p>Queued {@link #INTERACTIVE} jobs always run before queued {@link #BATCH} jobs, and batch jobs are limited to
+ * a share of the workers, so a backlog of large analyses cannot hold up interactive requests.</p>
+ */
+public enum JobPriority {
+    INTERACTIVE,
+    BATCH
+}
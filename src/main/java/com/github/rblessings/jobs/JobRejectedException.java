@@ -0,0 +1,11 @@
+package com.github.rblessings.jobs;
+
+/**
+ * Thrown when an optimization job is not admitted because the queue for its priority is full.
+ */
+public class JobRejectedException extends RuntimeException {
+
+    public JobRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.rblessings.jobs;
+
+/**
+ * Lifecycle of an optimization job.
+ */
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED;
+
+    /**
+     * Returns whether the job has finished, successfully or not, and will not change anymore.
+     */
+    public boolean isTerminal() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
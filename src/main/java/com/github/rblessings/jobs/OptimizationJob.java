@@ -0,0 +1,144 @@
+package com.github.rblessings.jobs;
+
+import com.github.rblessings.analytics.CapitalMaximizationQuery;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+
+/**
+ * An optimization job and its lifecycle, from admission to a terminal {@link JobStatus}.
+ *
+ * <p>Transitions are synchronized on the job, and each one publishes a new {@link OptimizationJobView} to the
+ * job's updates, which replay the latest view to late subscribers and complete once the job is terminal.
+ * Cancelling a queued job finishes it right away; cancelling a running job only raises a flag, which the worker
+ * polls from inside the selection loop.</p>
+ */
+final class OptimizationJob {
+    private final String id;
+    private final JobPriority priority;
+    private final Instant submittedAt;
+    private final Sinks.Many<OptimizationJobView> updates = Sinks.many().replay().latest();
+
+    private volatile boolean cancelRequested;
+
+    // Guarded by this.
+    private CapitalMaximizationQuery query;
+    private JobStatus status = JobStatus.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private ProjectCapitalOptimized result;
+    private String error;
+
+    OptimizationJob(String id, JobPriority priority, CapitalMaximizationQuery query, Instant submittedAt) {
+        this.id = id;
+        this.priority = priority;
+        this.query = query;
+        this.submittedAt = submittedAt;
+        publish(view());
+    }
+
+    String id() {
+        return id;
+    }
+
+    JobPriority priority() {
+        return priority;
+    }
+
+    Instant submittedAt() {
+        return submittedAt;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    synchronized CapitalMaximizationQuery query() {
+        return query;
+    }
+
+    synchronized JobStatus status() {
+        return status;
+    }
+
+    synchronized Instant finishedAt() {
+        return finishedAt;
+    }
+
+    synchronized OptimizationJobView view() {
+        return new OptimizationJobView(id, priority, status, submittedAt, startedAt, finishedAt, result, error);
+    }
+
+    /**
+     * Returns the current view of the job, followed by every later change, completing once the job is terminal.
+     */
+    Flux<OptimizationJobView> updates() {
+        return updates.asFlux();
+    }
+
+    /**
+     * Moves a queued job to {@link JobStatus#RUNNING}.
+     *
+     * @return {@code false} if the job was cancelled before a worker picked it up
+     */
+    synchronized boolean start(Instant now) {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        startedAt = now;
+        publish(view());
+        return true;
+    }
+
+    synchronized void succeed(ProjectCapitalOptimized result, Instant now) {
+        this.result = result;
+        finish(JobStatus.SUCCEEDED, now);
+    }
+
+    synchronized void fail(String error, Instant now) {
+        this.error = error;
+        finish(JobStatus.FAILED, now);
+    }
+
+    /**
+     * Requests the job to be cancelled.
+     *
+     * @return {@code true} if the job was queued and is now cancelled; {@code false} if it is running and will
+     * stop at its next cancellation check, or has already finished
+     */
+    synchronized boolean cancel(Instant now) {
+        if (status.isTerminal()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (status == JobStatus.QUEUED) {
+            finish(JobStatus.CANCELLED, now);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records that a running job stopped at a cancellation check.
+     */
+    synchronized void cancelled(Instant now) {
+        finish(JobStatus.CANCELLED, now);
+    }
+
+    private void finish(JobStatus terminalStatus, Instant now) {
+        status = terminalStatus;
+        finishedAt = now;
+        // The projects are no longer needed; only the result is retained until the job expires.
+        query = null;
+        publish(view());
+        updates.tryEmitComplete();
+    }
+
+    private void publish(OptimizationJobView view) {
+        // Emissions happen under the job's lock, so they never race.
+        updates.tryEmitNext(view);
+    }
+}
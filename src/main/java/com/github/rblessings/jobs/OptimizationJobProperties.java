@@ -0,0 +1,40 @@
+package com.github.rblessings.jobs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Worker pool, admission limits and result retention of the asynchronous optimization jobs.
+ *
+ * <p>{@code workers} threads run jobs. At most {@code batchWorkers} of them run {@link JobPriority#BATCH} jobs at
+ * a time, so the rest stay free for interactive jobs. A job is rejected when the queue of its priority already
+ * holds {@code maxQueuedInteractive} or {@code maxQueuedBatch} jobs. Jobs over more than {@code batchThreshold}
+ * projects are always scheduled as batch jobs. Finished jobs and their results are kept for {@code resultTtl}.</p>
+ */
+@ConfigurationProperties(prefix = "planner.jobs")
+public record OptimizationJobProperties(
+        @DefaultValue("4") int workers,
+        @DefaultValue("2") int batchWorkers,
+        @DefaultValue("64") int maxQueuedInteractive,
+        @DefaultValue("16") int maxQueuedBatch,
+        @DefaultValue("10000") int batchThreshold,
+        @DefaultValue("15m") Duration resultTtl
+) {
+
+    public OptimizationJobProperties {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Job workers must be at least 1");
+        }
+        if (batchWorkers < 1 || batchWorkers > workers) {
+            throw new IllegalArgumentException("Batch workers must be between 1 and the number of workers");
+        }
+        if (maxQueuedInteractive < 0 || maxQueuedBatch < 0 || batchThreshold < 0) {
+            throw new IllegalArgumentException("Job queue limits and batch threshold must be non-negative");
+        }
+        if (resultTtl == null || resultTtl.isNegative() || resultTtl.isZero()) {
+            throw new IllegalArgumentException("Job result TTL must be positive");
+        }
+    }
+}
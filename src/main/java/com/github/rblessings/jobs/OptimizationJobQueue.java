@@ -0,0 +1,144 @@
+package com.github.rblessings.jobs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded two-level queue feeding the job workers.
+ *
+ * <p>Each priority has its own FIFO queue and capacity, so a full batch queue never turns interactive jobs away.
+ * Workers take interactive jobs first, and take batch jobs only while fewer than {@code maxRunningBatch} batch
+ * jobs are running; a {@link java.util.concurrent.PriorityBlockingQueue} behind a thread pool could order the
+ * jobs, but not keep batch jobs from occupying every worker.</p>
+ */
+final class OptimizationJobQueue {
+    private final int maxQueuedInteractive;
+    private final int maxQueuedBatch;
+    private final int maxRunningBatch;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition runnable = lock.newCondition();
+    private final Deque<OptimizationJob> interactive = new ArrayDeque<>();
+    private final Deque<OptimizationJob> batch = new ArrayDeque<>();
+    private int runningBatch;
+
+    OptimizationJobQueue(int maxQueuedInteractive, int maxQueuedBatch, int maxRunningBatch) {
+        this.maxQueuedInteractive = maxQueuedInteractive;
+        this.maxQueuedBatch = maxQueuedBatch;
+        this.maxRunningBatch = maxRunningBatch;
+    }
+
+    /**
+     * Queues a job unless the queue of its priority is full.
+     *
+     * @return {@code false} if the job was not queued
+     */
+    boolean offer(OptimizationJob job) {
+        lock.lock();
+        try {
+            Deque<OptimizationJob> queue = queueOf(job.priority());
+            int capacity = job.priority() == JobPriority.BATCH ? maxQueuedBatch : maxQueuedInteractive;
+            if (queue.size() >= capacity) {
+                return false;
+            }
+            queue.addLast(job);
+            runnable.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the next job a worker may run. A batch job taken here counts as running until it is
+     * {@link #release(OptimizationJob) released}.
+     */
+    OptimizationJob take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (!interactive.isEmpty()) {
+                    return interactive.pollFirst();
+                }
+                if (!batch.isEmpty() && runningBatch < maxRunningBatch) {
+                    runningBatch++;
+                    return batch.pollFirst();
+                }
+                runnable.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks a job taken by a worker as done.
+     */
+    void release(OptimizationJob job) {
+        if (job.priority() != JobPriority.BATCH) {
+            return;
+        }
+        lock.lock();
+        try {
+            runningBatch--;
+            // A batch job may have been waiting for this slot, while every other worker waits too.
+            runnable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a job that has not been taken yet.
+     */
+    boolean remove(OptimizationJob job) {
+        lock.lock();
+        try {
+            return queueOf(job.priority()).remove(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns every queued job.
+     */
+    List<OptimizationJob> drain() {
+        lock.lock();
+        try {
+            List<OptimizationJob> jobs = new ArrayList<>(interactive);
+            jobs.addAll(batch);
+            interactive.clear();
+            batch.clear();
+            return jobs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(JobPriority priority) {
+        lock.lock();
+        try {
+            return queueOf(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int runningBatch() {
+        lock.lock();
+        try {
+            return runningBatch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Deque<OptimizationJob> queueOf(JobPriority priority) {
+        return priority == JobPriority.BATCH ? batch : interactive;
+    }
+}
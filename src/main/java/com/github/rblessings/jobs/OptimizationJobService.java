@@ -0,0 +1,249 @@
+package com.github.rblessings.jobs;
+
+import com.github.rblessings.analytics.CapitalMaximizationQuery;
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import com.github.rblessings.history.OptimizationHistoryRecorder;
+import com.github.rblessings.history.OptimizationSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs capital maximization queries as asynchronous jobs, so that large optimizations are neither cut off by
+ * request timeouts nor hold a connection for their whole duration.
+ *
+ * <p>Submitted jobs wait in an {@link OptimizationJobQueue} until one of a fixed set of worker threads picks
+ * them up; when the queue of their priority is full, they are rejected up front. Workers run the greedy
+ * selection on their own thread and poll the job's cancellation flag inside the selection loop. Finished jobs
+ * are kept, with their result, for the configured TTL and then forgotten; successful results are also recorded in
+ * the optimization history.</p>
+ *
+ * <p>Jobs live in the memory of the instance that admitted them, so job IDs are only known to that instance.</p>
+ */
+public class OptimizationJobService implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OptimizationJobService.class);
+
+    private static final Duration EXPIRY_INTERVAL = Duration.ofSeconds(30);
+
+    private final ProjectCapitalOptimizer projectCapitalOptimizer;
+    private final OptimizationHistoryRecorder optimizationHistoryRecorder;
+    private final OptimizationJobProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final OptimizationJobQueue queue;
+    private final Map<String, OptimizationJob> jobs = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile Disposable expiry;
+
+    public OptimizationJobService(ProjectCapitalOptimizer projectCapitalOptimizer,
+                                  OptimizationHistoryRecorder optimizationHistoryRecorder,
+                                  OptimizationJobProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.projectCapitalOptimizer = projectCapitalOptimizer;
+        this.optimizationHistoryRecorder = optimizationHistoryRecorder;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.queue = new OptimizationJobQueue(properties.maxQueuedInteractive(), properties.maxQueuedBatch(),
+                properties.batchWorkers());
+
+        for (JobPriority priority : JobPriority.values()) {
+            Gauge.builder("planner.jobs.queued", queue, jobQueue -> jobQueue.size(priority))
+                    .description("Optimization jobs waiting for a worker")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Starts the workers and the periodic removal of expired jobs.
+     */
+    public synchronized void start() {
+        if (!workers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < properties.workers(); i++) {
+            workers.add(Thread.ofPlatform().name("optimization-job-" + i).daemon().start(this::work));
+        }
+        expiry = Flux.interval(EXPIRY_INTERVAL)
+                .subscribe(tick -> expire());
+        logger.info("Started {} optimization job workers ({} for batch jobs)", properties.workers(), properties.batchWorkers());
+    }
+
+    /**
+     * Cancels every job that has not finished and stops the workers.
+     */
+    @Override
+    public synchronized void close() {
+        if (expiry != null) {
+            expiry.dispose();
+        }
+        Instant now = clock.instant();
+        queue.drain().forEach(job -> job.cancel(now));
+        jobs.values().forEach(job -> job.cancel(now));
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    /**
+     * Admits a job for {@code query}.
+     *
+     * @param query    the capital maximization query to run
+     * @param priority the requested priority, or {@code null} for {@link JobPriority#INTERACTIVE}; queries over
+     *                 more than the batch threshold of projects are always run as {@link JobPriority#BATCH}
+     * @return the queued job
+     * @throws JobRejectedException if the queue of the job's priority is full
+     */
+    public OptimizationJobView submit(CapitalMaximizationQuery query, JobPriority priority) {
+        var effectivePriority = priorityOf(query, priority);
+        var job = new OptimizationJob(UUID.randomUUID().toString(), effectivePriority, query, clock.instant());
+
+        jobs.put(job.id(), job);
+        if (!queue.offer(job)) {
+            jobs.remove(job.id());
+            Counter.builder("planner.jobs.rejected")
+                    .description("Optimization jobs rejected because their queue was full")
+                    .tag("priority", effectivePriority.name())
+                    .register(meterRegistry)
+                    .increment();
+            throw new JobRejectedException("Too many %s optimization jobs are queued; retry later"
+                    .formatted(effectivePriority.name().toLowerCase(Locale.ROOT)));
+        }
+
+        logger.info("Queued {} optimization job {} over {} projects", effectivePriority, job.id(),
+                query.availableProjects().size());
+        return job.view();
+    }
+
+    /**
+     * Returns the current view of a job.
+     */
+    public Optional<OptimizationJobView> find(String id) {
+        return job(id).map(OptimizationJob::view);
+    }
+
+    /**
+     * Returns the current view of a job followed by its later changes, completing once the job is terminal.
+     */
+    public Optional<Flux<OptimizationJobView>> updates(String id) {
+        return job(id).map(OptimizationJob::updates);
+    }
+
+    /**
+     * Cancels a job. A queued job is cancelled right away; a running job stops at its next cancellation check.
+     *
+     * @return the view of the job after the request, or empty if the job is unknown or expired
+     */
+    public Optional<OptimizationJobView> cancel(String id) {
+        return job(id).map(job -> {
+            if (job.cancel(clock.instant())) {
+                queue.remove(job);
+                logger.info("Cancelled queued optimization job {}", id);
+            }
+            return job.view();
+        });
+    }
+
+    /**
+     * Forgets the jobs that finished more than the result TTL ago.
+     *
+     * @return the number of jobs removed
+     */
+    int expire() {
+        int expired = 0;
+        for (OptimizationJob job : jobs.values()) {
+            if (isExpired(job) && jobs.remove(job.id(), job)) {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.debug("Removed {} expired optimization jobs", expired);
+        }
+        return expired;
+    }
+
+    private Optional<OptimizationJob> job(String id) {
+        return Optional.ofNullable(jobs.get(id)).filter(job -> !isExpired(job));
+    }
+
+    private boolean isExpired(OptimizationJob job) {
+        Instant finishedAt = job.finishedAt();
+        return finishedAt != null && finishedAt.plus(properties.resultTtl()).isBefore(clock.instant());
+    }
+
+    private JobPriority priorityOf(CapitalMaximizationQuery query, JobPriority requested) {
+        if (query.availableProjects().size() > properties.batchThreshold()) {
+            return JobPriority.BATCH;
+        }
+        return requested != null ? requested : JobPriority.INTERACTIVE;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            OptimizationJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                run(job);
+            } finally {
+                queue.release(job);
+            }
+        }
+    }
+
+    private void run(OptimizationJob job) {
+        CapitalMaximizationQuery query = job.query();
+        Instant startedAt = clock.instant();
+        if (query == null || !job.start(startedAt)) {
+            // Cancelled while it was being taken off the queue.
+            return;
+        }
+        Timer.builder("planner.jobs.wait")
+                .description("Time optimization jobs spent queued")
+                .tag("priority", job.priority().name())
+                .register(meterRegistry)
+                .record(Duration.between(job.submittedAt(), startedAt));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            var result = projectCapitalOptimizer.computeMaximizedCapital(query, job::isCancelRequested);
+            job.succeed(result, clock.instant());
+            optimizationHistoryRecorder.record(OptimizationSource.JOB, null, query.maxProjects(),
+                    query.initialCapital(), result);
+            logger.info("Optimization job {} succeeded", job.id());
+        } catch (CancellationException e) {
+            job.cancelled(clock.instant());
+            logger.info("Optimization job {} was cancelled while running", job.id());
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), clock.instant());
+            logger.error("Optimization job {} failed", job.id(), e);
+        } finally {
+            sample.stop(Timer.builder("planner.jobs.run")
+                    .description("Time optimization jobs spent running")
+                    .tag("priority", job.priority().name())
+                    .tag("status", job.status().name())
+                    .register(meterRegistry));
+        }
+    }
+}
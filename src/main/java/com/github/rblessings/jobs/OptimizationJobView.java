@@ -0,0 +1,28 @@
+package com.github.rblessings.jobs;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of an optimization job, as returned by the job API.
+ *
+ * @param id          the job ID
+ * @param priority    the priority the job is scheduled with
+ * @param status      the job status at the time of the snapshot
+ * @param submittedAt when the job was admitted
+ * @param startedAt   when a worker picked the job up, or {@code null} while it is queued
+ * @param finishedAt  when the job reached a terminal status, or {@code null} before
+ * @param result      the selected projects and final capital, once the job has succeeded
+ * @param error       why the job failed, once it has failed
+ */
+public record OptimizationJobView(
+        String id,
+        JobPriority priority,
+        JobStatus status,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        ProjectCapitalOptimized result,
+        String error) {
+}
@@ -0,0 +1,95 @@
+package com.github.rblessings.jobs.api;
+
+import com.github.rblessings.jobs.OptimizationJobService;
+import com.github.rblessings.jobs.OptimizationJobView;
+import com.github.rblessings.projects.api.ApiResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Asynchronous capital maximization: submit a query, then poll the job or subscribe to its status changes.
+ *
+ * <p>The routes are outside {@code /apis/v1/analytics}, so that long-lived subscriptions are not counted by the
+ * concurrency limit of the analytics API; jobs are admitted by the job queue instead.</p>
+ */
+@RestController
+@RequestMapping(value = "/apis/v1/jobs")
+public class OptimizationJobsApiController {
+    private static final Logger logger = LoggerFactory.getLogger(OptimizationJobsApiController.class);
+
+    private final OptimizationJobService optimizationJobService;
+
+    public OptimizationJobsApiController(OptimizationJobService optimizationJobService) {
+        this.optimizationJobService = optimizationJobService;
+    }
+
+    /**
+     * Queues a job and returns it with {@link HttpStatus#ACCEPTED} and its URI in the {@code Location} header.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse<OptimizationJobView>>> submit(
+            @Valid @RequestBody SubmitOptimizationJobRequest request, UriComponentsBuilder uriBuilder) {
+
+        logger.info("Received optimization job over {} projects with priority {}",
+                request.query().availableProjects().size(), request.priority());
+
+        return Mono.fromCallable(() -> optimizationJobService.submit(request.query(), request.priority()))
+                .map(job -> ResponseEntity.accepted()
+                        .location(uriBuilder.path("/apis/v1/jobs/{id}").build(job.id()))
+                        .body(ApiResponse.success(HttpStatus.ACCEPTED.value(), job)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<OptimizationJobView>>> find(@PathVariable String id) {
+        return Mono.fromSupplier(() -> toResponse(id, optimizationJobService.find(id)));
+    }
+
+    /**
+     * Streams the job's current status, then every change until it finishes, as server-sent events named after
+     * the status. The last event carries the result or the error.
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<OptimizationJobView>>>> subscribe(@PathVariable String id) {
+        return Mono.fromSupplier(() -> optimizationJobService.updates(id)
+                .map(updates -> ResponseEntity.ok(updates.map(job -> ServerSentEvent.builder(job)
+                        .event(job.status().name().toLowerCase(Locale.ROOT))
+                        .build())))
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Cancels a job. A running job stops at its next cancellation check, so its status may still be
+     * {@code RUNNING} in the response.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<OptimizationJobView>>> cancel(@PathVariable String id) {
+        logger.info("Received cancellation of optimization job {}", id);
+
+        return Mono.fromSupplier(() -> toResponse(id, optimizationJobService.cancel(id)));
+    }
+
+    private static ResponseEntity<ApiResponse<OptimizationJobView>> toResponse(String id, Optional<OptimizationJobView> job) {
+        return job
+                .map(found -> ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), found)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error(HttpStatus.NOT_FOUND.value(), "Job not found: %s".formatted(id))));
+    }
+}
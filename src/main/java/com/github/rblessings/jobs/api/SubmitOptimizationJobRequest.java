@@ -0,0 +1,17 @@
+package com.github.rblessings.jobs.api;
+
+import com.github.rblessings.analytics.CapitalMaximizationQuery;
+import com.github.rblessings.jobs.JobPriority;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO for submitting a capital maximization query as an asynchronous job.
+ */
+public record SubmitOptimizationJobRequest(
+        @NotNull(message = "Query cannot be null")
+        CapitalMaximizationQuery query,
+
+        // Optional; interactive when absent, and batch regardless for queries over the batch threshold
+        JobPriority priority
+) {
+}
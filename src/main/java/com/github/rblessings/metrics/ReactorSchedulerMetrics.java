@@ -0,0 +1,106 @@
+package com.github.rblessings.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.internal.TimedScheduledExecutorService;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Publishes queue depth and task latency of the Reactor schedulers, such as {@code parallel} and
+ * {@code boundedElastic}.
+ *
+ * <p>Once bound, every executor a scheduler creates is decorated. Tasks submitted for immediate execution
+ * record the time they waited in the queue in {@code reactor.scheduler.executor.idle}, and every task records
+ * its execution time in {@code reactor.scheduler.executor}. The gauges {@code reactor.scheduler.tasks.queued}
+ * and {@code reactor.scheduler.tasks.active} sum over the live executors of a scheduler. All meters are tagged
+ * with the scheduler name only, so {@code boundedElastic} replacing its executors does not add meters.</p>
+ *
+ * <p>Executors created before {@link #bind()} are not instrumented, so bind before the schedulers are first
+ * used.</p>
+ */
+public class ReactorSchedulerMetrics implements AutoCloseable {
+    private static final String DECORATOR_KEY = ReactorSchedulerMetrics.class.getName();
+    private static final String METRIC_PREFIX = "reactor.scheduler.";
+    private static final Pattern QUOTED_NAME = Pattern.compile("\"([^\"]+)\"");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Set<ThreadPoolExecutor>> executorsByScheduler = new ConcurrentHashMap<>();
+
+    public ReactorSchedulerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts decorating the executors created by Reactor schedulers.
+     */
+    public void bind() {
+        Schedulers.addExecutorServiceDecorator(DECORATOR_KEY, this::decorate);
+    }
+
+    @Override
+    public void close() {
+        Schedulers.removeExecutorServiceDecorator(DECORATOR_KEY);
+    }
+
+    private ScheduledExecutorService decorate(Scheduler scheduler, ScheduledExecutorService executor) {
+        String name = schedulerName(scheduler);
+        if (executor instanceof ThreadPoolExecutor threadPool) {
+            executorsByScheduler.computeIfAbsent(name, this::registerGauges).add(threadPool);
+        }
+        return new TimedScheduledExecutorService(meterRegistry, executor, name, METRIC_PREFIX, Tags.empty());
+    }
+
+    private Set<ThreadPoolExecutor> registerGauges(String name) {
+        // Executors are held weakly, so the ones a scheduler has disposed of are dropped.
+        Set<ThreadPoolExecutor> executors = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        Gauge.builder(METRIC_PREFIX + "tasks.queued", executors, live -> sum(live, executor -> executor.getQueue().size()))
+                .description("Tasks waiting in the queues of a scheduler, including delayed ones")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "tasks.active", executors, live -> sum(live, ThreadPoolExecutor::getActiveCount))
+                .description("Tasks a scheduler is running")
+                .tag("name", name)
+                .register(meterRegistry);
+        return executors;
+    }
+
+    private static double sum(Set<ThreadPoolExecutor> executors, ToIntFunction<ThreadPoolExecutor> value) {
+        synchronized (executors) {
+            int sum = 0;
+            for (ThreadPoolExecutor executor : executors) {
+                if (!executor.isShutdown()) {
+                    sum += value.applyAsInt(executor);
+                }
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Returns the thread name prefix of a scheduler, e.g. {@code parallel} for
+     * {@code parallel(8,"parallel")}, falling back to the part before its parameters.
+     */
+    static String schedulerName(Scheduler scheduler) {
+        String description = Scannable.from(scheduler).scanOrDefault(Scannable.Attr.NAME, scheduler.toString());
+        Matcher quoted = QUOTED_NAME.matcher(description);
+        if (quoted.find()) {
+            return quoted.group(1);
+        }
+        int parameters = description.indexOf('(');
+        return parameters > 0 ? description.substring(0, parameters) : description;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.rblessings.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WebFilter} that attributes the latency of each request to the layers that caused it.
+ *
+ * <p>The filter makes a {@link RequestTimings} available to the request pipeline. When the response completes,
+ * the time spent in each layer is recorded in the {@code planner.request.layer} timer, tagged with the endpoint
+ * and layer, next to the end-to-end {@code http.server.requests} timer. Unless disabled, the layer times of the
+ * request are also returned in a {@code Server-Timing} response header, so a slow request can be attributed
+ * from the client or a trace of it without querying the metrics.</p>
+ */
+public class RequestTimingWebFilter implements WebFilter {
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+    static final String LAYER_TIMER = "planner.request.layer";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean serverTimingHeader;
+
+    /**
+     * @param meterRegistry      the registry recording the layer timers.
+     * @param serverTimingHeader whether to return the layer times in a {@code Server-Timing} header.
+     */
+    public RequestTimingWebFilter(MeterRegistry meterRegistry, boolean serverTimingHeader) {
+        this.meterRegistry = meterRegistry;
+        this.serverTimingHeader = serverTimingHeader;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var timings = new RequestTimings(System.nanoTime());
+
+        if (serverTimingHeader) {
+            exchange.getResponse().beforeCommit(() -> {
+                exchange.getResponse().getHeaders().set(SERVER_TIMING_HEADER, serverTiming(timings));
+                return Mono.empty();
+            });
+        }
+
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(RequestTimings.contextKey(), timings))
+                .doFinally(signal -> record(exchange, timings));
+    }
+
+    private void record(ServerWebExchange exchange, RequestTimings timings) {
+        String uri = uri(exchange);
+        String method = exchange.getRequest().getMethod().name();
+        for (Map.Entry<String, Long> layer : timings.layerNanos().entrySet()) {
+            Timer.builder(LAYER_TIMER)
+                    .description("Time spent by a request in one layer of the service")
+                    .tag("uri", uri)
+                    .tag("method", method)
+                    .tag("layer", layer.getKey())
+                    .register(meterRegistry)
+                    .record(layer.getValue(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String uri(ServerWebExchange exchange) {
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.getPatternString() : UNKNOWN_URI;
+    }
+
+    /**
+     * Formats the layer times as {@code Server-Timing} metrics, e.g. {@code mongo;dur=12.3, total;dur=15.0}.
+     * Layers still running when the response is committed, such as the source of a streamed body, are left out.
+     */
+    static String serverTiming(RequestTimings timings) {
+        var header = new StringJoiner(", ");
+        timings.layerNanos().forEach((layer, nanos) -> header.add(metric(layer, nanos)));
+        header.add(metric("total", System.nanoTime() - timings.startNanos()));
+        return header.toString();
+    }
+
+    private static String metric(String name, long nanos) {
+        return String.format(Locale.ROOT, "%s;dur=%.1f", name, nanos / 1_000_000.0);
+    }
+}
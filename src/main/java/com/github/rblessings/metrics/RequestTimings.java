@@ -0,0 +1,86 @@
+package com.github.rblessings.metrics;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time a single request spends in each layer of the service, such as the request body buffering, Redis and
+ * Mongo.
+ *
+ * <p>{@link RequestTimingWebFilter} puts an instance into the Reactor context of every request. Layers wrap
+ * their publishers with {@link #time(String, Mono)} or {@link #time(String, Flux)}, which add the time from
+ * subscription to termination to the current request; outside a request they are a no-op. Layers that run
+ * concurrently within a request are each timed in full, so their sum can exceed the request latency.</p>
+ */
+public final class RequestTimings {
+    public static final String BUFFER = "buffer";
+    public static final String MONGO = "mongo";
+    public static final String REDIS = "redis";
+
+    private static final Class<RequestTimings> CONTEXT_KEY = RequestTimings.class;
+
+    private final long startNanos;
+    private final Map<String, Long> layerNanos = new ConcurrentHashMap<>();
+
+    RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Times {@code source} as part of {@code layer} for the current request.
+     *
+     * @param layer  the layer name, used as a low-cardinality metric tag
+     * @param source the publisher to time
+     * @return a {@link Mono} behaving like {@code source}
+     */
+    public static <T> Mono<T> time(String layer, Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            RequestTimings timings = context.getOrDefault(CONTEXT_KEY, null);
+            if (timings == null) {
+                return source;
+            }
+            long start = System.nanoTime();
+            return source.doFinally(signal -> timings.add(layer, System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Times {@code source} as part of {@code layer} for the current request.
+     *
+     * @param layer  the layer name, used as a low-cardinality metric tag
+     * @param source the publisher to time
+     * @return a {@link Flux} behaving like {@code source}
+     */
+    public static <T> Flux<T> time(String layer, Flux<T> source) {
+        return Flux.deferContextual(context -> {
+            RequestTimings timings = context.getOrDefault(CONTEXT_KEY, null);
+            if (timings == null) {
+                return source;
+            }
+            long start = System.nanoTime();
+            return source.doFinally(signal -> timings.add(layer, System.nanoTime() - start));
+        });
+    }
+
+    static Class<RequestTimings> contextKey() {
+        return CONTEXT_KEY;
+    }
+
+    void add(String layer, long nanos) {
+        layerNanos.merge(layer, nanos, Long::sum);
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Returns the time spent in each layer so far, in nanoseconds.
+     */
+    Map<String, Long> layerNanos() {
+        return Map.copyOf(layerNanos);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.rblessings.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one run of the capital optimizer, committed when the selection completes.
+ *
+ * <p>The event duration covers the whole run; the phase fields split it into sorting the pool and the greedy
+ * selection. For a sharded pool the projects are merged and selected as they arrive, so there is no separate
+ * sort phase.</p>
+ */
+@Name("com.github.rblessings.CapitalOptimization")
+@Label("Capital Optimization")
+@Category({"ROI Project Planner", "Optimizer"})
+@Description("A run of the greedy capital maximization")
+@StackTrace(false)
+public class CapitalOptimizationEvent extends Event {
+    public static final String IN_MEMORY = "in-memory";
+    public static final String SHARDED = "sharded";
+
+    @Label("Mode")
+    @Description("How the pool was read: in-memory or sharded")
+    public String mode;
+
+    @Label("Pool Size")
+    @Description("Projects considered; for a sharded pool, the projects pulled before the selection completed")
+    public int poolSize;
+
+    @Label("Shards")
+    public int shards;
+
+    @Label("Max Projects")
+    @Description("The maximum number of projects to select (k)")
+    public int maxProjects;
+
+    @Label("Selected Projects")
+    public int selectedProjects;
+
+    @Label("Sort Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sortDuration;
+
+    @Label("Select Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long selectDuration;
+
+    @Label("Heap Peak")
+    @Description("Largest number of affordable projects held in the profit max-heap")
+    public int heapPeak;
+}
@@ -0,0 +1,225 @@
+package com.github.rblessings.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Actuator endpoint that records a bounded JDK Flight Recorder recording on demand.
+ *
+ * <ul>
+ *     <li>{@code POST /actuator/jfr} starts a recording, optionally with a {@code duration} and JDK
+ *     {@code settings}. Only one recording runs at a time.</li>
+ *     <li>{@code GET /actuator/jfr} reports the state of the current recording.</li>
+ *     <li>{@code DELETE /actuator/jfr} stops the recording, if still running, and returns it as a {@code .jfr}
+ *     file.</li>
+ * </ul>
+ *
+ * <p>Recordings include the JDK's GC, allocation and thread events next to the application's
+ * {@link CapitalOptimizationEvent}s and {@link ProjectIngestEvent}s, so both can be correlated in JDK Mission
+ * Control or with {@code jfr print}. Every recording stops on its own after its duration, capped at the
+ * configured maximum, and is bounded in size on disk.</p>
+ *
+ * <p>While {@code planner.profiling.enabled} is off, every operation answers {@code 404}.</p>
+ */
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+
+    private static final String RECORDING_NAME = "roi-project-planner";
+    private static final int CONFLICT = 409;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+
+    private final ProfilingProperties properties;
+    private Recording recording;
+
+    public JfrRecordingEndpoint(ProfilingProperties properties) {
+        this.properties = properties;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingStatus> start(@Nullable Duration duration,
+                                                                   @Nullable String settings) {
+        if (!properties.enabled()) {
+            return new WebEndpointResponse<>(NOT_FOUND);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(recording), CONFLICT);
+        }
+
+        Duration requested = duration != null ? duration : properties.defaultDuration();
+        if (requested.isZero() || requested.isNegative()) {
+            return new WebEndpointResponse<>(BAD_REQUEST);
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : properties.settings());
+        } catch (IOException | ParseException e) {
+            logger.warn("Unknown JFR settings: {}", settings, e);
+            return new WebEndpointResponse<>(BAD_REQUEST);
+        }
+
+        closeRecording();
+        var newRecording = new Recording(configuration);
+        newRecording.setName(RECORDING_NAME);
+        newRecording.setToDisk(true);
+        newRecording.setDuration(min(requested, properties.maxDuration()));
+        newRecording.setMaxSize(properties.maxSize().toBytes());
+        newRecording.enable(CapitalOptimizationEvent.class);
+        newRecording.enable(ProjectIngestEvent.class);
+        newRecording.start();
+        recording = newRecording;
+
+        logger.info("Started JFR recording for {} with {} settings", newRecording.getDuration(), configuration.getName());
+        return new WebEndpointResponse<>(status(newRecording));
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<RecordingStatus> status() {
+        return !properties.enabled() || recording == null
+                ? new WebEndpointResponse<>(NOT_FOUND)
+                : new WebEndpointResponse<>(status(recording));
+    }
+
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (!properties.enabled() || recording == null) {
+            return new WebEndpointResponse<>(NOT_FOUND);
+        }
+
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            closeRecording();
+        }
+
+        logger.info("Stopped JFR recording; returning {} bytes", Files.size(file));
+        return new WebEndpointResponse<>(new TemporaryFileSystemResource(file));
+    }
+
+    @Override
+    public synchronized void close() {
+        closeRecording();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static RecordingStatus status(Recording recording) {
+        return new RecordingStatus(recording.getName(), recording.getState().name(), recording.getStartTime(),
+                recording.getDuration(), recording.getMaxSize());
+    }
+
+    /**
+     * State of the current recording.
+     *
+     * @param name         the recording name.
+     * @param state        the JFR recording state, e.g. {@code RUNNING} or {@code STOPPED}.
+     * @param startTime    when the recording started.
+     * @param duration     how long the recording runs before it stops on its own.
+     * @param maxSizeBytes the size on disk beyond which the oldest data is discarded.
+     */
+    public record RecordingStatus(String name, String state, Instant startTime, Duration duration, long maxSizeBytes) {
+    }
+
+    /**
+     * File resource that deletes the file once it has been read. It does not expose the file itself, so that
+     * the response is written from the channel rather than with a zero-copy transfer of the file.
+     */
+    private static final class TemporaryFileSystemResource extends FileSystemResource {
+
+        private TemporaryFileSystemResource(Path path) {
+            super(path);
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            ReadableByteChannel channel = super.readableChannel();
+            return new ReadableByteChannel() {
+                @Override
+                public int read(ByteBuffer dst) throws IOException {
+                    return channel.read(dst);
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return channel.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        channel.close();
+                    } finally {
+                        deleteFile();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deleteFile();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+
+        private void deleteFile() {
+            try {
+                Files.deleteIfExists(getFile().toPath());
+            } catch (IOException e) {
+                logger.warn("Unable to delete temporary recording {}", getPath(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.rblessings.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Limits of the on-demand JFR recordings started through the {@code jfr} actuator endpoint.
+ *
+ * <p>A recording runs for {@code defaultDuration} unless the request asks for another duration, and never
+ * longer than {@code maxDuration}. Once the recording exceeds {@code maxSize} on disk, its oldest data is
+ * discarded. {@code settings} names the JDK configuration used by default: {@code default} for continuous
+ * use, or {@code profile} for allocation and method sampling at a higher overhead.</p>
+ */
+@ConfigurationProperties(prefix = "planner.profiling")
+public record ProfilingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2m") Duration defaultDuration,
+        @DefaultValue("10m") Duration maxDuration,
+        @DefaultValue("256MB") DataSize maxSize,
+        @DefaultValue("profile") String settings
+) {
+}
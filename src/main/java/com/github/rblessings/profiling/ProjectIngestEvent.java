@@ -0,0 +1,83 @@
+package com.github.rblessings.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one batch saved by {@code ProjectService.addAll}, committed when the batch completes or fails.
+ *
+ * <p>The event duration covers the whole batch; the phase fields split it into the Mongo save and the
+ * write-through to the cache.</p>
+ */
+@Name("com.github.rblessings.ProjectIngest")
+@Label("Project Ingest Batch")
+@Category({"ROI Project Planner", "Ingest"})
+@Description("A batch of projects saved and written through to the cache")
+@StackTrace(false)
+public class ProjectIngestEvent extends Event {
+
+    @Label("Batch Size")
+    public int batchSize;
+
+    @Label("Saved Projects")
+    public int savedProjects;
+
+    @Label("Cached Projects")
+    @Description("Cache entries written; entries already holding the same or a newer version are skipped")
+    public long cachedProjects;
+
+    @Label("Save Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long saveDuration;
+
+    @Label("Cache Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long cacheDuration;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    private transient long phaseStart;
+
+    /**
+     * Starts timing the batch and its save phase.
+     */
+    public void started() {
+        begin();
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Ends the save phase and starts the cache phase.
+     */
+    public void saved(int count) {
+        long now = System.nanoTime();
+        saveDuration = now - phaseStart;
+        savedProjects = count;
+        phaseStart = now;
+    }
+
+    /**
+     * Ends the cache phase.
+     */
+    public void cached(long count) {
+        cacheDuration = System.nanoTime() - phaseStart;
+        cachedProjects = count;
+    }
+
+    /**
+     * Ends the batch and commits the event if a recording is interested in it.
+     */
+    public void finished(boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.rblessings.projects.api;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Media types accepted and produced by the HTTP APIs in addition to JSON.
+ *
+ * <p>Smile is a binary JSON encoding: it keeps the JSON data model, so the same DTOs are exchanged, but encodes
+ * numbers (including {@link java.math.BigDecimal}) and repeated field names compactly instead of as text.</p>
+ */
+public final class ApiMediaTypes {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    /**
+     * Streaming variant of {@link #APPLICATION_SMILE}, the binary counterpart of {@code application/x-ndjson}.
+     */
+    public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+    public static final MediaType APPLICATION_STREAM_SMILE = MediaType.parseMediaType(APPLICATION_STREAM_SMILE_VALUE);
+
+    private ApiMediaTypes() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+}
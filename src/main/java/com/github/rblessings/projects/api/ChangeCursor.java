@@ -0,0 +1,50 @@
+package com.github.rblessings.projects.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+import static com.github.rblessings.projects.model.Validators.requireNonNullOrBlank;
+
+/**
+ * Position in the change feed of the projects: the last modification time and ID of the last project a client
+ * has received. Changes are ordered by modification time, then ID, so the position is exact even when several
+ * projects share a modification time.
+ *
+ * <p>Clients receive the cursor as an opaque URL-safe token and must not parse it.</p>
+ */
+public record ChangeCursor(
+        Instant updatedAt,
+        String id
+) {
+    private static final String VERSION_PREFIX = "1:";
+
+    public ChangeCursor {
+        requireNonNull(updatedAt, () -> "Cursor modification time must not be null");
+        requireNonNullOrBlank(id, () -> "Cursor project ID must not be null or blank");
+    }
+
+    public String encode() {
+        String plain = VERSION_PREFIX + updatedAt.toEpochMilli() + ':' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token returned by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token was not issued by this version of the feed
+     */
+    public static ChangeCursor decode(String token) {
+        String plain = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        if (!plain.startsWith(VERSION_PREFIX)) {
+            throw new IllegalArgumentException("Unsupported cursor version");
+        }
+        int separator = plain.indexOf(':', VERSION_PREFIX.length());
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        long updatedAt = Long.parseLong(plain.substring(VERSION_PREFIX.length(), separator));
+        return new ChangeCursor(Instant.ofEpochMilli(updatedAt), plain.substring(separator + 1));
+    }
+}
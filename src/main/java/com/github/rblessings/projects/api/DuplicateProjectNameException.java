@@ -0,0 +1,23 @@
+package com.github.rblessings.projects.api;
+
+import java.util.List;
+
+/**
+ * Thrown when projects cannot be created because their names are repeated within the request or already taken
+ * by stored projects. Nothing of the request has been written.
+ */
+public class DuplicateProjectNameException extends RuntimeException {
+    private final List<String> names;
+
+    public DuplicateProjectNameException(String message, List<String> names) {
+        super("%s: %s".formatted(message, String.join(", ", names)));
+        this.names = List.copyOf(names);
+    }
+
+    /**
+     * Returns the duplicate names.
+     */
+    public List<String> getNames() {
+        return names;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.rblessings.projects.api;
+
+import com.github.rblessings.projects.model.ProjectDTO;
+
+import java.util.List;
+
+/**
+ * One page of the change feed of the projects.
+ *
+ * @param projects the projects created or modified since the requested cursor, oldest change first
+ * @param cursor   the token to resume from, or {@code null} if nothing has changed yet
+ * @param hasMore  whether more changes are already available, in which case the client should ask again right away
+ */
+public record ProjectChanges(
+        List<ProjectDTO> projects,
+        String cursor,
+        boolean hasMore
+) {
+}
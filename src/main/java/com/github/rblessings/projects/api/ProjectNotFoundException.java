@@ -0,0 +1,20 @@
+package com.github.rblessings.projects.api;
+
+/**
+ * Thrown when no project is stored under a requested ID.
+ */
+public class ProjectNotFoundException extends RuntimeException {
+    private final String id;
+
+    public ProjectNotFoundException(String id) {
+        super("Project not found for ID: %s".formatted(id));
+        this.id = id;
+    }
+
+    /**
+     * Returns the requested ID.
+     */
+    public String getId() {
+        return id;
+    }
+}
@@ -1,18 +1,30 @@
 package com.github.rblessings.projects.api;
 
+import com.github.rblessings.cache.ProjectIdCache;
+import com.github.rblessings.metrics.RequestTimings;
+import com.github.rblessings.profiling.ProjectIngestEvent;
+import com.github.rblessings.projects.names.ProjectNameFilter;
 import com.github.rblessings.projects.model.ProjectDTO;
 import com.github.rblessings.projects.model.ProjectEntity;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import com.github.rblessings.projects.model.ProjectName;
 import com.github.rblessings.projects.model.ProjectRepository;
-import org.springframework.cache.annotation.Cacheable;
+import com.github.rblessings.projects.ranking.ProjectProfitIndex;
+import com.github.rblessings.projects.search.ProjectNameSearchIndex;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 import reactor.core.scheduler.Schedulers;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
-import java.util.NoSuchElementException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
-import static com.github.rblessings.configuration.CacheConfiguration.PROJECT_ID_CACHE_KEY;
 import static com.github.rblessings.projects.model.Validators.requireNonNullAndNoNullElements;
 
 /**
@@ -20,40 +32,241 @@ import static com.github.rblessings.projects.model.Validators.requireNonNullAndN
  */
 @Service
 public class ProjectService {
+
+    /**
+     * How old a change must be before the change feed returns it. Modification times are stamped by the instance
+     * writing a project, before the write commits; without this window, a slow write, or one from an instance whose
+     * clock lags, could commit behind a cursor already handed out and never be returned.
+     */
+    static final Duration CHANGE_SETTLE_TIME = Duration.ofSeconds(5);
+
     private final ProjectRepository projectRepository;
+    private final ProjectIdCache projectIdCache;
+    private final ProjectNameFilter projectNameFilter;
+    private final ProjectProfitIndex projectProfitIndex;
+    private final ProjectNameSearchIndex projectNameSearchIndex;
 
-    public ProjectService(ProjectRepository projectRepository) {
+    public ProjectService(ProjectRepository projectRepository, ProjectIdCache projectIdCache,
+                          ProjectNameFilter projectNameFilter, ProjectProfitIndex projectProfitIndex,
+                          ProjectNameSearchIndex projectNameSearchIndex) {
         this.projectRepository = projectRepository;
+        this.projectIdCache = projectIdCache;
+        this.projectNameFilter = projectNameFilter;
+        this.projectProfitIndex = projectProfitIndex;
+        this.projectNameSearchIndex = projectNameSearchIndex;
     }
 
     /**
-     * Saves multiple projects to the repository.
+     * Saves multiple projects to the repository and writes them through to the {@code project-id} cache.
+     *
+     * <p>The saved projects are cached in one pipelined batch, so they hit on their first read. A cached
+     * project is only replaced by a newer version. Failing to cache does not fail the save.</p>
+     *
+     * <p>Before anything is written, the names are screened: names repeated within the batch are rejected
+     * without any lookup, and of the other names, only those the {@link ProjectNameFilter} reports as possibly
+     * taken are looked up in the unique {@code name} index.</p>
+     *
+     * <p>The saved projects are added to the {@link ProjectProfitIndex} and the {@link ProjectNameSearchIndex}.</p>
+     *
+     * <p>Each batch is recorded as a {@link ProjectIngestEvent} while a JFR recording is active.</p>
      *
      * @param projects the projects to save
      * @return a {@link Flux} of {@link ProjectDTO} representing the saved projects
-     * @throws IllegalArgumentException if the collection is null or empty
+     * @throws IllegalArgumentException       if the collection is null or empty
+     * @throws DuplicateProjectNameException if a name is repeated in the batch or already taken
      */
     public Flux<ProjectDTO> addAll(Iterable<ProjectEntity> projects) {
-        return Mono.fromCallable(() -> {
-                    requireNonNullAndNoNullElements((Collection<ProjectEntity>) projects, () -> "Projects cannot be null or empty");
-                    return projects;
+        return Flux.defer(() -> {
+            var event = new ProjectIngestEvent();
+            event.started();
+            return Mono.fromCallable(() -> {
+                        requireNonNullAndNoNullElements((Collection<ProjectEntity>) projects, () -> "Projects cannot be null or empty");
+                        event.batchSize = ((Collection<ProjectEntity>) projects).size();
+                        return projects;
+                    })
+                    .subscribeOn(Schedulers.boundedElastic()) // Offload to a thread pool for blocking operations
+                    .flatMap(entities -> screenNames((Collection<ProjectEntity>) entities).thenReturn(entities))
+                    .flatMapMany(entities -> RequestTimings.time(RequestTimings.MONGO, projectRepository.saveAll(entities)))
+                    .map(ProjectDTO::fromEntity)
+                    .collectList()
+                    .doOnNext(saved -> {
+                        event.saved(saved.size());
+                        projectNameFilter.addAll(saved.stream().map(ProjectDTO::name).toList());
+                        projectProfitIndex.addAll(saved.stream()
+                                .map(project -> new ProjectFinancials(project.id(), project.requiredCapital(), project.profit()))
+                                .toList());
+                        projectNameSearchIndex.addAll(saved.stream()
+                                .map(project -> new ProjectName(project.id(), project.name()))
+                                .toList());
+                    })
+                    .flatMapMany(saved -> projectIdCache.putAll(saved)
+                            .doOnNext(event::cached)
+                            .thenMany(Flux.fromIterable(saved)))
+                    .doFinally(signal -> event.finished(signal == SignalType.ON_COMPLETE));
+        });
+    }
+
+    /**
+     * Inserts a batch of projects from the ingest channel in one bulk write, and adds the inserted projects to the
+     * {@link ProjectNameFilter}, the {@link ProjectProfitIndex} and the {@link ProjectNameSearchIndex}.
+     *
+     * <p>Unlike {@link #addAll}, projects whose name is already taken are skipped instead of failing the batch,
+     * so that a redelivered batch is written once. The projects are not written through to the cache.</p>
+     *
+     * @param projects the projects to insert
+     * @return a {@link Mono} of the number of projects inserted
+     */
+    public Mono<Integer> ingestAll(List<ProjectEntity> projects) {
+        return projectRepository.insertAllSkippingExistingNames(projects)
+                .doOnNext(inserted -> {
+                    projectNameFilter.addAll(inserted.stream().map(ProjectEntity::name).toList());
+                    projectProfitIndex.addAll(inserted.stream()
+                            .map(project -> new ProjectFinancials(project.id(), project.requiredCapital(), project.profit()))
+                            .toList());
+                    projectNameSearchIndex.addAll(inserted.stream()
+                            .map(project -> new ProjectName(project.id(), project.name()))
+                            .toList());
                 })
-                .subscribeOn(Schedulers.boundedElastic()) // Offload to a thread pool for blocking operations
-                .flatMapMany(projectRepository::saveAll)
+                .map(List::size);
+    }
+
+    /**
+     * Rejects a batch whose names are repeated or already taken. Until the name filter is built, stored names are
+     * not looked up, and the unique index rejects them on write as before.
+     */
+    private Mono<Void> screenNames(Collection<ProjectEntity> projects) {
+        Set<String> names = new HashSet<>();
+        List<String> repeated = projects.stream()
+                .map(ProjectEntity::name)
+                .filter(name -> !names.add(name))
+                .distinct()
+                .toList();
+        if (!repeated.isEmpty()) {
+            return Mono.error(new DuplicateProjectNameException("Project names are repeated in the request", repeated));
+        }
+        if (!projectNameFilter.isReady()) {
+            return Mono.empty();
+        }
+
+        List<String> maybeTaken = names.stream()
+                .filter(projectNameFilter::mightContain)
+                .toList();
+        if (maybeTaken.isEmpty()) {
+            return Mono.empty();
+        }
+        return RequestTimings.time(RequestTimings.MONGO, projectRepository.findExistingNames(maybeTaken).collectList())
+                .flatMap(taken -> taken.isEmpty()
+                        ? Mono.empty()
+                        : Mono.error(new DuplicateProjectNameException("Project names already exist", taken)));
+    }
+
+    /**
+     * Retrieves all projects from the repository.
+     *
+     * @return a {@link Flux} of {@link ProjectDTO} for every stored project
+     */
+    public Flux<ProjectDTO> findAll() {
+        return projectRepository.findAll()
+                .map(ProjectDTO::fromEntity);
+    }
+
+    /**
+     * Retrieves the most profitable projects requiring at most the given capital, from the {@link ProjectProfitIndex}.
+     *
+     * @param maxCapital the capital available
+     * @param limit      the maximum number of projects to return
+     * @return a {@link Flux} of {@link ProjectFinancials} in descending order of profit
+     */
+    public Flux<ProjectFinancials> findTopByProfit(BigDecimal maxCapital, int limit) {
+        return projectProfitIndex.findTopByProfit(maxCapital, limit);
+    }
+
+    /**
+     * Searches projects by name, from the {@link ProjectNameSearchIndex}.
+     *
+     * @param query the text the names must start with or contain, case-insensitively
+     * @param limit the maximum number of projects to return
+     * @return a {@link Flux} of {@link ProjectName}, names starting with the query first
+     */
+    public Flux<ProjectName> searchByName(String query, int limit) {
+        return projectNameSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Retrieves the financial projection of all projects in one collection of a sharded project pool,
+     * ordered by required capital.
+     *
+     * @param collectionName the collection holding the shard
+     * @return a {@link Flux} of {@link ProjectFinancials} read from the covering index
+     */
+    public Flux<ProjectFinancials> findAllFinancials(String collectionName) {
+        return projectRepository.findAllFinancials(collectionName);
+    }
+
+    /**
+     * Retrieves the projects with the given IDs from one collection of a sharded project pool.
+     * Missing IDs are skipped.
+     *
+     * @param ids            the IDs of the projects to retrieve
+     * @param collectionName the collection holding the projects
+     * @return a {@link Flux} of {@link ProjectDTO} for the projects found
+     */
+    public Flux<ProjectDTO> findAllById(Iterable<String> ids, String collectionName) {
+        return projectRepository.findAllById(ids, collectionName)
+                .map(ProjectDTO::fromEntity);
+    }
+
+    /**
+     * Retrieves the projects with the given IDs, in no particular order. Missing IDs are skipped.
+     *
+     * @param ids the IDs of the projects to retrieve
+     * @return a {@link Flux} of {@link ProjectDTO} for the projects found
+     */
+    public Flux<ProjectDTO> findAllById(Iterable<String> ids) {
+        return projectRepository.findAllById(ids)
                 .map(ProjectDTO::fromEntity);
     }
 
     /**
-     * Retrieves a project by its ID from the repository, with caching for improved performance.
+     * Retrieves the projects created or modified after a position of the change feed, oldest change first.
+     *
+     * <p>Changes made in the last {@link #CHANGE_SETTLE_TIME} are held back until they are settled, so that a
+     * cursor never moves past a change that has not committed yet. Resuming from the returned cursor never misses
+     * or repeats a change, as long as each project is returned in its latest version.</p>
+     *
+     * @param after the position to resume from, or {@code null} to start from the oldest change
+     * @param limit the maximum number of projects to return
+     * @return a {@link Mono} of {@link ProjectChanges} with the cursor to resume from
+     */
+    public Mono<ProjectChanges> findChangesSince(ChangeCursor after, int limit) {
+        return Mono.defer(() -> {
+            Instant settled = Instant.now().minus(CHANGE_SETTLE_TIME);
+            // Read one more project than requested, to tell whether more changes are waiting.
+            return RequestTimings.time(RequestTimings.MONGO, projectRepository.findChangedAfter(
+                            after == null ? null : after.updatedAt(), after == null ? null : after.id(), settled, limit + 1)
+                    .map(ProjectDTO::fromEntity)
+                    .collectList());
+        }).map(changed -> {
+            boolean hasMore = changed.size() > limit;
+            List<ProjectDTO> page = hasMore ? changed.subList(0, limit) : changed;
+            if (page.isEmpty()) {
+                return new ProjectChanges(page, after == null ? null : after.encode(), false);
+            }
+            ProjectDTO last = page.getLast();
+            return new ProjectChanges(page, new ChangeCursor(last.auditMetadata().updatedAt(), last.id()).encode(), hasMore);
+        });
+    }
+
+    /**
+     * Retrieves a project by its ID, from the {@code project-id} cache or else from the repository.
      *
      * @param id the ID of the project to retrieve
      * @return a {@link Mono} containing the {@link ProjectDTO} if found
-     * @throws NoSuchElementException if no project is found with the given ID
+     * @throws ProjectNotFoundException if no project is found with the given ID
      */
-    @Cacheable(value = PROJECT_ID_CACHE_KEY, key = "#id")
     public Mono<ProjectDTO> findById(String id) {
-        return projectRepository.findById(id)
-                .switchIfEmpty(Mono.error(new NoSuchElementException("Project not found for ID: %s".formatted(id))))
-                .map(ProjectDTO::fromEntity);
+        return projectIdCache.getOrLoad(id, () -> RequestTimings.time(RequestTimings.MONGO, projectRepository.findById(id))
+                .switchIfEmpty(Mono.error(new ProjectNotFoundException(id)))
+                .map(ProjectDTO::fromEntity));
     }
 }
@@ -1,70 +1,222 @@
 package com.github.rblessings.projects.api;
 
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.rblessings.idempotency.IdempotencyConflictException;
+import com.github.rblessings.idempotency.IdempotencyService;
+import com.github.rblessings.metrics.RequestTimings;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import com.github.rblessings.projects.model.ProjectDTO;
 import com.github.rblessings.projects.model.ProjectEntity;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import com.github.rblessings.projects.model.ProjectName;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.util.List;
 
+import static com.github.rblessings.projects.api.ApiMediaTypes.APPLICATION_STREAM_SMILE_VALUE;
+
 @RestController
 @RequestMapping(value = "/apis/v1/projects")
 public class ProjectsApiController {
     private static final Logger logger = LoggerFactory.getLogger(ProjectsApiController.class);
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String CREATE_PROJECTS_SCOPE = "projects:create";
+    static final int MAX_TOP_PROFIT_LIMIT = 1000;
+    static final int MAX_SEARCH_LIMIT = 100;
+    static final int MAX_SEARCH_QUERY_LENGTH = 200;
+    static final int MAX_CHANGES_LIMIT = 1000;
+    private static final TypeReference<List<ProjectDTO>> PROJECT_LIST_TYPE = new TypeReference<>() {
+    };
+
     private final ProjectService projectService;
+    private final IdempotencyService idempotencyService;
 
-    public ProjectsApiController(ProjectService projectService) {
+    public ProjectsApiController(ProjectService projectService, IdempotencyService idempotencyService) {
         this.projectService = projectService;
+        this.idempotencyService = idempotencyService;
     }
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
     @CircuitBreaker(name = "projectsApi", fallbackMethod = "createNewProjectsFallback")
     @Retry(name = "projectsApi")
-    @RateLimiter(name = "projectsApi")
-    @Bulkhead(name = "projectsApi")
     @TimeLimiter(name = "projectsApi")
     public Mono<ApiResponse<List<ProjectDTO>>> createProjects(
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody Flux<CreateProjectsRequest> requestFlux) {
 
         logger.info("Received request to create new projects");
 
-        return requestFlux
-                .doOnNext(request -> logger.debug("Processing project: {}", request))
-                .map(this::toProjectEntity)
-                .collectList()
-                .flatMap(this::saveProjects)
+        // The request body can only be consumed once; cache it so that retries replay the buffered batch.
+        // Reading and decoding the whole body is timed as the buffer layer of the request.
+        Mono<List<CreateProjectsRequest>> requests = RequestTimings.time(RequestTimings.BUFFER, requestFlux
+                        .doOnNext(request -> logger.debug("Processing project: {}", request))
+                        .collectList())
+                .cache();
+
+        return requests
+                .flatMap(batch -> idempotencyKey == null
+                        ? createBatch(batch)
+                        : idempotencyService.execute(idempotencyKey, CREATE_PROJECTS_SCOPE, batch,
+                        PROJECT_LIST_TYPE, () -> createBatch(batch), ProjectsApiController::rejectedBeforeWriting))
+                .map(result -> ApiResponse.success(HttpStatus.CREATED.value(), result))
                 .doOnError(error -> logger.error("Error occurred while creating projects", error));
     }
 
+    /**
+     * Streams every stored project as it is read, one element at a time, as NDJSON or streaming Smile.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<ProjectDTO> streamProjects() {
+        logger.info("Received request to stream all projects");
+        return projectService.findAll()
+                .doOnError(error -> logger.error("Error occurred while streaming projects", error));
+    }
+
+    /**
+     * Returns one project, with its version as a strong {@code ETag}. A request whose {@code If-None-Match} matches
+     * the current version receives {@code 304 Not Modified} without a body.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<ProjectDTO>>> findById(@PathVariable String id) {
+        return projectService.findById(id)
+                .map(project -> {
+                    // The body is left out by the result handler when the request's validators match these.
+                    var response = ResponseEntity.ok()
+                            .eTag(Long.toString(project.version()))
+                            .cacheControl(CacheControl.noCache());
+                    if (project.auditMetadata().updatedAt() != null) {
+                        response.lastModified(project.auditMetadata().updatedAt());
+                    }
+                    return response.body(ApiResponse.success(HttpStatus.OK.value(), project));
+                });
+    }
+
+    /**
+     * Returns the projects created or modified since {@code cursor}, oldest change first, with the cursor to resume
+     * from. Without a cursor, the feed starts from the oldest change, so a first sync pages through every project
+     * and later syncs only receive what changed.
+     */
+    @GetMapping("/changes")
+    public Mono<ApiResponse<ProjectChanges>> findChanges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            throw new ServerWebInputException("limit must be between 1 and %d".formatted(MAX_CHANGES_LIMIT));
+        }
+        ChangeCursor after;
+        try {
+            after = cursor == null ? null : ChangeCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("cursor is not a valid change feed cursor");
+        }
+
+        return projectService.findChangesSince(after, limit)
+                .map(result -> ApiResponse.success(HttpStatus.OK.value(), result))
+                .doOnError(error -> logger.error("Error occurred while reading the project changes", error));
+    }
+
+    /**
+     * Returns the most profitable projects requiring at most {@code maxCapital}, most profitable first, answered
+     * from the in-memory profit index without reading the project pool.
+     */
+    @GetMapping("/top-profit")
+    public Mono<ApiResponse<List<ProjectFinancials>>> findTopByProfit(
+            @RequestParam BigDecimal maxCapital,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        if (maxCapital.signum() < 0) {
+            throw new ServerWebInputException("maxCapital must be non-negative");
+        }
+        if (limit < 1 || limit > MAX_TOP_PROFIT_LIMIT) {
+            throw new ServerWebInputException("limit must be between 1 and %d".formatted(MAX_TOP_PROFIT_LIMIT));
+        }
+
+        return projectService.findTopByProfit(maxCapital, limit)
+                .collectList()
+                .map(result -> ApiResponse.success(HttpStatus.OK.value(), result))
+                .doOnError(error -> logger.error("Error occurred while finding the top projects by profit", error));
+    }
+
+    /**
+     * Returns the projects whose name starts with or contains {@code q}, case-insensitively, names starting with it
+     * first, answered from the in-memory name search index. Queries shorter than three characters only match the
+     * start of names.
+     */
+    @GetMapping("/search")
+    public Mono<ApiResponse<List<ProjectName>>> searchByName(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        if (q.isBlank() || q.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new ServerWebInputException("q must be between 1 and %d characters and not blank"
+                    .formatted(MAX_SEARCH_QUERY_LENGTH));
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ServerWebInputException("limit must be between 1 and %d".formatted(MAX_SEARCH_LIMIT));
+        }
+
+        return projectService.searchByName(q, limit)
+                .collectList()
+                .map(result -> ApiResponse.success(HttpStatus.OK.value(), result))
+                .doOnError(error -> logger.error("Error occurred while searching projects by name", error));
+    }
+
+    private Mono<List<ProjectDTO>> createBatch(List<CreateProjectsRequest> batch) {
+        return saveProjects(batch.stream().map(this::toProjectEntity).toList());
+    }
+
     private ProjectEntity toProjectEntity(CreateProjectsRequest request) {
         return ProjectEntity.createNewProject(request.name(), request.requiredCapital(), request.profit());
     }
 
-    private Mono<ApiResponse<List<ProjectDTO>>> saveProjects(List<ProjectEntity> projects) {
+    private Mono<List<ProjectDTO>> saveProjects(List<ProjectEntity> projects) {
         logger.info("Saving {} projects", projects.size());
 
         return projectService.addAll(projects)
                 .collectList()
-                .doOnSuccess(result -> logger.info("Successfully created {} projects", result.size()))
-                .map(result -> ApiResponse.success(HttpStatus.CREATED.value(), result));
+                .doOnSuccess(result -> logger.info("Successfully created {} projects", result.size()));
+    }
+
+    /**
+     * Returns whether creating a batch failed before any project was written: the batch is screened, and rejected
+     * if invalid or if a name is taken, before the bulk write starts.
+     */
+    private static boolean rejectedBeforeWriting(Throwable error) {
+        return error instanceof DuplicateProjectNameException || error instanceof IllegalArgumentException;
     }
 
     private Mono<ApiResponse<List<ProjectDTO>>> createNewProjectsFallback(
-            Flux<CreateProjectsRequest> requestFlux, Throwable t) {
+            String idempotencyKey, Flux<CreateProjectsRequest> requestFlux, Throwable t) {
         logger.error("Fallback triggered: {}", t.getMessage());
         return Mono.just(ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE.value(),
                 "Service temporarily unavailable. Please try again later."));
     }
+
+    private Mono<ApiResponse<List<ProjectDTO>>> createNewProjectsFallback(
+            String idempotencyKey, Flux<CreateProjectsRequest> requestFlux, IdempotencyConflictException e) {
+        // Conflicts are client errors, not service failures; let the exception handler map them.
+        return Mono.error(e);
+    }
+
+    private Mono<ApiResponse<List<ProjectDTO>>> createNewProjectsFallback(
+            String idempotencyKey, Flux<CreateProjectsRequest> requestFlux, DuplicateProjectNameException e) {
+        // Rejected before anything was written; retrying cannot succeed.
+        return Mono.error(e);
+    }
 }
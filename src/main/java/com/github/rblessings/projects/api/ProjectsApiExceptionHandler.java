@@ -1,10 +1,15 @@
 package com.github.rblessings.projects.api;
 
+import com.github.rblessings.distributed.OptimizationTimeoutException;
+import com.github.rblessings.idempotency.IdempotencyConflictException;
+import com.github.rblessings.jobs.JobRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
 
 import java.util.stream.Collectors;
@@ -16,6 +21,7 @@ import java.util.stream.Collectors;
  */
 @RestControllerAdvice
 public class ProjectsApiExceptionHandler {
+    private static final String JOB_RETRY_AFTER_SECONDS = "5";
 
     /**
      * Handles {@link WebExchangeBindException} and returns a {@link HttpStatus#BAD_REQUEST} response
@@ -45,6 +51,88 @@ public class ProjectsApiExceptionHandler {
                 .collect(Collectors.joining(", "));
     }
 
+    /**
+     * Handles {@link ServerWebInputException}, raised for missing, malformed or out-of-range request parameters,
+     * and returns a {@link HttpStatus#BAD_REQUEST} response.
+     *
+     * @param ex the exception describing the invalid input
+     * @return a {@link Mono} wrapping a {@link ResponseEntity} with the error message
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleInvalidInput(ServerWebInputException ex) {
+        final var httpStatus = HttpStatus.BAD_REQUEST;
+        var response = ApiResponse.<String>error(httpStatus.value(), ex.getReason());
+        return Mono.just(new ResponseEntity<>(response, httpStatus));
+    }
+
+    /**
+     * Handles {@link ProjectNotFoundException} and returns a {@link HttpStatus#NOT_FOUND} response.
+     *
+     * @param ex the exception naming the missing project
+     * @return a {@link Mono} wrapping a {@link ResponseEntity} with the error message
+     */
+    @ExceptionHandler(ProjectNotFoundException.class)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleNotFound(ProjectNotFoundException ex) {
+        final var httpStatus = HttpStatus.NOT_FOUND;
+        var response = ApiResponse.<String>error(httpStatus.value(), ex.getMessage());
+        return Mono.just(new ResponseEntity<>(response, httpStatus));
+    }
+
+    /**
+     * Handles {@link IdempotencyConflictException} and returns a {@link HttpStatus#CONFLICT} response.
+     *
+     * @param ex the exception describing why the idempotency key could not be honored
+     * @return a {@link Mono} wrapping a {@link ResponseEntity} with the error message
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        final var httpStatus = HttpStatus.CONFLICT;
+        var response = ApiResponse.<String>error(httpStatus.value(), ex.getMessage());
+        return Mono.just(new ResponseEntity<>(response, httpStatus));
+    }
+
+    /**
+     * Handles {@link DuplicateProjectNameException} and returns a {@link HttpStatus#CONFLICT} response.
+     *
+     * @param ex the exception listing the duplicate names
+     * @return a {@link Mono} wrapping a {@link ResponseEntity} with the error message
+     */
+    @ExceptionHandler(DuplicateProjectNameException.class)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleDuplicateProjectName(DuplicateProjectNameException ex) {
+        final var httpStatus = HttpStatus.CONFLICT;
+        var response = ApiResponse.<String>error(httpStatus.value(), ex.getMessage());
+        return Mono.just(new ResponseEntity<>(response, httpStatus));
+    }
+
+    /**
+     * Handles {@link JobRejectedException} and returns a {@link HttpStatus#SERVICE_UNAVAILABLE} response with a
+     * {@code Retry-After} header.
+     *
+     * @param ex the exception describing which job queue is full
+     * @return a {@link Mono} wrapping a {@link ResponseEntity} with the error message
+     */
+    @ExceptionHandler(JobRejectedException.class)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleJobRejected(JobRejectedException ex) {
+        final var httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        var response = ApiResponse.<String>error(httpStatus.value(), ex.getMessage());
+        return Mono.just(ResponseEntity.status(httpStatus)
+                .header(HttpHeaders.RETRY_AFTER, JOB_RETRY_AFTER_SECONDS)
+                .body(response));
+    }
+
+    /**
+     * Handles {@link OptimizationTimeoutException} and returns a {@link HttpStatus#GATEWAY_TIMEOUT} response.
+     *
+     * @param ex the exception describing how long the request waited for a worker
+     * @return a {@link Mono} wrapping a {@link ResponseEntity} with the error message
+     */
+    @ExceptionHandler(OptimizationTimeoutException.class)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleOptimizationTimeout(OptimizationTimeoutException ex) {
+        final var httpStatus = HttpStatus.GATEWAY_TIMEOUT;
+        var response = ApiResponse.<String>error(httpStatus.value(), ex.getMessage());
+        return Mono.just(new ResponseEntity<>(response, httpStatus));
+    }
+
     /**
      * Handles all other exceptions and returns a generic error response.
      *
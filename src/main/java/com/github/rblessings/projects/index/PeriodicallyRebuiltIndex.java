@@ -0,0 +1,150 @@
+package com.github.rblessings.projects.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory snapshot of the stored projects, built once the application is ready and rebuilt periodically into a
+ * fresh snapshot that replaces the current one, so that projects saved through other instances are picked up.
+ *
+ * <p>Projects saved by this instance are added as they are saved. Until the first build starts there is nothing to
+ * add them to, and the build reads them from the database. While a build or rebuild is in progress, they are added
+ * to the current snapshot and replayed into the new one before it replaces the current one, so no project saved
+ * during a rebuild is lost; the few saved as the rebuild starts may be both read and replayed, so adding a project
+ * twice must have no effect. Readers read the current snapshot and never wait for a writer.</p>
+ *
+ * <p>A failed rebuild is logged, and the current snapshot is kept until the next one.</p>
+ *
+ * @param <S> the type of the snapshot
+ * @param <E> the type of the elements added to it
+ */
+public abstract class PeriodicallyRebuiltIndex<S, E> {
+    private static final Logger logger = LoggerFactory.getLogger(PeriodicallyRebuiltIndex.class);
+
+    private final String name;
+    private final AtomicBoolean rebuildInProgress = new AtomicBoolean();
+    private volatile S snapshot;
+    private volatile Disposable schedules;
+
+    // Guarded by "this"; holds the elements added while a rebuild is in progress, and is null otherwise.
+    private List<E> addedDuringRebuild;
+
+    /**
+     * @param name the name of the index in log messages, such as {@code "top-profit index"}.
+     */
+    protected PeriodicallyRebuiltIndex(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns a new snapshot of the stored projects.
+     */
+    protected abstract Mono<S> build();
+
+    /**
+     * Returns {@code snapshot} with {@code elements} added. Immutable snapshots return a new one; mutable ones may
+     * be changed and returned.
+     */
+    protected abstract S add(S snapshot, Collection<E> elements);
+
+    /**
+     * Called with each snapshot replacing the current one, before readers can see it.
+     */
+    protected void replaced(S snapshot) {
+    }
+
+    /**
+     * Builds the snapshot, then rebuilds it every {@code rebuildInterval}, running {@code alongside} once the first
+     * build has completed.
+     */
+    protected void schedule(Duration rebuildInterval, Flux<Void> alongside) {
+        schedules = rebuild()
+                .thenMany(Flux.merge(Flux.interval(rebuildInterval)
+                        .onBackpressureDrop()
+                        .concatMap(tick -> rebuild()), alongside))
+                .subscribe();
+    }
+
+    public void stop() {
+        if (schedules != null) {
+            schedules.dispose();
+        }
+    }
+
+    /**
+     * Returns whether the snapshot has been built.
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Returns the current snapshot, or {@code null} until it has been built.
+     */
+    protected S snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Adds newly saved elements.
+     */
+    public synchronized void addAll(Collection<E> elements) {
+        if (snapshot != null) {
+            snapshot = add(snapshot, elements);
+        }
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.addAll(elements);
+        }
+    }
+
+    /**
+     * Builds a new snapshot and replaces the current one with it. A rebuild already in progress is not restarted.
+     */
+    protected Mono<Void> rebuild() {
+        return rebuildFrom(Mono.defer(this::build));
+    }
+
+    /**
+     * Replaces the current snapshot with the one emitted by {@code rebuilt}, with the elements added in the meantime.
+     * Runs as a rebuild: it does not start while a rebuild is in progress, and no rebuild starts while it runs.
+     */
+    protected Mono<Void> rebuildFrom(Mono<S> rebuilt) {
+        return Mono.defer(() -> {
+            if (!rebuildInProgress.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            synchronized (this) {
+                addedDuringRebuild = new ArrayList<>();
+            }
+            return rebuilt
+                    .doOnNext(this::replace)
+                    .then()
+                    .onErrorResume(error -> {
+                        logger.warn("Unable to rebuild the {}", name, error);
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> {
+                        synchronized (this) {
+                            addedDuringRebuild = null;
+                        }
+                        rebuildInProgress.set(false);
+                    });
+        });
+    }
+
+    private synchronized void replace(S rebuilt) {
+        S next = addedDuringRebuild.isEmpty() ? rebuilt : add(rebuilt, addedDuringRebuild);
+        replaced(next);
+        snapshot = next;
+        addedDuringRebuild = null;
+    }
+}
@@ -31,6 +31,13 @@ public record ProjectDTO(
         requireNonNull(version, "Project version must not be null");
     }
 
+    /**
+     * Maps a persisted entity to its DTO.
+     *
+     * <p>Records cannot skip their canonical constructor, so the fields already checked by the
+     * {@link ProjectEntity} constructor are validated again here. Those checks are allocation-free on the
+     * success path (see {@link Validators}), leaving the DTO itself as the only allocation per mapped project.</p>
+     */
     public static ProjectDTO fromEntity(ProjectEntity entity) {
         if (entity == null) {
             throw new IllegalArgumentException("Project entity cannot be null");
@@ -0,0 +1,141 @@
+package com.github.rblessings.projects.model;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.AUDIT_METADATA;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.ID;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.PROFIT;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.REQUIRED_CAPITAL;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.UPDATED_AT;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.VERSION;
+
+/**
+ * Rewrites projects stored by older releases into the current format, once, before the application accepts traffic.
+ *
+ * <p>Amounts still stored as strings from before the {@code Decimal128} migration sort after all numeric amounts, so
+ * the financials reads skip them. Each such project is rewritten with {@code Decimal128} amounts and its version
+ * incremented, on the condition that its version has not changed since it was read, so that a concurrent update is
+ * neither overwritten nor left with a stale version. An amount that is not a decimal number is reported and left
+ * as it is, and the other projects are still rewritten.</p>
+ *
+ * <p>Projects stored in the {@code projects} collection before auditing was enabled have no modification time, so the
+ * change feed never returns them. They are given the current time, and their version is incremented with it, so that
+ * their {@code ETag} changes along with their {@code Last-Modified} date.</p>
+ *
+ * <p>The migration only runs when {@link ProjectMigrationProperties#enabled()} is set; see there.</p>
+ */
+public class ProjectDataMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectDataMigration.class);
+
+    private static final Bson LEGACY_AMOUNTS = Filters.or(
+            Filters.type(REQUIRED_CAPITAL, BsonType.STRING), Filters.type(PROFIT, BsonType.STRING));
+    private static final Bson AMOUNTS_AND_VERSION = new Document(REQUIRED_CAPITAL, 1).append(PROFIT, 1).append(VERSION, 1);
+    private static final int CONCURRENCY = 16;
+    private static final String UPDATED_AT_PATH = AUDIT_METADATA + "." + UPDATED_AT;
+    // Matches a missing modification time as well as a null one.
+    private static final Bson UNAUDITED = Filters.eq(UPDATED_AT_PATH, null);
+    private static final List<Bson> UPDATED_NOW = List.of(new Document("$set", new Document(UPDATED_AT_PATH, "$$NOW")
+            .append(VERSION, new Document("$add", List.of(new Document("$ifNull", List.of("$" + VERSION, 0L)), 1L)))));
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final List<String> collectionNames;
+    private final ProjectMigrationProperties properties;
+
+    /**
+     * @param collectionNames the collections sharing the schema of the {@code projects} collection, such as the
+     *                        shards of the project pools
+     */
+    public ProjectDataMigration(ReactiveMongoTemplate mongoTemplate, List<String> collectionNames,
+                                ProjectMigrationProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.collectionNames = List.copyOf(collectionNames);
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            logger.debug("Project data migration is disabled");
+            return;
+        }
+        migrate().block();
+    }
+
+    /**
+     * Runs the migration over every collection.
+     */
+    Mono<Void> migrate() {
+        return Flux.fromIterable(collectionNames)
+                .concatMap(this::migrateAmounts)
+                .then(backfillModificationTimes());
+    }
+
+    private Mono<Void> backfillModificationTimes() {
+        String collectionName = mongoTemplate.getCollectionName(ProjectEntity.class);
+        return mongoTemplate.getCollection(collectionName)
+                .flatMap(collection -> Mono.from(collection.updateMany(UNAUDITED, UPDATED_NOW)))
+                .doOnNext(result -> logger.info("Set the modification time of {} projects in {} without one",
+                        result.getModifiedCount(), collectionName))
+                .then();
+    }
+
+    private Mono<Void> migrateAmounts(String collectionName) {
+        return mongoTemplate.getCollection(collectionName)
+                .flatMap(collection -> Flux.from(collection.find(LEGACY_AMOUNTS).projection(AMOUNTS_AND_VERSION))
+                        .flatMap(document -> migrateAmounts(collection, collectionName, document), CONCURRENCY)
+                        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting())))
+                .doOnNext(outcomes -> report(collectionName, outcomes))
+                .then();
+    }
+
+    private Mono<Outcome> migrateAmounts(MongoCollection<Document> collection, String collectionName, Document document) {
+        Object id = document.get(ID);
+        Document amounts = new Document();
+        try {
+            for (String field : List.of(REQUIRED_CAPITAL, PROFIT)) {
+                if (document.get(field) instanceof String text) {
+                    amounts.append(field, new Decimal128(new BigDecimal(text.strip())));
+                }
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Unable to rewrite the amounts of project {} in {} as Decimal128; it is skipped by reads "
+                    + "until it is corrected", id, collectionName, e);
+            return Mono.just(Outcome.UNCONVERTIBLE);
+        }
+        Bson unchanged = Filters.and(Filters.eq(ID, id), Filters.eq(VERSION, document.get(VERSION)));
+        return Mono.from(collection.updateOne(unchanged, Updates.combine(new Document("$set", amounts), Updates.inc(VERSION, 1))))
+                .map(result -> result.getModifiedCount() > 0 ? Outcome.REWRITTEN : Outcome.CHANGED_CONCURRENTLY);
+    }
+
+    private static void report(String collectionName, Map<Outcome, Long> outcomes) {
+        if (outcomes.isEmpty()) {
+            logger.info("No project amounts to rewrite in {}", collectionName);
+            return;
+        }
+        logger.info("Rewrote the amounts of {} projects in {} as Decimal128; {} could not be converted, and {} were "
+                        + "updated concurrently and are left to the next run", outcomes.getOrDefault(Outcome.REWRITTEN, 0L),
+                collectionName, outcomes.getOrDefault(Outcome.UNCONVERTIBLE, 0L),
+                outcomes.getOrDefault(Outcome.CHANGED_CONCURRENTLY, 0L));
+    }
+
+    private enum Outcome {REWRITTEN, UNCONVERTIBLE, CHANGED_CONCURRENTLY}
+}
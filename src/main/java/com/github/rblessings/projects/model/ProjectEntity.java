@@ -2,8 +2,11 @@ package com.github.rblessings.projects.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.util.Objects;
@@ -17,13 +20,19 @@ import static java.util.Objects.requireNonNull;
  * and profit upon completion.
  *
  * <p> The project name is indexed for optimized lookup performance. </p>
+ *
+ * <p> Amounts are stored as {@code Decimal128} so they sort and compare numerically in MongoDB. The compound
+ * index on required capital, profit and ID covers the financial projection read by the optimizer, and the one on
+ * modification time and ID serves the change feed. </p>
  */
 @Document(collection = "projects")
+@CompoundIndex(name = "requiredCapital_profit_id", def = "{'requiredCapital': 1, 'profit': 1, '_id': 1}")
+@CompoundIndex(name = "updatedAt_id", def = "{'auditMetadata.updatedAt': 1, '_id': 1}")
 public record ProjectEntity(
         @Id String id,
         @Indexed(unique = true) String name,
-        BigDecimal requiredCapital,
-        BigDecimal profit,
+        @Field(targetType = FieldType.DECIMAL128) BigDecimal requiredCapital,
+        @Field(targetType = FieldType.DECIMAL128) BigDecimal profit,
         AuditMetadata auditMetadata,
         @Version Long version
 ) {
@@ -0,0 +1,26 @@
+package com.github.rblessings.projects.model;
+
+import java.math.BigDecimal;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNullAndNonNegative;
+import static com.github.rblessings.projects.model.Validators.requireNonNullOrBlank;
+
+/**
+ * Immutable projection of a project onto the fields needed to select it for investment:
+ * its identifier, the capital required to start it, and its profit.
+ *
+ * <p>Read straight from the {@code projects} collection through a covering index, without decoding
+ * names or audit metadata.</p>
+ */
+public record ProjectFinancials(
+        String id,
+        BigDecimal requiredCapital,
+        BigDecimal profit
+) {
+
+    public ProjectFinancials {
+        requireNonNullOrBlank(id, () -> "Project ID must not be null or blank");
+        requireNonNullAndNonNegative(requiredCapital, () -> "Required capital must not be null and must be non-negative");
+        requireNonNullAndNonNegative(profit, () -> "Profit must not be null and must be non-negative");
+    }
+}
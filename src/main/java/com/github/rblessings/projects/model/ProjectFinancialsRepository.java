@@ -0,0 +1,109 @@
+package com.github.rblessings.projects.model;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository fragment for reading project projections without decoding full documents, from the default
+ * {@code projects} collection or from any other collection sharing its schema, and for bulk ingest.
+ */
+public interface ProjectFinancialsRepository {
+
+    /**
+     * Streams the financial projection of every project, ordered by required capital.
+     *
+     * <p>The query is covered by the {@code requiredCapital_profit_id} index, so documents are never fetched.</p>
+     *
+     * @return a {@link Flux} of {@link ProjectFinancials} in ascending order of required capital
+     */
+    Flux<ProjectFinancials> findAllFinancials();
+
+    /**
+     * Streams the financial projection of every project in the given collection, ordered by required capital.
+     *
+     * <p>Projects whose amounts are not stored as {@code Decimal128}, which would be out of order, are skipped until
+     * {@link ProjectDataMigration} rewrites them.</p>
+     *
+     * @param collectionName the collection holding one shard of a project pool
+     * @return a {@link Flux} of {@link ProjectFinancials} in ascending order of required capital
+     */
+    Flux<ProjectFinancials> findAllFinancials(String collectionName);
+
+    /**
+     * Streams the financial projection of every project requiring at most {@code maxCapital}, in no particular order.
+     *
+     * <p>The query is a range scan of the {@code requiredCapital_profit_id} index, and is covered by it.</p>
+     *
+     * @param maxCapital the largest required capital to return
+     * @return a {@link Flux} of {@link ProjectFinancials}
+     */
+    Flux<ProjectFinancials> findFinancialsUpTo(BigDecimal maxCapital);
+
+    /**
+     * Retrieves the projects with the given IDs from the given collection. Missing IDs are skipped.
+     *
+     * @param ids            the IDs of the projects to retrieve
+     * @param collectionName the collection holding the projects
+     * @return a {@link Flux} of the {@link ProjectEntity} records found
+     */
+    Flux<ProjectEntity> findAllById(Iterable<String> ids, String collectionName);
+
+    /**
+     * Streams the name of every project.
+     *
+     * <p>The query is covered by the unique {@code name} index, so documents are never fetched.</p>
+     *
+     * @return a {@link Flux} of project names, in index order
+     */
+    Flux<String> findAllNames();
+
+    /**
+     * Streams the ID and name of every project.
+     *
+     * <p>Only the {@code _id} and {@code name} fields are returned, but the unique {@code name} index does not hold
+     * the IDs, so the documents are scanned.</p>
+     *
+     * @return a {@link Flux} of {@link ProjectName} in no particular order
+     */
+    Flux<ProjectName> findAllIdsAndNames();
+
+    /**
+     * Returns up to {@code limit} projects last modified after the given position and no later than
+     * {@code updatedUntil}, ordered by modification time, then ID.
+     *
+     * <p>The query walks the {@code updatedAt_id} index, so it reads only the projects it returns. Projects without a
+     * modification time are not returned until {@link ProjectDataMigration} has given them one.</p>
+     *
+     * @param updatedAt    the modification time of the last project already returned, or {@code null} to start
+     *                     from the oldest change
+     * @param id           the ID of the last project already returned; ignored if {@code updatedAt} is {@code null}
+     * @param updatedUntil the latest modification time to return
+     * @param limit        the maximum number of projects to return
+     * @return a {@link Flux} of {@link ProjectEntity} in ascending order of modification time, then ID
+     */
+    Flux<ProjectEntity> findChangedAfter(Instant updatedAt, String id, Instant updatedUntil, int limit);
+
+    /**
+     * Returns which of the given names are already taken by a stored project.
+     *
+     * @param names the names to look up
+     * @return a {@link Flux} of the names found, answered from the unique {@code name} index
+     */
+    Flux<String> findExistingNames(Collection<String> names);
+
+    /**
+     * Inserts the given projects in one unordered bulk write, skipping those whose name is already taken,
+     * whether by a stored project or by an earlier project of the same batch.
+     *
+     * <p>Projects without an ID are assigned a new one before they are written.</p>
+     *
+     * @param projects the projects to insert
+     * @return a {@link Mono} of the projects inserted, with their IDs
+     */
+    Mono<List<ProjectEntity>> insertAllSkippingExistingNames(Collection<ProjectEntity> projects);
+}
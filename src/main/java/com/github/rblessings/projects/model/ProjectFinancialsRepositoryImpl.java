@@ -0,0 +1,244 @@
+package com.github.rblessings.projects.model;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.AUDIT_METADATA;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.ID;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.PROFIT;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.REQUIRED_CAPITAL;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.UPDATED_AT;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.readDecimal;
+import static com.github.rblessings.projects.model.ProjectEntityReadingConverter.readId;
+
+/**
+ * Reads {@link ProjectFinancials} with the raw driver collection, decoding only the three projected fields.
+ *
+ * <p>Sorting on {@code requiredCapital} selects the {@code requiredCapital_profit_id} index, and since every
+ * projected field is part of it, the query is answered from the index alone. The index is declared on
+ * {@link ProjectEntity} for the default collection, and created on first use for other pool collections.</p>
+ *
+ * <p>Project names are read the same way, from the unique {@code name} index.</p>
+ *
+ * <p>Changes are read in the order of the {@code updatedAt_id} index, resuming strictly after the last
+ * (modification time, ID) pair a client has received. Projects stored before auditing was enabled have no
+ * modification time, and are not returned until {@link ProjectDataMigration} has given them one.</p>
+ *
+ * <p>Ingested projects are inserted in one unordered bulk write. Inserts rejected by the unique {@code name}
+ * index do not stop the others, and are not reported as errors; the projects inserted are told apart by the
+ * indexes of the failed writes.</p>
+ *
+ * <p>Amounts still stored as strings from before the {@code Decimal128} migration sort after all numeric amounts,
+ * and would break the order that streaming consumers rely on. Reads never rewrite them: projects storing one are
+ * skipped by the ordered financials stream and counted in a warning, until {@link ProjectDataMigration} has
+ * rewritten them.</p>
+ */
+class ProjectFinancialsRepositoryImpl implements ProjectFinancialsRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectFinancialsRepositoryImpl.class);
+
+    private static final Bson PROJECTION = new Document(ID, 1).append(REQUIRED_CAPITAL, 1).append(PROFIT, 1);
+    private static final Bson SORT = new Document(REQUIRED_CAPITAL, 1);
+    private static final int BATCH_SIZE = 10_000;
+    private static final String FINANCIALS_INDEX = "requiredCapital_profit_id";
+    private static final Bson FINANCIALS_INDEX_HINT = new Document(REQUIRED_CAPITAL, 1).append(PROFIT, 1).append(ID, 1);
+    private static final String NAME = "name";
+    private static final Bson NAME_PROJECTION = new Document(NAME, 1).append(ID, 0);
+    private static final Bson ID_AND_NAME_PROJECTION = new Document(NAME, 1);
+    private static final Bson NAME_INDEX_HINT = new Document(NAME, 1);
+    private static final String UPDATED_AT_PATH = AUDIT_METADATA + "." + UPDATED_AT;
+    private static final Sort CHANGE_ORDER = Sort.by(Sort.Direction.ASC, UPDATED_AT_PATH, ID);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Set<String> indexedCollections = ConcurrentHashMap.newKeySet();
+
+    ProjectFinancialsRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<ProjectFinancials> findAllFinancials() {
+        return findAllFinancials(mongoTemplate.getCollectionName(ProjectEntity.class));
+    }
+
+    @Override
+    public Flux<ProjectFinancials> findAllFinancials(String collectionName) {
+        return Flux.defer(() -> {
+            var skipped = new AtomicLong();
+            return ensureFinancialsIndex(collectionName)
+                    .then(mongoTemplate.getCollection(collectionName))
+                    .flatMapMany(collection -> collection.find()
+                            .projection(PROJECTION)
+                            .sort(SORT)
+                            .batchSize(BATCH_SIZE)
+                            .allowDiskUse(true))
+                    .<ProjectFinancials>handle((document, sink) -> {
+                        // Only numeric amounts are in capital order; see the class comment.
+                        if (document.get(REQUIRED_CAPITAL) instanceof Decimal128 requiredCapital
+                                && document.get(PROFIT) instanceof Decimal128 profit) {
+                            sink.next(new ProjectFinancials(readId(document.get(ID)),
+                                    requiredCapital.bigDecimalValue(), profit.bigDecimalValue()));
+                        } else {
+                            skipped.incrementAndGet();
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (skipped.get() > 0) {
+                            logger.warn("Skipped {} projects in {} whose amounts are not stored as Decimal128; "
+                                    + "run the project data migration", skipped.get(), collectionName);
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public Flux<ProjectFinancials> findFinancialsUpTo(BigDecimal maxCapital) {
+        String collectionName = mongoTemplate.getCollectionName(ProjectEntity.class);
+        return ensureFinancialsIndex(collectionName)
+                .then(mongoTemplate.getCollection(collectionName))
+                .flatMapMany(collection -> collection.find(Filters.lte(REQUIRED_CAPITAL, new Decimal128(maxCapital)))
+                        .projection(PROJECTION)
+                        .hint(FINANCIALS_INDEX_HINT)
+                        .batchSize(BATCH_SIZE))
+                .map(document -> new ProjectFinancials(
+                        readId(document.get(ID)),
+                        readDecimal(document.get(REQUIRED_CAPITAL)),
+                        readDecimal(document.get(PROFIT))));
+    }
+
+    @Override
+    public Flux<ProjectEntity> findAllById(Iterable<String> ids, String collectionName) {
+        List<String> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        return mongoTemplate.find(Query.query(Criteria.where("id").in(idList)), ProjectEntity.class, collectionName);
+    }
+
+    @Override
+    public Flux<String> findAllNames() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(ProjectEntity.class))
+                .flatMapMany(collection -> collection.find()
+                        .projection(NAME_PROJECTION)
+                        // Without a filter or sort, the planner would scan the collection instead of the index.
+                        .hint(NAME_INDEX_HINT)
+                        .batchSize(BATCH_SIZE))
+                .map(document -> document.getString(NAME));
+    }
+
+    @Override
+    public Flux<ProjectName> findAllIdsAndNames() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(ProjectEntity.class))
+                .flatMapMany(collection -> collection.find()
+                        .projection(ID_AND_NAME_PROJECTION)
+                        .batchSize(BATCH_SIZE))
+                .map(document -> new ProjectName(readId(document.get(ID)), document.getString(NAME)));
+    }
+
+    @Override
+    public Flux<ProjectEntity> findChangedAfter(Instant updatedAt, String id, Instant updatedUntil, int limit) {
+        Criteria criteria = Criteria.where(UPDATED_AT_PATH).lte(updatedUntil);
+        if (updatedAt != null) {
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where(UPDATED_AT_PATH).gt(updatedAt),
+                    Criteria.where(UPDATED_AT_PATH).is(updatedAt).and(ID).gt(id)));
+        }
+        return mongoTemplate.find(new Query(criteria).with(CHANGE_ORDER).limit(limit), ProjectEntity.class);
+    }
+
+    @Override
+    public Flux<String> findExistingNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return Flux.empty();
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(ProjectEntity.class))
+                .flatMapMany(collection -> collection.find(Filters.in(NAME, names))
+                        .projection(NAME_PROJECTION))
+                .map(document -> document.getString(NAME));
+    }
+
+    @Override
+    public Mono<List<ProjectEntity>> insertAllSkippingExistingNames(Collection<ProjectEntity> projects) {
+        if (projects.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        // Assign the IDs up front, so that the inserted projects can be returned without reading them back.
+        List<ProjectEntity> identified = projects.stream()
+                .map(project -> project.id() != null ? project : new ProjectEntity(new ObjectId().toHexString(),
+                        project.name(), project.requiredCapital(), project.profit(), project.auditMetadata(),
+                        project.version()))
+                .toList();
+        return mongoTemplate.bulkOps(BulkMode.UNORDERED, ProjectEntity.class)
+                .insert(identified)
+                .execute()
+                .thenReturn(identified)
+                .onErrorResume(error -> insertedDespiteDuplicateNames(error, identified));
+    }
+
+    /**
+     * Returns the projects inserted by a bulk write whose only errors are duplicate keys, or else the error itself.
+     */
+    private static Mono<List<ProjectEntity>> insertedDespiteDuplicateNames(Throwable error, List<ProjectEntity> projects) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkError && bulkError.getWriteConcernError() == null
+                    && onlyDuplicateKeys(bulkError.getWriteErrors())) {
+                return Mono.just(withoutFailed(projects, bulkError.getWriteErrors()));
+            }
+            if (cause instanceof BulkOperationException bulkError && onlyDuplicateKeys(bulkError.getErrors())) {
+                return Mono.just(withoutFailed(projects, bulkError.getErrors()));
+            }
+        }
+        return Mono.error(error);
+    }
+
+    private static List<ProjectEntity> withoutFailed(List<ProjectEntity> projects, List<BulkWriteError> errors) {
+        Set<Integer> failed = errors.stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+        return IntStream.range(0, projects.size())
+                .filter(index -> !failed.contains(index))
+                .mapToObj(projects::get)
+                .toList();
+    }
+
+    private static boolean onlyDuplicateKeys(List<BulkWriteError> errors) {
+        return errors.stream().allMatch(writeError -> writeError.getCode() == DUPLICATE_KEY);
+    }
+
+    /**
+     * Creates the financials index of a collection, once.
+     */
+    private Mono<Void> ensureFinancialsIndex(String collectionName) {
+        if (indexedCollections.contains(collectionName)) {
+            return Mono.empty();
+        }
+        var index = new CompoundIndexDefinition(new Document(FINANCIALS_INDEX_HINT)).named(FINANCIALS_INDEX);
+        return mongoTemplate.indexOps(collectionName).ensureIndex(index)
+                .doOnSuccess(name -> indexedCollections.add(collectionName))
+                .then();
+    }
+}
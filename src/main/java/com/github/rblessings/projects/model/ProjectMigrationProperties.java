@@ -0,0 +1,17 @@
+package com.github.rblessings.projects.model;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the one-off rewrite of projects stored by older releases.
+ *
+ * <p>The migration is off by default: it scans the project collections, so it is run once, by starting an instance
+ * with {@code enabled} set, after every instance writing the old format has been stopped. Running it again finds
+ * nothing to rewrite.</p>
+ */
+@ConfigurationProperties(prefix = "planner.migration")
+public record ProjectMigrationProperties(
+        @DefaultValue("false") boolean enabled
+) {
+}
@@ -0,0 +1,17 @@
+package com.github.rblessings.projects.model;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNullOrBlank;
+
+/**
+ * Immutable projection of a project onto its identifier and name, as returned by name searches.
+ */
+public record ProjectName(
+        String id,
+        String name
+) {
+
+    public ProjectName {
+        requireNonNullOrBlank(id, () -> "Project ID must not be null or blank");
+        requireNonNullOrBlank(name, () -> "Project name must not be null or blank");
+    }
+}
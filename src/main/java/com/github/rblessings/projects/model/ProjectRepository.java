@@ -2,6 +2,6 @@ package com.github.rblessings.projects.model;
 
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
-public interface ProjectRepository extends ReactiveMongoRepository<ProjectEntity, String> {
+public interface ProjectRepository extends ReactiveMongoRepository<ProjectEntity, String>, ProjectFinancialsRepository {
 
 }
@@ -2,11 +2,18 @@ package com.github.rblessings.projects.model;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.function.Supplier;
 
 /**
  * Utility class for centralized and reusable validation logic.
+ *
+ * <p>Validation runs on every record construction, so the success path must not allocate: error messages are
+ * only obtained from their supplier once a check fails, and collections are scanned without streams or,
+ * for random-access lists, iterators. Pass non-capturing lambdas (e.g. {@code () -> "message"}) so that the
+ * supplier itself is a shared constant.</p>
  */
 public final class Validators {
 
@@ -22,7 +29,7 @@ public final class Validators {
      * @throws IllegalArgumentException if the string is null or blank
      */
     public static void requireNonNullOrBlank(String value, Supplier<String> errorMessage) {
-        Objects.requireNonNull(value, errorMessage.get());
+        Objects.requireNonNull(value, errorMessage);
         if (value.isBlank()) {
             throw new IllegalArgumentException(errorMessage.get());
         }
@@ -36,8 +43,8 @@ public final class Validators {
      * @throws IllegalArgumentException if the value is null or negative
      */
     public static void requireNonNullAndNonNegative(BigDecimal value, Supplier<String> errorMessage) {
-        Objects.requireNonNull(value, errorMessage.get());
-        if (value.compareTo(BigDecimal.ZERO) < 0) {
+        Objects.requireNonNull(value, errorMessage);
+        if (value.signum() < 0) {
             throw new IllegalArgumentException(errorMessage.get());
         }
     }
@@ -51,13 +58,32 @@ public final class Validators {
      * @throws IllegalArgumentException if the collection is null, empty, or contains null elements
      */
     public static <T> void requireNonNullAndNoNullElements(Collection<T> collection, Supplier<String> errorMessage) {
-        Objects.requireNonNull(collection, errorMessage.get());
+        Objects.requireNonNull(collection, errorMessage);
 
-        if (collection.isEmpty() || collection.stream().anyMatch(Objects::isNull)) {
+        if (collection.isEmpty() || containsNull(collection)) {
             throw new IllegalArgumentException(errorMessage.get());
         }
     }
 
+    private static boolean containsNull(Collection<?> collection) {
+        // Collection.contains(null) is not an option: immutable collections reject null queries.
+        if (collection instanceof List<?> list && list instanceof RandomAccess) {
+            for (int i = 0, size = list.size(); i < size; i++) {
+                if (list.get(i) == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (Object element : collection) {
+            if (element == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Validates that the provided integer value is non-negative.
      *
@@ -0,0 +1,177 @@
+package com.github.rblessings.projects.names;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings, in a fixed amount of memory.
+ *
+ * <p>Each key sets {@code hashes} bits out of {@code bits}. A key whose bits are not all set was never added;
+ * a key whose bits are all set was probably added, with a false-positive probability that grows as the filter
+ * fills up. Bits are never cleared, so filters of the same geometry can be merged by OR-ing their bits, for
+ * example with {@code BITOP OR} on their {@link #toByteArray() serialized form}.</p>
+ */
+public final class BloomFilter {
+    private final long bits;
+    private final int hashes;
+    private final AtomicLongArray words;
+
+    /**
+     * @param bits   number of bits, rounded up to a multiple of 64.
+     * @param hashes number of bits set per key.
+     */
+    public BloomFilter(long bits, int hashes) {
+        if (bits < 1 || hashes < 1) {
+            throw new IllegalArgumentException("Bloom filter bits and hashes must be positive");
+        }
+        long wordCount = (bits + Long.SIZE - 1) / Long.SIZE;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter is too large: %d bits".formatted(bits));
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bits = wordCount * Long.SIZE;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Creates a filter sized for {@code expectedKeys} keys at the given false-positive probability.
+     */
+    public static BloomFilter forExpectedKeys(long expectedKeys, double falsePositiveProbability) {
+        if (expectedKeys < 1 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Expected keys must be positive and the false-positive probability in (0, 1)");
+        }
+        long bits = optimalBits(expectedKeys, falsePositiveProbability);
+        return new BloomFilter(bits, optimalHashes(expectedKeys, bits));
+    }
+
+    /**
+     * Returns the number of bits minimizing the false-positive probability for {@code expectedKeys} keys,
+     * before rounding up to a multiple of 64.
+     */
+    static long optimalBits(long expectedKeys, double falsePositiveProbability) {
+        double ln2 = Math.log(2);
+        return (long) Math.ceil(-expectedKeys * Math.log(falsePositiveProbability) / (ln2 * ln2));
+    }
+
+    static int optimalHashes(long expectedKeys, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / expectedKeys * Math.log(2)));
+    }
+
+    public long bits() {
+        return bits;
+    }
+
+    public int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Adds {@code key} to the filter.
+     */
+    public void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1, h2, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            // Skip the atomic write for bits that are already set, which most bits of a filling filter are.
+            if ((words.get(word) & mask) == 0) {
+                words.getAndUpdate(word, value -> value | mask);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code false} if {@code key} was definitely never added, and {@code true} if it probably was.
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets every bit that is set in {@code serialized}, a filter of the same geometry.
+     *
+     * @throws IllegalArgumentException if {@code serialized} is longer than this filter
+     */
+    public void merge(byte[] serialized) {
+        if (serialized.length > words.length() * Long.BYTES) {
+            throw new IllegalArgumentException("Cannot merge a Bloom filter of %d bytes into one of %d bytes"
+                    .formatted(serialized.length, words.length() * Long.BYTES));
+        }
+        for (int word = 0; word < words.length(); word++) {
+            long value = 0;
+            int offset = word * Long.BYTES;
+            for (int b = 0; b < Long.BYTES && offset + b < serialized.length; b++) {
+                value |= (serialized[offset + b] & 0xFFL) << (b * 8);
+            }
+            if (value != 0) {
+                long merged = value;
+                words.getAndUpdate(word, current -> current | merged);
+            }
+        }
+    }
+
+    /**
+     * Serializes the bits, eight bytes per word in little-endian order.
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[words.length() * Long.BYTES];
+        for (int word = 0; word < words.length(); word++) {
+            long value = words.get(word);
+            for (int b = 0; b < Long.BYTES; b++) {
+                bytes[word * Long.BYTES + b] = (byte) (value >>> (b * 8));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the fraction of bits that are set.
+     */
+    public double fillRatio() {
+        long set = 0;
+        for (int word = 0; word < words.length(); word++) {
+            set += Long.bitCount(words.get(word));
+        }
+        return (double) set / bits;
+    }
+
+    /**
+     * Estimates the current false-positive probability from the fill ratio.
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow(fillRatio(), hashes);
+    }
+
+    private long index(int h1, int h2, int i) {
+        // Kirsch-Mitzenmacher double hashing: bit i is h1 + i * h2, reduced to the filter size.
+        long combined = (h1 + (long) i * h2) & Long.MAX_VALUE;
+        return combined % bits;
+    }
+
+    private static long hash(String key) {
+        // FNV-1a over the UTF-8 bytes, then the Murmur3 finalizer to spread the result over 64 bits.
+        long h = 0xCBF29CE484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
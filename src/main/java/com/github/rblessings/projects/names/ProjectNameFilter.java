@@ -0,0 +1,169 @@
+package com.github.rblessings.projects.names;
+
+import com.github.rblessings.projects.index.PeriodicallyRebuiltIndex;
+import com.github.rblessings.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory Bloom filter of the names of every stored project, screening new projects before they are written.
+ *
+ * <p>A name the filter has never seen cannot exist, so it needs no lookup; only names the filter reports as
+ * possibly present are checked against the unique {@code name} index. The filter is built from a covered scan of
+ * that index once the application is ready, and rebuilt periodically as a {@link PeriodicallyRebuiltIndex}, which
+ * also adds the names saved by this instance as they are saved.</p>
+ *
+ * <p>When shared, each instance periodically ORs its filter into a Redis bitmap and merges the result back, so
+ * it learns the names saved through other instances. The bitmap key includes the filter geometry, so instances
+ * configured differently do not mix their bits.</p>
+ *
+ * <p>The filter only saves lookups: names it misses, such as ones saved elsewhere since the last sync, are still
+ * rejected by the unique index when they are written.</p>
+ */
+public class ProjectNameFilter extends PeriodicallyRebuiltIndex<BloomFilter, String> {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectNameFilter.class);
+
+    static final String SHARED_KEY_PREFIX = "{project-names}:bloom:";
+
+    /**
+     * ORs the local bits, if any, into the shared bitmap through a scratch key, refreshes its TTL, and returns
+     * the merged bitmap.
+     */
+    private static final RedisScript<byte[]> MERGE_SHARED = RedisScript.of("""
+            if #ARGV[1] > 0 then
+                redis.call('SET', KEYS[2], ARGV[1])
+                redis.call('BITOP', 'OR', KEYS[1], KEYS[1], KEYS[2])
+                redis.call('DEL', KEYS[2])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return redis.call('GET', KEYS[1])
+            """, byte[].class);
+
+    private static final byte[] NO_BITS = new byte[0];
+
+    private final ProjectRepository projectRepository;
+    private final ProjectNameFilterProperties properties;
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final String sharedKey;
+
+    private final AtomicBoolean changedSinceSync = new AtomicBoolean();
+
+    /**
+     * @param redisTemplate the template holding the shared bitmap, or {@code null} to keep the filter local.
+     */
+    public ProjectNameFilter(ProjectRepository projectRepository, ProjectNameFilterProperties properties,
+                             @Nullable ReactiveRedisTemplate<String, byte[]> redisTemplate, MeterRegistry meterRegistry) {
+        super("project name filter");
+        this.projectRepository = projectRepository;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+
+        long bits = BloomFilter.optimalBits(properties.expectedNames(), properties.falsePositiveProbability());
+        this.sharedKey = SHARED_KEY_PREFIX + bits + ":" + BloomFilter.optimalHashes(properties.expectedNames(), bits);
+
+        Gauge.builder("planner.project-names.filter.false-positive-probability", this,
+                        nameFilter -> nameFilter.snapshot() == null
+                                ? Double.NaN
+                                : nameFilter.snapshot().expectedFalsePositiveProbability())
+                .description("Estimated false-positive probability of the project name filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the filter, then schedules its rebuilds and syncs. When disabled, the filter is never built, so
+     * stored names are not screened.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            logger.info("Project name filter is disabled");
+            return;
+        }
+        Flux<Void> syncs = redisTemplate == null
+                ? Flux.empty()
+                : Flux.interval(properties.syncInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> sync());
+        schedule(properties.rebuildInterval(), syncs);
+    }
+
+    /**
+     * Returns {@code false} if no project is stored under {@code name}, and {@code true} if one may be. Until the
+     * filter is built, every name may be.
+     */
+    public boolean mightContain(String name) {
+        BloomFilter current = snapshot();
+        return current == null || current.mightContain(name);
+    }
+
+    @Override
+    protected Mono<BloomFilter> build() {
+        var next = BloomFilter.forExpectedKeys(properties.expectedNames(), properties.falsePositiveProbability());
+        return Flux.defer(projectRepository::findAllNames)
+                .doOnNext(next::put)
+                .count()
+                .doOnNext(count -> logger.info("Rebuilt the project name filter from {} names", count))
+                .thenReturn(next);
+    }
+
+    @Override
+    protected BloomFilter add(BloomFilter filter, Collection<String> names) {
+        names.forEach(filter::put);
+        changedSinceSync.set(true);
+        return filter;
+    }
+
+    @Override
+    protected void replaced(BloomFilter filter) {
+        changedSinceSync.set(true);
+    }
+
+    /**
+     * Rebuilds the filter, then merges it with the filters of the other instances.
+     */
+    @Override
+    protected Mono<Void> rebuild() {
+        return super.rebuild().then(redisTemplate == null ? Mono.empty() : sync());
+    }
+
+    /**
+     * Merges this filter with the filters of the other instances through the shared Redis bitmap.
+     */
+    Mono<Void> sync() {
+        return Mono.defer(() -> {
+            BloomFilter current = snapshot();
+            if (current == null || redisTemplate == null) {
+                return Mono.empty();
+            }
+            boolean changed = changedSinceSync.getAndSet(false);
+            byte[] bits = changed ? current.toByteArray() : NO_BITS;
+            String ttlMillis = Long.toString(properties.rebuildInterval().multipliedBy(2).toMillis());
+            return redisTemplate.execute(MERGE_SHARED, List.of(sharedKey, sharedKey + ":scratch"),
+                            List.of(bits, ttlMillis.getBytes(StandardCharsets.US_ASCII)))
+                    .next()
+                    .doOnNext(current::merge)
+                    .then()
+                    .onErrorResume(error -> {
+                        if (changed) {
+                            changedSinceSync.set(true);
+                        }
+                        logger.warn("Unable to sync the project name filter with Redis", error);
+                        return Mono.empty();
+                    });
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.rblessings.projects.names;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the Bloom filter of existing project names.
+ *
+ * <p>The filter is sized for {@code expectedNames} names at a false-positive probability of
+ * {@code falsePositiveProbability}; past that many names, the probability grows, so raise
+ * {@code expectedNames} ahead of the data. It is rebuilt from Mongo every {@code rebuildInterval}. When
+ * {@code shared}, every {@code syncInterval} the instances OR their filters together in Redis, so names added
+ * through other instances are screened before the next rebuild.</p>
+ */
+@ConfigurationProperties(prefix = "planner.project-names")
+public record ProjectNameFilterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000000") long expectedNames,
+        @DefaultValue("0.01") double falsePositiveProbability,
+        @DefaultValue("6h") Duration rebuildInterval,
+        @DefaultValue("true") boolean shared,
+        @DefaultValue("1m") Duration syncInterval
+) {
+}
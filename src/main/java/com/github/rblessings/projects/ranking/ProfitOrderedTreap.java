@@ -0,0 +1,229 @@
+package com.github.rblessings.projects.ranking;
+
+import com.github.rblessings.projects.model.ProjectFinancials;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable treap of projects ordered by required capital, answering "the N most profitable projects requiring at
+ * most X" without scanning the projects.
+ *
+ * <p>Nodes are ordered by required capital, then ID, and heap-ordered by a priority hashed from the ID, so the tree
+ * has an expected depth of O(log n) whatever order the projects arrive in. Every node also holds the most
+ * profitable project of its subtree.</p>
+ *
+ * <p>A query walks the search path of X once. Every node on it requiring at most X contributes itself and its left
+ * subtree, which gives O(log n) disjoint candidates covering exactly the affordable projects. A priority queue
+ * ordered by profit then expands them best-first: a subtree is replaced by its root and its two subtrees, so each
+ * result surfaces after O(log n) steps, and a top-N query takes O((log n + N log n) log N) time.</p>
+ *
+ * <p>Insertions copy the O(log n) nodes on their path and share the rest, so every version stays a consistent
+ * snapshot that can be queried while the next one is built.</p>
+ */
+public final class ProfitOrderedTreap {
+
+    /**
+     * Order of the tree: ascending required capital, then ID.
+     */
+    static final Comparator<ProjectFinancials> CAPITAL_ORDER = Comparator
+            .comparing(ProjectFinancials::requiredCapital)
+            .thenComparing(ProjectFinancials::id);
+
+    /**
+     * Order of the results: descending profit, then ascending required capital, then ID.
+     */
+    public static final Comparator<ProjectFinancials> PROFIT_ORDER = Comparator
+            .comparing(ProjectFinancials::profit, Comparator.reverseOrder())
+            .thenComparing(ProjectFinancials::requiredCapital)
+            .thenComparing(ProjectFinancials::id);
+
+    private static final ProfitOrderedTreap EMPTY = new ProfitOrderedTreap(null);
+
+    private final Node root;
+
+    private ProfitOrderedTreap(Node root) {
+        this.root = root;
+    }
+
+    public static ProfitOrderedTreap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a treap holding the given projects, whose IDs must be distinct, in O(n) time after sorting them.
+     */
+    public static ProfitOrderedTreap of(List<ProjectFinancials> projects) {
+        List<ProjectFinancials> sorted = new ArrayList<>(projects);
+        // Projects read through the financials index are already sorted, which the sort detects in one pass.
+        sorted.sort(CAPITAL_ORDER);
+
+        // Build the Cartesian tree of the priorities with a stack of the rightmost path, then create the nodes.
+        int n = sorted.size();
+        int[] priorities = new int[n];
+        int[] left = new int[n];
+        int[] right = new int[n];
+        int[] stack = new int[n];
+        int top = -1;
+        for (int i = 0; i < n; i++) {
+            priorities[i] = priority(sorted.get(i));
+            right[i] = -1;
+            int last = -1;
+            while (top >= 0 && priorities[stack[top]] < priorities[i]) {
+                last = stack[top--];
+            }
+            left[i] = last;
+            if (top >= 0) {
+                right[stack[top]] = i;
+            }
+            stack[++top] = i;
+        }
+        return new ProfitOrderedTreap(top < 0 ? null : build(stack[0], sorted, priorities, left, right));
+    }
+
+    private static Node build(int index, List<ProjectFinancials> sorted, int[] priorities, int[] left, int[] right) {
+        if (index < 0) {
+            return null;
+        }
+        return Node.of(sorted.get(index), priorities[index],
+                build(left[index], sorted, priorities, left, right),
+                build(right[index], sorted, priorities, left, right));
+    }
+
+    public int size() {
+        return root == null ? 0 : root.size();
+    }
+
+    public boolean contains(ProjectFinancials project) {
+        Node node = root;
+        while (node != null) {
+            int comparison = CAPITAL_ORDER.compare(project, node.project());
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left() : node.right();
+        }
+        return false;
+    }
+
+    /**
+     * Returns a treap that also holds {@code project}, or this treap if it already does.
+     */
+    public ProfitOrderedTreap with(ProjectFinancials project) {
+        if (contains(project)) {
+            return this;
+        }
+        return new ProfitOrderedTreap(insert(root, project, priority(project)));
+    }
+
+    private static Node insert(Node node, ProjectFinancials project, int priority) {
+        if (node == null) {
+            return Node.of(project, priority, null, null);
+        }
+        if (priority > node.priority()) {
+            Split split = split(node, project);
+            return Node.of(project, priority, split.less(), split.greater());
+        }
+        if (CAPITAL_ORDER.compare(project, node.project()) < 0) {
+            return Node.of(node.project(), node.priority(), insert(node.left(), project, priority), node.right());
+        }
+        return Node.of(node.project(), node.priority(), node.left(), insert(node.right(), project, priority));
+    }
+
+    private static Split split(Node node, ProjectFinancials key) {
+        if (node == null) {
+            return new Split(null, null);
+        }
+        if (CAPITAL_ORDER.compare(node.project(), key) < 0) {
+            Split split = split(node.right(), key);
+            return new Split(Node.of(node.project(), node.priority(), node.left(), split.less()), split.greater());
+        }
+        Split split = split(node.left(), key);
+        return new Split(split.less(), Node.of(node.project(), node.priority(), split.greater(), node.right()));
+    }
+
+    /**
+     * Returns up to {@code limit} projects requiring at most {@code maxCapital}, most profitable first.
+     */
+    public List<ProjectFinancials> topByProfit(BigDecimal maxCapital, int limit) {
+        if (limit < 1 || root == null) {
+            return List.of();
+        }
+
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(Comparator.comparing(Candidate::best, PROFIT_ORDER));
+        for (Node node = root; node != null; ) {
+            if (node.project().requiredCapital().compareTo(maxCapital) <= 0) {
+                frontier.add(new Candidate(node, false));
+                if (node.left() != null) {
+                    frontier.add(new Candidate(node.left(), true));
+                }
+                node = node.right();
+            } else {
+                node = node.left();
+            }
+        }
+
+        List<ProjectFinancials> top = new ArrayList<>(Math.min(limit, size()));
+        while (top.size() < limit && !frontier.isEmpty()) {
+            Candidate candidate = frontier.poll();
+            Node node = candidate.node();
+            if (!candidate.subtree()) {
+                top.add(node.project());
+                continue;
+            }
+            frontier.add(new Candidate(node, false));
+            if (node.left() != null) {
+                frontier.add(new Candidate(node.left(), true));
+            }
+            if (node.right() != null) {
+                frontier.add(new Candidate(node.right(), true));
+            }
+        }
+        return top;
+    }
+
+    private static int priority(ProjectFinancials project) {
+        // Murmur3 finalizer over the ID hash, so that priorities look random but are stable across rebuilds.
+        int h = project.id().hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private record Node(ProjectFinancials project, int priority, Node left, Node right,
+                        ProjectFinancials best, int size) {
+
+        static Node of(ProjectFinancials project, int priority, Node left, Node right) {
+            ProjectFinancials best = project;
+            int size = 1;
+            if (left != null) {
+                best = PROFIT_ORDER.compare(left.best(), best) < 0 ? left.best() : best;
+                size += left.size();
+            }
+            if (right != null) {
+                best = PROFIT_ORDER.compare(right.best(), best) < 0 ? right.best() : best;
+                size += right.size();
+            }
+            return new Node(project, priority, left, right, best, size);
+        }
+    }
+
+    private record Split(Node less, Node greater) {
+    }
+
+    /**
+     * Either a single project, or a whole subtree represented by its most profitable project.
+     */
+    private record Candidate(Node node, boolean subtree) {
+
+        ProjectFinancials best() {
+            return subtree ? node.best() : node.project();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.rblessings.projects.ranking;
+
+import com.github.rblessings.projects.index.PeriodicallyRebuiltIndex;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import com.github.rblessings.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory {@link ProfitOrderedTreap} of the projects in the default collection, answering "the N most profitable
+ * projects requiring at most X" in logarithmic time.
+ *
+ * <p>The treap is built from a covered scan of the financials index once the application is ready, and rebuilt
+ * periodically as a {@link PeriodicallyRebuiltIndex}, which also adds the projects saved by this instance as they
+ * are saved. Queries read an immutable treap and never wait for a writer.</p>
+ *
+ * <p>Until the treap is built, or when the index is disabled, queries read the projects within the capital limit
+ * with a range scan of the financials index, and keep the best ones in a bounded heap.</p>
+ */
+public class ProjectProfitIndex extends PeriodicallyRebuiltIndex<ProfitOrderedTreap, ProjectFinancials> {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectProfitIndex.class);
+
+    private final ProjectRepository projectRepository;
+    private final ProjectProfitIndexProperties properties;
+
+    public ProjectProfitIndex(ProjectRepository projectRepository, ProjectProfitIndexProperties properties,
+                              MeterRegistry meterRegistry) {
+        super("top-profit index");
+        this.projectRepository = projectRepository;
+        this.properties = properties;
+
+        Gauge.builder("planner.profit-index.size", this,
+                        index -> index.snapshot() == null ? Double.NaN : index.snapshot().size())
+                .description("Projects held by the top-profit index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index, then schedules its rebuilds. When disabled, the index is never built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            logger.info("Top-profit index is disabled");
+            return;
+        }
+        schedule(properties.rebuildInterval(), Flux.empty());
+    }
+
+    /**
+     * Returns up to {@code limit} projects requiring at most {@code maxCapital}, most profitable first.
+     */
+    public Flux<ProjectFinancials> findTopByProfit(BigDecimal maxCapital, int limit) {
+        return Flux.defer(() -> {
+            ProfitOrderedTreap current = snapshot();
+            if (current != null) {
+                return Flux.fromIterable(current.topByProfit(maxCapital, limit));
+            }
+            return scanTopByProfit(maxCapital, limit);
+        });
+    }
+
+    private Flux<ProjectFinancials> scanTopByProfit(BigDecimal maxCapital, int limit) {
+        // The head of the heap is the least profitable of the best projects seen so far.
+        return projectRepository.findFinancialsUpTo(maxCapital)
+                .collect(() -> new PriorityQueue<>(ProfitOrderedTreap.PROFIT_ORDER.reversed()),
+                        (PriorityQueue<ProjectFinancials> best, ProjectFinancials project) -> {
+                            best.add(project);
+                            if (best.size() > limit) {
+                                best.poll();
+                            }
+                        })
+                .flatMapIterable(best -> best.stream().sorted(ProfitOrderedTreap.PROFIT_ORDER).toList());
+    }
+
+    @Override
+    protected Mono<ProfitOrderedTreap> build() {
+        return Flux.defer(projectRepository::findAllFinancials)
+                .collectList()
+                // Sorting and linking a large pool takes a while; keep it off the Mongo driver threads.
+                .publishOn(Schedulers.parallel())
+                .map(ProfitOrderedTreap::of)
+                .doOnNext(treap -> logger.info("Rebuilt the top-profit index from {} projects", treap.size()));
+    }
+
+    @Override
+    protected ProfitOrderedTreap add(ProfitOrderedTreap treap, Collection<ProjectFinancials> projects) {
+        ProfitOrderedTreap next = treap;
+        for (ProjectFinancials project : projects) {
+            next = next.with(project);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.rblessings.projects.ranking;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-memory index answering top-profit queries.
+ *
+ * <p>The index holds the financial projection of every project, about 200 bytes per project. It is built from
+ * Mongo once the application is ready and rebuilt every {@code rebuildInterval}; projects saved through this
+ * instance are added as they are saved. When disabled, queries scan the projects in order of required capital.</p>
+ */
+@ConfigurationProperties(prefix = "planner.profit-index")
+public record ProjectProfitIndexProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("6h") Duration rebuildInterval
+) {
+}
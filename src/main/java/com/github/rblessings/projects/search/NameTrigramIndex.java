@@ -0,0 +1,295 @@
+package com.github.rblessings.projects.search;
+
+import com.github.rblessings.projects.model.ProjectName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable index of project names answering prefix and substring searches without scanning the names.
+ *
+ * <p>Names are matched case-insensitively. A name matches a query if it starts with it or, for queries of at least
+ * {@value #MIN_SUBSTRING_LENGTH} characters, contains it. Names starting with the query rank first, then names
+ * containing it elsewhere, each group in alphabetical order.</p>
+ *
+ * <p>The lower-cased names are kept in a sorted array, so the names starting with a query are a contiguous run found
+ * by binary search. Substrings go through an inverted index from every trigram (three consecutive characters) to the
+ * sorted positions of the names containing it. A query intersects the posting lists of its trigrams, starting from
+ * the shortest and galloping through the others, and checks each candidate for the whole query. Candidates come in
+ * alphabetical order, so a search stops as soon as it has {@code limit} results, and only needs memory for its
+ * trigrams and results whatever the number of names.</p>
+ *
+ * <p>Postings are stored in three flat arrays rather than per-trigram lists: the distinct trigram codes, the offset
+ * of each one's postings, and the postings themselves, about 4 bytes per trigram of every name.</p>
+ */
+public final class NameTrigramIndex {
+
+    /**
+     * Shortest query matched anywhere in a name; shorter queries only match at the start of a name.
+     */
+    public static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final Comparator<Keyed> KEYED_ORDER = Comparator.comparing(Keyed::key)
+            .thenComparing(keyed -> keyed.project().name())
+            .thenComparing(keyed -> keyed.project().id());
+
+    private static final NameTrigramIndex EMPTY = of(List.of());
+
+    private final ProjectName[] projects;
+    private final String[] keys;
+    private final int[] trigrams;
+    private final int[] offsets;
+    private final int[] postings;
+
+    private NameTrigramIndex(ProjectName[] projects, String[] keys, int[] trigrams, int[] offsets, int[] postings) {
+        this.projects = projects;
+        this.keys = keys;
+        this.trigrams = trigrams;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    public static NameTrigramIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the form of a name or query that is matched: lower case, in the root locale.
+     */
+    public static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns whether a name matches a query, both given {@linkplain #fold folded}.
+     */
+    public static boolean matches(String foldedQuery, String foldedName) {
+        return foldedName.startsWith(foldedQuery)
+                || foldedQuery.length() >= MIN_SUBSTRING_LENGTH && foldedName.contains(foldedQuery);
+    }
+
+    /**
+     * Returns the ranking of the names matching a {@linkplain #fold folded} query: names starting with it first,
+     * then alphabetical order of the folded names, then of the names and IDs.
+     */
+    public static Comparator<ProjectName> relevanceTo(String foldedQuery) {
+        return Comparator.<ProjectName>comparingInt(project -> fold(project.name()).startsWith(foldedQuery) ? 0 : 1)
+                .thenComparing(project -> fold(project.name()))
+                .thenComparing(ProjectName::name)
+                .thenComparing(ProjectName::id);
+    }
+
+    /**
+     * Builds an index of the given projects, whose IDs must be distinct, in O(t log t) time for t trigrams.
+     */
+    public static NameTrigramIndex of(Collection<ProjectName> projects) {
+        // Folding returns the name itself when it is already lower case, so most keys cost nothing extra.
+        Keyed[] keyed = projects.stream()
+                .map(project -> new Keyed(fold(project.name()), project))
+                .toArray(Keyed[]::new);
+        Arrays.parallelSort(keyed, KEYED_ORDER);
+
+        int n = keyed.length;
+        ProjectName[] sorted = new ProjectName[n];
+        String[] keys = new String[n];
+        long windows = 0;
+        for (int i = 0; i < n; i++) {
+            sorted[i] = keyed[i].project();
+            keys[i] = keyed[i].key();
+            windows += Math.max(0, keys[i].length() - MIN_SUBSTRING_LENGTH + 1);
+        }
+
+        // Pair every trigram code with the position of its name; sorting the pairs groups the postings of each
+        // trigram, in ascending order of position.
+        long[] pairs = new long[Math.toIntExact(windows)];
+        int p = 0;
+        for (int position = 0; position < n; position++) {
+            String key = keys[position];
+            for (int start = 0; start + MIN_SUBSTRING_LENGTH <= key.length(); start++) {
+                pairs[p++] = ((long) trigram(key, start) << 32) | position;
+            }
+        }
+        Arrays.parallelSort(pairs);
+
+        int distinctPairs = 0;
+        int distinctTrigrams = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            if (i == 0 || pairs[i] != pairs[i - 1]) {
+                distinctPairs++;
+                if (i == 0 || (int) (pairs[i] >> 32) != (int) (pairs[i - 1] >> 32)) {
+                    distinctTrigrams++;
+                }
+            }
+        }
+        int[] trigrams = new int[distinctTrigrams];
+        int[] offsets = new int[distinctTrigrams + 1];
+        int[] postings = new int[distinctPairs];
+        int t = -1;
+        int q = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue; // The trigram occurs more than once in the same name.
+            }
+            int code = (int) (pairs[i] >> 32);
+            if (t < 0 || trigrams[t] != code) {
+                trigrams[++t] = code;
+                offsets[t] = q;
+            }
+            postings[q++] = (int) pairs[i];
+        }
+        offsets[distinctTrigrams] = q;
+        return new NameTrigramIndex(sorted, keys, trigrams, offsets, postings);
+    }
+
+    /**
+     * Returns an index holding the projects of this one and the given ones, skipping the IDs it already holds.
+     */
+    public NameTrigramIndex with(Collection<ProjectName> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+        Set<String> ids = new HashSet<>(projects.length + added.size());
+        List<ProjectName> all = new ArrayList<>(projects.length + added.size());
+        for (ProjectName project : projects) {
+            ids.add(project.id());
+            all.add(project);
+        }
+        for (ProjectName project : added) {
+            if (ids.add(project.id())) {
+                all.add(project);
+            }
+        }
+        return of(all);
+    }
+
+    public int size() {
+        return projects.length;
+    }
+
+    /**
+     * Returns the projects held by this index, in alphabetical order of their folded names.
+     */
+    public List<ProjectName> projects() {
+        return Collections.unmodifiableList(Arrays.asList(projects));
+    }
+
+    /**
+     * Returns up to {@code limit} projects whose name matches {@code query}, most relevant first.
+     */
+    public List<ProjectName> search(String query, int limit) {
+        String folded = fold(query);
+        if (folded.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        List<ProjectName> matches = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(folded); i < keys.length && matches.size() < limit && keys[i].startsWith(folded); i++) {
+            matches.add(projects[i]);
+        }
+        if (matches.size() < limit && folded.length() >= MIN_SUBSTRING_LENGTH) {
+            addInfixMatches(folded, limit, matches);
+        }
+        return matches;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds the names containing {@code query} other than at their start, in alphabetical order, until there are
+     * {@code limit} matches.
+     */
+    private void addInfixMatches(String query, int limit, List<ProjectName> matches) {
+        int windows = query.length() - MIN_SUBSTRING_LENGTH + 1;
+        int[] starts = new int[windows];
+        int[] ends = new int[windows];
+        for (int i = 0; i < windows; i++) {
+            int t = Arrays.binarySearch(trigrams, trigram(query, i));
+            if (t < 0) {
+                return; // No name contains this trigram.
+            }
+            starts[i] = offsets[t];
+            ends[i] = offsets[t + 1];
+        }
+
+        // Drive the intersection from the shortest posting list.
+        int shortest = 0;
+        for (int i = 1; i < windows; i++) {
+            if (ends[i] - starts[i] < ends[shortest] - starts[shortest]) {
+                shortest = i;
+            }
+        }
+
+        candidates:
+        for (int c = starts[shortest]; c < ends[shortest] && matches.size() < limit; c++) {
+            int position = postings[c];
+            for (int i = 0; i < windows; i++) {
+                if (i == shortest) {
+                    continue;
+                }
+                starts[i] = gallop(position, starts[i], ends[i]);
+                if (starts[i] == ends[i]) {
+                    return; // Every later candidate is past the end of this list.
+                }
+                if (postings[starts[i]] != position) {
+                    continue candidates;
+                }
+            }
+            // Trigrams may match out of order or collide, so check the whole query.
+            String key = keys[position];
+            if (!key.startsWith(query) && key.indexOf(query, 1) > 0) {
+                matches.add(projects[position]);
+            }
+        }
+    }
+
+    /**
+     * Returns the first index in {@code [from, to)} whose posting is at least {@code target}, or {@code to}.
+     */
+    private int gallop(int target, int from, int to) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < to && postings[high] < target) {
+            low = high + 1;
+            high = Math.min(to, high + step);
+            step <<= 1;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (postings[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int trigram(String key, int start) {
+        // Mixes the three UTF-16 code units into 32 bits; collisions only add candidates, which are checked.
+        long packed = ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+        return Long.hashCode(packed * 0x9E3779B97F4A7C15L);
+    }
+
+    private record Keyed(String key, ProjectName project) {
+    }
+}
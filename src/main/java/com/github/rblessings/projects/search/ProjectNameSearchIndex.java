@@ -0,0 +1,170 @@
+package com.github.rblessings.projects.search;
+
+import com.github.rblessings.projects.index.PeriodicallyRebuiltIndex;
+import com.github.rblessings.projects.model.ProjectName;
+import com.github.rblessings.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory {@link NameTrigramIndex} of the names of the projects in the default collection, answering prefix and
+ * substring searches without a regex scan in Mongo.
+ *
+ * <p>The index is built from Mongo once the application is ready, and rebuilt periodically as a
+ * {@link PeriodicallyRebuiltIndex}. Projects saved by this instance go into a second, small index of pending names,
+ * rebuilt as they are added at a cost proportional to its size only, and searches query both indexes. The pending
+ * names are folded into the main index by the periodic rebuild, or, once they reach both the merge threshold and the
+ * merge fraction of the main index, by a merge in the background, so that the main index is rebuilt a bounded number
+ * of times however fast projects are saved. Searches read an immutable state and never wait for a writer.</p>
+ *
+ * <p>Until the index is built, or when it is disabled, searches scan the project names and keep the best matches
+ * in a bounded heap.</p>
+ */
+public class ProjectNameSearchIndex extends PeriodicallyRebuiltIndex<ProjectNameSearchIndex.State, ProjectName> {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectNameSearchIndex.class);
+
+    private final ProjectRepository projectRepository;
+    private final ProjectNameSearchProperties properties;
+
+    public ProjectNameSearchIndex(ProjectRepository projectRepository, ProjectNameSearchProperties properties,
+                                  MeterRegistry meterRegistry) {
+        super("project name search index");
+        this.projectRepository = projectRepository;
+        this.properties = properties;
+
+        Gauge.builder("planner.name-search.size", this,
+                        index -> index.snapshot() == null ? Double.NaN : index.snapshot().index().size())
+                .description("Project names held by the name search index")
+                .register(meterRegistry);
+        Gauge.builder("planner.name-search.pending", this,
+                        index -> index.snapshot() == null ? 0 : index.snapshot().pending().size())
+                .description("Project names waiting to be merged into the name search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index, then schedules its rebuilds. When disabled, the index is never built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            logger.info("Project name search index is disabled");
+            return;
+        }
+        schedule(properties.rebuildInterval(), Flux.empty());
+    }
+
+    /**
+     * Returns up to {@code limit} projects whose name starts with or contains {@code query}, case-insensitively,
+     * ranked as described by {@link NameTrigramIndex}.
+     */
+    public Flux<ProjectName> search(String query, int limit) {
+        return Flux.defer(() -> {
+            String folded = NameTrigramIndex.fold(query);
+            State current = snapshot();
+            if (current == null) {
+                return scan(folded, limit);
+            }
+            List<ProjectName> indexed = current.index().search(query, limit);
+            if (current.pending().size() == 0) {
+                return Flux.fromIterable(indexed);
+            }
+            return Flux.fromIterable(best(indexed, current.pending().search(query, limit), folded, limit));
+        });
+    }
+
+    private static List<ProjectName> best(List<ProjectName> indexed, List<ProjectName> pending, String folded,
+                                          int limit) {
+        Comparator<ProjectName> relevance = NameTrigramIndex.relevanceTo(folded);
+        PriorityQueue<ProjectName> best = new PriorityQueue<>(relevance.reversed());
+        // A project saved during a rebuild may be both in the new index and still pending.
+        Set<String> ids = new HashSet<>();
+        for (ProjectName project : indexed) {
+            ids.add(project.id());
+            keepBest(best, project, limit);
+        }
+        for (ProjectName project : pending) {
+            if (ids.add(project.id())) {
+                keepBest(best, project, limit);
+            }
+        }
+        return best.stream().sorted(relevance).toList();
+    }
+
+    private Flux<ProjectName> scan(String folded, int limit) {
+        Comparator<ProjectName> relevance = NameTrigramIndex.relevanceTo(folded);
+        return projectRepository.findAllIdsAndNames()
+                .filter(project -> NameTrigramIndex.matches(folded, NameTrigramIndex.fold(project.name())))
+                .collect(() -> new PriorityQueue<>(relevance.reversed()),
+                        (PriorityQueue<ProjectName> best, ProjectName project) -> keepBest(best, project, limit))
+                .flatMapIterable(best -> best.stream().sorted(relevance).toList());
+    }
+
+    /**
+     * Adds a match to the best {@code limit} ones seen so far, in a heap whose head is the least relevant of them.
+     */
+    private static void keepBest(PriorityQueue<ProjectName> best, ProjectName project, int limit) {
+        best.add(project);
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    /**
+     * Adds newly saved projects, merging the pending ones into a new index once there are enough of them.
+     */
+    @Override
+    public void addAll(Collection<ProjectName> projects) {
+        super.addAll(projects);
+        State current = snapshot();
+        if (current != null && current.pending().size() >= properties.mergeThreshold()
+                && current.pending().size() >= properties.mergeFraction() * current.index().size()) {
+            merge().subscribe();
+        }
+    }
+
+    @Override
+    protected Mono<State> build() {
+        return Flux.defer(projectRepository::findAllIdsAndNames)
+                .collectList()
+                // Sorting the names and their trigrams takes a while; keep it off the Mongo driver threads.
+                .publishOn(Schedulers.parallel())
+                .map(projects -> new State(NameTrigramIndex.of(projects), NameTrigramIndex.empty()))
+                .doOnNext(state -> logger.info("Built the project name search index with {} names",
+                        state.index().size()));
+    }
+
+    @Override
+    protected State add(State state, Collection<ProjectName> projects) {
+        return new State(state.index(), state.pending().with(projects));
+    }
+
+    /**
+     * Builds a new index from the current one and the pending projects, and replaces the current one with it. Does
+     * not start while a rebuild or another merge is in progress.
+     */
+    Mono<Void> merge() {
+        return rebuildFrom(Mono.fromCallable(() -> {
+                    State current = snapshot();
+                    return new State(current.index().with(current.pending().projects()), NameTrigramIndex.empty());
+                })
+                .subscribeOn(Schedulers.parallel()));
+    }
+
+    record State(NameTrigramIndex index, NameTrigramIndex pending) {
+    }
+}
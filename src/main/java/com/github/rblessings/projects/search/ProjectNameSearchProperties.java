@@ -0,0 +1,33 @@
+package com.github.rblessings.projects.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-memory index answering project name searches.
+ *
+ * <p>The index holds the ID and name of every project and the trigrams of the names, about 250 bytes per project
+ * for typical names. It is built from Mongo once the application is ready and rebuilt every {@code rebuildInterval}.
+ * Projects saved through this instance are held in a small second index until the next rebuild, or until at least
+ * {@code mergeThreshold} of them are waiting and they number at least {@code mergeFraction} of the indexed projects;
+ * they are then merged into a new index in the background. When disabled, searches scan the project names.</p>
+ */
+@ConfigurationProperties(prefix = "planner.name-search")
+public record ProjectNameSearchProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("6h") Duration rebuildInterval,
+        @DefaultValue("1000") int mergeThreshold,
+        @DefaultValue("0.1") double mergeFraction
+) {
+
+    public ProjectNameSearchProperties {
+        if (mergeThreshold < 1) {
+            throw new IllegalArgumentException("Name search merge threshold must be at least 1");
+        }
+        if (!(mergeFraction >= 0)) {
+            throw new IllegalArgumentException("Name search merge fraction must not be negative");
+        }
+    }
+}
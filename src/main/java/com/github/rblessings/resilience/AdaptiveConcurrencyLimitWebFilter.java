@@ -0,0 +1,142 @@
+package com.github.rblessings.resilience;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.projects.api.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link WebFilter} that guards API routes with {@link AdaptiveConcurrencyLimiter}s.
+ *
+ * <p>A request is admitted only if the limiter for its route has a free permit; otherwise it is rejected
+ * right away with {@link HttpStatus#SERVICE_UNAVAILABLE}, so load is shed before it queues up in the
+ * service. The permit is released when the response completes, feeding the request latency back into
+ * the limiter. Server errors count as drops, and client cancellations are ignored.</p>
+ *
+ * <p>Each limiter publishes its current limit and in-flight count as gauges, and its rejections as a counter.</p>
+ */
+public class AdaptiveConcurrencyLimitWebFilter implements WebFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimitWebFilter.class);
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final List<Route> routes;
+    private final byte[] rejectionBody;
+
+    public AdaptiveConcurrencyLimitWebFilter(List<AdaptiveConcurrencyLimiter> limiters,
+                                             ConcurrencyLimitProperties properties,
+                                             MeterRegistry meterRegistry,
+                                             ObjectMapper objectMapper) {
+        this.routes = new ArrayList<>(limiters.size());
+        for (AdaptiveConcurrencyLimiter limiter : limiters) {
+            var instance = properties.instances().get(limiter.getName());
+            if (instance == null) {
+                throw new IllegalArgumentException("No configuration for limiter: %s".formatted(limiter.getName()));
+            }
+            var patterns = instance.paths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            routes.add(new Route(patterns, limiter, registerMetrics(limiter, meterRegistry)));
+        }
+        this.rejectionBody = serializeRejection(objectMapper);
+    }
+
+    private static Counter registerMetrics(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        meterRegistry.gauge("planner.concurrency.limit",
+                Tags.of("name", limiter.getName()),
+                limiter, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("planner.concurrency.inflight",
+                Tags.of("name", limiter.getName()),
+                limiter, AdaptiveConcurrencyLimiter::getInFlight);
+        return Counter.builder("planner.concurrency.rejected")
+                .description("Requests rejected because the adaptive concurrency limit was reached")
+                .tag("name", limiter.getName())
+                .register(meterRegistry);
+    }
+
+    private static byte[] serializeRejection(ObjectMapper objectMapper) {
+        var response = ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service temporarily unavailable. Please try again later.");
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize concurrency limit rejection response", e);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var route = findRoute(exchange);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        var permit = route.limiter().tryAcquire();
+        if (permit.isEmpty()) {
+            route.rejected().increment();
+            // Rejections are counted; a line per rejection would flood the logs exactly when the service is overloaded.
+            logger.debug("Concurrency limit {} reached for {}; rejecting request",
+                    route.limiter().getLimit(), route.limiter().getName());
+            return reject(exchange.getResponse());
+        }
+
+        var acquired = permit.get();
+        return chain.filter(exchange)
+                .doFinally(signal -> release(acquired, signal, exchange.getResponse()));
+    }
+
+    private Route findRoute(ServerWebExchange exchange) {
+        var path = exchange.getRequest().getPath().pathWithinApplication();
+        for (Route route : routes) {
+            for (PathPattern pattern : route.patterns()) {
+                if (pattern.matches(path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, SignalType signal,
+                                ServerHttpResponse response) {
+        if (signal == SignalType.CANCEL) {
+            permit.onIgnore();
+            return;
+        }
+
+        var status = response.getStatusCode();
+        if (signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejectionBody)));
+    }
+
+    private record Route(List<PathPattern> patterns, AdaptiveConcurrencyLimiter limiter, Counter rejected) {
+    }
+}
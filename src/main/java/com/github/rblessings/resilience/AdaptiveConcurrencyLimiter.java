@@ -0,0 +1,187 @@
+package com.github.rblessings.resilience;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+
+/**
+ * Concurrency limiter that adapts its limit to observed latency using a gradient algorithm.
+ *
+ * <p>The limiter keeps a long-term exponential average of the request round-trip time (RTT) as an estimate of
+ * the no-load latency, and compares each new sample against it. While samples stay close to the long-term
+ * average the limit grows by a small queue allowance; once queueing pushes latency up, the gradient
+ * {@code longRtt / shortRtt} drops below one and the limit shrinks proportionally. Requests arriving while
+ * the in-flight count is at the limit are rejected immediately instead of being queued.</p>
+ *
+ * <p>Dropped requests (errors or timeouts) apply a multiplicative decrease, giving AIMD behaviour when the
+ * downstream fails rather than slows down.</p>
+ *
+ * <p>This class is thread-safe. Acquisition is lock-free; limit updates are serialized.</p>
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by "this"
+    private double longRtt;
+    private long sampleCount;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double smoothing, double rttTolerance, int longWindow,
+                                      LongSupplier nanoClock) {
+        requireNonNull(name, () -> "Limiter name must not be null");
+        requireNonNull(nanoClock, () -> "Nano clock must not be null");
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                    "Limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit for limiter: %s".formatted(name));
+        }
+        if (smoothing <= 0 || smoothing > 1 || rttTolerance < 1 || longWindow < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid smoothing, tolerance or window for limiter: %s".formatted(name));
+        }
+
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindow = longWindow;
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of requests currently holding a permit.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Attempts to acquire a permit without waiting.
+     *
+     * @return a {@link Permit} that must be completed exactly once, or empty if the limit has been reached
+     */
+    public Optional<Permit> tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return Optional.empty();
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        return Optional.of(new Permit(nanoClock.getAsLong(), current + 1));
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        sampleCount++;
+        if (sampleCount == 1) {
+            longRtt = rttNanos;
+        } else {
+            double window = Math.min(sampleCount, longWindow);
+            longRtt = longRtt + (rttNanos - longRtt) / window;
+        }
+
+        // When the long-term average is far above the current latency (e.g. after a load spike has drained),
+        // decay it quickly so the limiter can recover instead of growing against a stale baseline.
+        if (longRtt / rttNanos > 2) {
+            longRtt = longRtt * 0.95;
+        }
+
+        // Don't grow the limit while the application is not using it.
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRtt / rttNanos));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+
+        limit = clamp((int) newLimit);
+    }
+
+    private synchronized void onDropped() {
+        limit = clamp((int) (limit * BACKOFF_RATIO));
+    }
+
+    private int clamp(int value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    /**
+     * A single acquired slot. Exactly one of the completion methods must be called; further calls are ignored.
+     */
+    public final class Permit {
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicInteger released = new AtomicInteger();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit and feeds the observed latency into the limit calculation.
+         */
+        public void onSuccess() {
+            if (release()) {
+                onSample(nanoClock.getAsLong() - startNanos, inFlightAtStart);
+            }
+        }
+
+        /**
+         * Releases the permit and signals that the request failed or timed out, reducing the limit.
+         */
+        public void onDropped() {
+            if (release()) {
+                AdaptiveConcurrencyLimiter.this.onDropped();
+            }
+        }
+
+        /**
+         * Releases the permit without affecting the limit, e.g. when the client cancelled the request.
+         */
+        public void onIgnore() {
+            release();
+        }
+
+        private boolean release() {
+            if (released.compareAndSet(0, 1)) {
+                inFlight.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
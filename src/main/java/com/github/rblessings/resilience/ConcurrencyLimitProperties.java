@@ -0,0 +1,40 @@
+package com.github.rblessings.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration for the adaptive concurrency limiters applied to the HTTP APIs.
+ *
+ * <p>Each named instance owns an independent {@link AdaptiveConcurrencyLimiter} and applies to the
+ * requests whose path matches one of its patterns. Instances are evaluated in declaration order and
+ * the first match wins.</p>
+ */
+@ConfigurationProperties(prefix = "planner.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        Map<String, Instance> instances
+) {
+
+    public ConcurrencyLimitProperties {
+        instances = instances == null ? Map.of() : instances;
+    }
+
+    public record Instance(
+            List<String> paths,
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("0.2") double smoothing,
+            @DefaultValue("1.5") double rttTolerance,
+            @DefaultValue("600") int longWindow
+    ) {
+
+        public Instance {
+            paths = paths == null ? List.of() : List.copyOf(paths);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.rblessings.resilience;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.projects.api.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link WebFilter} that guards API routes with {@link DistributedRateLimiter}s.
+ *
+ * <p>A request is admitted from the local permit pool of the limiter for its route without any I/O. Only when
+ * the pool is empty does it wait for the limiter's next lease from Redis, and if the cluster-wide limit is
+ * reached it is rejected with {@link HttpStatus#TOO_MANY_REQUESTS}.</p>
+ *
+ * <p>Each limiter publishes its local permits as a gauge, and its rejections and failed leases as counters.</p>
+ */
+public class DistributedRateLimitWebFilter implements WebFilter {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedRateLimitWebFilter.class);
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final List<Route> routes;
+    private final byte[] rejectionBody;
+
+    public DistributedRateLimitWebFilter(List<DistributedRateLimiter> limiters,
+                                         RateLimitProperties properties,
+                                         MeterRegistry meterRegistry,
+                                         ObjectMapper objectMapper) {
+        this.routes = new ArrayList<>(limiters.size());
+        for (DistributedRateLimiter limiter : limiters) {
+            var instance = properties.instances().get(limiter.getName());
+            if (instance == null) {
+                throw new IllegalArgumentException("No configuration for limiter: %s".formatted(limiter.getName()));
+            }
+            var patterns = instance.paths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            routes.add(new Route(patterns, limiter, registerMetrics(limiter, meterRegistry)));
+        }
+        this.rejectionBody = serializeRejection(objectMapper);
+    }
+
+    private static Counter registerMetrics(DistributedRateLimiter limiter, MeterRegistry meterRegistry) {
+        meterRegistry.gauge("planner.rate-limit.local-permits",
+                Tags.of("name", limiter.getName()),
+                limiter, DistributedRateLimiter::getLocalPermits);
+        FunctionCounter.builder("planner.rate-limit.lease.errors", limiter, DistributedRateLimiter::getLeaseErrors)
+                .description("Permit leases that failed because Redis was unavailable and were granted locally")
+                .tag("name", limiter.getName())
+                .register(meterRegistry);
+        return Counter.builder("planner.rate-limit.rejected")
+                .description("Requests rejected because the cluster-wide rate limit was reached")
+                .tag("name", limiter.getName())
+                .register(meterRegistry);
+    }
+
+    private static byte[] serializeRejection(ObjectMapper objectMapper) {
+        var response = ApiResponse.error(HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests. Please try again later.");
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize rate limit rejection response", e);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var route = findRoute(exchange);
+        if (route == null || route.limiter().tryAcquire()) {
+            return chain.filter(exchange);
+        }
+
+        return route.limiter().acquire().flatMap(acquired -> {
+            if (acquired) {
+                return chain.filter(exchange);
+            }
+            route.rejected().increment();
+            // Rejections are counted; a line per rejection would flood the logs under a burst.
+            logger.debug("Rate limit reached for {}; rejecting request", route.limiter().getName());
+            return reject(exchange.getResponse());
+        });
+    }
+
+    private Route findRoute(ServerWebExchange exchange) {
+        var path = exchange.getRequest().getPath().pathWithinApplication();
+        for (Route route : routes) {
+            for (PathPattern pattern : route.patterns()) {
+                if (pattern.matches(path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejectionBody)));
+    }
+
+    private record Route(List<PathPattern> patterns, DistributedRateLimiter limiter, Counter rejected) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.rblessings.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import static com.github.rblessings.projects.model.Validators.requireNonNull;
+
+/**
+ * Cluster-wide rate limiter backed by a token bucket in Redis, leased to each instance in batches.
+ *
+ * <p>The bucket holds up to {@code burst} tokens and refills at {@code permitsPerSecond}, using the Redis
+ * server clock so that every instance sees the same bucket. Instead of taking one token per request, an
+ * instance takes up to {@code batchSize} tokens at a time into a local pool and admits requests from it
+ * with a single atomic decrement. Once the pool drops to half a batch, the next lease is taken in the
+ * background, so a request only waits for Redis when the pool is empty.</p>
+ *
+ * <p>Leased permits that are not used within {@code leaseTtl} are dropped, so an idle instance cannot
+ * hoard permits and spend them in a burst later. When the bucket has fewer tokens than a batch, the
+ * instance takes what is left and does not ask again until the missing tokens have refilled, so a
+ * rejected request does not cost a round trip either.</p>
+ *
+ * <p>If Redis is unavailable the limiter fails open: it grants itself one batch per {@code leaseTtl},
+ * which bounds each instance to that rate until Redis is back.</p>
+ *
+ * <p>This class is thread-safe. Acquisition from the local pool is lock-free; at most one lease is in flight.</p>
+ */
+public final class DistributedRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedRateLimiter.class);
+
+    static final String KEY_PREFIX = "rate-limit:";
+
+    /**
+     * Refills the bucket for the time elapsed since it was last updated, takes up to the requested number
+     * of tokens, and returns how many were taken. The bucket expires once it would be full again.
+     */
+    private static final RedisScript<Long> TAKE = RedisScript.of("""
+            local rate = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'updated')
+            local tokens = tonumber(bucket[1]) or burst
+            local updated = tonumber(bucket[2]) or now
+            tokens = math.min(burst, tokens + math.max(0, now - updated) * rate / 1000)
+            local granted = math.min(math.floor(tokens), requested)
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - granted), 'updated', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + 1000)
+            return granted
+            """, Long.class);
+
+    private static final Mono<Long> NOTHING_GRANTED = Mono.just(0L);
+
+    private final String name;
+    private final String key;
+    private final double permitsPerSecond;
+    private final long burst;
+    private final long batchSize;
+    private final long leaseTtlNanos;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong permits = new AtomicLong();
+    private final AtomicLong leaseErrors = new AtomicLong();
+    private final AtomicReference<Mono<Long>> leaseInFlight = new AtomicReference<>();
+    private volatile long leaseExpiresAt;
+    private volatile long nextLeaseAt;
+
+    public DistributedRateLimiter(String name, double permitsPerSecond, long burst, long batchSize, Duration leaseTtl,
+                                  ReactiveRedisTemplate<String, String> redisTemplate, LongSupplier nanoClock) {
+        requireNonNull(name, () -> "Limiter name must not be null");
+        requireNonNull(leaseTtl, () -> "Lease TTL must not be null");
+        requireNonNull(redisTemplate, () -> "Redis template must not be null");
+        requireNonNull(nanoClock, () -> "Nano clock must not be null");
+        if (permitsPerSecond <= 0 || batchSize < 1 || burst < batchSize) {
+            throw new IllegalArgumentException(
+                    "Rates must satisfy permitsPerSecond > 0 and 1 <= batchSize <= burst for limiter: %s".formatted(name));
+        }
+        if (leaseTtl.isNegative() || leaseTtl.isZero()) {
+            throw new IllegalArgumentException("Lease TTL must be positive for limiter: %s".formatted(name));
+        }
+
+        this.name = name;
+        this.key = KEY_PREFIX + name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.batchSize = batchSize;
+        this.leaseTtlNanos = leaseTtl.toNanos();
+        this.redisTemplate = redisTemplate;
+        this.nanoClock = nanoClock;
+        this.nextLeaseAt = nanoClock.getAsLong();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of permits this instance can grant without going to Redis.
+     */
+    public long getLocalPermits() {
+        return permits.get();
+    }
+
+    /**
+     * Returns the number of leases that failed because Redis was unavailable.
+     */
+    public long getLeaseErrors() {
+        return leaseErrors.get();
+    }
+
+    /**
+     * Takes a permit from the local pool, starting the next lease in the background once the pool runs low.
+     *
+     * @return {@code true} if a permit was taken; {@code false} if the pool is empty, in which case
+     * {@link #acquire()} waits for the next lease.
+     */
+    public boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        if (now - leaseExpiresAt > 0 && permits.get() > 0) {
+            permits.set(0);
+        }
+        long before = permits.getAndUpdate(available -> available > 0 ? available - 1 : available);
+        if (before <= batchSize / 2 + 1) {
+            lease();
+        }
+        return before > 0;
+    }
+
+    /**
+     * Takes a permit, waiting for the lease in flight, or a new one, if the local pool is empty. Completes
+     * with {@code false} if the cluster-wide limit is reached.
+     */
+    public Mono<Boolean> acquire() {
+        if (tryAcquire()) {
+            return Mono.just(true);
+        }
+        return lease().map(granted -> tryAcquire());
+    }
+
+    /**
+     * Returns the lease in flight, or starts a new one unless the bucket was found empty recently. A lease runs
+     * whether or not the result is subscribed to; every caller shares it, and it completes with the number of
+     * permits it added to the pool.
+     */
+    private Mono<Long> lease() {
+        while (true) {
+            Mono<Long> inFlight = leaseInFlight.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            if (nanoClock.getAsLong() - nextLeaseAt < 0) {
+                return NOTHING_GRANTED;
+            }
+            Mono<Long> next = takeTokens()
+                    .doFinally(signal -> leaseInFlight.set(null))
+                    .cache();
+            if (leaseInFlight.compareAndSet(null, next)) {
+                next.subscribe();
+                return next;
+            }
+        }
+    }
+
+    private Mono<Long> takeTokens() {
+        List<String> args = List.of(Double.toString(permitsPerSecond), Long.toString(burst), Long.toString(batchSize));
+        return redisTemplate.execute(TAKE, List.of(key), args)
+                .next()
+                .defaultIfEmpty(0L)
+                .map(granted -> {
+                    long now = nanoClock.getAsLong();
+                    if (granted < batchSize) {
+                        // Wait for the missing tokens to refill before asking again, but no longer than a lease lasts.
+                        long refillNanos = (long) Math.ceil((batchSize - granted) * 1_000_000_000d / permitsPerSecond);
+                        nextLeaseAt = now + Math.min(refillNanos, leaseTtlNanos);
+                    }
+                    return addPermits(granted, now);
+                })
+                .onErrorResume(error -> {
+                    leaseErrors.incrementAndGet();
+                    logger.warn("Unable to lease permits for rate limiter {} from Redis; granting {} locally",
+                            name, batchSize, error);
+                    long now = nanoClock.getAsLong();
+                    nextLeaseAt = now + leaseTtlNanos;
+                    return Mono.just(addPermits(batchSize, now));
+                });
+    }
+
+    private long addPermits(long granted, long now) {
+        // Extend the lease before adding to the pool, so that the new permits are not dropped as expired.
+        leaseExpiresAt = now + leaseTtlNanos;
+        permits.addAndGet(granted);
+        return granted;
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.rblessings.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration for the cluster-wide rate limiters applied to the HTTP APIs.
+ *
+ * <p>Each named instance owns a {@link DistributedRateLimiter}, whose token bucket is shared by every instance
+ * of the service, and applies to the requests whose path matches one of its patterns. Instances are evaluated
+ * in declaration order and the first match wins.</p>
+ *
+ * <p>A larger {@code batchSize} means fewer Redis round trips, but lets a single instance hold more of the
+ * burst at once; keep it well below {@code burst} divided by the number of instances.</p>
+ */
+@ConfigurationProperties(prefix = "planner.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        Map<String, Instance> instances
+) {
+
+    public RateLimitProperties {
+        instances = instances == null ? Map.of() : instances;
+    }
+
+    public record Instance(
+            List<String> paths,
+            @DefaultValue("500") double permitsPerSecond,
+            @DefaultValue("1000") long burst,
+            @DefaultValue("25") long batchSize,
+            @DefaultValue("1s") Duration leaseTtl
+    ) {
+
+        public Instance {
+            paths = paths == null ? List.of() : List.copyOf(paths);
+        }
+    }
+}
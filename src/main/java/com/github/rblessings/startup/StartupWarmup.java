@@ -0,0 +1,167 @@
+package com.github.rblessings.startup;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import com.github.rblessings.projects.api.CreateProjectsRequest;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectDTO;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Exercises the request hot paths on synthetic data before the application accepts traffic.
+ *
+ * <p>Application runners complete before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC}, so the
+ * readiness probe reports {@code OUT_OF_SERVICE} until the warm-up is done. By then the greedy selection, the
+ * capital sweep and the Jackson JSON and Smile codecs have run often enough to be JIT-compiled, and the
+ * serializer caches are populated, so the first real requests do not pay for it.</p>
+ *
+ * <p>Skipped unless {@code planner.warmup.enabled} is on.</p>
+ */
+public class StartupWarmup implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final ResolvableType PROJECT_TYPE = ResolvableType.forClass(ProjectDTO.class);
+    private static final ResolvableType CREATE_REQUEST_TYPE = ResolvableType.forClass(CreateProjectsRequest.class);
+    private static final int MAX_PROJECTS = 50;
+
+    private final ProjectCapitalOptimizer projectCapitalOptimizer;
+    private final ServerCodecConfigurer codecConfigurer;
+    private final WarmupProperties properties;
+
+    public StartupWarmup(ProjectCapitalOptimizer projectCapitalOptimizer, ServerCodecConfigurer codecConfigurer,
+                         WarmupProperties properties) {
+        this.projectCapitalOptimizer = projectCapitalOptimizer;
+        this.codecConfigurer = codecConfigurer;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            logger.info("Startup warm-up is disabled");
+            return;
+        }
+        warmUp();
+    }
+
+    /**
+     * Runs the warm-up rounds.
+     *
+     * @return the number of completed rounds
+     */
+    int warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + properties.timeBudget().toNanos();
+
+        var random = new Random(0);
+        List<ProjectFinancials> financials = new ArrayList<>(properties.projects());
+        List<ProjectDTO> projects = new ArrayList<>(properties.projects());
+        for (int i = 0; i < properties.projects(); i++) {
+            var id = "warmup-" + i;
+            var requiredCapital = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            var profit = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            financials.add(new ProjectFinancials(id, requiredCapital, profit));
+            projects.add(new ProjectDTO(id, "Warm-up project " + i, requiredCapital, profit, AuditMetadata.empty(), 0L));
+        }
+        List<JacksonCodec> codecs = jacksonCodecs();
+
+        int rounds = 0;
+        while (rounds < properties.iterations() && System.nanoTime() < deadline) {
+            var initialCapital = BigDecimal.valueOf(random.nextInt(10_000));
+            projectCapitalOptimizer.maximizeCapital(financials, MAX_PROJECTS, initialCapital).block();
+            projectCapitalOptimizer.sweepCapital(financials, MAX_PROJECTS, initialCapital, initialCapital.add(BigDecimal.TEN))
+                    .then()
+                    .block();
+            codecs.forEach(codec -> codec.roundTrip(projects));
+            rounds++;
+        }
+
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+        if (rounds < properties.iterations()) {
+            logger.warn("Warm-up stopped after {} of {} rounds; time budget of {} exhausted",
+                    rounds, properties.iterations(), properties.timeBudget());
+        } else {
+            logger.info("Warm-up completed {} rounds over {} codecs in {} ms", rounds, codecs.size(), elapsed.toMillis());
+        }
+        return rounds;
+    }
+
+    /**
+     * Pairs every Jackson encoder registered with WebFlux with the decoder for its primary media type.
+     */
+    private List<JacksonCodec> jacksonCodecs() {
+        List<Decoder<?>> decoders = codecConfigurer.getReaders().stream()
+                .filter(DecoderHttpMessageReader.class::isInstance)
+                .map(reader -> ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                .filter(AbstractJackson2Decoder.class::isInstance)
+                .<Decoder<?>>map(decoder -> decoder)
+                .toList();
+
+        List<JacksonCodec> codecs = new ArrayList<>();
+        codecConfigurer.getWriters().stream()
+                .filter(EncoderHttpMessageWriter.class::isInstance)
+                .map(writer -> ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .filter(AbstractJackson2Encoder.class::isInstance)
+                .forEach(encoder -> {
+                    var mimeType = encoder.getEncodableMimeTypes().getFirst();
+                    decoders.stream()
+                            .filter(decoder -> decoder.canDecode(PROJECT_TYPE, mimeType))
+                            .findFirst()
+                            .map(decoder -> new JacksonCodec(encoder, decoder, mimeType))
+                            .filter(JacksonCodec::supportsStreams)
+                            .ifPresent(codecs::add);
+                });
+        return codecs;
+    }
+
+    private record JacksonCodec(Encoder<?> encoder, Decoder<?> decoder, MimeType mimeType) {
+
+        /**
+         * Whether the codec can write a stream of projects; binary formats such as CBOR only encode single values.
+         */
+        boolean supportsStreams() {
+            try {
+                roundTrip(List.of(new ProjectDTO("warmup", "Warm-up project", BigDecimal.ZERO, BigDecimal.ONE,
+                        AuditMetadata.empty(), 0L)));
+                return true;
+            } catch (RuntimeException e) {
+                logger.debug("Skipping warm-up of codec {} for {}", encoder, mimeType, e);
+                return false;
+            }
+        }
+
+        void roundTrip(List<ProjectDTO> projects) {
+            // Decode the payload both as a response and as a bulk creation request body.
+            decoder.decode(encode(projects), PROJECT_TYPE, mimeType, Map.of()).then().block();
+            decoder.decode(encode(projects), CREATE_REQUEST_TYPE, mimeType, Map.of()).then().block();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Flux<DataBuffer> encode(List<ProjectDTO> projects) {
+            return ((Encoder<ProjectDTO>) encoder).encode(Flux.fromIterable(projects),
+                    DefaultDataBufferFactory.sharedInstance, PROJECT_TYPE, mimeType, Map.of());
+        }
+    }
+}
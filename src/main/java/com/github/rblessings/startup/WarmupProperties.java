@@ -0,0 +1,21 @@
+package com.github.rblessings.startup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the warm-up run before the application reports itself ready.
+ *
+ * <p>The warm-up repeats the optimizer and codec hot paths on synthetic data for {@code iterations} rounds, or
+ * until {@code timeBudget} has elapsed, whichever comes first.</p>
+ */
+@ConfigurationProperties(prefix = "planner.warmup")
+public record WarmupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2000") int projects,
+        @DefaultValue("200") int iterations,
+        @DefaultValue("30s") Duration timeBudget
+) {
+}
@@ -2,14 +2,23 @@ package com.github.rblessings.analytics;
 
 import com.github.rblessings.projects.model.AuditMetadata;
 import com.github.rblessings.projects.model.ProjectDTO;
+import com.github.rblessings.projects.model.ProjectFinancials;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 class ProjectCapitalOptimizerTest {
@@ -90,4 +99,285 @@ class ProjectCapitalOptimizerTest {
                 })
                 .verifyComplete();
     }
+
+    @Test
+    @DisplayName("should maximize capital over financial projections")
+    void shouldMaximizeCapitalOverFinancialProjections() {
+        // Given: The projections of the projects used in the DTO-based scenario
+        List<ProjectFinancials> projects = List.of(
+                new ProjectFinancials("1", BigDecimal.ZERO, BigDecimal.ONE),
+                new ProjectFinancials("2", BigDecimal.ONE, new BigDecimal("2")),
+                new ProjectFinancials("3", BigDecimal.ONE, new BigDecimal("3"))
+        );
+
+        // When: We maximize the capital using the optimizer.
+        Mono<CapitalSelection<ProjectFinancials>> resultMono = underTest.maximizeCapital(projects, 2, BigDecimal.ZERO);
+
+        // Then: The same projects are selected as for full DTOs.
+        StepVerifier.create(resultMono)
+                .assertNext(result -> {
+                    assertThat(result.finalCapital()).isEqualByComparingTo(new BigDecimal("4"));
+                    assertThat(result.selected())
+                            .extracting(ProjectFinancials::id)
+                            .containsExactly("1", "3");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should merge sorted shards and select the same projects as a single pool")
+    void shouldMaximizeCapitalAcrossShards() {
+        // Given: The projects of the single-pool scenario split across two shards, each sorted by capital
+        Flux<ProjectFinancials> shardA = Flux.just(
+                new ProjectFinancials("1", BigDecimal.ZERO, BigDecimal.ONE),
+                new ProjectFinancials("3", BigDecimal.ONE, new BigDecimal("3")));
+        Flux<ProjectFinancials> shardB = Flux.just(
+                new ProjectFinancials("2", BigDecimal.ONE, new BigDecimal("2")),
+                new ProjectFinancials("4", new BigDecimal("10"), new BigDecimal("100")));
+
+        // When: We maximize the capital over both shards.
+        Mono<CapitalSelection<ProjectFinancials>> resultMono = underTest.maximizeCapital(List.of(shardA, shardB), 3,
+                BigDecimal.ZERO, ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+
+        // Then: Project 4 never becomes affordable, and the rest are selected by profit.
+        StepVerifier.create(resultMono)
+                .assertNext(result -> {
+                    assertThat(result.finalCapital()).isEqualByComparingTo(new BigDecimal("6"));
+                    assertThat(result.selected())
+                            .extracting(ProjectFinancials::id)
+                            .containsExactly("1", "3", "2");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should stop pulling from shards once no further project can be selected")
+    void shouldPullShardsLazily() {
+        // Given: A large shard of projects that are never affordable
+        var pulled = new AtomicInteger();
+        Flux<ProjectFinancials> affordable = Flux.just(new ProjectFinancials("1", BigDecimal.ZERO, BigDecimal.ONE));
+        Flux<ProjectFinancials> unaffordable = Flux.range(0, 1_000_000)
+                .map(i -> new ProjectFinancials("x" + i, BigDecimal.valueOf(1_000L + i), BigDecimal.ONE))
+                .doOnNext(project -> pulled.incrementAndGet());
+
+        // When: We maximize the capital over both shards.
+        Mono<CapitalSelection<ProjectFinancials>> resultMono = underTest.maximizeCapital(List.of(affordable, unaffordable),
+                5, BigDecimal.ZERO, ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+
+        // Then: Only the affordable project is selected, and the large shard is cancelled after a prefetch.
+        StepVerifier.create(resultMono)
+                .assertNext(result -> assertThat(result.selected()).extracting(ProjectFinancials::id).containsExactly("1"))
+                .verifyComplete();
+        assertThat(pulled.get()).isLessThan(10_000);
+    }
+
+    @Test
+    @DisplayName("should stream each selection with the running capital, matching the collected selection")
+    void shouldStreamSelectionsInOrder() {
+        // Given: The projects of the sharded scenario
+        Flux<ProjectFinancials> shardA = Flux.just(
+                new ProjectFinancials("1", BigDecimal.ZERO, BigDecimal.ONE),
+                new ProjectFinancials("3", BigDecimal.ONE, new BigDecimal("3")));
+        Flux<ProjectFinancials> shardB = Flux.just(
+                new ProjectFinancials("2", BigDecimal.ONE, new BigDecimal("2")),
+                new ProjectFinancials("4", new BigDecimal("10"), new BigDecimal("100")));
+
+        // When: We stream the selection over both shards.
+        Flux<CapitalSelectionStep<ProjectFinancials>> steps = underTest.streamSelections(List.of(shardA, shardB), 3,
+                BigDecimal.ZERO, ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+
+        // Then: Each selection arrives on its own, in the order maximizeCapital selects them.
+        StepVerifier.create(steps)
+                .assertNext(step -> assertStep(step, 1, "1", "1"))
+                .assertNext(step -> assertStep(step, 2, "3", "4"))
+                .assertNext(step -> assertStep(step, 3, "2", "6"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should stream every selection made by one offered project, up to the end of the selection")
+    void shouldStreamAllSelectionsOfOneOffer_whenSelectionEnds() {
+        // Given: Three free projects, and one that none of them together can afford
+        Flux<ProjectFinancials> shard = Flux.just(
+                new ProjectFinancials("1", BigDecimal.ZERO, BigDecimal.ONE),
+                new ProjectFinancials("2", BigDecimal.ZERO, BigDecimal.TWO),
+                new ProjectFinancials("3", BigDecimal.ZERO, new BigDecimal("4")),
+                new ProjectFinancials("4", new BigDecimal("100"), BigDecimal.ONE));
+
+        // When: We stream the selection with room for more projects than can be afforded
+        Flux<CapitalSelectionStep<ProjectFinancials>> steps = underTest.streamSelections(List.of(shard), 10,
+                BigDecimal.ZERO, ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+
+        // Then: Offering the last project selects all three others at once, and all three are streamed
+        StepVerifier.create(steps)
+                .assertNext(step -> assertStep(step, 1, "3", "4"))
+                .assertNext(step -> assertStep(step, 2, "2", "6"))
+                .assertNext(step -> assertStep(step, 3, "1", "7"))
+                .verifyComplete();
+    }
+
+    private static void assertStep(CapitalSelectionStep<ProjectFinancials> step, int number, String id, String capital) {
+        assertThat(step.step()).isEqualTo(number);
+        assertThat(step.project().id()).isEqualTo(id);
+        assertThat(step.capital()).isEqualByComparingTo(capital);
+    }
+
+    @Test
+    @DisplayName("should advance the streamed selection only as far as requested, and stop reading on cancel")
+    void shouldHonorBackpressureAndCancellation_whenStreamingSelections() {
+        // Given: A large shard in which every project becomes affordable after the previous selection
+        var pulled = new AtomicInteger();
+        Flux<ProjectFinancials> shard = Flux.range(0, 1_000_000)
+                .map(i -> new ProjectFinancials("p" + i, BigDecimal.valueOf(i), BigDecimal.ONE))
+                .doOnNext(project -> pulled.incrementAndGet());
+
+        // When: The subscriber requests two selections of up to a million, then cancels
+        Flux<CapitalSelectionStep<ProjectFinancials>> steps = underTest.streamSelections(List.of(shard), 1_000_000,
+                BigDecimal.ZERO, ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+
+        // Then: Only the requested selections are made, and the shard is read no further than a prefetch
+        StepVerifier.create(steps, 2)
+                .assertNext(step -> assertStep(step, 1, "p0", "1"))
+                .assertNext(step -> assertStep(step, 2, "p1", "2"))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenCancel()
+                .verify();
+        assertThat(pulled.get()).isLessThan(10_000);
+    }
+
+    @Test
+    @DisplayName("should stop the selection loop once cancellation is requested")
+    void shouldThrowCancellationException_whenCancelledDuringSelection() {
+        // Given: A pool in which every project becomes affordable after the previous selection
+        List<ProjectDTO> projects = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            projects.add(new ProjectDTO("p" + i, "Project " + i, BigDecimal.valueOf(i), BigDecimal.ONE,
+                    AuditMetadata.empty(), 0L));
+        }
+        var query = new CapitalMaximizationQuery(projects, projects.size(), BigDecimal.ZERO);
+        var checks = new AtomicInteger();
+
+        // When & Then: The cancellation flag turns true on its 101st check, and the selection stops right there
+        assertThatThrownBy(() -> underTest.computeMaximizedCapital(query, () -> checks.incrementAndGet() > 100))
+                .isInstanceOf(CancellationException.class);
+        assertThat(checks.get()).isEqualTo(101);
+    }
+
+    @Test
+    @DisplayName("should split the capital sweep where the selected set changes")
+    void shouldSweepCapitalIntoSegments() {
+        // Given: Projects where more capital lets the greedy skip the cheap, low-profit project.
+        List<ProjectFinancials> projects = List.of(
+                new ProjectFinancials("1", BigDecimal.ZERO, BigDecimal.ONE),
+                new ProjectFinancials("2", BigDecimal.ONE, new BigDecimal("2")),
+                new ProjectFinancials("3", BigDecimal.ONE, new BigDecimal("3"))
+        );
+
+        // When: We sweep the initial capital from 0 to 3.
+        Flux<CapitalSweepSegment> segments = underTest.sweepCapital(projects, 2, BigDecimal.ZERO, new BigDecimal("3"));
+
+        // Then: Below 1 projects 1 and 3 are selected; from 1 on, projects 3 and 2.
+        StepVerifier.create(segments)
+                .assertNext(segment -> {
+                    assertThat(segment.fromInitialCapital()).isEqualByComparingTo("0");
+                    assertThat(segment.toInitialCapital()).isEqualByComparingTo("1");
+                    assertThat(segment.totalProfit()).isEqualByComparingTo("4");
+                    assertThat(segment.selectedProjectIds()).containsExactly("1", "3");
+                })
+                .assertNext(segment -> {
+                    assertThat(segment.fromInitialCapital()).isEqualByComparingTo("1");
+                    assertThat(segment.toInitialCapital()).isEqualByComparingTo("3");
+                    assertThat(segment.fromFinalCapital()).isEqualByComparingTo("6");
+                    assertThat(segment.toFinalCapital()).isEqualByComparingTo("8");
+                    assertThat(segment.selectedProjectIds()).containsExactly("3", "2");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should agree with individual selections at every initial capital of the sweep")
+    void shouldSweepCapitalConsistentlyWithSelection() {
+        // Given: A random pool of projects.
+        var random = new Random(42);
+        List<ProjectFinancials> projects = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            projects.add(new ProjectFinancials(String.valueOf(i),
+                    BigDecimal.valueOf(random.nextInt(100)), BigDecimal.valueOf(random.nextInt(20))));
+        }
+
+        // When: We sweep the initial capital from 0 to 100.
+        List<CapitalSweepSegment> segments = underTest.sweepCapital(projects, 5, BigDecimal.ZERO, BigDecimal.valueOf(100))
+                .collectList()
+                .block();
+
+        // Then: The segments cover the range and match a separate selection at each whole capital value.
+        assertThat(segments).isNotEmpty();
+        assertThat(segments.getFirst().fromInitialCapital()).isEqualByComparingTo("0");
+        assertThat(segments.getLast().toInitialCapital()).isEqualByComparingTo("100");
+        for (int capital = 0; capital <= 100; capital++) {
+            var initialCapital = BigDecimal.valueOf(capital);
+            var segment = segments.stream()
+                    .filter(candidate -> candidate.fromInitialCapital().compareTo(initialCapital) <= 0)
+                    .reduce((first, second) -> second)
+                    .orElseThrow();
+            var selection = ProjectCapitalOptimizer.select(projects, 5, initialCapital,
+                    ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+
+            assertThat(selection.finalCapital())
+                    .as("Final capital for initial capital %d", capital)
+                    .isEqualByComparingTo(initialCapital.add(segment.totalProfit()));
+        }
+    }
+
+    @Test
+    @DisplayName("should simulate the deterministic selection in every trial when profits are known")
+    void shouldSimulateDeterministicCapital_whenProfitsAreKnown() {
+        // Given: A random pool whose profits have no spread
+        var random = new Random(7);
+        List<ProjectFinancials> projects = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            projects.add(new ProjectFinancials(String.valueOf(i),
+                    BigDecimal.valueOf(random.nextInt(500)), BigDecimal.valueOf(random.nextInt(50))));
+        }
+        var query = new CapitalSimulationQuery(projects, Map.of(), 0, 10, BigDecimal.valueOf(20), 1_000, 1L,
+                List.of(0.05, 0.95));
+
+        // When: The simulation runs
+        var result = underTest.simulateCapital(query).block();
+
+        // Then: Every trial ends with the final capital of the greedy, selecting the same projects
+        var selection = ProjectCapitalOptimizer.select(projects, 10, BigDecimal.valueOf(20),
+                ProjectFinancials::requiredCapital, ProjectFinancials::profit);
+        assertThat(result.trials()).isEqualTo(1_000);
+        assertThat(result.meanFinalCapital()).isEqualByComparingTo(selection.finalCapital());
+        assertThat(result.quantiles()).allSatisfy(quantile ->
+                assertThat(quantile.finalCapital()).isEqualByComparingTo(selection.finalCapital()));
+        assertThat(result.selectionFrequencies()).hasSize(selection.selected().size())
+                .allSatisfy(frequency -> assertThat(frequency.frequency()).isEqualTo(1.0));
+    }
+
+    @Test
+    @DisplayName("should reproduce a simulation from its seed, and spread the final capital under uncertain profits")
+    void shouldReproduceSimulation_whenSeedIsReused() {
+        // Given: Two projects, one of which may earn anything between nothing and twice its expected profit
+        List<ProjectFinancials> projects = List.of(
+                new ProjectFinancials("steady", BigDecimal.ZERO, BigDecimal.TEN),
+                new ProjectFinancials("risky", BigDecimal.ZERO, BigDecimal.TEN));
+        var estimates = Map.of("risky", new ProfitEstimate(BigDecimal.ZERO, BigDecimal.TEN, BigDecimal.valueOf(20)));
+        var query = new CapitalSimulationQuery(projects, estimates, 0, 1, BigDecimal.ZERO,
+                CapitalSimulation.TRIALS_PER_BLOCK * 8 + 1, 42L, List.of(0.0, 0.5, 1.0));
+
+        // When: The simulation runs twice with the same seed
+        var first = underTest.simulateCapital(query).block();
+        var second = underTest.simulateCapital(query).block();
+
+        // Then: Both runs agree, the risky project is selected about half the time, and never lowers the capital
+        assertThat(second).isEqualTo(first);
+        assertThat(first.selectionFrequencies()).extracting(CapitalSimulationResult.SelectionFrequency::projectId)
+                .containsExactlyInAnyOrder("steady", "risky");
+        assertThat(first.selectionFrequencies()).allSatisfy(frequency ->
+                assertThat(frequency.frequency()).isBetween(0.4, 0.6));
+        assertThat(first.quantiles().getFirst().finalCapital()).isEqualByComparingTo("10");
+        assertThat(first.quantiles().getLast().finalCapital()).isGreaterThan(BigDecimal.valueOf(19));
+    }
 }
@@ -0,0 +1,223 @@
+package com.github.rblessings.analytics.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.rblessings.analytics.CapitalSimulationResult;
+import com.github.rblessings.analytics.CapitalSweepSegment;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.github.rblessings.projects.api.ApiMediaTypes.APPLICATION_SMILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(AnalyticsApiController.class)
+class AnalyticsApiControllerTest {
+
+    @MockitoBean
+    private AnalyticsService analyticsService;
+
+    private final WebTestClient webTestClient;
+
+    @Autowired
+    AnalyticsApiControllerTest(WebTestClient webTestClient) {
+        this.webTestClient = webTestClient;
+    }
+
+    private void givenOptimizationResult() {
+        var project = new ProjectDTO("1", "Project A", BigDecimal.ZERO, new BigDecimal("3.50"), AuditMetadata.empty(), 0L);
+        when(analyticsService.maximizeCapital(null, 2, BigDecimal.ONE))
+                .thenReturn(Mono.just(new ProjectCapitalOptimized(List.of(project), new BigDecimal("4.50"))));
+    }
+
+    @Test
+    void testMaximizeCapital_Json() {
+        // Given
+        givenOptimizationResult();
+
+        // When & Then
+        webTestClient.post()
+                .uri("/apis/v1/analytics/capital-maximization")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CapitalMaximizationRequest(2, BigDecimal.ONE, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo("200")
+                .jsonPath("$.data.finalCapital").isEqualTo(4.50)
+                .jsonPath("$.data.selectedProjects[0].name").isEqualTo("Project A");
+    }
+
+    @Test
+    void testMaximizeCapital_Smile() throws IOException {
+        // Given
+        givenOptimizationResult();
+        var smileMapper = new ObjectMapper(new SmileFactory());
+
+        // When: The request and response are both negotiated as Smile
+        byte[] body = webTestClient.post()
+                .uri("/apis/v1/analytics/capital-maximization")
+                .contentType(APPLICATION_SMILE)
+                .accept(APPLICATION_SMILE)
+                .bodyValue(smileMapper.writeValueAsBytes(new CapitalMaximizationRequest(2, BigDecimal.ONE, null)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_SMILE)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then: The binary payload decodes to the same response
+        var response = smileMapper.readTree(body);
+        assertThat(response.get("statusCode").asInt()).isEqualTo(200);
+        assertThat(response.at("/data/finalCapital").decimalValue()).isEqualByComparingTo("4.50");
+        assertThat(response.at("/data/selectedProjects/0/name").asText()).isEqualTo("Project A");
+    }
+
+    private void givenStreamedSelections() {
+        when(analyticsService.streamSelections(null, 2, BigDecimal.ONE)).thenReturn(Flux.just(
+                new CapitalSelectionEvent.Selection(1, "1", BigDecimal.ZERO, new BigDecimal("3.50"), new BigDecimal("4.50")),
+                new CapitalSelectionEvent.Summary(1, BigDecimal.ONE, new BigDecimal("4.50"))));
+    }
+
+    @Test
+    void testStreamSelections_Ndjson() {
+        // Given
+        givenStreamedSelections();
+
+        // When & Then: Each selection, then the summary, is streamed as its own NDJSON element
+        webTestClient.post()
+                .uri("/apis/v1/analytics/capital-maximization/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new CapitalMaximizationRequest(2, BigDecimal.ONE, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(CapitalSelectionEvent.class)
+                .value(events -> {
+                    assertThat(events).hasSize(2);
+                    assertThat(events.getFirst()).isInstanceOfSatisfying(CapitalSelectionEvent.Selection.class,
+                            selection -> assertThat(selection.projectId()).isEqualTo("1"));
+                    assertThat(events.getLast()).isInstanceOfSatisfying(CapitalSelectionEvent.Summary.class,
+                            summary -> assertThat(summary.finalCapital()).isEqualByComparingTo("4.50"));
+                });
+    }
+
+    @Test
+    void testStreamSelections_ServerSentEvents() {
+        // Given
+        givenStreamedSelections();
+
+        // When: The stream is requested as server-sent events
+        var events = webTestClient.post()
+                .uri("/apis/v1/analytics/capital-maximization/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(new CapitalMaximizationRequest(2, BigDecimal.ONE, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<CapitalSelectionEvent>>() {
+                })
+                .getResponseBody();
+
+        // Then: Events are named after their type, and selections carry their step as the ID
+        StepVerifier.create(events)
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(CapitalSelectionEvent.SELECTION);
+                    assertThat(event.id()).isEqualTo("1");
+                    assertThat(event.data()).isInstanceOf(CapitalSelectionEvent.Selection.class);
+                })
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(CapitalSelectionEvent.SUMMARY);
+                    assertThat(event.data()).isInstanceOf(CapitalSelectionEvent.Summary.class);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testSweepCapital_Ndjson() {
+        // Given
+        var first = new CapitalSweepSegment(BigDecimal.ZERO, BigDecimal.ONE, new BigDecimal("4"), new BigDecimal("5"),
+                new BigDecimal("4"), List.of("1", "3"));
+        var second = new CapitalSweepSegment(BigDecimal.ONE, new BigDecimal("3"), new BigDecimal("6"), new BigDecimal("8"),
+                new BigDecimal("5"), List.of("3", "2"));
+        when(analyticsService.sweepCapital(null, 2, BigDecimal.ZERO, new BigDecimal("3")))
+                .thenReturn(Flux.just(first, second));
+
+        // When & Then: Each segment is streamed as its own NDJSON element
+        webTestClient.post()
+                .uri("/apis/v1/analytics/capital-sweep")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new CapitalSweepRequest(2, BigDecimal.ZERO, new BigDecimal("3"), null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(CapitalSweepSegment.class)
+                .hasSize(2)
+                .contains(first, second);
+    }
+
+    @Test
+    void testSweepCapital_InvalidRange() {
+        // When & Then: A range ending below its start is rejected before any work is done
+        webTestClient.post()
+                .uri("/apis/v1/analytics/capital-sweep")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new CapitalSweepRequest(2, new BigDecimal("3"), BigDecimal.ZERO, null))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testSimulateCapital_Json() {
+        // Given
+        var request = new CapitalSimulationRequest(2, BigDecimal.ONE, 1_000, 42L, null, 0.2, null, null);
+        var result = new CapitalSimulationResult(1_000, 42L, new BigDecimal("4.40"),
+                List.of(new CapitalSimulationResult.Quantile(0.5, new BigDecimal("4.50"))),
+                List.of(new CapitalSimulationResult.SelectionFrequency("1", 0.75)));
+        when(analyticsService.simulateCapital(request)).thenReturn(Mono.just(result));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/apis/v1/analytics/capital-simulation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.seed").isEqualTo(42)
+                .jsonPath("$.data.quantiles[0].finalCapital").isEqualTo(4.50)
+                .jsonPath("$.data.selectionFrequencies[0].frequency").isEqualTo(0.75);
+    }
+
+    @Test
+    void testSimulateCapital_TooManyTrials() {
+        // When & Then: The trial count is bounded before any work is done
+        webTestClient.post()
+                .uri("/apis/v1/analytics/capital-simulation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CapitalSimulationRequest(2, BigDecimal.ONE, CapitalSimulationRequest.MAX_TRIALS + 1,
+                        null, null, null, null, null))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.rblessings.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeyTrackerTest {
+
+    @Test
+    @DisplayName("should rank keys by access frequency")
+    void shouldRankHottestKeysFirst() {
+        // Given: A tracker with room for every key
+        var underTest = new HotKeyTracker(new CountMinSketch(1024, 4, 100_000), 10);
+
+        // When: Keys are accessed with different frequencies
+        for (int i = 0; i < 30; i++) {
+            underTest.record("hot");
+        }
+        for (int i = 0; i < 10; i++) {
+            underTest.record("warm");
+        }
+        underTest.record("cold");
+
+        // Then: The hottest keys come first
+        assertThat(underTest.hottest(2)).containsExactly("hot", "warm");
+    }
+
+    @Test
+    @DisplayName("should keep hot keys when many one-off keys are accessed")
+    void shouldRetainHotKeys_whenCandidatesArePruned() {
+        // Given: A tracker with room for few candidates, and a few hot keys
+        var underTest = new HotKeyTracker(new CountMinSketch(4096, 4, 1_000_000), 5);
+        for (int round = 0; round < 20; round++) {
+            for (int key = 0; key < 3; key++) {
+                underTest.record("hot-" + key);
+            }
+        }
+
+        // When: A scan accesses many keys once each
+        for (int i = 0; i < 1_000; i++) {
+            underTest.record("scan-" + i);
+        }
+
+        // Then: The hot keys are still ranked first
+        assertThat(underTest.hottest(3)).containsExactlyInAnyOrder("hot-0", "hot-1", "hot-2");
+    }
+
+    @Test
+    @DisplayName("should let old accesses decay so that recently hot keys take over")
+    void shouldDecayOldAccesses() {
+        // Given: A sketch that halves its counters every 100 accesses
+        var sketch = new CountMinSketch(1024, 4, 100);
+        for (int i = 0; i < 50; i++) {
+            sketch.increment("old");
+        }
+
+        // When: Other keys are accessed for several decay periods
+        for (int i = 0; i < 400; i++) {
+            sketch.increment("new-" + (i % 4));
+        }
+
+        // Then: The old key's estimate has decayed below the recent keys'
+        assertThat(sketch.estimate("old")).isLessThan(sketch.estimate("new-0"));
+        assertThat(sketch.estimate("old")).isLessThanOrEqualTo(50 >> 3);
+    }
+}
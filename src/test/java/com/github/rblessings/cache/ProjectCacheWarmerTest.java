@@ -0,0 +1,110 @@
+package com.github.rblessings.cache;
+
+import com.github.rblessings.projects.api.ProjectService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@Testcontainers
+class ProjectCacheWarmerTest {
+    private static final int REDIS_PORT = 6379;
+
+    @Container
+    private static final GenericContainer<?> REDIS_CONTAINER = new GenericContainer<>(DockerImageName.parse("redis:7.4.2"))
+            .waitingFor(Wait.forListeningPort())
+            .withExposedPorts(REDIS_PORT);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+    private CacheWarmupProperties properties;
+
+    @BeforeAll
+    static void startConnection() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS_CONTAINER.getHost(), REDIS_CONTAINER.getMappedPort(REDIS_PORT)));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopConnection() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.string());
+        redisTemplate.delete(ProjectCacheWarmer.SNAPSHOT_KEY, ProjectCacheWarmer.DECAY_KEY).block();
+        properties = new CacheWarmupProperties(true, 1024, 4, 10, 10, Duration.ofMinutes(1), 0.5, 10,
+                Duration.ZERO);
+    }
+
+    private ProjectCacheWarmer warmer(HotKeyTracker tracker) {
+        return new ProjectCacheWarmer(tracker, mock(ProjectIdCache.class), mock(ProjectService.class),
+                redisTemplate, properties);
+    }
+
+    private static HotKeyTracker trackerWith(String id, int accesses) {
+        var tracker = new HotKeyTracker(new CountMinSketch(1024, 4, 100_000), 10);
+        for (int i = 0; i < accesses; i++) {
+            tracker.record(id);
+        }
+        return tracker;
+    }
+
+    private Double score(String id) {
+        return redisTemplate.opsForZSet().score(ProjectCacheWarmer.SNAPSHOT_KEY, id).block();
+    }
+
+    @Test
+    @DisplayName("should decay shared scores once per interval and keep the highest score published for an id")
+    void shouldDecaySharedScores_andKeepHighestScore() {
+        // Given: One instance has published an id it read 40 times
+        warmer(trackerWith("hot", 40)).snapshot().block();
+
+        // When: Another instance, which read the id only 4 times, publishes within the same interval
+        warmer(trackerWith("hot", 4)).snapshot().block();
+
+        // Then: The id keeps the higher score, undecayed
+        assertThat(score("hot")).isEqualTo(40);
+
+        // When: The next interval starts, and an instance publishes only other ids
+        redisTemplate.delete(ProjectCacheWarmer.DECAY_KEY).block();
+        warmer(trackerWith("new", 8)).snapshot().block();
+
+        // Then: The id no longer accessed has decayed, and the new id is published
+        assertThat(score("hot")).isEqualTo(20);
+        assertThat(score("new")).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("should drop ids from the shared snapshot once their score decays below one")
+    void shouldDropIds_whenScoreDecaysBelowOne() {
+        // Given: An id published with a score of 1
+        warmer(trackerWith("cold", 1)).snapshot().block();
+
+        // When: The next interval decays the snapshot
+        redisTemplate.delete(ProjectCacheWarmer.DECAY_KEY).block();
+        warmer(trackerWith("other", 2)).snapshot().block();
+
+        // Then: The id is gone
+        assertThat(score("cold")).isNull();
+        assertThat(score("other")).isEqualTo(2);
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.rblessings.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.rblessings.projects.api.ProjectService;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectDTO;
+import com.github.rblessings.projects.model.ProjectEntity;
+import com.github.rblessings.projects.model.ProjectRepository;
+import com.github.rblessings.projects.names.ProjectNameFilter;
+import com.github.rblessings.projects.ranking.ProjectProfitIndex;
+import com.github.rblessings.projects.search.ProjectNameSearchIndex;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the cached read path on non-blocking threads with BlockHound installed, so that any blocking call made
+ * by the cache, on the calling thread or on the Lettuce event loop completing its commands, fails the test.
+ *
+ * <p>Run with {@code ./gradlew blockHoundTest}; the regular {@code test} task excludes this tag.</p>
+ */
+@Tag("blockhound")
+@Testcontainers
+class ProjectIdCacheBlockHoundTest {
+    private static final int REDIS_PORT = 6379;
+
+    @Container
+    private static final GenericContainer<?> REDIS_CONTAINER = new GenericContainer<>(DockerImageName.parse("redis:7.4.2"))
+            .waitingFor(Wait.forListeningPort())
+            .withExposedPorts(REDIS_PORT);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static ProjectRepository projectRepository;
+    private static ProjectIdCache projectIdCache;
+    private static ProjectService projectService;
+
+    private String projectId;
+
+    @BeforeAll
+    static void setUpCache() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS_CONTAINER.getHost(), REDIS_CONTAINER.getMappedPort(REDIS_PORT)));
+        // As in CacheConfiguration: the shared connection is opened here, not by the first command.
+        connectionFactory.setEagerInitialization(true);
+        connectionFactory.afterPropertiesSet();
+
+        var objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        RedisSerializationContext<String, ProjectDTO> serializationContext = RedisSerializationContext
+                .<String, ProjectDTO>newSerializationContext(StringRedisSerializer.UTF_8)
+                .value(new Jackson2JsonRedisSerializer<>(objectMapper, ProjectDTO.class))
+                .build();
+        projectIdCache = new ProjectIdCache("project-id", new ReactiveRedisTemplate<>(connectionFactory, serializationContext),
+                (key, value) -> Duration.ofMinutes(1), new HotKeyTracker(new CountMinSketch(1024, 4, 10_240), 100));
+
+        projectRepository = Mockito.mock(ProjectRepository.class);
+        projectService = new ProjectService(projectRepository, projectIdCache, Mockito.mock(ProjectNameFilter.class),
+                Mockito.mock(ProjectProfitIndex.class), Mockito.mock(ProjectNameSearchIndex.class));
+
+        // Load the classes on the read path before instrumenting, as a warmed-up application would have.
+        when(projectRepository.findById(Mockito.anyString())).thenAnswer(invocation -> Mono.just(entity(invocation.getArgument(0))));
+        projectService.findById("warm-up").then(projectService.findById("warm-up")).block();
+        projectIdCache.putAll(List.of(ProjectDTO.fromEntity(entity("warm-up")))).block();
+
+        BlockHound.install();
+    }
+
+    @AfterAll
+    static void tearDownCache() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        projectId = UUID.randomUUID().toString();
+    }
+
+    private static ProjectEntity entity(String id) {
+        return new ProjectEntity(id, "Project " + id, new BigDecimal("100.00"), new BigDecimal("300"),
+                AuditMetadata.empty(), 0L);
+    }
+
+    @Test
+    @DisplayName("should detect blocking calls on non-blocking threads")
+    void shouldFail_whenNonBlockingThreadBlocks() {
+        // Given & When: A blocking call issued from a parallel scheduler thread
+        var blocking = Mono.fromCallable(() -> {
+            Thread.sleep(1);
+            return "";
+        }).subscribeOn(Schedulers.parallel());
+
+        // Then: BlockHound rejects it, so the tests below would catch a blocking cache call
+        StepVerifier.create(blocking)
+                .expectError(BlockingOperationError.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("should load and cache a project without blocking on a cache miss")
+    void shouldNotBlock_whenCacheMisses() {
+        // Given: A project that is not cached
+        // When: It is read on a non-blocking thread
+        var result = projectService.findById(projectId).subscribeOn(Schedulers.parallel());
+
+        // Then: The read completes without any blocking call and the project is cached
+        StepVerifier.create(result)
+                .expectNext(ProjectDTO.fromEntity(entity(projectId)))
+                .verifyComplete();
+        StepVerifier.create(projectIdCache.get(projectId).subscribeOn(Schedulers.parallel()))
+                .expectNext(ProjectDTO.fromEntity(entity(projectId)))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should serve a cached project without blocking on a cache hit")
+    void shouldNotBlock_whenCacheHits() {
+        // Given: A cached project
+        StepVerifier.create(projectIdCache.putAll(List.of(ProjectDTO.fromEntity(entity(projectId))))
+                        .subscribeOn(Schedulers.parallel()))
+                .expectNext(1L)
+                .verifyComplete();
+
+        // When: It is read on a non-blocking thread
+        var result = projectService.findById(projectId).subscribeOn(Schedulers.parallel());
+
+        // Then: The read completes from the cache without any blocking call
+        StepVerifier.create(result)
+                .expectNext(ProjectDTO.fromEntity(entity(projectId)))
+                .verifyComplete();
+        Mockito.verify(projectRepository, Mockito.never()).findById(projectId);
+    }
+
+    @Test
+    @DisplayName("should write through and evict without blocking")
+    void shouldNotBlock_whenWritingAndEvicting() {
+        // Given: A project
+        var project = ProjectDTO.fromEntity(entity(projectId));
+
+        // When & Then: Checking, writing and evicting its entry all complete without any blocking call
+        StepVerifier.create(projectIdCache.findUncached(List.of(projectId)).collectList()
+                        .then(projectIdCache.put(projectId, project))
+                        .then(projectIdCache.evict(projectId))
+                        .subscribeOn(Schedulers.parallel()))
+                .expectNext(true)
+                .verifyComplete();
+    }
+}
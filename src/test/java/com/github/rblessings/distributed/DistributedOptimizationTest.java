@@ -0,0 +1,206 @@
+package com.github.rblessings.distributed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.analytics.api.AnalyticsService;
+import com.github.rblessings.configuration.DistributedOptimizationConfiguration;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@EmbeddedKafka(partitions = 2)
+class DistributedOptimizationTest {
+    private static final int PARTITIONS = 2;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+
+    private KafkaProperties kafkaProperties;
+    private String requestTopic;
+    private String replyTopic;
+    private OptimizationDispatcher dispatcher;
+    private ConcurrentMessageListenerContainer<String, byte[]> workers;
+
+    @BeforeEach
+    void setUp(EmbeddedKafkaBroker broker) {
+        // Every test gets its own topics, so that no request left over by another test reaches its workers.
+        requestTopic = "optimization.requests." + UUID.randomUUID();
+        replyTopic = "optimization.replies." + UUID.randomUUID();
+        broker.addTopics(new NewTopic(requestTopic, PARTITIONS, (short) 1), new NewTopic(replyTopic, PARTITIONS, (short) 1));
+
+        kafkaProperties = new KafkaProperties();
+        kafkaProperties.setBootstrapServers(List.of(broker.getBrokersAsString()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        if (workers != null) {
+            workers.stop();
+        }
+    }
+
+    private DistributedOptimizationProperties properties(Duration replyTimeout) {
+        return new DistributedOptimizationProperties(true, true, requestTopic, PARTITIONS, replyTopic, PARTITIONS,
+                "optimization-workers-" + requestTopic, PARTITIONS, replyTimeout);
+    }
+
+    private void startDispatcher(DistributedOptimizationProperties properties) {
+        dispatcher = new DistributedOptimizationConfiguration()
+                .optimizationDispatcher(kafkaProperties, objectMapper, properties, meterRegistry);
+        dispatcher.start();
+    }
+
+    private void startWorkers(DistributedOptimizationProperties properties) {
+        workers = new DistributedOptimizationConfiguration()
+                .optimizationWorkerContainer(analyticsService, kafkaProperties, objectMapper, properties, meterRegistry);
+        workers.start();
+        ContainerTestUtils.waitForAssignment(workers, PARTITIONS);
+    }
+
+    private double workerRequests(String outcome) {
+        var timer = meterRegistry.find("planner.distributed-optimization.worker").tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static ProjectCapitalOptimized resultFor(BigDecimal initialCapital) {
+        var project = new ProjectDTO("p-" + initialCapital, "Project " + initialCapital, initialCapital,
+                BigDecimal.ONE, AuditMetadata.empty(), 0L);
+        return new ProjectCapitalOptimized(List.of(project), initialCapital.add(BigDecimal.ONE));
+    }
+
+    @Test
+    @DisplayName("should read the roles at run time, starting the Kafka clients and declaring the topics of enabled roles only")
+    void shouldStartClientsOfEnabledRolesOnly() {
+        var contextRunner = new ApplicationContextRunner()
+                .withUserConfiguration(DistributedOptimizationConfiguration.class)
+                .withBean(AnalyticsService.class, () -> analyticsService)
+                .withBean(KafkaProperties.class, () -> kafkaProperties)
+                .withBean(ObjectMapper.class, () -> objectMapper)
+                .withBean(SimpleMeterRegistry.class, () -> meterRegistry)
+                .withPropertyValues("planner.distributed-optimization.request-topic=" + requestTopic,
+                        "planner.distributed-optimization.reply-topic=" + replyTopic);
+
+        // When & Then: Without a role, the beans exist, but nothing is started or declared
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context.getBean(OptimizationDispatcher.class).isEnabled()).isFalse();
+            assertThat(context.getBean(ConcurrentMessageListenerContainer.class).isRunning()).isFalse();
+            assertThat(context.getBean(KafkaAdmin.NewTopics.class).getNewTopics()).isEmpty();
+        });
+
+        // And: With the worker role only, the topics are declared and the workers started, but not the dispatcher
+        contextRunner.withPropertyValues("planner.distributed-optimization.worker=true")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context.getBean(OptimizationDispatcher.class).isEnabled()).isFalse();
+                    assertThat(context.getBean(ConcurrentMessageListenerContainer.class).isRunning()).isTrue();
+                    assertThat(context.getBean(KafkaAdmin.NewTopics.class).getNewTopics())
+                            .extracting(NewTopic::name)
+                            .containsExactlyInAnyOrder(requestTopic, replyTopic);
+                });
+    }
+
+    @Test
+    @DisplayName("should return every worker result to the request it answers")
+    void shouldCorrelateReplies_whenRequestsRunConcurrently() {
+        // Given: Two workers, each adding one to the initial capital of the requests it runs
+        var properties = properties(Duration.ofSeconds(30));
+        when(analyticsService.maximizeCapitalLocally(any(), anyInt(), any()))
+                .thenAnswer(invocation -> Mono.just(resultFor(invocation.getArgument(2))));
+        startWorkers(properties);
+        startDispatcher(properties);
+
+        // When: Twenty requests with distinct initial capital are dispatched at once
+        Map<BigDecimal, ProjectCapitalOptimized> results = Flux.range(1, 20)
+                .map(BigDecimal::valueOf)
+                .flatMap(capital -> dispatcher.maximizeCapital(null, 1, capital)
+                        .map(result -> Map.entry(capital, result)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block(Duration.ofSeconds(60));
+
+        // Then: Each request received the result computed for its own capital
+        assertThat(results).hasSize(20);
+        assertThat(results).allSatisfy((capital, result) -> {
+            assertThat(result.finalCapital()).isEqualByComparingTo(capital.add(BigDecimal.ONE));
+            assertThat(result.selectedProjects()).extracting(ProjectDTO::id).containsExactly("p-" + capital);
+        });
+        assertThat(meterRegistry.get("planner.distributed-optimization.requests").tag("outcome", "completed")
+                .timer().count()).isEqualTo(20);
+        assertThat(meterRegistry.get("planner.distributed-optimization.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("should fail the request on the caller when the worker rejects it")
+    void shouldRejectRequest_whenWorkerRejectsIt() {
+        // Given: A worker that does not know the requested pool
+        var properties = properties(Duration.ofSeconds(30));
+        when(analyticsService.maximizeCapitalLocally(eq("unknown"), anyInt(), any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Unknown project pool: unknown")));
+        startWorkers(properties);
+        startDispatcher(properties);
+
+        // When & Then: The rejection reaches the caller as the same exception
+        StepVerifier.create(dispatcher.maximizeCapital("unknown", 1, BigDecimal.ONE))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("Unknown project pool: unknown"))
+                .verify(Duration.ofSeconds(60));
+        assertThat(workerRequests("rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should time out without a worker, and have workers skip the request once it has expired")
+    void shouldTimeOut_andSkipExpiredRequest_whenNoWorkerReplies() {
+        // Given: A dispatcher waiting half a second for replies, and no worker running
+        var properties = properties(Duration.ofMillis(500));
+        startDispatcher(properties);
+
+        // When: A request is dispatched
+        StepVerifier.create(dispatcher.maximizeCapital(null, 1, BigDecimal.ONE))
+                // Then: It fails with a timeout
+                .expectError(OptimizationTimeoutException.class)
+                .verify(Duration.ofSeconds(10));
+        assertThat(meterRegistry.get("planner.distributed-optimization.requests").tag("outcome", "timeout")
+                .timer().count()).isEqualTo(1);
+
+        // And: A worker started afterwards skips the request instead of running it
+        startWorkers(properties);
+        await().atMost(Duration.ofSeconds(30)).until(() -> workerRequests("expired") == 1);
+        verifyNoInteractions(analyticsService);
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.rblessings.history;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.analytics.api.ProjectPoolProperties;
+import com.github.rblessings.configuration.MongoConfiguration;
+import com.github.rblessings.configuration.TestcontainersConfiguration;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectDTO;
+import com.github.rblessings.projects.model.ProjectEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Import({MongoConfiguration.class, TestcontainersConfiguration.class})
+class OptimizationHistoryRecorderTest {
+    private static final String COLLECTION = "optimization_history_test";
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final ProjectCapitalOptimized RESULT = new ProjectCapitalOptimized(
+            List.of(new ProjectDTO("p1", "Project A", BigDecimal.ONE, BigDecimal.TWO, AuditMetadata.empty(), 0L)),
+            BigDecimal.valueOf(3));
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProjectPoolVersions poolVersions;
+    private OptimizationHistoryRecorder underTest;
+
+    @Autowired
+    OptimizationHistoryRecorderTest(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.poolVersions = new ProjectPoolVersions(mongoTemplate, new ProjectPoolProperties("all", Map.of()),
+                Duration.ofHours(1));
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(COLLECTION).block();
+        mongoTemplate.dropCollection(ProjectEntity.class).block();
+
+        // Flushes only happen when a test asks for them, or when a batch of two is waiting.
+        var properties = new OptimizationHistoryProperties(true, COLLECTION, 2, 2, Duration.ofHours(1),
+                Duration.ofDays(30), Duration.ofHours(1));
+        underTest = new OptimizationHistoryRecorder(mongoTemplate, poolVersions, properties, meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private double entries(String outcome) {
+        return meterRegistry.get("planner.optimization-history.entries").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("should drop results that do not fit in the buffer and count them as overflow")
+    void shouldDropResults_whenBufferIsFull() {
+        // Given: A recorder whose buffer holds two results, and whose flusher is not running yet
+        List<Boolean> buffered = new ArrayList<>();
+
+        // When: Three results are recorded before the buffer is written
+        for (int i = 0; i < 3; i++) {
+            buffered.add(underTest.record(OptimizationSource.JOB, null, 1, BigDecimal.ONE, RESULT));
+        }
+        underTest.flush().block();
+
+        // Then: The third result was dropped and counted, and the other two were written in one batch
+        assertThat(buffered).containsExactly(true, true, false);
+        assertThat(entries("overflow")).isEqualTo(1);
+        assertThat(entries("written")).isEqualTo(2);
+        assertThat(entries("failed")).isZero();
+        assertThat(mongoTemplate.count(new Query(), OptimizationHistoryEntry.class, COLLECTION).block()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should write results tagged with the pool version to a collection expiring them")
+    void shouldWriteTaggedResults_withTtlIndex() {
+        // Given: A pool holding one project, whose version is known
+        mongoTemplate.insert(ProjectEntity.createNewProject("Project A", BigDecimal.ONE, BigDecimal.TWO)).block();
+        poolVersions.refresh().block();
+        String version = poolVersions.versionOf(null);
+
+        // When: A result over the pool is recorded and written
+        underTest.record(OptimizationSource.ANALYTICS, "all", 1, BigDecimal.ONE, RESULT);
+        underTest.flush().block();
+
+        // Then: The entry references the selected projects and the pool version, and expires after the TTL
+        var stored = mongoTemplate.findAll(OptimizationHistoryEntry.class, COLLECTION).collectList().block();
+        assertThat(stored).singleElement().satisfies(entry -> {
+            assertThat(entry.source()).isEqualTo(OptimizationSource.ANALYTICS);
+            assertThat(entry.pool()).isEqualTo("all");
+            assertThat(entry.poolVersion()).isNotNull().isEqualTo(version);
+            assertThat(entry.selectedProjectIds()).containsExactly("p1");
+            assertThat(entry.finalCapital()).isEqualByComparingTo("3");
+            assertThat(entry.recordedAt()).isEqualTo(NOW);
+        });
+        assertThat(mongoTemplate.indexOps(COLLECTION).getIndexInfo().collectList().block())
+                .flatExtracting(index -> index.getExpireAfter().stream().toList())
+                .containsExactly(Duration.ofDays(30));
+
+        // And: Adding a project to the pool changes its version
+        mongoTemplate.insert(ProjectEntity.createNewProject("Project B", BigDecimal.ONE, BigDecimal.TWO)).block();
+        poolVersions.refresh().block();
+        assertThat(poolVersions.versionOf("all")).isNotEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("should change the TTL of an existing history index instead of failing every flush")
+    void shouldUpdateTtl_whenIndexExistsWithAnotherTtl() {
+        // Given: A history collection whose TTL index expires entries after one day
+        mongoTemplate.indexOps(COLLECTION).ensureIndex(new Index()
+                .on(OptimizationHistoryEntry.RECORDED_AT, Sort.Direction.ASC).expire(Duration.ofDays(1))).block();
+
+        // When: A result is recorded and written by a recorder configured with thirty days
+        underTest.record(OptimizationSource.JOB, null, 1, BigDecimal.ONE, RESULT);
+        underTest.flush().block();
+
+        // Then: The result was written, and the index now expires entries after thirty days
+        assertThat(entries("written")).isEqualTo(1);
+        assertThat(mongoTemplate.indexOps(COLLECTION).getIndexInfo().collectList().block())
+                .flatExtracting(index -> index.getExpireAfter().stream().toList())
+                .containsExactly(Duration.ofDays(30));
+    }
+
+    @Test
+    @DisplayName("should write a batch whose flush was cancelled in the final flush")
+    void shouldWriteDrainedBatch_whenFlushIsCancelled() {
+        // Given: A result being written
+        underTest.record(OptimizationSource.JOB, null, 1, BigDecimal.ONE, RESULT);
+        var inFlight = underTest.flush().subscribe();
+
+        // When: The write is cancelled, as stopping the recorder does, before the final flush
+        inFlight.dispose();
+        underTest.flush().block();
+
+        // Then: The result was written once, and counted as written
+        assertThat(entries("written")).isEqualTo(1);
+        assertThat(entries("failed")).isZero();
+        assertThat(mongoTemplate.count(new Query(), OptimizationHistoryEntry.class, COLLECTION).block()).isEqualTo(1);
+    }
+}
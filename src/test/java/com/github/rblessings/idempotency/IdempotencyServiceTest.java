@@ -0,0 +1,167 @@
+package com.github.rblessings.idempotency;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Testcontainers
+class IdempotencyServiceTest {
+    private static final int REDIS_PORT = 6379;
+    private static final TypeReference<List<String>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    @Container
+    private static final GenericContainer<?> REDIS_CONTAINER = new GenericContainer<>(DockerImageName.parse("redis:7.4.2"))
+            .waitingFor(Wait.forListeningPort())
+            .withExposedPorts(REDIS_PORT);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private IdempotencyService underTest;
+    private String key;
+
+    @BeforeAll
+    static void startConnection() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS_CONTAINER.getHost(), REDIS_CONTAINER.getMappedPort(REDIS_PORT)));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopConnection() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        var redisTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.string());
+        underTest = new IdempotencyService(redisTemplate, new ObjectMapper(),
+                Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofSeconds(2), Duration.ofMillis(20));
+        key = UUID.randomUUID().toString();
+    }
+
+    private Mono<List<String>> operation(Duration delay) {
+        return Mono.fromCallable(() -> List.of("result-" + invocations.incrementAndGet()))
+                .delayElement(delay);
+    }
+
+    @Test
+    @DisplayName("should replay the stored response when the same key is sent again")
+    void shouldReplayStoredResponse_whenKeyReused() {
+        // Given: A completed request
+        var first = underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ZERO)).block();
+
+        // When: The same request is retried with the same key
+        var second = underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ZERO)).block();
+
+        // Then: The operation ran once and both calls see the same response
+        assertThat(first).containsExactly("result-1");
+        assertThat(second).isEqualTo(first);
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should make concurrent duplicates wait for the in-flight result")
+    void shouldShareInFlightResult_whenDuplicatesAreConcurrent() {
+        // Given: Two requests with the same key issued at the same time
+        var first = underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ofMillis(200)));
+        var second = underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ofMillis(200)));
+
+        // When & Then: Both complete with the result of a single run
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(results -> assertThat(results.getT1()).isEqualTo(results.getT2()))
+                .verifyComplete();
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should reject reuse of a key with a different payload")
+    void shouldReject_whenKeyReusedWithDifferentPayload() {
+        // Given: A completed request
+        underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ZERO)).block();
+
+        // When & Then: A different payload with the same key is rejected
+        StepVerifier.create(underTest.execute(key, "test", List.of("b"), RESPONSE_TYPE, () -> operation(Duration.ZERO)))
+                .expectError(IdempotencyConflictException.class)
+                .verify();
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should release the key when the operation fails before writing so that the client can retry")
+    void shouldReleaseKey_whenOperationFailsBeforeWriting() {
+        // Given: A request whose operation rejects it before writing anything
+        StepVerifier.create(underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE,
+                        () -> Mono.error(new IllegalArgumentException("invalid")),
+                        IllegalArgumentException.class::isInstance))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        // When: The client retries with the same key
+        var retried = underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ZERO)).block();
+
+        // Then: The operation runs again
+        assertThat(retried).containsExactly("result-1");
+    }
+
+    @Test
+    @DisplayName("should keep the key failed when the operation fails after it may have written")
+    void shouldRejectRetry_whenOperationFailsAfterStarting() {
+        // Given: A request that fails part-way through its operation
+        StepVerifier.create(underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE,
+                        () -> Mono.error(new IllegalStateException("boom")),
+                        IllegalArgumentException.class::isInstance))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // When & Then: A retry with the same key is rejected without running the operation over its partial writes
+        StepVerifier.create(underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ZERO)))
+                .expectError(IdempotencyConflictException.class)
+                .verify();
+        assertThat(invocations).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("should keep the key failed when the request is cancelled while its operation runs")
+    void shouldRejectRetry_whenRequestCancelled() {
+        // Given: A request cancelled while its operation runs, for instance because it timed out during a bulk write
+        var started = new AtomicBoolean();
+        StepVerifier.create(underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE,
+                        () -> Mono.<List<String>>never().doOnSubscribe(subscription -> started.set(true))))
+                .then(() -> await().atMost(Duration.ofSeconds(5)).untilTrue(started))
+                .thenCancel()
+                .verify();
+
+        // When & Then: A retry with the same key, well within the lock TTL, is rejected without waiting for the TTL
+        // and without running the operation again
+        StepVerifier.create(underTest.execute(key, "test", List.of("a"), RESPONSE_TYPE, () -> operation(Duration.ZERO)))
+                .expectError(IdempotencyConflictException.class)
+                .verify(Duration.ofSeconds(5));
+        assertThat(invocations).hasValue(0);
+    }
+}
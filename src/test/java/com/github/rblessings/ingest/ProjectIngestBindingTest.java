@@ -0,0 +1,140 @@
+package com.github.rblessings.ingest;
+
+import com.github.rblessings.configuration.IngestConfiguration;
+import com.github.rblessings.projects.api.ProjectService;
+import com.github.rblessings.projects.model.ProjectEntity;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the ingest binding as configured by {@link IngestConfiguration}, against an embedded broker.
+ */
+@EmbeddedKafka(partitions = 1, topics = {ProjectIngestBindingTest.INGEST_TOPIC, ProjectIngestBindingTest.DEAD_LETTER_TOPIC},
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@SpringBootTest(classes = ProjectIngestBindingTest.IngestApplication.class, properties = {
+        "spring.cloud.stream.kafka.binder.brokers=${spring.kafka.bootstrap-servers}",
+        "spring.cloud.stream.bindings.ingestProjects-in-0.consumer.concurrency=1",
+        "planner.ingest.retry-initial-interval=100ms"
+})
+class ProjectIngestBindingTest {
+    static final String INGEST_TOPIC = "projects.ingest";
+    static final String DEAD_LETTER_TOPIC = "projects.ingest.dlq";
+    private static final String GROUP = "roi-project-planner";
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {MongoAutoConfiguration.class, MongoReactiveAutoConfiguration.class,
+            MongoDataAutoConfiguration.class, MongoReactiveDataAutoConfiguration.class,
+            RedisAutoConfiguration.class, RedisReactiveAutoConfiguration.class})
+    @Import(IngestConfiguration.class)
+    static class IngestApplication {
+    }
+
+    @MockitoBean
+    private ProjectService projectService;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    // Every name handed to a bulk write, in the order of the writes.
+    private final List<String> written = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(projectService.ingestAll(anyList())).thenAnswer(invocation -> {
+            List<ProjectEntity> projects = invocation.getArgument(0);
+            projects.forEach(project -> written.add(project.name()));
+            return Mono.just(projects.size());
+        });
+    }
+
+    private void send(byte[]... payloads) {
+        var template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                KafkaTestUtils.producerProps(broker), new ByteArraySerializer(), new ByteArraySerializer()));
+        for (byte[] payload : payloads) {
+            template.send(new ProducerRecord<>(INGEST_TOPIC, payload));
+        }
+        template.flush();
+        template.destroy();
+    }
+
+    private static byte[] project(String name) {
+        return """
+                {"name": "%s", "requiredCapital": 100.00, "profit": 20.00}""".formatted(name)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long committedOffset() throws Exception {
+        var offset = KafkaTestUtils.getCurrentOffset(broker.getBrokersAsString(), GROUP, INGEST_TOPIC, 0);
+        return offset == null ? 0 : offset.offset();
+    }
+
+    private long endOffset() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("end-offsets", "false", broker);
+        try (var consumer = new DefaultKafkaConsumerFactory<>(props, new ByteArrayDeserializer(),
+                new ByteArrayDeserializer()).createConsumer()) {
+            var partition = new TopicPartition(INGEST_TOPIC, 0);
+            return consumer.endOffsets(List.of(partition)).get(partition);
+        }
+    }
+
+    @Test
+    @DisplayName("should write valid records in bulk, dead-letter a poison record, and not reprocess committed ones")
+    void shouldDeadLetterPoisonRecord_andWriteEveryValidRecordOnce() throws Exception {
+        // Given: A valid batch, followed by a batch with a record that is not JSON between two valid ones
+        send(project("Project A"), project("Project B"), project("Project C"));
+        await().atMost(Duration.ofSeconds(30)).until(() -> written.size() == 3);
+        send(project("Project D"), "not json".getBytes(StandardCharsets.UTF_8), project("Project E"));
+
+        // When: The binding has consumed and committed every record
+        await().atMost(Duration.ofSeconds(30)).until(() -> committedOffset() == endOffset());
+
+        // Then: Every valid record was written, in bulk, exactly once
+        assertThat(written).containsExactly("Project A", "Project B", "Project C", "Project D", "Project E");
+
+        // And: The poison record reached the dead-letter topic as it was sent
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dead-letters", "false", broker);
+        try (var consumer = new DefaultKafkaConsumerFactory<>(props, new ByteArrayDeserializer(),
+                new ByteArrayDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, DEAD_LETTER_TOPIC);
+            ConsumerRecord<byte[], byte[]> deadLetter = KafkaTestUtils.getSingleRecord(consumer, DEAD_LETTER_TOPIC,
+                    Duration.ofSeconds(30));
+            assertThat(new String(deadLetter.value(), StandardCharsets.UTF_8)).isEqualTo("not json");
+        }
+    }
+}
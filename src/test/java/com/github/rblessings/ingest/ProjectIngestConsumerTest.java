@@ -0,0 +1,139 @@
+package com.github.rblessings.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.rblessings.projects.api.ProjectService;
+import com.github.rblessings.projects.model.ProjectEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectIngestConsumerTest {
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private ProjectService projectService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProjectIngestConsumer underTest;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ProjectIngestProperties("projects.ingest.dlq", 1, Duration.ofSeconds(5),
+                Duration.ofSeconds(1), Duration.ofMinutes(1));
+        underTest = new ProjectIngestConsumer(projectService, new ObjectMapper(), properties, meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static byte[] record(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] project(String name) {
+        return record("""
+                {"name": "%s", "requiredCapital": 100.00, "profit": 20.00}""".formatted(name));
+    }
+
+    private double recordCount(String outcome) {
+        return meterRegistry.get("planner.ingest.records").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("should write a whole poll batch in one bulk insert")
+    @SuppressWarnings("unchecked")
+    void shouldWriteBatchOnce_whenAllRecordsAreValid() {
+        // Given: A batch of three projects, one of which is already stored
+        when(projectService.ingestAll(anyList())).thenReturn(Mono.just(2));
+
+        // When: The batch is consumed
+        underTest.accept(List.of(project("Project A"), project("Project B"), project("Project C")));
+
+        // Then: All three were written together, as new versioned projects with audit timestamps
+        ArgumentCaptor<List<ProjectEntity>> written = ArgumentCaptor.forClass(List.class);
+        verify(projectService).ingestAll(written.capture());
+        assertThat(written.getValue()).extracting(ProjectEntity::name)
+                .containsExactly("Project A", "Project B", "Project C");
+        assertThat(written.getValue()).allSatisfy(project -> {
+            assertThat(project.id()).isNull();
+            assertThat(project.version()).isZero();
+            assertThat(project.auditMetadata().createdAt()).isEqualTo(NOW);
+        });
+        assertThat(recordCount("inserted")).isEqualTo(2);
+        assertThat(recordCount("skipped")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should write the records before a poison record and report its index to the error handler")
+    @SuppressWarnings("unchecked")
+    void shouldReportPoisonRecordIndex_whenRecordIsInvalid() {
+        // Given: A batch whose second record is not JSON and whose third has a negative capital
+        when(projectService.ingestAll(anyList())).thenReturn(Mono.just(1));
+        var batch = List.of(project("Project A"), record("not json"),
+                record("{\"name\": \"Project C\", \"requiredCapital\": -1, \"profit\": 1}"));
+
+        // When & Then: The first record is written, and the batch fails at the second
+        assertThatThrownBy(() -> underTest.accept(batch))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        failure -> assertThat(failure.getIndex()).isEqualTo(1))
+                .hasCauseInstanceOf(InvalidProjectRecordException.class);
+
+        ArgumentCaptor<List<ProjectEntity>> written = ArgumentCaptor.forClass(List.class);
+        verify(projectService, times(1)).ingestAll(written.capture());
+        assertThat(written.getValue()).extracting(ProjectEntity::name).containsExactly("Project A");
+
+        // And: Once redelivered, the rest of the batch fails at the record with the negative capital
+        assertThatThrownBy(() -> underTest.accept(batch.subList(2, 3)))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        failure -> assertThat(failure.getIndex()).isZero());
+        assertThat(recordCount("invalid")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should report a record missing a field as a poison record instead of failing the batch")
+    void shouldReportPoisonRecordIndex_whenRecordMissesField() {
+        // Given: A batch whose first record has no profit
+        var batch = List.of(record("{\"name\": \"Project A\", \"requiredCapital\": 100.00}"), project("Project B"));
+
+        // When & Then: The batch fails at the first record, so that it is dead-lettered rather than retried forever
+        assertThatThrownBy(() -> underTest.accept(batch))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        failure -> assertThat(failure.getIndex()).isZero())
+                .hasCauseInstanceOf(InvalidProjectRecordException.class);
+        verify(projectService, never()).ingestAll(anyList());
+        assertThat(recordCount("invalid")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should fail the whole batch when the write fails, so that it is retried")
+    void shouldPropagateWriteFailure_whenWriteFails() {
+        // Given: Mongo is unavailable
+        when(projectService.ingestAll(anyList())).thenReturn(Mono.error(new IllegalStateException("Mongo is down")));
+
+        // When & Then: The failure is not attributed to any record
+        assertThatThrownBy(() -> underTest.accept(List.of(project("Project A"))))
+                .isInstanceOf(IllegalStateException.class)
+                .isNotInstanceOf(BatchListenerFailedException.class);
+    }
+}
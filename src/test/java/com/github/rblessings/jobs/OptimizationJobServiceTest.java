@@ -0,0 +1,217 @@
+package com.github.rblessings.jobs;
+
+import com.github.rblessings.analytics.CapitalMaximizationQuery;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import com.github.rblessings.history.OptimizationHistoryRecorder;
+import com.github.rblessings.history.OptimizationSource;
+import com.github.rblessings.projects.model.AuditMetadata;
+import com.github.rblessings.projects.model.ProjectDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OptimizationJobServiceTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final ProjectCapitalOptimized RESULT = new ProjectCapitalOptimized(List.of(), BigDecimal.TEN);
+
+    private final ProjectCapitalOptimizer projectCapitalOptimizer = Mockito.mock(ProjectCapitalOptimizer.class);
+    private final OptimizationHistoryRecorder optimizationHistoryRecorder = Mockito.mock(OptimizationHistoryRecorder.class);
+    private final Clock clock = Mockito.mock(Clock.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private OptimizationJobService underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.instant()).thenReturn(NOW);
+        // Queries with an initial capital of zero hold their worker until released; any other query completes.
+        when(projectCapitalOptimizer.computeMaximizedCapital(any(), any())).thenAnswer(invocation -> {
+            CapitalMaximizationQuery query = invocation.getArgument(0);
+            BooleanSupplier cancelled = invocation.getArgument(1);
+            if (query.initialCapital().signum() == 0) {
+                while (!release.await(10, TimeUnit.MILLISECONDS)) {
+                    if (cancelled.getAsBoolean()) {
+                        throw new CancellationException("Capital maximization was cancelled");
+                    }
+                }
+            }
+            return RESULT;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        underTest.close();
+    }
+
+    private void start(int workers, int batchWorkers, int maxQueued, int batchThreshold) {
+        var properties = new OptimizationJobProperties(workers, batchWorkers, maxQueued, maxQueued, batchThreshold,
+                Duration.ofMinutes(15));
+        underTest = new OptimizationJobService(projectCapitalOptimizer, optimizationHistoryRecorder, properties,
+                new SimpleMeterRegistry(), clock);
+        underTest.start();
+    }
+
+    private static CapitalMaximizationQuery blockingQuery() {
+        return new CapitalMaximizationQuery(List.of(), 1, BigDecimal.ZERO);
+    }
+
+    private static CapitalMaximizationQuery query() {
+        return new CapitalMaximizationQuery(List.of(), 1, BigDecimal.ONE);
+    }
+
+    private OptimizationJobView awaitStatus(String id, JobStatus status) {
+        return underTest.updates(id).orElseThrow()
+                .filter(job -> job.status() == status)
+                .blockFirst(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("should run a submitted job and keep its result")
+    void shouldSucceed_whenJobRuns() {
+        // Given: A running job service
+        start(2, 1, 10, 1_000);
+
+        // When: A job is submitted
+        var submitted = underTest.submit(query(), null);
+
+        // Then: It is queued as an interactive job, then succeeds with the optimizer's result
+        assertThat(submitted.status()).isEqualTo(JobStatus.QUEUED);
+        assertThat(submitted.priority()).isEqualTo(JobPriority.INTERACTIVE);
+        StepVerifier.create(underTest.updates(submitted.id()).orElseThrow())
+                .thenConsumeWhile(job -> !job.status().isTerminal())
+                .verifyComplete();
+        assertThat(underTest.find(submitted.id())).hasValueSatisfying(job -> {
+            assertThat(job.status()).isEqualTo(JobStatus.SUCCEEDED);
+            assertThat(job.result()).isEqualTo(RESULT);
+            assertThat(job.finishedAt()).isEqualTo(NOW);
+        });
+        verify(optimizationHistoryRecorder, timeout(TIMEOUT.toMillis()))
+                .record(OptimizationSource.JOB, null, 1, BigDecimal.ONE, RESULT);
+    }
+
+    @Test
+    @DisplayName("should keep batch jobs to their share of the workers while interactive jobs run")
+    void shouldRunInteractiveJobs_whenBatchJobsOccupyTheirWorkers() {
+        // Given: Two workers, of which one may run batch jobs, and a batch job holding that worker
+        start(2, 1, 10, 1_000);
+        var runningBatch = underTest.submit(blockingQuery(), JobPriority.BATCH);
+        awaitStatus(runningBatch.id(), JobStatus.RUNNING);
+
+        // When: Another batch job and an interactive job are submitted
+        var queuedBatch = underTest.submit(query(), JobPriority.BATCH);
+        var interactive = underTest.submit(query(), JobPriority.INTERACTIVE);
+
+        // Then: The interactive job completes on the free worker, while the batch job waits for the batch worker
+        assertThat(awaitStatus(interactive.id(), JobStatus.SUCCEEDED)).isNotNull();
+        assertThat(underTest.find(queuedBatch.id())).map(OptimizationJobView::status).hasValue(JobStatus.QUEUED);
+
+        release.countDown();
+        assertThat(awaitStatus(queuedBatch.id(), JobStatus.SUCCEEDED)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("should schedule queries over the batch threshold as batch jobs")
+    void shouldDowngradeToBatch_whenQueryExceedsBatchThreshold() {
+        // Given: A batch threshold of one project
+        start(2, 1, 10, 1);
+        var project = new ProjectDTO("1", "Project A", BigDecimal.ZERO, BigDecimal.ONE, AuditMetadata.empty(), 0L);
+        var largeQuery = new CapitalMaximizationQuery(List.of(project, project), 1, BigDecimal.ONE);
+
+        // When: A query over two projects is submitted as interactive
+        var submitted = underTest.submit(largeQuery, JobPriority.INTERACTIVE);
+
+        // Then: It is scheduled as a batch job
+        assertThat(submitted.priority()).isEqualTo(JobPriority.BATCH);
+    }
+
+    @Test
+    @DisplayName("should reject jobs once the queue of their priority is full")
+    void shouldReject_whenQueueIsFull() {
+        // Given: A single busy worker and a queue of one job per priority, already holding a batch job
+        start(1, 1, 1, 1_000);
+        var running = underTest.submit(blockingQuery(), JobPriority.INTERACTIVE);
+        awaitStatus(running.id(), JobStatus.RUNNING);
+        underTest.submit(query(), JobPriority.BATCH);
+
+        // When & Then: Another batch job is rejected, while an interactive job is still admitted
+        assertThatThrownBy(() -> underTest.submit(query(), JobPriority.BATCH))
+                .isInstanceOf(JobRejectedException.class)
+                .hasMessageContaining("batch");
+        assertThat(underTest.submit(query(), JobPriority.INTERACTIVE).status()).isEqualTo(JobStatus.QUEUED);
+    }
+
+    @Test
+    @DisplayName("should cancel a queued job right away and free its queue slot")
+    void shouldCancelImmediately_whenJobIsQueued() {
+        // Given: A single busy worker and a queued job
+        start(1, 1, 1, 1_000);
+        var running = underTest.submit(blockingQuery(), JobPriority.INTERACTIVE);
+        awaitStatus(running.id(), JobStatus.RUNNING);
+        var queued = underTest.submit(query(), JobPriority.INTERACTIVE);
+
+        // When: The queued job is cancelled
+        var cancelled = underTest.cancel(queued.id());
+
+        // Then: It is cancelled without ever running, and another job fits in the queue
+        assertThat(cancelled).map(OptimizationJobView::status).hasValue(JobStatus.CANCELLED);
+        assertThat(cancelled).map(OptimizationJobView::startedAt).isEmpty();
+        assertThat(underTest.submit(query(), JobPriority.INTERACTIVE).status()).isEqualTo(JobStatus.QUEUED);
+    }
+
+    @Test
+    @DisplayName("should stop a running job at its next cancellation check")
+    void shouldCancelRunningJob_whenCancellationIsRequested() {
+        // Given: A running job
+        start(1, 1, 10, 1_000);
+        var running = underTest.submit(blockingQuery(), JobPriority.INTERACTIVE);
+        awaitStatus(running.id(), JobStatus.RUNNING);
+
+        // When: It is cancelled
+        var afterRequest = underTest.cancel(running.id());
+
+        // Then: The request is acknowledged while the job runs, and the job then stops as cancelled
+        assertThat(afterRequest).isPresent();
+        assertThat(awaitStatus(running.id(), JobStatus.CANCELLED).result()).isNull();
+    }
+
+    @Test
+    @DisplayName("should forget finished jobs once their result TTL has passed")
+    void shouldExpireJob_whenResultTtlHasPassed() {
+        // Given: A job that has finished
+        start(1, 1, 10, 1_000);
+        var submitted = underTest.submit(query(), null);
+        awaitStatus(submitted.id(), JobStatus.SUCCEEDED);
+
+        // When: The result TTL passes
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(16)));
+
+        // Then: The job is no longer found, and is removed by the next expiry run
+        assertThat(underTest.find(submitted.id())).isEmpty();
+        assertThat(underTest.expire()).isEqualTo(1);
+    }
+}
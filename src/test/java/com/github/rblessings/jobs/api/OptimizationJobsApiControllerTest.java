@@ -0,0 +1,160 @@
+package com.github.rblessings.jobs.api;
+
+import com.github.rblessings.analytics.CapitalMaximizationQuery;
+import com.github.rblessings.analytics.ProjectCapitalOptimized;
+import com.github.rblessings.jobs.JobPriority;
+import com.github.rblessings.jobs.JobRejectedException;
+import com.github.rblessings.jobs.JobStatus;
+import com.github.rblessings.jobs.OptimizationJobService;
+import com.github.rblessings.jobs.OptimizationJobView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(OptimizationJobsApiController.class)
+class OptimizationJobsApiControllerTest {
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @MockitoBean
+    private OptimizationJobService optimizationJobService;
+
+    private final WebTestClient webTestClient;
+
+    @Autowired
+    OptimizationJobsApiControllerTest(WebTestClient webTestClient) {
+        this.webTestClient = webTestClient;
+    }
+
+    private static SubmitOptimizationJobRequest request() {
+        return new SubmitOptimizationJobRequest(new CapitalMaximizationQuery(List.of(), 2, BigDecimal.ONE),
+                JobPriority.BATCH);
+    }
+
+    private static OptimizationJobView queued() {
+        return new OptimizationJobView("job-1", JobPriority.BATCH, JobStatus.QUEUED, NOW, null, null, null, null);
+    }
+
+    private static OptimizationJobView succeeded() {
+        return new OptimizationJobView("job-1", JobPriority.BATCH, JobStatus.SUCCEEDED, NOW, NOW, NOW,
+                new ProjectCapitalOptimized(List.of(), new BigDecimal("4.50")), null);
+    }
+
+    @Test
+    void testSubmit_Accepted() {
+        // Given
+        when(optimizationJobService.submit(any(), eq(JobPriority.BATCH))).thenReturn(queued());
+
+        // When & Then
+        webTestClient.post()
+                .uri("/apis/v1/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request())
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().value(HttpHeaders.LOCATION, location -> assertThat(location).endsWith("/apis/v1/jobs/job-1"))
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo("202")
+                .jsonPath("$.data.id").isEqualTo("job-1")
+                .jsonPath("$.data.status").isEqualTo("QUEUED");
+    }
+
+    @Test
+    void testSubmit_RejectedWhenQueueIsFull() {
+        // Given
+        when(optimizationJobService.submit(any(), any()))
+                .thenThrow(new JobRejectedException("Too many batch optimization jobs are queued; retry later"));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/apis/v1/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request())
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Too many batch optimization jobs are queued; retry later");
+    }
+
+    @Test
+    void testFind_Succeeded() {
+        // Given
+        when(optimizationJobService.find("job-1")).thenReturn(Optional.of(succeeded()));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/jobs/job-1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.status").isEqualTo("SUCCEEDED")
+                .jsonPath("$.data.result.finalCapital").isEqualTo(4.50);
+    }
+
+    @Test
+    void testFind_NotFound() {
+        // Given
+        when(optimizationJobService.find("unknown")).thenReturn(Optional.empty());
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/jobs/unknown")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Job not found: unknown");
+    }
+
+    @Test
+    void testSubscribe_ServerSentEvents() {
+        // Given
+        when(optimizationJobService.updates("job-1")).thenReturn(Optional.of(Flux.just(queued(), succeeded())));
+
+        // When
+        List<ServerSentEvent<OptimizationJobView>> events = webTestClient.get()
+                .uri("/apis/v1/jobs/job-1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<OptimizationJobView>>() {
+                })
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Then: One event per status, named after it, the last one with the result
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("queued", "succeeded");
+        assertThat(events.getLast().data().result().finalCapital()).isEqualByComparingTo("4.50");
+    }
+
+    @Test
+    void testCancel_NotFound() {
+        // Given
+        when(optimizationJobService.cancel("unknown")).thenReturn(Optional.empty());
+
+        // When & Then
+        webTestClient.delete()
+                .uri("/apis/v1/jobs/unknown")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.rblessings.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactorSchedulerMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReactorSchedulerMetrics underTest = new ReactorSchedulerMetrics(meterRegistry);
+    private Scheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("should name schedulers after their thread name prefix")
+    void shouldExtractSchedulerName() {
+        // Given: A scheduler whose threads are named optimizer-N
+        scheduler = Schedulers.newParallel("optimizer", 2);
+
+        // When & Then: Its metrics are tagged with that prefix
+        assertThat(ReactorSchedulerMetrics.schedulerName(scheduler)).isEqualTo("optimizer");
+    }
+
+    @Test
+    @DisplayName("should record queue wait, execution time and queue depth of scheduler tasks")
+    void shouldRecordTaskMetrics_whenTasksRunOnScheduler() throws InterruptedException {
+        // Given: A single-threaded scheduler created after the metrics are bound, with its thread held busy
+        underTest.bind();
+        scheduler = Schedulers.newParallel("metrics-test", 1);
+        var release = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // When: More tasks queue up behind the busy one
+        var queued = Flux.range(0, 5)
+                .flatMap(i -> Mono.fromCallable(() -> i).subscribeOn(scheduler))
+                .collectList()
+                .toFuture();
+
+        // Then: The queue depth is visible, and every task's wait and execution are timed
+        var queuedGauge = meterRegistry.get("reactor.scheduler.tasks.queued").tag("name", "metrics-test").gauge();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (queuedGauge.value() < 5 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(queuedGauge.value()).isEqualTo(5);
+        release.countDown();
+        assertThat(queued.join()).hasSize(5);
+
+        // Every task's wait is recorded before it runs; the last task may still be finishing.
+        assertThat(meterRegistry.get("reactor.scheduler.executor.idle").tag("name", "metrics-test").timer().count())
+                .isGreaterThanOrEqualTo(6);
+        assertThat(meterRegistry.get("reactor.scheduler.executor").tag("name", "metrics-test").timer().count())
+                .isGreaterThanOrEqualTo(5);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.rblessings.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingWebFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestTimingWebFilter underTest = new RequestTimingWebFilter(meterRegistry, true);
+
+    private static MockServerWebExchange exchange() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/apis/v1/projects"));
+        exchange.getAttributes().put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                PathPatternParser.defaultInstance.parse("/apis/v1/projects"));
+        return exchange;
+    }
+
+    @Test
+    @DisplayName("should attribute request time to the layers that spent it")
+    void shouldRecordLayerTimes_whenLayersAreTimed() {
+        // Given: A handler that buffers the body, then queries Mongo and Redis
+        var exchange = exchange();
+        WebFilterChain chain = ex -> RequestTimings.time(RequestTimings.BUFFER, Flux.range(0, 3).collectList())
+                .then(RequestTimings.time(RequestTimings.MONGO, Mono.delay(Duration.ofMillis(30))))
+                .then(RequestTimings.time(RequestTimings.REDIS, Mono.delay(Duration.ofMillis(10))))
+                .then(ex.getResponse().setComplete());
+
+        // When: The request passes through the filter
+        StepVerifier.create(underTest.filter(exchange, chain)).verifyComplete();
+
+        // Then: Each layer is recorded against the endpoint, and returned in the Server-Timing header
+        var mongo = meterRegistry.get(RequestTimingWebFilter.LAYER_TIMER)
+                .tags("uri", "/apis/v1/projects", "method", "POST", "layer", RequestTimings.MONGO)
+                .timer();
+        assertThat(mongo.count()).isEqualTo(1);
+        assertThat(mongo.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(30);
+        assertThat(meterRegistry.get(RequestTimingWebFilter.LAYER_TIMER).timers()).hasSize(3);
+
+        var serverTiming = exchange.getResponse().getHeaders().getFirst(RequestTimingWebFilter.SERVER_TIMING_HEADER);
+        assertThat(serverTiming).contains("buffer;dur=", "mongo;dur=", "redis;dur=", "total;dur=");
+    }
+
+    @Test
+    @DisplayName("should not time layers outside of a request")
+    void shouldPassThrough_whenNoRequestInContext() {
+        // Given & When: A timed publisher subscribed outside the filter
+        var result = RequestTimings.time(RequestTimings.MONGO, Mono.just("value"));
+
+        // Then: It behaves like the source and records nothing
+        StepVerifier.create(result).expectNext("value").verifyComplete();
+        assertThat(meterRegistry.find(RequestTimingWebFilter.LAYER_TIMER).timers()).isEmpty();
+    }
+}
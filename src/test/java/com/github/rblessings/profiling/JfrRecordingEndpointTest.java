@@ -0,0 +1,104 @@
+package com.github.rblessings.profiling;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JfrRecordingEndpointTest {
+    private final JfrRecordingEndpoint underTest = new JfrRecordingEndpoint(
+            new ProfilingProperties(true, Duration.ofMinutes(1), Duration.ofMinutes(5), DataSize.ofMegabytes(64), "default"));
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    @DisplayName("should record optimizer runs and return the recording as a file")
+    void shouldReturnRecordingWithOptimizerEvents_whenStopped() throws IOException {
+        // Given: A running recording
+        var started = underTest.start(Duration.ofHours(1), null);
+        assertThat(started.getStatus()).isEqualTo(200);
+        assertThat(started.getBody().state()).isEqualTo("RUNNING");
+        assertThat(started.getBody().duration()).isEqualTo(Duration.ofMinutes(5));
+
+        // When: The optimizer runs, then the recording is stopped
+        List<ProjectFinancials> projects = IntStream.range(0, 100)
+                .mapToObj(i -> new ProjectFinancials("p" + i, BigDecimal.valueOf(i), BigDecimal.valueOf(i % 7)))
+                .toList();
+        new ProjectCapitalOptimizer().maximizeCapital(projects, 5, BigDecimal.TEN).block();
+        var stopped = underTest.stop();
+
+        // Then: The returned file holds the optimizer event, and the temporary file is removed once read
+        assertThat(stopped.getStatus()).isEqualTo(200);
+        Path file = tempDir.resolve("recording.jfr");
+        try (InputStream in = stopped.getBody().getInputStream()) {
+            Files.copy(in, file);
+        }
+        assertThat(stopped.getBody().getFile()).doesNotExist();
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.github.rblessings.CapitalOptimization"))
+                .toList();
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getString("mode")).isEqualTo(CapitalOptimizationEvent.IN_MEMORY);
+            assertThat(event.getInt("poolSize")).isEqualTo(100);
+            assertThat(event.getInt("maxProjects")).isEqualTo(5);
+            assertThat(event.getInt("selectedProjects")).isEqualTo(5);
+        });
+    }
+
+    @Test
+    @DisplayName("should allow only one recording at a time")
+    void shouldRejectStart_whenRecordingRunning() {
+        // Given: A running recording
+        underTest.start(null, null);
+
+        // When & Then: A second one is rejected while the first keeps running
+        assertThat(underTest.start(null, null).getStatus()).isEqualTo(409);
+        assertThat(underTest.status().getBody().state()).isEqualTo("RUNNING");
+    }
+
+    @Test
+    @DisplayName("should reject unknown JFR settings")
+    void shouldRejectStart_whenSettingsUnknown() throws IOException {
+        // Given & When: A recording requested with settings the JDK does not know
+        // Then: It is rejected and no recording is started
+        assertThat(underTest.start(null, "no-such-settings").getStatus()).isEqualTo(400);
+        assertThat(underTest.stop().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("should not start recordings while profiling is disabled")
+    void shouldNotStartRecording_whenProfilingDisabled() throws IOException {
+        // Given: An endpoint with profiling disabled
+        try (var disabled = new JfrRecordingEndpoint(new ProfilingProperties(false, Duration.ofMinutes(1),
+                Duration.ofMinutes(5), DataSize.ofMegabytes(64), "default"))) {
+
+            // When & Then: Every operation answers as if there were no endpoint
+            assertThat(disabled.start(null, null).getStatus()).isEqualTo(404);
+            assertThat(disabled.status().getStatus()).isEqualTo(404);
+            assertThat(disabled.stop().getStatus()).isEqualTo(404);
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package com.github.rblessings.projects.api;
 
+import com.github.rblessings.cache.HotKeyTracker;
+import com.github.rblessings.cache.ProjectIdCache;
 import com.github.rblessings.projects.model.AuditMetadata;
 import com.github.rblessings.projects.model.ProjectDTO;
 import com.github.rblessings.projects.model.ProjectEntity;
 import com.github.rblessings.projects.model.ProjectRepository;
+import io.lettuce.core.cluster.SlotHash;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -20,11 +22,11 @@ import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-
-import static com.github.rblessings.configuration.CacheConfiguration.PROJECT_ID_CACHE_KEY;
+import java.util.List;
 
 @Testcontainers
 @SpringBootTest
@@ -45,23 +47,25 @@ class ProjectServiceCachingTest {
     @MockitoBean
     private ProjectRepository projectRepository;
 
-    private final CacheManager cacheManager;
     private final ProjectService projectService;
+    private final HotKeyTracker hotKeyTracker;
+    private final ProjectIdCache projectIdCache;
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
 
     private ProjectEntity projectEntity;
 
     @Autowired
-    public ProjectServiceCachingTest(CacheManager cacheManager, ProjectService projectService) {
-        this.cacheManager = cacheManager;
+    public ProjectServiceCachingTest(ProjectService projectService, HotKeyTracker hotKeyTracker,
+                                     ProjectIdCache projectIdCache, ReactiveRedisTemplate<String, String> reactiveRedisTemplate) {
         this.projectService = projectService;
+        this.hotKeyTracker = hotKeyTracker;
+        this.projectIdCache = projectIdCache;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
     }
 
     @BeforeEach
     void setUp() {
-        final Cache usersCache = cacheManager.getCache(PROJECT_ID_CACHE_KEY);
-        if (usersCache != null) {
-            usersCache.clear();
-        }
+        projectIdCache.evict("1").block();
 
         projectEntity = new ProjectEntity("1", "Project 1", new BigDecimal("100.00"),
                 new BigDecimal("300"), AuditMetadata.empty(), 0L);
@@ -86,4 +90,98 @@ class ProjectServiceCachingTest {
         // Verify that the repository was queried only once, confirming the caching mechanism.
         Mockito.verify(projectRepository, Mockito.times(1)).findById(Mockito.anyString());
     }
+
+    @Test
+    void testFindById_shouldRecordCacheHitsForWarmUp() {
+        Mockito.when(projectRepository.findById(Mockito.anyString())).thenReturn(Mono.just(projectEntity));
+
+        // Given: A project ID with a known access count
+        final var projectID = "1";
+        int accessesBefore = hotKeyTracker.estimate(projectID);
+
+        // When: The project is read three times, the last two from the cache
+        for (int i = 0; i < 3; i++) {
+            projectService.findById(projectID).block();
+        }
+
+        // Then: Every lookup, including cache hits, is counted towards the hot ids
+        Assertions.assertThat(hotKeyTracker.estimate(projectID)).isGreaterThanOrEqualTo(accessesBefore + 3);
+        Assertions.assertThat(hotKeyTracker.hottest(1)).containsExactly(projectID);
+    }
+
+    @Test
+    void testAddAll_shouldWriteSavedProjectsThroughToCache() {
+        List<ProjectEntity> projects = List.of(projectEntity);
+        Mockito.when(projectRepository.saveAll(projects)).thenReturn(Flux.just(projectEntity));
+
+        // Given: A freshly saved project
+        projectService.addAll(projects).blockLast();
+
+        // When: It is read for the first time
+        ProjectDTO result = projectService.findById(projectEntity.id()).block();
+
+        // Then: It is served from the cache, without querying the repository
+        Assertions.assertThat(result).isEqualTo(ProjectDTO.fromEntity(projectEntity));
+        Mockito.verify(projectRepository, Mockito.never()).findById(Mockito.anyString());
+    }
+
+    @Test
+    void testCachePut_shouldNotReplaceNewerVersion() {
+        var updated = new ProjectDTO("1", "Project 1 (updated)", new BigDecimal("100.00"),
+                new BigDecimal("400"), AuditMetadata.empty(), 1L);
+        var stale = ProjectDTO.fromEntity(projectEntity);
+
+        // Given: The updated project (version 1) has been written through to the cache
+        projectIdCache.putAll(List.of(updated)).block();
+
+        // When: A read that loaded version 0 before the update caches its result
+        projectIdCache.put("1", stale).block();
+
+        // Then: The cache still serves the updated project
+        Assertions.assertThat(projectService.findById("1").block()).isEqualTo(updated);
+        Mockito.verify(projectRepository, Mockito.never()).findById(Mockito.anyString());
+    }
+
+    @Test
+    void testFindUncached_shouldReturnUncachedIdsInInputOrder() {
+        // Given: Of three projects, only the second is cached
+        projectIdCache.evict("2").block();
+        projectIdCache.evict("3").block();
+        projectIdCache.put("2", new ProjectDTO("2", "Project 2", BigDecimal.ONE, BigDecimal.TWO,
+                AuditMetadata.empty(), 0L)).block();
+
+        // When: The uncached ids are looked up in one batch
+        List<String> uncached = projectIdCache.findUncached(List.of("3", "2", "1")).collectList().block();
+
+        // Then: The others are returned, in the order they were given
+        Assertions.assertThat(uncached).containsExactly("3", "1");
+    }
+
+    @Test
+    void testCachePut_shouldKeepEntryAndVersionInOneClusterSlot() {
+        // Given: A cached project
+        projectIdCache.putAll(List.of(ProjectDTO.fromEntity(projectEntity))).block();
+
+        // When: Its keys are listed
+        List<String> keys = reactiveRedisTemplate.keys("project-id::{1}*").collectList().block();
+
+        // Then: The entry and its version are hash-tagged with the id, so that Redis Cluster maps them to one slot
+        Assertions.assertThat(keys).containsExactlyInAnyOrder("project-id::{1}", "project-id::{1}#version");
+        Assertions.assertThat(SlotHash.getSlot("project-id::{1}#version")).isEqualTo(SlotHash.getSlot("project-id::{1}"));
+    }
+
+    @Test
+    void testFindById_shouldReloadUnreadableEntry() {
+        Mockito.when(projectRepository.findById(Mockito.anyString())).thenReturn(Mono.just(projectEntity));
+
+        // Given: An entry written in a format the cache cannot read, such as one left by an older release
+        reactiveRedisTemplate.opsForValue().set("project-id::{1}", "not json").block();
+
+        // When: The project is read
+        ProjectDTO result = projectService.findById("1").block();
+
+        // Then: The entry is treated as a miss and the project is loaded from the repository
+        Assertions.assertThat(result).isEqualTo(ProjectDTO.fromEntity(projectEntity));
+        Mockito.verify(projectRepository, Mockito.times(1)).findById("1");
+    }
 }
@@ -1,9 +1,15 @@
 package com.github.rblessings.projects.api;
 
+import com.github.rblessings.cache.ProjectIdCache;
 import com.github.rblessings.projects.model.AuditMetadata;
 import com.github.rblessings.projects.model.ProjectDTO;
 import com.github.rblessings.projects.model.ProjectEntity;
 import com.github.rblessings.projects.model.ProjectRepository;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import com.github.rblessings.projects.model.ProjectName;
+import com.github.rblessings.projects.names.ProjectNameFilter;
+import com.github.rblessings.projects.ranking.ProjectProfitIndex;
+import com.github.rblessings.projects.search.ProjectNameSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,10 +22,13 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,6 +38,18 @@ class ProjectServiceTest {
     @Mock
     private ProjectRepository projectRepository;
 
+    @Mock
+    private ProjectIdCache projectIdCache;
+
+    @Mock
+    private ProjectNameFilter projectNameFilter;
+
+    @Mock
+    private ProjectProfitIndex projectProfitIndex;
+
+    @Mock
+    private ProjectNameSearchIndex projectNameSearchIndex;
+
     @InjectMocks
     private ProjectService projectService;
 
@@ -42,12 +63,19 @@ class ProjectServiceTest {
         projectEntity2 = new ProjectEntity("2", "Project 2", BigDecimal.ONE, BigDecimal.TWO, AuditMetadata.empty(), 0L);
     }
 
+    @SuppressWarnings("unchecked")
+    private void stubCacheMiss(String projectId) {
+        when(projectIdCache.getOrLoad(Mockito.eq(projectId), Mockito.any()))
+                .thenAnswer(invocation -> ((Supplier<Mono<ProjectDTO>>) invocation.getArgument(1)).get());
+    }
+
     @Test
     void testAddAll_Success() {
         // Given
         Iterable<ProjectEntity> projects = List.of(projectEntity1, projectEntity2);
 
         when(projectRepository.saveAll(projects)).thenReturn(Flux.just(projectEntity1, projectEntity2));
+        when(projectIdCache.putAll(Mockito.anyList())).thenReturn(Mono.just(2L));
 
         // When
         Flux<ProjectDTO> result = projectService.addAll(projects);
@@ -59,6 +87,89 @@ class ProjectServiceTest {
                 .verifyComplete();
 
         verify(projectRepository).saveAll(projects); // Ensure the repository method was called
+        // Ensure the saved projects were written through to the cache in one batch
+        verify(projectIdCache).putAll(List.of(ProjectDTO.fromEntity(projectEntity1), ProjectDTO.fromEntity(projectEntity2)));
+    }
+
+    @Test
+    void testAddAll_RejectsNamesRepeatedInRequest() {
+        // Given
+        var repeated = new ProjectEntity(null, "Project 1", BigDecimal.TEN, BigDecimal.TEN, AuditMetadata.empty(), null);
+        Iterable<ProjectEntity> projects = List.of(projectEntity1, projectEntity2, repeated);
+
+        // When
+        Flux<ProjectDTO> result = projectService.addAll(projects);
+
+        // Then: The batch is rejected without looking up or writing anything
+        StepVerifier.create(result)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOfSatisfying(DuplicateProjectNameException.class,
+                                duplicate -> assertThat(duplicate.getNames()).containsExactly("Project 1")))
+                .verify();
+        verify(projectRepository, never()).findExistingNames(Mockito.any());
+        verify(projectRepository, never()).saveAll(Mockito.<Iterable<ProjectEntity>>any());
+    }
+
+    @Test
+    void testAddAll_LooksUpOnlyNamesTheFilterMayContain() {
+        // Given: The filter has seen "Project 2" only, and the index confirms it is taken
+        Iterable<ProjectEntity> projects = List.of(projectEntity1, projectEntity2);
+        when(projectNameFilter.isReady()).thenReturn(true);
+        when(projectNameFilter.mightContain("Project 1")).thenReturn(false);
+        when(projectNameFilter.mightContain("Project 2")).thenReturn(true);
+        when(projectRepository.findExistingNames(List.of("Project 2"))).thenReturn(Flux.just("Project 2"));
+
+        // When
+        Flux<ProjectDTO> result = projectService.addAll(projects);
+
+        // Then: The taken name is rejected before anything is written
+        StepVerifier.create(result)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(DuplicateProjectNameException.class)
+                        .hasMessage("Project names already exist: Project 2"))
+                .verify();
+        verify(projectRepository, never()).saveAll(Mockito.<Iterable<ProjectEntity>>any());
+    }
+
+    @Test
+    void testAddAll_AddsSavedNamesToFilter() {
+        // Given: Names the filter has never seen
+        Iterable<ProjectEntity> projects = List.of(projectEntity1, projectEntity2);
+        when(projectNameFilter.isReady()).thenReturn(true);
+        when(projectRepository.saveAll(projects)).thenReturn(Flux.just(projectEntity1, projectEntity2));
+        when(projectIdCache.putAll(Mockito.anyList())).thenReturn(Mono.just(2L));
+
+        // When
+        StepVerifier.create(projectService.addAll(projects))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        // Then: No name was looked up, and the saved projects are added to the name filter and the indexes
+        verify(projectRepository, never()).findExistingNames(Mockito.any());
+        verify(projectNameFilter).putAll(List.of("Project 1", "Project 2"));
+        verify(projectProfitIndex).addAll(List.of(
+                new ProjectFinancials("1", BigDecimal.ZERO, BigDecimal.ONE),
+                new ProjectFinancials("2", BigDecimal.ONE, BigDecimal.TWO)));
+        verify(projectNameSearchIndex).addAll(List.of(new ProjectName("1", "Project 1"), new ProjectName("2", "Project 2")));
+    }
+
+    @Test
+    void testIngestAll_SkipsTakenNamesWithoutScreening() {
+        // Given: The repository skips one of the two names as already taken
+        var projects = List.of(projectEntity1, projectEntity2);
+        when(projectRepository.insertAllSkippingExistingNames(projects)).thenReturn(Mono.just(List.of(projectEntity2)));
+
+        // When
+        StepVerifier.create(projectService.ingestAll(projects))
+                .expectNext(1)
+                .verifyComplete();
+
+        // Then: The batch is not screened or cached, and only the inserted project is indexed
+        verify(projectRepository, never()).findExistingNames(Mockito.any());
+        verify(projectIdCache, never()).putAll(Mockito.anyList());
+        verify(projectNameFilter).putAll(List.of("Project 2"));
+        verify(projectProfitIndex).addAll(List.of(new ProjectFinancials("2", BigDecimal.ONE, BigDecimal.TWO)));
+        verify(projectNameSearchIndex).addAll(List.of(new ProjectName("2", "Project 2")));
     }
 
     @Test
@@ -96,6 +207,7 @@ class ProjectServiceTest {
         // Given
         String projectId = "1";
 
+        stubCacheMiss(projectId);
         when(projectRepository.findById(projectId)).thenReturn(Mono.just(projectEntity1));
 
         // When
@@ -114,6 +226,7 @@ class ProjectServiceTest {
         // Given
         String projectId = "2";
 
+        stubCacheMiss(projectId);
         when(projectRepository.findById(projectId)).thenReturn(Mono.empty());
 
         // When
@@ -121,10 +234,52 @@ class ProjectServiceTest {
 
         // Then
         StepVerifier.create(result)
-                .expectErrorMatches(throwable -> throwable instanceof NoSuchElementException
+                .expectErrorMatches(throwable -> throwable instanceof ProjectNotFoundException
                         && throwable.getMessage().contains("Project not found for ID: 2"))
                 .verify();
 
         Mockito.verify(projectRepository).findById(projectId);
     }
+
+    @Test
+    void testFindChangesSince_ReturnsPageAndCursor() {
+        // Given: Three settled changes after the cursor, one more than the requested page
+        var updatedAt = Instant.parse("2025-01-01T00:00:00Z");
+        var cursor = new ChangeCursor(updatedAt, "0");
+        var changes = List.of("1", "2", "3").stream()
+                .map(id -> new ProjectEntity(id, "Project " + id, BigDecimal.ONE, BigDecimal.TWO,
+                        new AuditMetadata(updatedAt, updatedAt), 1L))
+                .toList();
+        when(projectRepository.findChangedAfter(Mockito.eq(updatedAt), Mockito.eq("0"), Mockito.any(), Mockito.eq(3)))
+                .thenReturn(Flux.fromIterable(changes));
+
+        // When
+        Mono<ProjectChanges> result = projectService.findChangesSince(cursor, 2);
+
+        // Then: The page holds the first two changes, and resumes after the second
+        StepVerifier.create(result)
+                .assertNext(page -> {
+                    assertThat(page.projects()).extracting(ProjectDTO::id).containsExactly("1", "2");
+                    assertThat(page.hasMore()).isTrue();
+                    assertThat(ChangeCursor.decode(page.cursor())).isEqualTo(new ChangeCursor(updatedAt, "2"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindChangesSince_KeepsCursor_WhenNothingChanged() {
+        // Given
+        var cursor = new ChangeCursor(Instant.parse("2025-01-01T00:00:00Z"), "1");
+        when(projectRepository.findChangedAfter(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenReturn(Flux.empty());
+
+        // When & Then: The client keeps its position
+        StepVerifier.create(projectService.findChangesSince(cursor, 100))
+                .assertNext(page -> {
+                    assertThat(page.projects()).isEmpty();
+                    assertThat(page.hasMore()).isFalse();
+                    assertThat(page.cursor()).isEqualTo(cursor.encode());
+                })
+                .verifyComplete();
+    }
 }
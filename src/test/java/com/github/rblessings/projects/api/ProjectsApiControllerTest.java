@@ -1,18 +1,32 @@
 package com.github.rblessings.projects.api;
 
+import com.github.rblessings.idempotency.IdempotencyService;
 import com.github.rblessings.projects.model.AuditMetadata;
 import com.github.rblessings.projects.model.ProjectDTO;
+import com.github.rblessings.projects.model.ProjectFinancials;
+import com.github.rblessings.projects.model.ProjectName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(ProjectsApiController.class)
@@ -21,6 +35,9 @@ class ProjectsApiControllerTest {
     @MockitoBean
     private ProjectService projectService;
 
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private ProjectsApiController projectsApiController;
 
@@ -63,4 +80,220 @@ class ProjectsApiControllerTest {
                 .jsonPath("$.data.[1].requiredCapital").isEqualTo(150.00)
                 .jsonPath("$.data.[1].profit").isEqualTo(800.00);
     }
+
+    @Test
+    void testCreateNewProjects_ReplaysStoredResponse_WhenIdempotencyKeyProvided() {
+        // Given
+        var request = new CreateProjectsRequest("Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"));
+        var storedProject = new ProjectDTO("1", "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+
+        // The idempotency service already holds the response for this key
+        when(idempotencyService.<List<ProjectDTO>>execute(eq("key-1"), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.just(List.of(storedProject)));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/apis/v1/projects")
+                .header(ProjectsApiController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .body(Flux.just(request), Flux.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.data[0].id").isEqualTo("1")
+                .jsonPath("$.data[0].name").isEqualTo("Project 1");
+
+        verify(projectService, never()).addAll(anyList());
+    }
+
+    @Test
+    void testCreateNewProjects_Conflict_WhenNamesAlreadyExist() {
+        // Given
+        var request = new CreateProjectsRequest("Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"));
+
+        when(projectService.addAll(anyList())).thenReturn(Flux.error(
+                new DuplicateProjectNameException("Project names already exist", List.of("Project 1"))));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/apis/v1/projects")
+                .body(Flux.just(request), Flux.class)
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Project names already exist: Project 1");
+    }
+
+    @Test
+    void testStreamProjects_Ndjson() {
+        // Given
+        var projectDTO1 = new ProjectDTO("1", "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+        var projectDTO2 = new ProjectDTO("2", "Project 2", new BigDecimal("150.00"), new BigDecimal("800.00"), AuditMetadata.empty(), 0L);
+
+        when(projectService.findAll()).thenReturn(Flux.just(projectDTO1, projectDTO2));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProjectDTO.class)
+                .getResponseBody()
+                .map(ProjectDTO::id)
+                .as(StepVerifier::create)
+                .expectNext("1", "2")
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindTopByProfit_Success() {
+        // Given
+        var best = new ProjectFinancials("2", new BigDecimal("150.00"), new BigDecimal("800.00"));
+        var next = new ProjectFinancials("1", new BigDecimal("100.00"), new BigDecimal("500.00"));
+
+        when(projectService.findTopByProfit(new BigDecimal("150.00"), 2)).thenReturn(Flux.just(best, next));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/top-profit?maxCapital=150.00&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data[0].id").isEqualTo("2")
+                .jsonPath("$.data[1].id").isEqualTo("1");
+    }
+
+    @Test
+    void testFindTopByProfit_BadRequest_WhenLimitOutOfRange() {
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/top-profit?maxCapital=150.00&limit=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("limit must be between 1 and 1000");
+
+        verify(projectService, never()).findTopByProfit(any(), anyInt());
+    }
+
+    @Test
+    void testSearchByName_Success() {
+        // Given
+        var prefixMatch = new ProjectName("1", "Solar Farm");
+        var infixMatch = new ProjectName("2", "Rooftop Solar");
+
+        when(projectService.searchByName("solar", 2)).thenReturn(Flux.just(prefixMatch, infixMatch));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/search?q=solar&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data[0].name").isEqualTo("Solar Farm")
+                .jsonPath("$.data[1].name").isEqualTo("Rooftop Solar");
+    }
+
+    @Test
+    void testSearchByName_BadRequest_WhenQueryIsBlank() {
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/search?q=%20")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("q must be between 1 and 200 characters and not blank");
+
+        verify(projectService, never()).searchByName(any(), anyInt());
+    }
+
+    @Test
+    void testFindById_Success_WithETag() {
+        // Given
+        var updatedAt = Instant.parse("2025-01-01T00:00:00Z");
+        var project = new ProjectDTO("1", "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"),
+                new AuditMetadata(updatedAt, updatedAt), 3L);
+
+        when(projectService.findById("1")).thenReturn(Mono.just(project));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectHeader().lastModified(updatedAt.toEpochMilli())
+                .expectBody()
+                .jsonPath("$.data.name").isEqualTo("Project 1")
+                .jsonPath("$.data.version").isEqualTo(3);
+    }
+
+    @Test
+    void testFindById_NotModified_WhenETagMatches() {
+        // Given
+        var project = new ProjectDTO("1", "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"),
+                AuditMetadata.empty(), 3L);
+
+        when(projectService.findById("1")).thenReturn(Mono.just(project));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/1")
+                .ifNoneMatch("\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void testFindById_NotFound() {
+        // Given
+        when(projectService.findById("2"))
+                .thenReturn(Mono.error(new ProjectNotFoundException("2")));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/2")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Project not found for ID: 2");
+    }
+
+    @Test
+    void testFindChanges_Success() {
+        // Given
+        var updatedAt = Instant.parse("2025-01-01T00:00:00Z");
+        var cursor = new ChangeCursor(updatedAt, "1");
+        var changed = new ProjectDTO("2", "Project 2", new BigDecimal("150.00"), new BigDecimal("800.00"),
+                new AuditMetadata(updatedAt, updatedAt), 1L);
+        var next = new ChangeCursor(updatedAt, "2").encode();
+
+        when(projectService.findChangesSince(cursor, 100))
+                .thenReturn(Mono.just(new ProjectChanges(List.of(changed), next, false)));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/changes?cursor={cursor}&limit=100", cursor.encode())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.projects[0].id").isEqualTo("2")
+                .jsonPath("$.data.cursor").isEqualTo(next)
+                .jsonPath("$.data.hasMore").isEqualTo(false);
+    }
+
+    @Test
+    void testFindChanges_BadRequest_WhenCursorIsInvalid() {
+        // When & Then
+        webTestClient.get()
+                .uri("/apis/v1/projects/changes?cursor=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("cursor is not a valid change feed cursor");
+
+        verify(projectService, never()).findChangesSince(any(), anyInt());
+    }
 }
@@ -0,0 +1,125 @@
+package com.github.rblessings.projects.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeriodicallyRebuiltIndexTest {
+
+    /**
+     * Snapshots are immutable lists, each build of which completes when the test says so.
+     */
+    private static class ListIndex extends PeriodicallyRebuiltIndex<List<String>, String> {
+        private final List<Sinks.One<List<String>>> builds = new ArrayList<>();
+
+        ListIndex() {
+            super("test index");
+        }
+
+        @Override
+        protected Mono<List<String>> build() {
+            Sinks.One<List<String>> build = Sinks.one();
+            builds.add(build);
+            return build.asMono();
+        }
+
+        @Override
+        protected List<String> add(List<String> snapshot, Collection<String> elements) {
+            List<String> next = new ArrayList<>(snapshot);
+            elements.stream().filter(element -> !next.contains(element)).forEach(next::add);
+            return List.copyOf(next);
+        }
+
+        void completeBuild(List<String> stored) {
+            builds.getLast().tryEmitValue(stored);
+        }
+
+        void failBuild() {
+            builds.getLast().tryEmitError(new IllegalStateException("Database is down"));
+        }
+    }
+
+    private ListIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ListIndex();
+    }
+
+    @Test
+    @DisplayName("should ignore additions before the first build starts, since the build reads them")
+    void shouldIgnoreAdditions_whenNoBuildHasStarted() {
+        // Given: An element added to an index that has never been built
+        underTest.addAll(List.of("a"));
+
+        // When: The index is built from the stored elements
+        underTest.rebuild().subscribe();
+        underTest.completeBuild(List.of("a", "b"));
+
+        // Then: The index holds the stored elements only once
+        assertThat(underTest.isReady()).isTrue();
+        assertThat(underTest.snapshot()).containsExactly("a", "b");
+    }
+
+    @Test
+    @DisplayName("should add elements during a rebuild to the current snapshot and to the rebuilt one")
+    void shouldReplayAdditions_whenAddedDuringRebuild() {
+        // Given: A built index being rebuilt
+        underTest.rebuild().subscribe();
+        underTest.completeBuild(List.of("a"));
+        underTest.rebuild().subscribe();
+
+        // When: Elements are added before the rebuild completes, one of them also read by the rebuild
+        underTest.addAll(List.of("b", "c"));
+
+        // Then: They are visible at once
+        assertThat(underTest.snapshot()).containsExactly("a", "b", "c");
+
+        // And: The rebuilt snapshot holds them too, once
+        underTest.completeBuild(List.of("a", "b"));
+        assertThat(underTest.snapshot()).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    @DisplayName("should not start a rebuild while one is in progress")
+    void shouldSkipRebuild_whenRebuildIsInProgress() {
+        // Given: A rebuild in progress
+        underTest.rebuild().subscribe();
+
+        // When: Another rebuild is requested
+        underTest.rebuild().subscribe();
+
+        // Then: Only one build was started
+        assertThat(underTest.builds).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should keep the current snapshot when a rebuild fails, and stop replaying additions")
+    void shouldKeepSnapshot_whenRebuildFails() {
+        // Given: A built index
+        underTest.rebuild().subscribe();
+        underTest.completeBuild(List.of("a"));
+
+        // When: Its rebuild fails after an element was added
+        underTest.rebuild().subscribe();
+        underTest.addAll(List.of("b"));
+        underTest.failBuild();
+
+        // Then: The snapshot is kept, with the added element
+        assertThat(underTest.snapshot()).containsExactly("a", "b");
+
+        // And: The next rebuild starts, and replaces the snapshot with what it reads only
+        underTest.rebuild().subscribe();
+        underTest.completeBuild(List.of("c"));
+        assertThat(underTest.builds).hasSize(3);
+        assertThat(underTest.snapshot()).containsExactly("c");
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.rblessings.projects.model;
+
+import com.github.rblessings.configuration.MongoConfiguration;
+import com.github.rblessings.configuration.TestcontainersConfiguration;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+@DataMongoTest
+@Import({MongoConfiguration.class, TestcontainersConfiguration.class})
+class ProjectDataMigrationTest {
+    private final ProjectRepository projectRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    ProjectDataMigrationTest(ProjectRepository projectRepository, ReactiveMongoTemplate mongoTemplate) {
+        this.projectRepository = projectRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    private ProjectDataMigration migration(String collectionName, boolean enabled) {
+        return new ProjectDataMigration(mongoTemplate, List.of(collectionName), new ProjectMigrationProperties(enabled));
+    }
+
+    private static Document decimals(String id, String requiredCapital, String profit) {
+        return new Document("_id", id).append("requiredCapital", new Decimal128(new BigDecimal(requiredCapital)))
+                .append("profit", new Decimal128(new BigDecimal(profit)));
+    }
+
+    @Test
+    @DisplayName("should rewrite string amounts as Decimal128 and increment the version, skipping unconvertible ones")
+    void shouldRewriteStringAmounts_andSkipUnconvertibleOnes() {
+        // Given: A pool collection mixing amounts stored as Decimal128 and as strings, one of which is not a number
+        String collectionName = "projects-" + UUID.randomUUID();
+        var collection = mongoTemplate.getCollection(collectionName).block();
+        Mono.from(collection.insertMany(List.of(
+                        new Document("_id", "a").append("requiredCapital", "10.50").append("profit", "3").append("version", 2L),
+                        decimals("b", "9", "1.25"),
+                        new Document("_id", "c").append("requiredCapital", "0").append("profit", new Decimal128(BigDecimal.TEN)),
+                        new Document("_id", "d").append("requiredCapital", "n/a").append("profit", "1"))))
+                .block();
+
+        // When: The migration runs
+        migration(collectionName, true).migrate().block();
+
+        // Then: The convertible string amounts were rewritten in place, and their versions incremented
+        StepVerifier.create(Flux.from(collection.find(new Document("_id", new Document("$in", List.of("a", "c"))))))
+                .thenConsumeWhile(document -> {
+                    assertThat(List.of(document.get("requiredCapital"), document.get("profit")))
+                            .allMatch(Decimal128.class::isInstance);
+                    assertThat(document.get("version", Number.class).longValue())
+                            .isEqualTo(document.getString("_id").equals("a") ? 3L : 1L);
+                    return true;
+                })
+                .verifyComplete();
+
+        // And: The financials are read in numeric order of required capital, without the unconvertible project
+        StepVerifier.create(projectRepository.findAllFinancials(collectionName).map(ProjectFinancials::id))
+                .expectNext("c", "b", "a")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should give projects stored without a modification time one, so that the change feed returns them")
+    void shouldBackfillModificationTime_andIncrementVersion() {
+        // Given: A project stored before auditing was enabled, without audit metadata
+        projectRepository.deleteAll().block();
+        var collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(ProjectEntity.class)).block();
+        Mono.from(collection.insertOne(decimals("legacy", "1", "2").append("name", "Legacy project").append("version", 4L)))
+                .block();
+        Instant until = Instant.now().plusSeconds(60);
+
+        // And: Reading the change feed neither returns nor modifies it
+        StepVerifier.create(projectRepository.findChangedAfter(null, null, until, 10))
+                .verifyComplete();
+        StepVerifier.create(Flux.from(collection.find()).map(document -> document.containsKey("auditMetadata")))
+                .expectNext(false)
+                .verifyComplete();
+
+        // When: The migration runs
+        migration(mongoTemplate.getCollectionName(ProjectEntity.class), true).migrate().block();
+
+        // Then: The change feed returns the project, with a modification time to resume after and a new version
+        StepVerifier.create(projectRepository.findChangedAfter(null, null, until, 10))
+                .assertNext(project -> {
+                    assertThat(project.id()).isEqualTo("legacy");
+                    assertThat(project.auditMetadata().updatedAt()).isNotNull();
+                    assertThat(project.version()).isEqualTo(5L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should leave the projects as they are when the migration is disabled")
+    void shouldNotMigrate_whenDisabled() {
+        // Given: A project with string amounts
+        String collectionName = "projects-" + UUID.randomUUID();
+        var collection = mongoTemplate.getCollection(collectionName).block();
+        Mono.from(collection.insertOne(new Document("_id", "a").append("requiredCapital", "1").append("profit", "2")))
+                .block();
+
+        // When: The application starts with the migration disabled
+        migration(collectionName, false).run(new DefaultApplicationArguments());
+
+        // Then: The project is unchanged
+        StepVerifier.create(Flux.from(collection.find()).map(document -> document.get("requiredCapital")))
+                .expectNext("1")
+                .verifyComplete();
+    }
+}
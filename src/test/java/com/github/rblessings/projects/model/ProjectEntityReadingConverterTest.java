@@ -0,0 +1,67 @@
+package com.github.rblessings.projects.model;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectEntityReadingConverterTest {
+    private final ProjectEntityReadingConverter underTest = new ProjectEntityReadingConverter();
+
+    @Test
+    @DisplayName("should decode a document with Decimal128 amounts and audit timestamps")
+    void shouldDecodeDocument_whenAmountsAreDecimal128() {
+        // Given: A document as written by the current mapping
+        var id = new ObjectId();
+        var createdAt = Instant.parse("2025-01-01T10:15:30Z");
+        var updatedAt = Instant.parse("2025-02-01T10:15:30Z");
+        var document = new Document("_id", id)
+                .append("name", "Project A")
+                .append("requiredCapital", new Decimal128(new BigDecimal("100.50")))
+                .append("profit", new Decimal128(new BigDecimal("20")))
+                .append("auditMetadata", new Document("createdAt", Date.from(createdAt))
+                        .append("updatedAt", Date.from(updatedAt)))
+                .append("version", 3L)
+                .append("_class", ProjectEntity.class.getName());
+
+        // When
+        ProjectEntity entity = underTest.convert(document);
+
+        // Then
+        assertThat(entity.id()).isEqualTo(id.toHexString());
+        assertThat(entity.name()).isEqualTo("Project A");
+        assertThat(entity.requiredCapital()).isEqualTo(new BigDecimal("100.50"));
+        assertThat(entity.profit()).isEqualTo(new BigDecimal("20"));
+        assertThat(entity.auditMetadata()).isEqualTo(new AuditMetadata(createdAt, updatedAt));
+        assertThat(entity.version()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("should decode amounts stored as decimal strings before the Decimal128 migration")
+    void shouldDecodeDocument_whenAmountsAreLegacyStrings() {
+        // Given: A document written with string amounts and an integer version
+        var document = new Document("_id", "custom-id")
+                .append("name", "Project B")
+                .append("requiredCapital", "0.01")
+                .append("profit", "1500")
+                .append("auditMetadata", new Document())
+                .append("version", 0);
+
+        // When
+        ProjectEntity entity = underTest.convert(document);
+
+        // Then
+        assertThat(entity.id()).isEqualTo("custom-id");
+        assertThat(entity.requiredCapital()).isEqualTo(new BigDecimal("0.01"));
+        assertThat(entity.profit()).isEqualTo(new BigDecimal("1500"));
+        assertThat(entity.auditMetadata()).isEqualTo(AuditMetadata.empty());
+        assertThat(entity.version()).isZero();
+    }
+}
@@ -2,16 +2,24 @@ package com.github.rblessings.projects.model;
 
 import com.github.rblessings.configuration.MongoConfiguration;
 import com.github.rblessings.configuration.TestcontainersConfiguration;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
@@ -19,10 +27,18 @@ import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 @Import({MongoConfiguration.class, TestcontainersConfiguration.class})
 class ProjectRepositoryTest {
     private final ProjectRepository projectRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
 
     @Autowired
-    ProjectRepositoryTest(ProjectRepository projectRepository) {
+    ProjectRepositoryTest(ProjectRepository projectRepository, ReactiveMongoTemplate mongoTemplate) {
         this.projectRepository = projectRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Project names are unique, so start every test from an empty collection
+        projectRepository.deleteAll().block();
     }
 
     @Test
@@ -72,4 +88,161 @@ class ProjectRepositoryTest {
                 })
                 .verifyComplete();
     }
+
+    @Test
+    @DisplayName("should read the financial projection of all projects ordered by required capital")
+    void shouldReadFinancialsOrderedByRequiredCapital() {
+        // Given: Projects saved out of capital order, with amounts that sort differently as text
+        projectRepository.saveAll(List.of(
+                        ProjectEntity.createNewProject("Project A", new BigDecimal("10.50"), new BigDecimal("3")),
+                        ProjectEntity.createNewProject("Project B", new BigDecimal("9"), new BigDecimal("1.25")),
+                        ProjectEntity.createNewProject("Project C", BigDecimal.ZERO, new BigDecimal("7"))))
+                .blockLast();
+
+        // When: The financial projection is read
+        Flux<ProjectFinancials> financials = projectRepository.findAllFinancials();
+
+        // Then: Amounts are decoded exactly and ordered numerically by required capital
+        StepVerifier.create(financials)
+                .assertNext(project -> {
+                    assertThat(project.id()).isNotBlank();
+                    assertThat(project.requiredCapital()).isEqualByComparingTo(BigDecimal.ZERO);
+                    assertThat(project.profit()).isEqualByComparingTo("7");
+                })
+                .assertNext(project -> assertThat(project.requiredCapital()).isEqualByComparingTo("9"))
+                .assertNext(project -> {
+                    assertThat(project.requiredCapital()).isEqualTo(new BigDecimal("10.50"));
+                    assertThat(project.profit()).isEqualByComparingTo("3");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should read the financial projection of the projects within a capital limit")
+    void shouldReadFinancialsUpToCapitalLimit() {
+        // Given: Projects on both sides of the limit, including one exactly at it
+        projectRepository.saveAll(List.of(
+                        ProjectEntity.createNewProject("Project A", new BigDecimal("10.50"), new BigDecimal("3")),
+                        ProjectEntity.createNewProject("Project B", new BigDecimal("9"), new BigDecimal("1.25")),
+                        ProjectEntity.createNewProject("Project C", new BigDecimal("10"), new BigDecimal("7"))))
+                .blockLast();
+
+        // When & Then: Only the projects requiring at most the limit are read
+        StepVerifier.create(projectRepository.findFinancialsUpTo(BigDecimal.TEN).map(ProjectFinancials::profit).collectList())
+                .assertNext(profits -> assertThat(profits).usingElementComparator(BigDecimal::compareTo)
+                        .containsExactlyInAnyOrder(new BigDecimal("1.25"), new BigDecimal("7")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should skip projects with string amounts when reading financials, without rewriting them")
+    void shouldSkipStringAmounts_whenReadingFinancials() {
+        // Given: A pool collection mixing amounts stored as Decimal128 and as strings, as written before the migration
+        String collectionName = "projects-" + UUID.randomUUID();
+        var collection = mongoTemplate.getCollection(collectionName).block();
+        Mono.from(collection.insertMany(List.of(
+                        new Document("_id", "a").append("requiredCapital", "10.50").append("profit", "3"),
+                        new Document("_id", "b").append("requiredCapital", new Decimal128(new BigDecimal("9")))
+                                .append("profit", new Decimal128(new BigDecimal("1.25"))),
+                        new Document("_id", "c").append("requiredCapital", new Decimal128(BigDecimal.ZERO))
+                                .append("profit", "7"))))
+                .block();
+
+        // When & Then: Only the project with numeric amounts is read, instead of returning the others out of order
+        StepVerifier.create(projectRepository.findAllFinancials(collectionName))
+                .assertNext(project -> assertThat(project.id()).isEqualTo("b"))
+                .verifyComplete();
+
+        // And: The string amounts are left for the migration to rewrite
+        StepVerifier.create(Flux.from(collection.find(new Document("_id", "a"))).map(document -> document.get("requiredCapital")))
+                .expectNext("10.50")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should read project names from the name index and find which names are taken")
+    void shouldReadNames_andFindExistingNames() {
+        // Given: Two stored projects
+        projectRepository.saveAll(List.of(
+                        ProjectEntity.createNewProject("Project B", BigDecimal.ONE, BigDecimal.TWO),
+                        ProjectEntity.createNewProject("Project A", BigDecimal.ONE, BigDecimal.TWO)))
+                .blockLast();
+
+        // When & Then: All names are read in index order, and only stored names are reported as taken
+        StepVerifier.create(projectRepository.findAllNames())
+                .expectNext("Project A", "Project B")
+                .verifyComplete();
+        StepVerifier.create(projectRepository.findExistingNames(List.of("Project A", "Project C")))
+                .expectNext("Project A")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should bulk insert new projects and skip names that are already taken")
+    void shouldInsertNewProjects_andSkipExistingNames() {
+        // Given: A stored project, and a batch repeating its name and one of its own names
+        projectRepository.save(ProjectEntity.createNewProject("Project A", BigDecimal.ONE, BigDecimal.TWO)).block();
+        var batch = List.of(
+                ProjectEntity.createNewProject("Project A", BigDecimal.TEN, BigDecimal.TEN),
+                ProjectEntity.createNewProject("Project B", BigDecimal.ONE, BigDecimal.TWO),
+                ProjectEntity.createNewProject("Project B", BigDecimal.TEN, BigDecimal.TEN),
+                ProjectEntity.createNewProject("Project C", BigDecimal.ONE, BigDecimal.TWO));
+
+        // When & Then: Only the new names are inserted, once each, with their IDs, and the stored project is left unchanged
+        StepVerifier.create(projectRepository.insertAllSkippingExistingNames(batch))
+                .assertNext(inserted -> {
+                    assertThat(inserted).extracting(ProjectEntity::name).containsExactly("Project B", "Project C");
+                    assertThat(inserted).extracting(ProjectEntity::id).doesNotContainNull();
+                })
+                .verifyComplete();
+        StepVerifier.create(projectRepository.findAllNames())
+                .expectNext("Project A", "Project B", "Project C")
+                .verifyComplete();
+        StepVerifier.create(projectRepository.findAll().filter(project -> project.name().equals("Project A")))
+                .expectNextMatches(project -> project.requiredCapital().compareTo(BigDecimal.ONE) == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should page through changes in modification order and resume after the last one returned")
+    void shouldPageThroughChanges_andResumeAfterCursor() throws InterruptedException {
+        // Given: Three stored projects
+        var saved = projectRepository.saveAll(List.of(
+                        ProjectEntity.createNewProject("Project A", BigDecimal.ONE, BigDecimal.TWO),
+                        ProjectEntity.createNewProject("Project B", BigDecimal.ONE, BigDecimal.TWO),
+                        ProjectEntity.createNewProject("Project C", BigDecimal.ONE, BigDecimal.TWO)))
+                .collectList()
+                .block();
+        var until = Instant.now().plusSeconds(60);
+
+        // When: The changes are read two at a time
+        var firstPage = projectRepository.findChangedAfter(null, null, until, 2).collectList().block();
+        var last = firstPage.getLast();
+        var secondPage = projectRepository.findChangedAfter(last.auditMetadata().updatedAt(), last.id(), until, 2)
+                .collectList()
+                .block();
+
+        // Then: Every project is returned exactly once
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(1);
+        assertThat(firstPage).extracting(ProjectEntity::name).doesNotContain(secondPage.getFirst().name());
+
+        // And: After one project is modified, resuming returns only that project, in its new version. The change
+        // feed only returns settled changes, so wait for the clock to move past the cursor as it would.
+        Thread.sleep(10);
+        var modified = saved.getFirst();
+        projectRepository.save(new ProjectEntity(modified.id(), modified.name(), BigDecimal.TEN, modified.profit(),
+                modified.auditMetadata(), modified.version())).block();
+        var resumed = secondPage.getLast();
+        StepVerifier.create(projectRepository.findChangedAfter(resumed.auditMetadata().updatedAt(), resumed.id(), until, 10))
+                .assertNext(project -> {
+                    assertThat(project.name()).isEqualTo(modified.name());
+                    assertThat(project.requiredCapital()).isEqualByComparingTo(BigDecimal.TEN);
+                })
+                .verifyComplete();
+
+        // And: Changes after the upper bound are held back
+        StepVerifier.create(projectRepository.findChangedAfter(null, null, Instant.EPOCH, 10))
+                .verifyComplete();
+    }
 }
@@ -0,0 +1,72 @@
+package com.github.rblessings.projects.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidatorsTest {
+    private final AtomicInteger messageRequests = new AtomicInteger();
+    private final Supplier<String> errorMessage = () -> {
+        messageRequests.incrementAndGet();
+        return "invalid";
+    };
+
+    @Test
+    @DisplayName("should not build the error message when validation succeeds")
+    void shouldNotRequestMessage_whenValid() {
+        // When: Every validator is given a valid value
+        Validators.requireNonNullOrBlank("Project A", errorMessage);
+        Validators.requireNonNullAndNonNegative(BigDecimal.ONE, errorMessage);
+        Validators.requireNonNullAndNoNullElements(List.of("a", "b"), errorMessage);
+        Validators.requireNonNegative(0, errorMessage);
+        Validators.requireNonNull("value", errorMessage);
+
+        // Then: The message supplier is never invoked
+        assertThat(messageRequests).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("should report null values with a NullPointerException carrying the message")
+    void shouldThrowNullPointerException_whenValueIsNull() {
+        assertThatThrownBy(() -> Validators.requireNonNullOrBlank(null, errorMessage))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("invalid");
+        assertThatThrownBy(() -> Validators.requireNonNullAndNonNegative(null, errorMessage))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("invalid");
+    }
+
+    @Test
+    @DisplayName("should reject blank strings and negative amounts")
+    void shouldThrowIllegalArgumentException_whenValueIsInvalid() {
+        assertThatThrownBy(() -> Validators.requireNonNullOrBlank("  ", errorMessage))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("invalid");
+        assertThatThrownBy(() -> Validators.requireNonNullAndNonNegative(new BigDecimal("-0.01"), errorMessage))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("invalid");
+    }
+
+    @Test
+    @DisplayName("should detect null elements in random-access and sequential collections")
+    void shouldThrow_whenCollectionContainsNull() {
+        assertThatThrownBy(() -> Validators.requireNonNullAndNoNullElements(Arrays.asList("a", null), errorMessage))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Validators.requireNonNullAndNoNullElements(new LinkedList<>(Arrays.asList(null, "b")), errorMessage))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Validators.requireNonNullAndNoNullElements(List.of(), errorMessage))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatNoException()
+                .isThrownBy(() -> Validators.requireNonNullAndNoNullElements(new LinkedList<>(List.of("a")), errorMessage));
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.rblessings.projects.names;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("should report every added key and reject most others at the configured rate")
+    void shouldHaveNoFalseNegatives_andBoundedFalsePositives() {
+        // Given: A filter sized for 10,000 keys at 1%, holding 10,000 keys
+        var filter = BloomFilter.forExpectedKeys(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("project-" + i);
+        }
+
+        // When: Every added key and 100,000 other keys are checked
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then: All added keys are reported, and the false-positive rate stays near 1%
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("project-" + i)).isTrue();
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveProbability()).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("should merge a serialized filter of the same geometry")
+    void shouldContainKeysOfMergedFilter() {
+        // Given: Two filters of the same geometry holding different keys
+        var local = BloomFilter.forExpectedKeys(1_000, 0.01);
+        var remote = BloomFilter.forExpectedKeys(1_000, 0.01);
+        local.put("Project A");
+        remote.put("Project B");
+
+        // When: The remote filter is merged through its serialized form
+        local.merge(remote.toByteArray());
+
+        // Then: The local filter holds the keys of both
+        assertThat(local.mightContain("Project A")).isTrue();
+        assertThat(local.mightContain("Project B")).isTrue();
+        assertThat(local.toByteArray()).hasSize(remote.toByteArray().length);
+    }
+
+    @Test
+    @DisplayName("should reject a serialized filter larger than itself")
+    void shouldRejectMerge_whenGeometryDiffers() {
+        var small = BloomFilter.forExpectedKeys(1_000, 0.01);
+        var large = BloomFilter.forExpectedKeys(100_000, 0.01);
+
+        assertThatThrownBy(() -> small.merge(large.toByteArray()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
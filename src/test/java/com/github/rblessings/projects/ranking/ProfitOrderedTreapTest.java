@@ -0,0 +1,78 @@
+package com.github.rblessings.projects.ranking;
+
+import com.github.rblessings.projects.model.ProjectFinancials;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfitOrderedTreapTest {
+
+    private static ProjectFinancials project(String id, long requiredCapital, long profit) {
+        return new ProjectFinancials(id, BigDecimal.valueOf(requiredCapital), BigDecimal.valueOf(profit));
+    }
+
+    @Test
+    @DisplayName("should return the same top projects as sorting every affordable project by profit")
+    void shouldMatchFullSort_forRandomPoolsAndQueries() {
+        // Given: Random pools with repeated capitals and profits, half built at once and half inserted one by one
+        var random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<ProjectFinancials> pool = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                pool.add(project(round + "-" + i, random.nextInt(500), random.nextInt(100)));
+            }
+            var treap = ProfitOrderedTreap.of(pool.subList(0, 500));
+            for (ProjectFinancials project : pool.subList(500, 1_000)) {
+                treap = treap.with(project);
+            }
+            assertThat(treap.size()).isEqualTo(1_000);
+
+            for (int query = 0; query < 20; query++) {
+                // When: The top projects under a random capital are queried
+                var maxCapital = BigDecimal.valueOf(random.nextInt(520));
+                int limit = 1 + random.nextInt(50);
+                var top = treap.topByProfit(maxCapital, limit);
+
+                // Then: They are exactly the first ones of the full sort
+                var expected = pool.stream()
+                        .filter(project -> project.requiredCapital().compareTo(maxCapital) <= 0)
+                        .sorted(ProfitOrderedTreap.PROFIT_ORDER)
+                        .limit(limit)
+                        .toList();
+                assertThat(top).containsExactlyElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should leave earlier versions unchanged when a project is inserted")
+    void shouldKeepSnapshots_whenProjectIsInserted() {
+        // Given: A treap of two projects
+        var before = ProfitOrderedTreap.of(List.of(project("a", 100, 10), project("b", 200, 50)));
+
+        // When: A more profitable affordable project is inserted, and an existing one again
+        var after = before.with(project("c", 50, 90));
+
+        // Then: Only the new version holds it, and inserting an existing project is a no-op
+        assertThat(after.topByProfit(BigDecimal.valueOf(150), 2)).extracting(ProjectFinancials::id)
+                .containsExactly("c", "a");
+        assertThat(before.topByProfit(BigDecimal.valueOf(150), 2)).extracting(ProjectFinancials::id)
+                .containsExactly("a");
+        assertThat(after.with(project("a", 100, 10))).isSameAs(after);
+    }
+
+    @Test
+    @DisplayName("should return nothing when no project is affordable")
+    void shouldReturnEmpty_whenNothingIsAffordable() {
+        var treap = ProfitOrderedTreap.of(List.of(project("a", 100, 10)));
+
+        assertThat(treap.topByProfit(BigDecimal.valueOf(99), 10)).isEmpty();
+        assertThat(ProfitOrderedTreap.empty().topByProfit(BigDecimal.TEN, 10)).isEmpty();
+    }
+}
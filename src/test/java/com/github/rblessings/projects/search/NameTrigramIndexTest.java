@@ -0,0 +1,97 @@
+package com.github.rblessings.projects.search;
+
+import com.github.rblessings.projects.model.ProjectName;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameTrigramIndexTest {
+    // A small alphabet, with case and a non-ASCII letter, so that names share many prefixes and trigrams.
+    private static final String ALPHABET = "abcAB cé";
+
+    private static String randomText(Random random, int maxLength) {
+        var text = new StringBuilder();
+        int length = 1 + random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    @Test
+    @DisplayName("should return the same matches as filtering and ranking every name")
+    void shouldMatchFullScan_forRandomNamesAndQueries() {
+        // Given: Random names, half indexed at once and half merged in afterwards
+        var random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            List<ProjectName> projects = new ArrayList<>();
+            Set<String> names = new HashSet<>();
+            for (int i = 0; i < 2_000; i++) {
+                String name = randomText(random, 8);
+                if (names.add(name)) {
+                    projects.add(new ProjectName(round + "-" + i, name));
+                }
+            }
+            int half = projects.size() / 2;
+            var index = NameTrigramIndex.of(projects.subList(0, half)).with(projects.subList(half, projects.size()));
+            assertThat(index.size()).isEqualTo(projects.size());
+
+            for (int query = 0; query < 100; query++) {
+                // When: A random query is searched
+                String text = randomText(random, 4);
+                int limit = 1 + random.nextInt(30);
+                var matches = index.search(text, limit);
+
+                // Then: The matches are exactly the first ones of the ranked full scan
+                String folded = NameTrigramIndex.fold(text);
+                var expected = projects.stream()
+                        .filter(project -> NameTrigramIndex.matches(folded, NameTrigramIndex.fold(project.name())))
+                        .sorted(NameTrigramIndex.relevanceTo(folded))
+                        .limit(limit)
+                        .toList();
+                assertThat(matches).containsExactlyElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should rank names starting with the query before names containing it, case-insensitively")
+    void shouldRankPrefixMatchesFirst() {
+        // Given: Names starting with, containing, and not containing "solar", in mixed case
+        var index = NameTrigramIndex.of(List.of(
+                new ProjectName("1", "Rooftop Solar"),
+                new ProjectName("2", "solar farm"),
+                new ProjectName("3", "Wind Farm"),
+                new ProjectName("4", "SOLAR Array"),
+                new ProjectName("5", "Community solar")));
+
+        // When & Then: Prefix matches come first, each group in alphabetical order
+        assertThat(index.search("Solar", 10)).extracting(ProjectName::id).containsExactly("4", "2", "5", "1");
+        assertThat(index.search("Solar", 3)).extracting(ProjectName::id).containsExactly("4", "2", "5");
+
+        // And: Short queries only match the start of names
+        assertThat(index.search("fa", 10)).isEmpty();
+        assertThat(index.search("wi", 10)).extracting(ProjectName::id).containsExactly("3");
+    }
+
+    @Test
+    @DisplayName("should skip projects already indexed when merging")
+    void shouldSkipDuplicateIds_whenMerging() {
+        // Given: An index holding one project
+        var index = NameTrigramIndex.of(List.of(new ProjectName("1", "Solar Farm")));
+
+        // When: The same project and a new one are merged in
+        var merged = index.with(List.of(new ProjectName("1", "Solar Farm"), new ProjectName("2", "Solar Array")));
+
+        // Then: The project is held once, and the earlier index is unchanged
+        assertThat(merged.search("solar", 10)).extracting(ProjectName::id).containsExactly("2", "1");
+        assertThat(index.search("solar", 10)).extracting(ProjectName::id).containsExactly("1");
+    }
+}
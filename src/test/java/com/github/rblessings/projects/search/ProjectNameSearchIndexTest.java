@@ -0,0 +1,142 @@
+package com.github.rblessings.projects.search;
+
+import com.github.rblessings.projects.model.ProjectName;
+import com.github.rblessings.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectNameSearchIndexTest {
+    private static final ProjectName ALPHA = new ProjectName("1", "Project Alpha");
+    private static final ProjectName BETA = new ProjectName("2", "Project Beta");
+    private static final ProjectName GAMMA = new ProjectName("3", "Project Gamma");
+    private static final ProjectName DELTA = new ProjectName("4", "Project Delta");
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProjectNameSearchIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        // Pending projects are merged once three of them are waiting, and they number half the indexed ones.
+        underTest = new ProjectNameSearchIndex(projectRepository,
+                new ProjectNameSearchProperties(true, Duration.ofHours(6), 3, 0.5), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.stop();
+    }
+
+    private void startWith(ProjectName... stored) {
+        when(projectRepository.findAllIdsAndNames()).thenReturn(Flux.just(stored));
+        underTest.start();
+        await().atMost(Duration.ofSeconds(10)).until(underTest::isReady);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private List<ProjectName> search(String query, int limit) {
+        return underTest.search(query, limit).collectList().block();
+    }
+
+    @Test
+    @DisplayName("should scan the stored names for the best matches until the index is built")
+    void shouldScanStoredNames_whenIndexIsNotBuilt() {
+        // Given: Stored projects, and an index that has not been built
+        when(projectRepository.findAllIdsAndNames()).thenReturn(Flux.just(GAMMA, BETA, ALPHA, new ProjectName("5", "Other")));
+
+        // When & Then: A search returns the best matches of the scan, ranked
+        assertThat(underTest.isReady()).isFalse();
+        assertThat(search("project", 2)).containsExactly(ALPHA, BETA);
+    }
+
+    @Test
+    @DisplayName("should search pending projects with the index, keeping only the best matches")
+    void shouldSearchPendingProjects_whenBelowMergeThreshold() {
+        // Given: An index of two projects
+        startWith(BETA, DELTA);
+
+        // When: Two projects are saved, one of which is also indexed
+        underTest.addAll(List.of(ALPHA, BETA));
+
+        // Then: They stay pending, and searches rank them with the indexed ones, once each
+        assertThat(gauge("planner.name-search.pending")).isEqualTo(2);
+        assertThat(search("proj", 2)).containsExactly(ALPHA, BETA);
+        assertThat(search("proj", 10)).containsExactly(ALPHA, BETA, DELTA);
+        assertThat(search("delta", 10)).containsExactly(DELTA);
+    }
+
+    @Test
+    @DisplayName("should merge the pending projects into a new index once enough are waiting")
+    void shouldMergePendingProjects_whenMergeThresholdIsReached() {
+        // Given: An index of one project
+        startWith(DELTA);
+
+        // When: Three projects are saved
+        underTest.addAll(List.of(ALPHA));
+        underTest.addAll(List.of(BETA, GAMMA));
+
+        // Then: They are merged into the index, and are still found
+        await().atMost(Duration.ofSeconds(10)).until(() -> gauge("planner.name-search.pending") == 0);
+        assertThat(gauge("planner.name-search.size")).isEqualTo(4);
+        assertThat(search("proj", 10)).containsExactly(ALPHA, BETA, DELTA, GAMMA);
+    }
+
+    @Test
+    @DisplayName("should keep pending projects in their own index while they are few compared to the indexed ones")
+    void shouldKeepPendingProjects_whenBelowMergeFraction() {
+        // Given: An index of eight projects
+        startWith(IntStream.rangeClosed(1, 8)
+                .mapToObj(i -> new ProjectName("other-" + i, "Other " + i))
+                .toArray(ProjectName[]::new));
+
+        // When: Three projects are saved, fewer than half the indexed ones
+        underTest.addAll(List.of(ALPHA, BETA, GAMMA));
+
+        // Then: They stay pending without rebuilding the index, and are found with the indexed ones
+        assertThat(gauge("planner.name-search.pending")).isEqualTo(3);
+        assertThat(gauge("planner.name-search.size")).isEqualTo(8);
+        assertThat(search("proj", 10)).containsExactly(ALPHA, BETA, GAMMA);
+        assertThat(search("ther 1", 10)).extracting(ProjectName::id).containsExactly("other-1");
+    }
+
+    @Test
+    @DisplayName("should keep projects saved while the index is being built")
+    void shouldKeepProjects_whenSavedDuringBuild() {
+        // Given: An index being built from a read that has not completed
+        Sinks.Many<ProjectName> stored = Sinks.many().unicast().onBackpressureBuffer();
+        when(projectRepository.findAllIdsAndNames()).thenReturn(stored.asFlux());
+        underTest.start();
+
+        // When: A project is saved, and the read then completes without it
+        underTest.addAll(List.of(BETA));
+        stored.tryEmitNext(ALPHA);
+        stored.tryEmitComplete();
+
+        // Then: The built index finds both, the saved one pending
+        await().atMost(Duration.ofSeconds(10)).until(underTest::isReady);
+        assertThat(gauge("planner.name-search.pending")).isEqualTo(1);
+        assertThat(search("proj", 10)).containsExactly(ALPHA, BETA);
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.rblessings.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private AdaptiveConcurrencyLimiter newLimiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter("test", initialLimit, 1, 100, 1.0, 1.5, 600, clock::get);
+    }
+
+    private List<AdaptiveConcurrencyLimiter.Permit> acquireAll(AdaptiveConcurrencyLimiter limiter) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        while (permits.size() < limiter.getLimit()) {
+            limiter.tryAcquire().ifPresent(permits::add);
+        }
+        return permits;
+    }
+
+    private void completeAfter(List<AdaptiveConcurrencyLimiter.Permit> permits, Duration latency) {
+        clock.addAndGet(latency.toNanos());
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+    }
+
+    @Test
+    @DisplayName("should reject requests once the in-flight count reaches the limit")
+    void shouldReject_whenLimitReached() {
+        // Given: A limiter with a limit of two
+        var limiter = newLimiter(2);
+        var first = limiter.tryAcquire();
+        var second = limiter.tryAcquire();
+
+        // When: A third request arrives while both permits are held
+        var third = limiter.tryAcquire();
+
+        // Then: It is rejected until a permit is released
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(third).isEmpty();
+
+        first.get().onIgnore();
+        assertThat(limiter.tryAcquire()).isPresent();
+    }
+
+    @Test
+    @DisplayName("should grow the limit while latency is stable and shrink it when latency increases")
+    void shouldAdaptLimit_whenLatencyChanges() {
+        // Given: A fully utilized limiter observing a stable latency
+        var limiter = newLimiter(10);
+        for (int round = 0; round < 5; round++) {
+            completeAfter(acquireAll(limiter), Duration.ofMillis(10));
+        }
+        int limitAfterStableLatency = limiter.getLimit();
+
+        // When: Latency increases tenfold because requests start queueing
+        completeAfter(acquireAll(limiter), Duration.ofMillis(100));
+
+        // Then: The limit grows to its maximum first and then shrinks well below it
+        assertThat(limitAfterStableLatency).isEqualTo(100);
+        assertThat(limiter.getLimit()).isLessThan(limitAfterStableLatency / 2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should apply a multiplicative decrease when requests are dropped")
+    void shouldDecreaseLimit_whenRequestDropped() {
+        // Given: A limiter with a limit of 50
+        var limiter = newLimiter(50);
+
+        // When: A request fails
+        limiter.tryAcquire().orElseThrow().onDropped();
+
+        // Then: The limit is backed off
+        assertThat(limiter.getLimit()).isEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("should release a permit only once")
+    void shouldIgnoreRepeatedRelease() {
+        // Given: Two acquired permits
+        var limiter = newLimiter(5);
+        var permit = limiter.tryAcquire().orElseThrow();
+        limiter.tryAcquire().orElseThrow();
+
+        // When: The same permit is completed twice
+        permit.onIgnore();
+        permit.onSuccess();
+
+        // Then: Only one slot is returned
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reject inconsistent limit bounds")
+    void shouldThrow_whenBoundsInvalid() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter("test", 5, 10, 20, 0.2, 1.5, 100, clock::get))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
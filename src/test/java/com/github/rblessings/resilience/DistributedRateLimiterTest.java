@@ -0,0 +1,156 @@
+package com.github.rblessings.resilience;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Testcontainers
+class DistributedRateLimiterTest {
+    private static final int REDIS_PORT = 6379;
+
+    // A refill rate low enough that no token is added while a test runs.
+    private static final double NO_REFILL = 0.001;
+
+    @Container
+    private static final GenericContainer<?> REDIS_CONTAINER = new GenericContainer<>(DockerImageName.parse("redis:7.4.2"))
+            .waitingFor(Wait.forListeningPort())
+            .withExposedPorts(REDIS_PORT);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final AtomicLong clock = new AtomicLong();
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+    private String name;
+
+    @BeforeAll
+    static void startConnection() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS_CONTAINER.getHost(), REDIS_CONTAINER.getMappedPort(REDIS_PORT)));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopConnection() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.string());
+        name = UUID.randomUUID().toString();
+    }
+
+    private DistributedRateLimiter newLimiter(long burst, long batchSize) {
+        return new DistributedRateLimiter(name, NO_REFILL, burst, batchSize, Duration.ofSeconds(1), redisTemplate, clock::get);
+    }
+
+    private String remainingTokens() {
+        return redisTemplate.<String, String>opsForHash()
+                .get(DistributedRateLimiter.KEY_PREFIX + name, "tokens")
+                .block();
+    }
+
+    @Test
+    @DisplayName("should admit requests from a leased batch and lease the next one ahead of time")
+    void shouldAdmitLocally_andLeaseAhead() {
+        // Given: A limiter leasing ten permits at a time from a bucket of a hundred
+        var limiter = newLimiter(100, 10);
+
+        // When: Eleven requests are admitted, one more than a batch
+        long admitted = Flux.range(0, 11)
+                .concatMap(i -> limiter.acquire())
+                .filter(Boolean::booleanValue)
+                .count()
+                .block();
+
+        // Then: Two batches were leased, the second one before the first ran out, and the rest is held locally
+        assertThat(admitted).isEqualTo(11);
+        assertThat(Double.parseDouble(remainingTokens())).isBetween(80.0, 81.0);
+        assertThat(limiter.getLocalPermits()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("should enforce one limit across all instances sharing the bucket")
+    void shouldRejectRequests_whenSharedBucketIsEmpty() {
+        // Given: Two instances sharing a bucket of twenty tokens
+        var first = newLimiter(20, 5);
+        var second = newLimiter(20, 5);
+
+        // When: Both instances admit as many requests as they can
+        long admitted = Flux.range(0, 60)
+                .concatMap(i -> (i % 2 == 0 ? first : second).acquire())
+                .filter(Boolean::booleanValue)
+                .count()
+                .block();
+
+        // Then: Together they admitted exactly the twenty tokens of the bucket
+        assertThat(admitted).isEqualTo(20);
+        assertThat(Double.parseDouble(remainingTokens())).isLessThan(1);
+    }
+
+    @Test
+    @DisplayName("should drop leased permits that are not used before the lease expires")
+    void shouldDropPermits_whenLeaseExpires() {
+        // Given: A limiter holding most of a leased batch
+        var limiter = newLimiter(20, 10);
+        StepVerifier.create(limiter.acquire()).expectNext(true).verifyComplete();
+        assertThat(limiter.getLocalPermits()).isPositive();
+
+        // When: The lease expires before the next request
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        boolean admittedFromExpiredLease = limiter.tryAcquire();
+
+        // Then: The remaining permits are dropped rather than spent in a burst, and a new batch is leased
+        assertThat(admittedFromExpiredLease).isFalse();
+        StepVerifier.create(limiter.acquire()).expectNext(true).verifyComplete();
+        assertThat(Double.parseDouble(remainingTokens())).isLessThan(1);
+    }
+
+    @Test
+    @DisplayName("should grant one batch locally per lease when Redis is unavailable")
+    @SuppressWarnings("unchecked")
+    void shouldFailOpen_whenRedisUnavailable() {
+        // Given: A limiter whose Redis calls fail
+        ReactiveRedisTemplate<String, String> failingTemplate = mock(ReactiveRedisTemplate.class);
+        when(failingTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new IllegalStateException("Redis is down")));
+        var limiter = new DistributedRateLimiter(name, NO_REFILL, 20, 5, Duration.ofSeconds(1), failingTemplate, clock::get);
+
+        // When: More requests than a batch arrive within one lease
+        long admitted = Flux.range(0, 10)
+                .concatMap(i -> limiter.acquire())
+                .filter(Boolean::booleanValue)
+                .count()
+                .block();
+
+        // Then: One batch is admitted, and the next once the lease has expired
+        assertThat(admitted).isEqualTo(5);
+        assertThat(limiter.getLeaseErrors()).isEqualTo(1);
+        clock.addAndGet(Duration.ofSeconds(1).plusNanos(1).toNanos());
+        StepVerifier.create(limiter.acquire()).expectNext(true).verifyComplete();
+    }
+}
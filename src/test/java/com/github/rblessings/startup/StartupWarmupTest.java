@@ -0,0 +1,42 @@
+package com.github.rblessings.startup;
+
+import com.github.rblessings.analytics.ProjectCapitalOptimizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerCodecConfigurer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupWarmupTest {
+    private final ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+
+    @Test
+    @DisplayName("should run every warm-up round when the time budget allows it")
+    void shouldCompleteAllRounds_whenWithinTimeBudget() {
+        // Given: A short warm-up with a generous time budget
+        var underTest = new StartupWarmup(new ProjectCapitalOptimizer(), codecConfigurer,
+                new WarmupProperties(true, 100, 3, Duration.ofMinutes(1)));
+
+        // When: The warm-up runs
+        int rounds = underTest.warmUp();
+
+        // Then: All rounds complete
+        assertThat(rounds).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should stop warming up once the time budget is exhausted")
+    void shouldStopEarly_whenTimeBudgetIsExhausted() {
+        // Given: A warm-up without any time budget
+        var underTest = new StartupWarmup(new ProjectCapitalOptimizer(), codecConfigurer,
+                new WarmupProperties(true, 100, 1_000, Duration.ZERO));
+
+        // When: The warm-up runs
+        int rounds = underTest.warmUp();
+
+        // Then: No round is started, so readiness is not delayed
+        assertThat(rounds).isZero();
+    }
+}